@@ -101,6 +101,474 @@ public class CoreSystemsTest {
         assertTrue(flashlight.getLightType().getLightRadius() > match.getLightType().getLightRadius());
     }
     
+    @Test
+    @DisplayName("Light index answers like a scan of every light and follows lights as they change")
+    void testLightIndex() {
+        lightManager.setFlickeringEnabled(false);
+        lightManager.setPowerFailuresEnabled(false);
+        lightManager.setLightFailureChance(0.0f);
+        java.util.Random random = new java.util.Random(21);
+        LightSource.LightType[] types = LightSource.LightType.values();
+        java.util.List<LightSource> lights = new java.util.ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            float[] position = {random.nextFloat() * 200 - 100, random.nextFloat() * 2, random.nextFloat() * 200 - 100};
+            LightSource light = new LightSource(types[random.nextInt(types.length)], position, 0.0f);
+            if (random.nextFloat() < 0.6f) {
+                light.light();
+            }
+            lights.add(light);
+            lightManager.addLightSource(light);
+        }
+        lightManager.update(0.01f);
+        java.util.List<LightSource> reused = new java.util.ArrayList<>();
+        
+        for (int round = 0; round < 3; round++) {
+            lightManager.takeLightsTested();
+            for (int q = 0; q < 200; q++) {
+                float[] point = {random.nextFloat() * 220 - 110, random.nextFloat() * 2, random.nextFloat() * 220 - 110};
+                boolean expectedProtected = false;
+                float expectedLevel = lightManager.getGlobalLightLevel();
+                LightSource expectedNearest = null;
+                float nearestDistance = Float.MAX_VALUE;
+                int expectedInRadius = 0;
+                for (LightSource light : lightManager.getActiveLights()) {
+                    float distance = light.calculateDistance(point);
+                    if (distance <= 3.0f) {
+                        expectedInRadius++;
+                    }
+                    if (!light.isLit()) {
+                        continue;
+                    }
+                    expectedProtected |= light.isPositionProtected(point);
+                    float radius = light.getCurrentRadius();
+                    if (distance <= radius) {
+                        expectedLevel += light.getCurrentIntensity() / 100.0f *
+                                         Math.max(0.1f, 1.0f - distance * distance / (radius * radius));
+                    }
+                    if (distance < nearestDistance) {
+                        nearestDistance = distance;
+                        expectedNearest = light;
+                    }
+                }
+                assertEquals(expectedProtected, lightManager.isPositionProtected(point), "Point " + q);
+                assertEquals(Math.min(2.0f, expectedLevel), lightManager.getLightLevelAtPosition(point), 1e-4f);
+                assertSame(expectedNearest, lightManager.getNearestLightSource(point));
+                assertEquals(expectedInRadius, lightManager.getLightSourcesInRadius(point, 3.0f).size());
+                assertEquals(expectedInRadius, lightManager.getLightSourcesInRadius(point[0], point[1], point[2],
+                                                                                     3.0f, reused));
+                assertEquals(expectedInRadius, reused.size(), "The reused list is cleared first");
+            }
+            assertTrue(lightManager.takeLightsTested() < 200 * 4 * 40, "Queries only look at nearby lights");
+            
+            // Light, put out and move lights; the manager catches up at its next
+            // update, which also drops the lights that were used up
+            for (int i = 0; i < 60; i++) {
+                LightSource light = lights.get(random.nextInt(lights.size()));
+                switch (random.nextInt(3)) {
+                    case 0: light.light(); break;
+                    case 1: light.extinguish(); break;
+                    default: light.setCenter(new float[]{random.nextFloat() * 200 - 100, 1.0f,
+                                                         random.nextFloat() * 200 - 100});
+                }
+            }
+            lightManager.update(0.0f);
+        }
+        
+        // A moved candle protects its new spot from the next update
+        float[] spot = {500.0f, 0.0f, 500.0f};
+        assertFalse(lightManager.isPositionProtected(spot));
+        LightSource candle = new LightSource(LightSource.LightType.CANDLE);
+        candle.light();
+        lightManager.addLightSource(candle);
+        lightManager.update(0.01f);
+        candle.setX(500.5f);
+        candle.setZ(500.0f);
+        assertFalse(lightManager.isPositionProtected(spot), "Moves wait in the change queue");
+        lightManager.update(0.0f);
+        assertTrue(lightManager.isPositionProtected(spot));
+        assertSame(candle, lightManager.getNearestLightSource(spot));
+        
+        lightManager.removeLightSource(candle);
+        lightManager.update(0.01f);
+        assertFalse(lightManager.isPositionProtected(spot));
+        candle.setX(0.0f); // No longer tracked
+        lightManager.clearAllLights();
+        assertNull(lightManager.getNearestLightSource(spot));
+        assertTrue(lightManager.getLightSourcesInRadius(spot, 1000.0f).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Light field caches light levels and redraws only where lights changed")
+    void testLightField() {
+        lightManager.setFlickeringEnabled(false);
+        lightManager.setPowerFailuresEnabled(false);
+        lightManager.setLightFailureChance(0.0f);
+        LightSource fireplace = new LightSource(LightSource.LightType.FIREPLACE, new float[]{-2.0f, 0.0f, 1.0f}, 0.0f);
+        LightSource candle = new LightSource(LightSource.LightType.CANDLE, new float[]{2.2f, 0.5f, -1.3f}, 0.0f);
+        LightSource torch = new LightSource(LightSource.LightType.TORCH, new float[]{4.0f, 0.0f, 3.0f}, 0.0f);
+        for (LightSource light : new LightSource[]{fireplace, candle, torch}) {
+            light.light();
+            lightManager.addLightSource(light);
+        }
+        lightManager.update(0.01f);
+        LightField field = lightManager.getLightField();
+        
+        // Exact at the samples of a layer (up to the slow quality drift of
+        // updates, below the redraw tolerance), blended in between
+        java.util.function.Consumer<String> checkSamples = stage -> {
+            for (float x = -5.0f; x < 5.0f; x += 0.5f) {
+                for (float z = -5.0f; z < 5.0f; z += 0.5f) {
+                    float[] point = {x, 0.0f, z};
+                    assertEquals(lightManager.getLightLevelAtPosition(point), lightManager.getCachedLightLevel(point),
+                                 1e-4f, stage + " at " + x + ", " + z);
+                }
+            }
+        };
+        checkSamples.accept("Initial");
+        assertEquals(1, field.getTileCount());
+        assertEquals(field.getSamplesPerTile(), field.takeSamplesEvaluated());
+        java.util.Random random = new java.util.Random(22);
+        for (int i = 0; i < 200; i++) {
+            float[] point = {random.nextFloat() * 10 - 5, random.nextFloat() * 0.2f - 0.1f, random.nextFloat() * 10 - 5};
+            float x0 = (float) Math.floor(point[0] * 2) / 2, z0 = (float) Math.floor(point[2] * 2) / 2;
+            float low = Float.MAX_VALUE, high = -Float.MAX_VALUE;
+            for (float[] corner : new float[][]{{x0, 0, z0}, {x0 + 0.5f, 0, z0}, {x0, 0, z0 + 0.5f}, {x0 + 0.5f, 0, z0 + 0.5f}}) {
+                float level = lightManager.getLightLevelAtPosition(corner);
+                low = Math.min(low, level);
+                high = Math.max(high, level);
+            }
+            float cached = lightManager.getCachedLightLevel(point);
+            assertTrue(cached >= low - 1e-5f && cached <= high + 1e-5f, "Blend at " + point[0] + ", " + point[2]);
+        }
+        field.takeSamplesEvaluated();
+        checkSamples.accept("Cached");
+        assertEquals(0, field.takeSamplesEvaluated(), "Unchanged lights reuse the samples");
+        
+        // Moving the candle redraws only its old and new reach
+        candle.setCenter(new float[]{-3.0f, 0.0f, -3.0f});
+        lightManager.update(0.0f);
+        checkSamples.accept("Moved");
+        int redrawn = field.takeSamplesEvaluated();
+        assertTrue(redrawn > 0 && redrawn < field.getSamplesPerTile(), "Redrawn " + redrawn);
+        
+        fireplace.extinguish();
+        lightManager.update(0.0f);
+        checkSamples.accept("Extinguished");
+        
+        // Darkness checks read the field and agree with the exact ones at its samples
+        for (float x = -5.0f; x < 5.0f; x += 0.5f) {
+            for (float z = -5.0f; z < 5.0f; z += 0.5f) {
+                float[] point = {x, 0.0f, z};
+                assertEquals(lightManager.isPositionProtected(point), lightManager.isPositionProtectedCached(point),
+                             "Protection at " + x + ", " + z);
+            }
+        }
+        PlayerSurvivalSystem survival = new PlayerSurvivalSystem();
+        survival.updateDarkness(lightManager, new float[]{-3.0f, 0.0f, -3.0f});
+        assertFalse(survival.isInDarkness(), "By the candle");
+        survival.updateDarkness(lightManager, new float[]{-4.5f, 0.0f, 4.5f});
+        assertTrue(survival.isInDarkness());
+        
+        // Burning down redraws once past the tolerance
+        lightManager.update(60.0f);
+        for (float x = -5.0f; x < 5.0f; x += 0.5f) {
+            float[] point = {x, 0.0f, 0.0f};
+            assertEquals(lightManager.getLightLevelAtPosition(point), lightManager.getCachedLightLevel(point), 0.03f);
+        }
+        
+        // Other rooms and heights get their own tiles
+        assertEquals(lightManager.getLightLevelAtPosition(new float[]{12.0f, -2.0f, 0.0f}),
+                     lightManager.getCachedLightLevel(new float[]{12.0f, -2.0f, 0.0f}), 1e-5f);
+        assertEquals(2, field.getTileCount());
+        lightManager.clearAllLights();
+        assertEquals(0, field.getTileCount());
+        assertEquals(lightManager.getGlobalLightLevel(), lightManager.getCachedLightLevel(new float[]{0, 0, 0}), 1e-6f);
+        assertThrows(IllegalArgumentException.class, () -> new LightField(10.0f, 0.0f, 1.0f, (x, y, z) -> 0.0f));
+    }
+    
+    @Test
+    @DisplayName("Light buffer keeps dense columns and batch levels match the exact ones")
+    void testLightBuffer() {
+        lightManager.setFlickeringEnabled(false);
+        lightManager.setPowerFailuresEnabled(false);
+        lightManager.setLightFailureChance(0.0f);
+        java.util.Random random = new java.util.Random(23);
+        LightSource.LightType[] types = LightSource.LightType.values();
+        java.util.List<LightSource> lights = new java.util.ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            float[] position = {random.nextFloat() * 20 - 10, random.nextFloat(), random.nextFloat() * 20 - 10};
+            LightSource light = new LightSource(types[random.nextInt(types.length)], position, random.nextFloat() * 360);
+            if (random.nextBoolean()) {
+                light.light();
+            }
+            lights.add(light);
+            lightManager.addLightSource(light);
+        }
+        lightManager.update(0.5f);
+        for (int i = 0; i < 40; i += 3) {
+            lightManager.removeLightSource(lights.get(i));
+        }
+        lightManager.update(0.5f);
+        lights.get(1).setCenter(new float[]{3.0f, 0.0f, 3.0f});
+        lights.get(2).extinguish();
+        lightManager.update(0.0f);
+        
+        // Columns hold the surviving lights densely, each at its handle's slot
+        int capacity = lightManager.getLightBufferCapacity();
+        LightBuffer copy = new LightBuffer(capacity);
+        lightManager.copyLightBuffer(copy);
+        assertEquals(lightManager.getActiveLights().size(), copy.size());
+        for (LightSource light : lightManager.getActiveLights()) {
+            int slot = light.bufferSlot;
+            assertEquals(light.getX(), copy.getData()[LightBuffer.X * capacity + slot]);
+            assertEquals(light.getZ(), copy.get(LightBuffer.Z, slot));
+            assertEquals(light.getCurrentRadius(), copy.get(LightBuffer.RADIUS, slot));
+            assertEquals(light.isLit(), (copy.getFlags(slot) & LightBuffer.FLAG_LIT) != 0);
+            assertNull(copy.getLight(slot), "Copies carry no lights");
+        }
+        assertEquals(-1, lights.get(0).bufferSlot);
+        
+        // Batch evaluation agrees with the exact per-point query
+        int points = 500;
+        float[] xyz = new float[points * 3];
+        for (int i = 0; i < xyz.length; i++) {
+            xyz[i] = i % 3 == 1 ? random.nextFloat() : random.nextFloat() * 24 - 12;
+        }
+        float[] levels = new float[points];
+        lightManager.evaluateLightLevels(xyz, points, levels);
+        for (int i = 0; i < points; i++) {
+            float[] point = {xyz[i * 3], xyz[i * 3 + 1], xyz[i * 3 + 2]};
+            assertEquals(lightManager.getLightLevelAtPosition(point), levels[i], 1e-4f, "Point " + i);
+        }
+        
+        assertThrows(IllegalArgumentException.class, () -> copy.get(LightBuffer.X, copy.size()));
+        assertThrows(IllegalArgumentException.class, () -> lightManager.copyLightBuffer(new LightBuffer(8)));
+        lightManager.clearAllLights();
+        lightManager.copyLightBuffer(copy);
+        assertEquals(0, copy.size());
+        assertEquals(-1, lights.get(1).bufferSlot);
+    }
+    
+    @Test
+    @DisplayName("Light changes from many threads reach the manager through its queue and versioned snapshots")
+    void testLightChangePipeline() throws InterruptedException {
+        // The queue itself: rounded capacity, refusals, order, records offered while draining
+        ChangeQueue<String> queue = new ChangeQueue<>(5);
+        assertEquals(8, queue.getCapacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.offer(i, "item" + i));
+        }
+        assertFalse(queue.offer(8, "item8"));
+        assertEquals(1, queue.getDroppedCount());
+        java.util.List<String> drained = new java.util.ArrayList<>();
+        assertEquals(9, queue.drain((operation, item) -> {
+            drained.add(operation + ":" + item);
+            if (operation == 7) {
+                queue.offer(9, "late");
+            }
+        }));
+        assertEquals("0:item0", drained.get(0));
+        assertEquals("9:late", drained.get(8));
+        assertEquals(0, queue.size());
+        assertThrows(IllegalArgumentException.class, () -> new ChangeQueue<String>(0));
+        
+        // Producers on several threads add and light lights
+        lightManager.setFlickeringEnabled(false);
+        lightManager.setPowerFailuresEnabled(false);
+        lightManager.setLightFailureChance(0.0f);
+        LightSource.LightType[] types = {LightSource.LightType.FIREPLACE, LightSource.LightType.TORCH,
+                                         LightSource.LightType.FLASHLIGHT};
+        int threads = 4, perThread = 100;
+        LightSource[][] lights = new LightSource[threads][perThread];
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            LightSource[] own = lights[t];
+            int seed = t;
+            producers[t] = new Thread(() -> {
+                java.util.Random random = new java.util.Random(seed);
+                for (int i = 0; i < perThread; i++) {
+                    own[i] = new LightSource(types[i % types.length],
+                                             new float[]{random.nextFloat() * 100, 0.0f, random.nextFloat() * 100}, 0.0f);
+                    lightManager.addLightSource(own[i]);
+                    if (i % 2 == 0) {
+                        own[i].light();
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        LightManager.Snapshot before = lightManager.getSnapshot();
+        assertTrue(before.getLights().isEmpty(), "Additions wait for the update");
+        lightManager.update(0.0f);
+        LightManager.Snapshot after = lightManager.getSnapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(threads * perThread, after.getLights().size());
+        assertEquals(after.getLights().size(), after.getEnvironmentalLights().size() + after.getPlayerLights().size());
+        assertEquals(threads * perThread / 2, after.getLitCount());
+        assertThrows(UnsupportedOperationException.class, () -> after.getLights().clear());
+        assertTrue(before.getLights().isEmpty(), "Published snapshots never change");
+        lightManager.update(0.0f);
+        assertSame(after, lightManager.getSnapshot()); // Nothing changed, nothing published
+        
+        // Lights toggled and moved many times from several threads queue one change each
+        for (int t = 0; t < threads; t++) {
+            LightSource[] own = lights[t];
+            int seed = 10 + t;
+            producers[t] = new Thread(() -> {
+                java.util.Random random = new java.util.Random(seed);
+                for (int round = 0; round < 10; round++) {
+                    for (LightSource light : own) {
+                        if (random.nextBoolean()) {
+                            light.light();
+                        } else {
+                            light.extinguish();
+                        }
+                        light.setX(light.getX() + 0.1f);
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(0, lightManager.getDroppedChangeCount());
+        lightManager.update(0.0f);
+        int expectedLit = 0;
+        for (LightSource light : lightManager.getActiveLights()) {
+            expectedLit += light.isLit() ? 1 : 0;
+            assertTrue(lightManager.getLightSourcesInRadius(light.getCenter(), 0.0f).contains(light), "Moved");
+            if (light.isLit()) {
+                assertTrue(lightManager.isPositionProtected(light.getCenter()));
+            }
+        }
+        assertEquals(expectedLit, lightManager.getLitLightCount());
+        assertEquals(expectedLit, lightManager.getSnapshot().getLitCount());
+        
+        // Snapshots carry their own copy of the moved lights' values
+        LightManager.Snapshot moved = lightManager.getSnapshot();
+        assertEquals(moved.getLights().size(), moved.getLightCount());
+        for (int slot = 0; slot < moved.getLightCount(); slot++) {
+            LightSource light = moved.getLights().get(slot);
+            assertEquals(light.getX(), moved.getLightData().get(LightBuffer.X, slot));
+            assertNull(moved.getLightData().getLight(slot));
+        }
+        float movedX = moved.getLightData().get(LightBuffer.X, 0);
+        moved.getLights().get(0).setX(movedX + 1.0f);
+        lightManager.update(0.0f);
+        assertEquals(movedX, moved.getLightData().get(LightBuffer.X, 0), "Published data never changes");
+        assertTrue(lightManager.getSnapshot().getVersion() > moved.getVersion());
+        
+        // The inherited random movers reach the index too
+        LightSource wanderer = moved.getLights().get(0);
+        wanderer.randomXYZ();
+        wanderer.xyGitter();
+        lightManager.update(0.0f);
+        assertTrue(lightManager.getLightSourcesInRadius(wanderer.getCenter(), 0.0f).contains(wanderer));
+        assertEquals(wanderer.getX(), lightManager.getSnapshot().getLightData().get(LightBuffer.X, wanderer.bufferSlot));
+        
+        // The limit counts queued additions; clearing releases everything
+        int room = lightManager.getLightBufferCapacity() - threads * perThread;
+        for (int i = 0; i < room; i++) {
+            assertTrue(lightManager.addLightSource(new LightSource(LightSource.LightType.CANDLE)));
+        }
+        assertFalse(lightManager.addLightSource(new LightSource(LightSource.LightType.CANDLE)));
+        lightManager.clearAllLights();
+        assertTrue(lightManager.getActiveLights().isEmpty());
+        assertEquals(0, lightManager.getLitLightCount());
+        assertTrue(lightManager.addLightSource(lights[0][0]));
+        lightManager.update(0.0f);
+        assertEquals(1, lightManager.getActiveLights().size());
+    }
+    
+    @Test
+    @DisplayName("Batch classification matches single-point queries and steers spawns into the dark")
+    void testClassifyPositions() {
+        lightManager.setFlickeringEnabled(false);
+        lightManager.setPowerFailuresEnabled(false);
+        lightManager.setLightFailureChance(0.0f);
+        java.util.Random random = new java.util.Random(25);
+        LightSource.LightType[] types = LightSource.LightType.values();
+        for (int i = 0; i < 300; i++) {
+            float[] position = {random.nextFloat() * 200 - 100, random.nextFloat() * 2, random.nextFloat() * 200 - 100};
+            LightSource light = new LightSource(types[random.nextInt(types.length)], position, 0.0f);
+            if (random.nextFloat() < 0.6f) {
+                light.light();
+            }
+            lightManager.addLightSource(light);
+        }
+        lightManager.update(0.01f);
+        
+        // Clustered and widely spread batches, the latter with far outliers
+        int count = 3000;
+        float[] xyz = new float[count * 3];
+        float[] levels = new float[count];
+        java.util.BitSet protectedPoints = new java.util.BitSet();
+        for (float spread : new float[]{20.0f, 220.0f}) {
+            for (int i = 0; i < count * 3; i += 3) {
+                xyz[i] = random.nextFloat() * spread - spread / 2;
+                xyz[i + 1] = random.nextFloat() * 2;
+                xyz[i + 2] = random.nextFloat() * spread - spread / 2;
+            }
+            xyz[0] = 1.0e6f;
+            xyz[5] = -1.0e6f;
+            protectedPoints.set(count + 5);
+            lightManager.classifyPositions(xyz, count, levels, protectedPoints);
+            for (int i = 0; i < count; i++) {
+                float[] point = {xyz[i * 3], xyz[i * 3 + 1], xyz[i * 3 + 2]};
+                assertEquals(lightManager.isPositionProtected(point), protectedPoints.get(i), "Point " + i);
+                assertEquals(lightManager.getLightLevelAtPosition(point), levels[i], 1e-4f, "Point " + i);
+            }
+            assertTrue(protectedPoints.get(count + 5), "Bits past the count are left alone");
+        }
+        lightManager.classifyPositions(xyz, 0, levels, protectedPoints);
+        assertThrows(IllegalArgumentException.class,
+                     () -> lightManager.classifyPositions(xyz, count + 1, levels, protectedPoints));
+        
+        // Fireplaces all around the player except in one quadrant
+        lightManager.clearAllLights();
+        for (int x = -28; x <= 28; x += 4) {
+            for (int z = -28; z <= 28; z += 4) {
+                if ((x > 0 && z > 0) || x * x + z * z < 36) {
+                    continue;
+                }
+                LightSource fireplace = new LightSource(LightSource.LightType.FIREPLACE,
+                                                        new float[]{x, 0.0f, z}, 0.0f);
+                fireplace.light();
+                lightManager.addLightSource(fireplace);
+            }
+        }
+        lightManager.update(0.01f);
+        
+        for (int attempt = 0; attempt < 10; attempt++) {
+            grue.forceActivate();
+            float[] spawn = {grue.positionX(), grue.positionY(), grue.positionZ()};
+            assertFalse(lightManager.isPositionProtected(spawn), "Grue spawned in the dark quadrant");
+            float distance = (float) Math.sqrt(spawn[0] * spawn[0] + spawn[2] * spawn[2]);
+            assertTrue(distance >= 8.0f && distance <= 15.0f, "Spawn distance " + distance);
+        }
+        
+        GameClock clock = GameClock.manual();
+        LookBasedMonster watcher = new LookBasedMonster(new float[]{-10.0f, 0.0f, -10.0f}, clock);
+        watcher.setLightManager(lightManager);
+        float[] playerPos = {0.0f, 0.0f, 0.0f};
+        watcher.updateLookBasedBehavior(playerPos, true, clock.tick(0.1));
+        boolean despawning = false;
+        for (int i = 0; i < 1200; i++) {
+            watcher.updateLookBasedBehavior(playerPos, false, clock.tick(1.0 / 60.0));
+            despawning |= watcher.getCurrentBehavior() == LookBasedMonster.MonsterBehavior.DESPAWNING;
+            if (despawning && watcher.getCurrentBehavior() == LookBasedMonster.MonsterBehavior.DORMANT) {
+                break;
+            }
+        }
+        assertEquals(LookBasedMonster.MonsterBehavior.DORMANT, watcher.getCurrentBehavior());
+        assertFalse(lightManager.isPositionProtected(
+            new float[]{watcher.positionX(), watcher.positionY(), watcher.positionZ()}), "Respawned in the dark");
+    }
+    
     // === Grue System Tests ===
     
     @Test
@@ -342,6 +810,941 @@ public class CoreSystemsTest {
         assertEquals("flashlight", hotbarItem.getId());
     }
     
+    // === Room Visibility Tests ===
+    
+    @Test
+    @DisplayName("Rooms are only visible through open doors in view")
+    void testPortalVisibility() {
+        EnhancedRoomGenerator.EnhancedRoom start = new EnhancedRoomGenerator.EnhancedRoom(1, new float[]{0, 0, 0});
+        EnhancedRoomGenerator.EnhancedRoom ahead = new EnhancedRoomGenerator.EnhancedRoom(2, new float[]{0, 0, 10});
+        EnhancedRoomGenerator.EnhancedRoom further = new EnhancedRoomGenerator.EnhancedRoom(3, new float[]{0, 0, 20});
+        EnhancedRoomGenerator.EnhancedRoom behind = new EnhancedRoomGenerator.EnhancedRoom(4, new float[]{0, 0, -10});
+        EnhancedRoomGenerator.EnhancedRoom side = new EnhancedRoomGenerator.EnhancedRoom(5, new float[]{10, 0, 0});
+        java.util.List<EnhancedRoomGenerator.EnhancedRoom> rooms = java.util.List.of(start, ahead, further, behind, side);
+        
+        PortalVisibility visibility = new PortalVisibility(10.0f, 25.0f);
+        float[] eye = {0, 1, 0};
+        float[] forward = {0, 0, 1};
+        float halfAngle = (float) Math.toRadians(60.0);
+        
+        // Generated doors start closed: only the player's room is seen
+        assertSame(start, visibility.update(rooms, eye, forward, halfAngle));
+        assertEquals(1, visibility.getVisibleRooms().size());
+        
+        // Open doors ahead, behind and to the side
+        for (float[] target : new float[][]{{0, 0, 10}, {0, 0, -10}, {10, 0, 0}}) {
+            EnhancedRoomGenerator.Door door = new EnhancedRoomGenerator.Door("Test Door", 
+                new float[]{target[0] / 2, 0, target[2] / 2}, target);
+            door.setOpen(true);
+            start.addDoor(door);
+        }
+        EnhancedRoomGenerator.Door back = new EnhancedRoomGenerator.Door("Back Door", 
+            new float[]{0, 0, 15}, new float[]{0, 0, 10});
+        back.setOpen(true);
+        further.addDoor(back);
+        
+        visibility.update(rooms, eye, forward, halfAngle);
+        assertTrue(visibility.isVisible(ahead));
+        assertTrue(visibility.isVisible(further), "Door opened from the far side also counts");
+        assertFalse(visibility.isVisible(behind), "Rooms behind the player are not observed");
+        assertFalse(visibility.isVisible(side), "Doorways outside the view are not followed");
+        
+        // Looking back reveals the room behind instead
+        visibility.update(rooms, eye, new float[]{0, 0, -1}, halfAngle);
+        assertTrue(visibility.isVisible(behind));
+        assertFalse(visibility.isVisible(ahead));
+        
+        // Off to the side the doorway ahead is seen at a grazing angle: the far room is clipped away
+        visibility.update(rooms, new float[]{4.5f, 1, 4.0f}, new float[]{-1, 0, 0.2f}, halfAngle);
+        assertTrue(visibility.isVisible(ahead));
+        assertFalse(visibility.isVisible(further));
+    }
+    
+    // === Game Clock Tests ===
+    
+    @Test
+    @DisplayName("Game clock pauses timers and runs sessions headlessly")
+    void testGameClock() {
+        GameClock clock = GameClock.manual();
+        LookBasedMonster watcher = new LookBasedMonster(new float[]{10.0f, 0.0f, 10.0f}, clock);
+        EnhancedRoomGenerator.EnhancedRoom room = new EnhancedRoomGenerator.EnhancedRoom(1, new float[]{0, 0, 20}, clock);
+        float[] playerPos = {0.0f, 0.0f, 0.0f};
+        double step = 1.0 / 60.0;
+        
+        // Seen once, then the player looks away
+        watcher.updateLookBasedBehavior(playerPos, true, clock.tick(step));
+        room.updateObservation(true);
+        room.updateObservation(false);
+        
+        // Ten paused seconds do not count towards the 5 second timers
+        clock.pause();
+        for (int i = 0; i < 600; i++) {
+            double dt = clock.tick(step);
+            assertEquals(0.0, dt);
+            watcher.updateLookBasedBehavior(playerPos, false, dt);
+            room.update(dt);
+        }
+        assertNotEquals(LookBasedMonster.MonsterBehavior.DESPAWNING, watcher.getCurrentBehavior());
+        assertFalse(room.needsRegeneration());
+        
+        // Single steps still work while paused
+        clock.step(1.0);
+        assertEquals(1.0 + step, clock.now(), 1e-9);
+        
+        // Running again, the timers expire
+        clock.resume();
+        for (int i = 0; i < 300; i++) {
+            double dt = clock.tick(step);
+            watcher.updateLookBasedBehavior(playerPos, false, dt);
+            room.update(dt);
+        }
+        assertTrue(watcher.getCurrentBehavior() == LookBasedMonster.MonsterBehavior.DESPAWNING ||
+                  watcher.getCurrentBehavior() == LookBasedMonster.MonsterBehavior.DORMANT);
+        assertTrue(room.needsRegeneration());
+        
+        // Time scaling
+        clock.setTimeScale(0.5);
+        assertEquals(0.5, clock.tick(1.0), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> clock.setTimeScale(-1.0));
+        
+        // A five minute session at 60 Hz, without waiting for the wall clock
+        GameClock session = GameClock.manual();
+        LightManager lights = new LightManager(session);
+        Grue darkness = new Grue(lights);
+        EnhancedRoomGenerator generator = new EnhancedRoomGenerator(session);
+        LightSource torch = new LightSource(LightSource.LightType.TORCH, new float[]{0, 0, 0}, 0.0f);
+        torch.light();
+        lights.addLightSource(torch);
+        float[] view = {0, 0, 1};
+        for (int i = 0; i < 5 * 60 * 60; i++) {
+            float dt = (float) session.tick(step);
+            lights.update(dt);
+            darkness.update(playerPos, dt);
+            generator.update(playerPos, view, dt);
+        }
+        assertEquals(300.0, session.now(), 1e-6);
+        assertEquals(300_000L, lights.getLastUpdateTime(), 1L);
+        assertFalse(generator.getActiveRooms().isEmpty());
+        
+        // A light moves onto the manager's clock when the update applies its
+        // addition: paused time does not count towards its flicker timer
+        GameClock shared = GameClock.manual();
+        LightManager sharedLights = new LightManager(shared);
+        LightSource candle = new LightSource(LightSource.LightType.CANDLE, new float[]{0, 0, 0}, 0.0f);
+        assertTrue(sharedLights.addLightSource(candle));
+        sharedLights.update(0.0f);
+        candle.light();
+        shared.pause();
+        for (int i = 0; i < 600; i++) {
+            candle.update((float) shared.tick(step));
+        }
+        assertFalse(candle.isFlickering());
+        shared.resume();
+        shared.step(6.0);
+        candle.update(0.0f);
+        assertTrue(candle.isFlickering(), "Candles flicker every 2-5 s of game time");
+    }
+    
+    @Test
+    @DisplayName("Timing wheel fires deadlines on time across levels")
+    void testTimingWheel() {
+        TimingWheel wheel = new TimingWheel(0.1);
+        double[] firedAt = new double[6];
+        java.util.Arrays.fill(firedAt, -1.0);
+        double[] delays = {0.0, 0.35, 5.0, 700.0, 30000.0, 2.0e6};
+        TimingWheel.Timer[] timers = new TimingWheel.Timer[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            int index = i;
+            timers[i] = wheel.newTimer(() -> firedAt[index] = wheel.getTime());
+            timers[i].schedule(delays[i]);
+        }
+        assertEquals(delays.length, wheel.getPendingCount());
+        
+        // Nothing fires early, everything fires within a tick
+        wheel.advanceTo(0.3);
+        assertEquals(0.3, firedAt[0], 1e-9, "Zero delay fires on the next advance");
+        assertEquals(-1.0, firedAt[1]);
+        for (double t = 0.3; t < 2.1e6; t += 97.3) {
+            wheel.advanceTo(t);
+        }
+        wheel.advanceTo(2.1e6);
+        for (int i = 1; i < delays.length; i++) {
+            assertTrue(firedAt[i] >= delays[i] - 1e-6, "Timer " + i + " fired early");
+            assertTrue(firedAt[i] <= delays[i] + 97.4, "Timer " + i + " fired late");
+        }
+        assertEquals(0, wheel.getPendingCount());
+        assertEquals(delays.length, wheel.getFiredCount());
+        
+        // Rescheduling and cancelling
+        int[] count = new int[1];
+        TimingWheel.Timer timer = wheel.newTimer(() -> count[0]++);
+        timer.schedule(5.0);
+        timer.schedule(10.0);
+        assertEquals(1, wheel.getPendingCount());
+        assertEquals(0, wheel.advanceTo(wheel.getTime() + 7.0));
+        assertTrue(timer.isPending());
+        assertEquals(1, wheel.advanceTo(wheel.getTime() + 3.0));
+        assertEquals(1, count[0]);
+        timer.schedule(1.0);
+        assertTrue(timer.cancel());
+        assertFalse(timer.cancel());
+        assertEquals(0, wheel.advanceTo(wheel.getTime() + 2.0));
+        
+        // A thousand idle timers cost nothing when none are due
+        TimingWheel.Timer[] idle = new TimingWheel.Timer[1000];
+        for (int i = 0; i < idle.length; i++) {
+            idle[i] = wheel.newTimer(() -> count[0]++);
+            idle[i].schedule(5.0 + i * 0.01);
+        }
+        assertEquals(0, wheel.advanceTo(wheel.getTime() + 4.9));
+        assertEquals(1000, wheel.advanceTo(wheel.getTime() + 15.2));
+        
+        // A timer that keeps rescheduling itself right away does not stall
+        // the advance: it is due again a tick later at the earliest
+        TimingWheel.Timer[] repeating = new TimingWheel.Timer[1];
+        repeating[0] = wheel.newTimer(() -> repeating[0].schedule(0.0));
+        repeating[0].schedule(0.0);
+        assertEquals(1, wheel.advanceTo(wheel.getTime()));
+        assertEquals(2, wheel.advanceTo(wheel.getTime() + 1.0)); // The next tick, then the target's
+        assertTrue(repeating[0].isPending());
+        assertTrue(repeating[0].cancel());
+        
+        // Survival effects expire on the clock
+        PlayerSurvivalSystem survival = new PlayerSurvivalSystem();
+        survival.addStatusEffect(PlayerSurvivalSystem.StatusEffect.ADRENALINE, 10.0);
+        survival.update(9.0);
+        assertTrue(survival.hasStatusEffect(PlayerSurvivalSystem.StatusEffect.ADRENALINE));
+        survival.update(1.5);
+        assertFalse(survival.hasStatusEffect(PlayerSurvivalSystem.StatusEffect.ADRENALINE));
+    }
+    
+    @Test
+    @DisplayName("Timing wheel skips empty ticks across long gaps")
+    void testTimingWheelSkipsEmptyTicks() {
+        // One distant timer: a jump of tens of millions of ticks stops only where it must
+        TimingWheel wheel = new TimingWheel(TimingWheel.DEFAULT_TICK);
+        int[] fired = new int[1];
+        TimingWheel.Timer distant = wheel.newTimer(() -> fired[0]++);
+        distant.schedule(1.0e6); // 6e7 ticks, past the top level
+        assertEquals(0, wheel.advanceTo(9.99e5));
+        assertTrue(distant.isPending());
+        assertEquals(1, wheel.advanceTo(1.0e6 + 0.01));
+        assertEquals(1, fired[0]);
+        assertTrue(wheel.takeTicksVisited() < 20, "Visited only the cascades on the way");
+        
+        // Random deadlines and random jumps: each timer fires in the advance that passes it
+        java.util.Random random = new java.util.Random(13);
+        double[] deadlines = new double[500];
+        double[] firedAt = new double[deadlines.length];
+        double start = wheel.getTime();
+        for (int i = 0; i < deadlines.length; i++) {
+            int index = i;
+            deadlines[i] = start + Math.pow(10.0, random.nextDouble() * 6.0);
+            firedAt[i] = -1.0;
+            wheel.scheduleAt(wheel.newTimer(() -> firedAt[index] = wheel.getTime()), deadlines[i]);
+        }
+        double previous = start;
+        while (wheel.getPendingCount() > 0) {
+            double now = previous + Math.pow(10.0, random.nextDouble() * 5.0);
+            wheel.advanceTo(now);
+            for (int i = 0; i < deadlines.length; i++) {
+                if (deadlines[i] > previous + 1e-6 && deadlines[i] <= now - wheel.getTickSeconds()) {
+                    assertEquals(now, firedAt[i], 1e-9, "Timer " + i);
+                }
+            }
+            previous = now;
+        }
+        for (int i = 0; i < deadlines.length; i++) {
+            assertTrue(firedAt[i] >= deadlines[i] - 1e-6, "Timer " + i + " fired early");
+        }
+        assertTrue(wheel.takeTicksVisited() < deadlines.length * 8, "Visits grow with the timers, not the time");
+    }
+
+    @Test
+    @DisplayName("Observation pass reports what enters and leaves the view cone")
+    void testObservationSystem() {
+        ObservationSystem observation = new ObservationSystem(4);
+        float[] eye = {0, 0, 0};
+        float[] forward = {0, 0, -2};
+        observation.setCamera(eye, forward, (float) Math.toRadians(30), 20.0f);
+
+        int[] events = new int[3];
+        int ahead = observation.add(null, 0, 0, -10, 0, observed -> events[0]++);
+        int behind = observation.add(null, 0, 0, 10, 0, observed -> events[1]++);
+        // Center outside the cone, but the sphere reaches into it
+        int edge = observation.add(null, 8, 0, -10, 3, observed -> events[2]++);
+
+        assertEquals(2, observation.update());
+        assertTrue(observation.isObserved(ahead));
+        assertFalse(observation.isObserved(behind));
+        assertTrue(observation.isObserved(edge));
+        assertEquals(2, observation.getObservedCount());
+
+        // Only changes are reported
+        assertEquals(0, observation.update());
+        assertArrayEquals(new int[]{1, 0, 1}, events);
+
+        // Out of range, and hidden by an occluder
+        observation.setPosition(ahead, 0, 0, -25);
+        observation.setOccluder(edge, target -> false);
+        assertEquals(2, observation.update());
+        assertFalse(observation.isObserved(ahead));
+        assertFalse(observation.isObserved(edge));
+
+        // Turning around
+        observation.setCamera(eye, new float[]{0, 0, 1}, (float) Math.toRadians(30), 20.0f);
+        observation.update();
+        assertTrue(observation.isObserved(behind));
+        assertTrue(observation.isInView(0, 1, 5));
+        assertFalse(observation.isInView(0, 0, -5));
+        assertTrue(observation.isInCone(0, 0, -5, -1.0f), "A full sphere cone covers everything in range");
+
+        // Removed handles are reused and rejected afterwards
+        observation.remove(behind);
+        assertThrows(IllegalArgumentException.class, () -> observation.isObserved(behind));
+        assertEquals(behind, observation.add(null, 0, 0, 0, 0, null));
+        assertEquals(3, observation.size());
+
+        // Monsters take the verdict from the pass
+        LookBasedMonster monster = new LookBasedMonster(
+            LookBasedMonster.MonsterType.SHADOW_FIGURE, new float[]{0, 0, 8});
+        monster.observeWith(observation);
+        observation.update();
+        monster.updateLookBasedBehavior(eye, 0.1);
+        assertTrue(monster.isBeingObserved());
+
+        observation.setCamera(eye, forward, (float) Math.toRadians(30), 20.0f);
+        observation.update();
+        monster.updateLookBasedBehavior(eye, 0.1);
+        assertFalse(monster.isBeingObserved());
+        monster.stopObserving();
+        assertEquals(3, observation.size());
+        
+        // A listener that removes a changed entry and adds a new one: the
+        // new entry does not take over the removed one's pending event
+        ObservationSystem swap = new ObservationSystem(4);
+        swap.setCamera(eye, forward, (float) Math.toRadians(30), 20.0f);
+        int[] swapEvents = new int[3];
+        int[] second = new int[1];
+        swap.add(null, 0, 0, -10, 0, observed -> {
+            swapEvents[0]++;
+            swap.remove(second[0]);
+            swap.add(null, 0, 0, 10, 0, seen -> swapEvents[2]++);
+        });
+        second[0] = swap.add(null, 0, 0, -12, 0, observed -> swapEvents[1]++);
+        assertEquals(2, swap.update());
+        assertArrayEquals(new int[]{1, 0, 0}, swapEvents);
+        assertEquals(2, swap.size());
+        assertEquals(second[0], swap.add(null, 0, 0, 0, 0, null), "Freed once the delivery is over");
+    }
+
+    @Test
+    @DisplayName("Raycasts hit the nearest wall, furniture or entity")
+    void testRaycastService() {
+        RaycastService raycasts = new RaycastService();
+        Object room = "room";
+        // Wall across +Z and a table in front of it
+        float[] boxes = {
+            -5, 0, 4.9f, 5, 3, 5.1f,
+            -1, 0, 2, 1, 1, 3
+        };
+        int handle = raycasts.addStatic(room, boxes, 2);
+        assertEquals(2, raycasts.getStaticBoxCount());
+
+        RaycastService.Hit hit = new RaycastService.Hit();
+        assertTrue(raycasts.raycast(0, 2, 0, 0, 0, 3, 100, hit), "Over the table, into the wall");
+        assertEquals(4.9f, hit.getDistance(), 1e-4f);
+        assertEquals(-1.0f, hit.getNormalZ());
+        assertSame(room, hit.getTarget());
+        assertFalse(hit.isDynamic());
+        assertTrue(raycasts.raycast(0, 0.5f, 0, 0, 0, 1, 100, hit));
+        assertEquals(2.0f, hit.getDistance(), 1e-4f, "Table is nearer");
+        assertFalse(raycasts.raycast(0, 2, 0, 0, 0, -1, 100, hit));
+        assertFalse(raycasts.raycast(0, 2, 0, 0, 0, 1, 4.0f, hit), "Wall is beyond the limit");
+
+        // Moving entities, and ignoring the one being looked at
+        Object crate = "crate";
+        int crateHandle = raycasts.addDynamic(crate, -0.5f, 0, 0.5f, 0.5f, 3, 1);
+        assertTrue(raycasts.raycast(0, 2, 0, 0, 0, 1, 100, hit));
+        assertSame(crate, hit.getTarget());
+        assertTrue(hit.isDynamic());
+        assertFalse(raycasts.raycastAny(0, 2, 0, 0, 2, 0.75f, crate));
+        assertTrue(raycasts.raycastAny(0, 2, 0, 0, 2, 0.75f, null));
+        raycasts.moveDynamic(crateHandle, 10, 0, 10, 11, 1, 11);
+        assertFalse(raycasts.raycastAny(0, 2, 0, 0, 2, 4.0f, null));
+        assertTrue(raycasts.raycastAny(0, 2, 0, 0, 2, 6.0f, null));
+
+        // Batches match a brute-force scan over random boxes
+        java.util.Random random = new java.util.Random(42);
+        float[] all = new float[200 * 6];
+        for (int r = 0; r < 20; r++) {
+            float[] roomBoxes = new float[10 * 6];
+            for (int b = 0; b < 10; b++) {
+                float x = r * 10 + random.nextFloat() * 10, y = random.nextFloat() * 3, z = random.nextFloat() * 10;
+                float[] box = {x, y, z, x + 0.2f + random.nextFloat(), y + 0.2f + random.nextFloat(), z + 0.2f + random.nextFloat()};
+                System.arraycopy(box, 0, roomBoxes, b * 6, 6);
+                System.arraycopy(box, 0, all, (r * 10 + b) * 6, 6);
+            }
+            raycasts.addStatic("room " + r, roomBoxes, 10);
+        }
+        raycasts.removeStatic(handle);
+        raycasts.removeDynamic(crateHandle);
+        int rays = 2000;
+        float[] segments = new float[rays * 6];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = (i % 3 == 0 ? 200 : i % 3 == 1 ? 4 : 10) * random.nextFloat();
+        }
+        float[] fractions = new float[rays];
+        int blocked = raycasts.raycastMany(segments, rays, fractions);
+        int expectedBlocked = 0;
+        for (int i = 0; i < rays; i++) {
+            float expected = 1.0f;
+            for (int b = 0; b < 200; b++) {
+                expected = Math.min(expected, segmentBoxFraction(segments, i * 6, all, b * 6));
+            }
+            if (expected < 1.0f) {
+                expectedBlocked++;
+            }
+            assertEquals(expected, fractions[i], 1e-4f, "Segment " + i);
+        }
+        assertEquals(expectedBlocked, blocked);
+        assertTrue(blocked > 0 && blocked < rays);
+
+        // Line of sight decides whether a monster counts as seen
+        RaycastService walls = new RaycastService();
+        int wall = walls.addStatic(room, new float[]{-5, -0.5f, 4.9f, 5, 3, 5.1f}, 1);
+        ObservationSystem observation = new ObservationSystem(4);
+        observation.setCamera(new float[]{0, 1.6f, 0}, new float[]{0, 0, 1}, (float) Math.toRadians(45), 25.0f);
+        LookBasedMonster monster = new LookBasedMonster(
+            LookBasedMonster.MonsterType.SHADOW_FIGURE, new float[]{0, 0, 8});
+        monster.observeWith(observation, walls);
+        assertEquals(1, walls.getDynamicCount());
+        observation.update();
+        monster.updateLookBasedBehavior(new float[]{0, 0, 0}, 0.1);
+        assertFalse(monster.isBeingObserved(), "Behind the wall");
+        walls.removeStatic(wall);
+        observation.update();
+        monster.updateLookBasedBehavior(new float[]{0, 0, 0}, 0.1);
+        assertTrue(monster.isBeingObserved());
+        monster.stopObserving();
+        assertEquals(0, walls.getDynamicCount());
+
+        // Generated rooms are walled in
+        EnhancedRoomGenerator generator = new EnhancedRoomGenerator();
+        generator.update(new float[]{0, 0, 0}, new float[]{0, 0, 1}, 0.1);
+        RaycastService lineOfSight = generator.getLineOfSight();
+        assertEquals(generator.getActiveRooms().size(), lineOfSight.getStaticCount());
+        assertTrue(lineOfSight.raycast(0, 1, 0, 1, 0, 0.9f, 100, hit));
+        assertTrue(hit.getDistance() < 7.0f);
+        
+        // Geometry is only looked at again when rooms or doors change
+        generator.takeGeometryChecks();
+        generator.update(new float[]{0, 0, 0}, new float[]{0, 0, 1}, 0.1);
+        assertEquals(0, generator.takeGeometryChecks());
+        EnhancedRoomGenerator.EnhancedRoom home = generator.getRoomAt(new float[]{0, 0, 0});
+        assertNotNull(home);
+        EnhancedRoomGenerator.Door east = new EnhancedRoomGenerator.Door("Test Door", 
+            new float[]{5, 0, 0}, new float[]{10, 0, 0});
+        home.addDoor(east);
+        generator.update(new float[]{0, 0, 0}, new float[]{0, 0, 1}, 0.1);
+        generator.takeGeometryChecks();
+        assertTrue(lineOfSight.raycast(0, 1, 0, 1, 0, 0, 5.5f, hit), "Closed doors are walls");
+        east.setOpen(true);
+        generator.update(new float[]{0, 0, 0}, new float[]{0, 0, 1}, 0.1);
+        int checks = generator.takeGeometryChecks();
+        assertTrue(checks >= 1 && checks <= 5, "The room and its neighbours: " + checks);
+        assertFalse(lineOfSight.raycast(0, 1, 0, 1, 0, 0, 5.5f, hit), "Doorway east is open");
+    }
+
+    @Test
+    @DisplayName("Spatial hash finds the same boxes as a full scan")
+    void testSpatialHash() {
+        SpatialHash hash = new SpatialHash(2.0f);
+        java.util.Random random = new java.util.Random(7);
+        int count = 500;
+        float[][] boxes = new float[count][];
+        int[] proxies = new int[count];
+        for (int i = 0; i < count; i++) {
+            boxes[i] = randomBox(random);
+            proxies[i] = hash.insert(i, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3], boxes[i][4], boxes[i][5]);
+        }
+        // Move some (some across cells), remove others
+        boolean[] removed = new boolean[count];
+        for (int i = 0; i < count; i += 3) {
+            boxes[i] = randomBox(random);
+            hash.move(proxies[i], boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3], boxes[i][4], boxes[i][5]);
+        }
+        for (int i = 1; i < count; i += 7) {
+            hash.remove(proxies[i]);
+            removed[i] = true;
+        }
+        assertThrows(IllegalArgumentException.class, () -> hash.remove(proxies[1]));
+
+        for (int q = 0; q < 200; q++) {
+            float[] query = randomBox(random);
+            java.util.Set<Object> found = new java.util.HashSet<>();
+            assertTrue(hash.queryAABB(query[0], query[1], query[2], query[3], query[4], query[5],
+                proxy -> found.add(hash.getUserData(proxy))), "Each box is reported once");
+            float cx = query[0], cy = query[1], cz = query[2], r = random.nextFloat() * 6;
+            java.util.Set<Object> near = new java.util.HashSet<>();
+            hash.queryRadius(cx, cy, cz, r, proxy -> near.add(hash.getUserData(proxy)));
+            for (int i = 0; i < count; i++) {
+                float[] b = boxes[i];
+                boolean overlaps = !removed[i] && b[3] >= query[0] && b[0] <= query[3] && b[4] >= query[1] &&
+                                   b[1] <= query[4] && b[5] >= query[2] && b[2] <= query[5];
+                assertEquals(overlaps, found.contains(i), "Box query " + q + ", box " + i);
+                float dx = Math.max(0, Math.max(b[0] - cx, cx - b[3]));
+                float dy = Math.max(0, Math.max(b[1] - cy, cy - b[4]));
+                float dz = Math.max(0, Math.max(b[2] - cz, cz - b[5]));
+                boolean inRange = !removed[i] && dx * dx + dy * dy + dz * dz <= r * r;
+                assertEquals(inRange, near.contains(i), "Radius query " + q + ", box " + i);
+            }
+        }
+        int[] visits = new int[1];
+        assertFalse(hash.queryAABB(-50, -50, -50, 50, 50, 50, proxy -> ++visits[0] < 3));
+        assertEquals(3, visits[0], "Visitor stops the query");
+
+        // Collision checks through the broadphase agree with the scan
+        float[][] walls = {
+            CollisionDetector.createWallBoundingBox(5, 0, 0, 1, 3, 10),
+            CollisionDetector.createWallBoundingBox(0, 0, 5, 10, 3, 1)
+        };
+        SpatialHash wallHash = CollisionDetector.createObstacleHash(walls, 2.0f);
+        Player player = new Player();
+        player.setPosition(0, 0, 0);
+        assertNull(CollisionDetector.getSafeMovementPosition(player, 1, 0, 0, wallHash));
+        assertNotNull(CollisionDetector.getSafeMovementPosition(player, 4.5f, 0, 0, wallHash));
+        assertNotNull(CollisionDetector.getSafeMovementPosition(player, 4.5f, 0, 0, walls));
+
+        SpatialHash monsters = new SpatialHash(2.0f);
+        BasicMonster monster = new BasicMonster(3, 0, 2);
+        int monsterProxy = CollisionDetector.addMonster(monsters, monster);
+        assertTrue(CollisionDetector.forEachPlayerMonsterCollision(player, monsters, proxy -> false));
+        monster.setPosition(0, 0, 0);
+        CollisionDetector.moveMonster(monsters, monsterProxy, monster);
+        assertFalse(CollisionDetector.forEachPlayerMonsterCollision(player, monsters, proxy -> false));
+        assertTrue(CollisionDetector.checkPlayerMonsterCollision(player, monster));
+    }
+
+    @Test
+    @DisplayName("AABB store overlaps match a brute-force scan without allocating")
+    void testAABBStore() {
+        java.util.Random random = new java.util.Random(17);
+        AABBStore store = new AABBStore(4);
+        float[][] boxes = new float[300][];
+        boolean[] removed = new boolean[boxes.length];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = randomBox(random);
+            float[] b = boxes[i];
+            assertEquals(i, store.add(b[0], b[1], b[2], b[3], b[4], b[5]), "Ids are handed out in order");
+        }
+        // Remove some (the store moves its last box into each gap) and move others
+        for (int i = 0; i < boxes.length; i += 7) {
+            store.remove(i);
+            removed[i] = true;
+        }
+        for (int i = 1; i < boxes.length; i += 5) {
+            if (!removed[i]) {
+                boxes[i] = randomBox(random);
+                float[] b = boxes[i];
+                store.set(i, b[0], b[1], b[2], b[3], b[4], b[5]);
+            }
+        }
+        assertEquals(boxes.length - (boxes.length + 6) / 7, store.size());
+        assertThrows(IllegalArgumentException.class, () -> store.getMinX(0));
+        assertThrows(IllegalArgumentException.class, () -> store.add(1, 0, 0, 0, 1, 1));
+
+        int[] out = new int[boxes.length];
+        float[] bounds = new float[6];
+        for (int q = 0; q < 100; q++) {
+            float[] box = randomBox(random);
+            int found = store.queryOverlaps(box[0], box[1], box[2], box[3], box[4], box[5], -1, out);
+            java.util.Set<Integer> hits = new java.util.HashSet<>();
+            for (int i = 0; i < found; i++) {
+                hits.add(out[i]);
+            }
+            int expected = 0;
+            for (int i = 0; i < boxes.length; i++) {
+                float[] b = boxes[i];
+                boolean overlap = !removed[i] && b[3] >= box[0] && b[0] <= box[3] && b[4] >= box[1] &&
+                                  b[1] <= box[4] && b[5] >= box[2] && b[2] <= box[5];
+                assertEquals(overlap, hits.contains(i), "Query " + q + ", box " + i);
+                expected += overlap ? 1 : 0;
+            }
+            assertEquals(expected, found);
+            assertEquals(expected > 0, store.overlapsAny(box[0], box[1], box[2], box[3], box[4], box[5], -1));
+        }
+        store.getBounds(1, bounds);
+        assertArrayEquals(boxes[1], bounds);
+        assertTrue(store.overlaps(1, 1));
+        int total = store.queryOverlaps(-100, -100, -100, 100, 100, 100, -1, new int[2]);
+        assertEquals(store.size(), total, "Count includes overlaps that did not fit");
+
+        // The buffer-writing API agrees with the allocating one
+        Player player = new Player();
+        player.setPosition(1, 0, 2);
+        assertArrayEquals(CollisionDetector.getPlayerBoundingBox(player),
+                          CollisionDetector.getPlayerBoundingBox(player, bounds));
+        BasicMonster monster = new BasicMonster(1.2f, 0, 2);
+        assertArrayEquals(monster.getBoundingBox(), monster.getBoundingBox(bounds));
+
+        AABBStore actors = new AABBStore(4);
+        int playerId = CollisionDetector.addPlayer(actors, player);
+        int monsterId = CollisionDetector.addMonster(actors, monster);
+        assertTrue(actors.overlaps(playerId, monsterId));
+        assertTrue(CollisionDetector.checkPlayerMonsterCollision(player, monster));
+        monster.setPosition(5, 0, 5);
+        CollisionDetector.updateMonster(actors, monsterId, monster);
+        assertFalse(actors.overlaps(playerId, monsterId));
+        assertFalse(CollisionDetector.checkPlayerMonsterCollision(player, monster));
+        assertEquals(0, actors.queryOverlaps(playerId, out));
+        assertTrue(CollisionDetector.isMovementBlocked(player, 5, 0, 5, actors, playerId));
+        assertFalse(CollisionDetector.isMovementBlocked(player, 3, 0, 3, actors, playerId));
+        player.setPosition(5, 0, 5);
+        CollisionDetector.updatePlayer(actors, playerId, player);
+        assertEquals(1, actors.queryOverlaps(playerId, out));
+        assertEquals(monsterId, out[0]);
+
+        float[][] walls = { CollisionDetector.createWallBoundingBox(7, 0, 5, 1, 3, 10) };
+        assertFalse(CollisionDetector.isMovementBlocked(player, 5, 0, 5, walls));
+        assertTrue(CollisionDetector.isMovementBlocked(player, 6.5f, 0, 5, walls));
+        assertTrue(CollisionDetector.checkPlayerWallCollision(player, CollisionDetector.createWallBoundingBox(5, 0, 5, 1, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("Swept collision stops at walls, slides along them and never tunnels")
+    void testCollisionResolver() {
+        CollisionResolver resolver = new CollisionResolver();
+        float[] box = {0, 0, 0, 1, 1, 1};
+        float[] normal = new float[3];
+        float[] moved = new float[3];
+
+        // Time of impact and normal
+        float[] wall = {3, -1, -10, 3.1f, 2, 10};
+        assertEquals(0.4f, resolver.sweep(box, 5, 0, 0, wall, normal), 1e-6f);
+        assertArrayEquals(new float[]{-1, 0, 0}, normal);
+        assertEquals(CollisionResolver.NO_HIT, resolver.sweep(box, 0, 0, 5, wall, normal));
+        assertEquals(CollisionResolver.NO_HIT, resolver.sweep(box, 1.5f, 0, 0, wall, normal), "Stops short");
+
+        // A step far longer than the wall is thick stops at the wall
+        float[][] walls = {wall};
+        assertTrue(resolver.move(box, 50, 0, 0, walls, moved));
+        assertEquals(2.0f - CollisionResolver.SKIN, moved[0], 1e-5f);
+
+        // Diagonal moves keep the motion along the wall
+        assertTrue(resolver.move(box, 5, 0, 5, walls, moved));
+        assertEquals(2.0f - CollisionResolver.SKIN, moved[0], 1e-5f);
+        assertEquals(5.0f, moved[2], 1e-5f);
+        assertEquals(1, resolver.getContactCount());
+
+        // Resting against the wall does not stop sliding along it or moving away
+        float[] touching = {2, 0, 0, 3, 1, 1};
+        assertFalse(resolver.move(touching, 0, 0, 4, walls, moved));
+        assertEquals(4.0f, moved[2]);
+        assertFalse(resolver.move(touching, -1, 0, 0, walls, moved));
+        assertTrue(resolver.move(touching, 1, 0, 1, walls, moved));
+        assertEquals(-CollisionResolver.SKIN, moved[0], 1e-6f);
+        assertEquals(1.0f, moved[2], 1e-6f);
+
+        // A corner stops both axes, one contact each
+        float[][] corner = {wall, {-10, -1, 3, 10, 2, 3.1f}};
+        assertTrue(resolver.move(box, 5, 0, 5, corner, moved));
+        assertEquals(2, resolver.getContactCount());
+        assertEquals(2.0f - CollisionResolver.SKIN, moved[0], 1e-5f);
+        assertEquals(2.0f - CollisionResolver.SKIN, moved[2], 1e-5f);
+
+        // Boxes the mover starts deep inside do not hold it
+        assertFalse(resolver.move(box, 3, 0, 0, new float[][]{{0.5f, 0, 0, 1.5f, 1, 1}}, moved));
+
+        // Array, broadphase and store agree exactly, and moves never end inside an obstacle
+        java.util.Random random = new java.util.Random(18);
+        float[][] obstacles = new float[200][];
+        AABBStore store = new AABBStore(obstacles.length);
+        for (int i = 0; i < obstacles.length; i++) {
+            obstacles[i] = randomBox(random);
+            float[] b = obstacles[i];
+            store.add(b[0], b[1], b[2], b[3], b[4], b[5]);
+        }
+        SpatialHash hash = CollisionDetector.createObstacleHash(obstacles, 2.0f);
+        float[] viaHash = new float[3];
+        float[] viaStore = new float[3];
+        for (int q = 0; q < 300; q++) {
+            float x = random.nextFloat() * 60 - 30, z = random.nextFloat() * 60 - 30;
+            float[] mover = {x, 1, z, x + 0.4f, 2.7f, z + 0.3f};
+            boolean inside = false;
+            for (float[] b : obstacles) {
+                inside |= mover[3] > b[0] && mover[0] < b[3] && mover[4] > b[1] && mover[1] < b[4] &&
+                          mover[5] > b[2] && mover[2] < b[5];
+            }
+            if (inside) {
+                continue;
+            }
+            float mx = random.nextFloat() * 20 - 10, my = random.nextFloat() * 2 - 1, mz = random.nextFloat() * 20 - 10;
+            boolean contact = resolver.move(mover, mx, my, mz, obstacles, moved);
+            assertEquals(contact, resolver.move(mover, mx, my, mz, hash, viaHash));
+            assertEquals(contact, resolver.move(mover, mx, my, mz, store, -1, viaStore));
+            assertArrayEquals(moved, viaHash, "Move " + q);
+            assertArrayEquals(moved, viaStore, "Move " + q);
+            for (float[] b : obstacles) {
+                assertFalse(mover[3] + moved[0] > b[0] && mover[0] + moved[0] < b[3] &&
+                            mover[4] + moved[1] > b[1] && mover[1] + moved[1] < b[4] &&
+                            mover[5] + moved[2] > b[2] && mover[2] + moved[2] < b[5], "Move " + q + " ends inside");
+            }
+        }
+
+        // The player slides along a wall instead of sticking to it
+        Player player = new Player();
+        player.setPosition(4.3f, 0, 0);
+        float[][] roomWalls = { CollisionDetector.createWallBoundingBox(5, 0, 0, 1, 3, 10) };
+        assertFalse(player.moveSafe(1.0f, 1.0f, roomWalls));
+        assertEquals(1.0f, player.positionZ(), 1e-5f);
+        assertFalse(CollisionDetector.checkPlayerWallCollision(player, roomWalls[0]));
+        assertTrue(player.moveSafe(-1.0f, 0, roomWalls));
+    }
+
+    @Test
+    @DisplayName("Physics world stops characters at walls, sleeps props and swings doors")
+    void testPhysicsWorld() {
+        PhysicsWorld physics = new PhysicsWorld();
+        // A wall along Z at x = 5, 0.2 thick
+        float[] walls = {4.9f, 0, -10, 5.1f, 3, 10};
+        int wall = physics.addStatic("room", walls, 1);
+        assertThrows(IllegalArgumentException.class, () -> physics.addStatic("bad", new float[]{0, 0, 0, 0, 1, 1}, 1));
+
+        // A fast dynamic character runs into the wall and stays on this side
+        Player player = new Player();
+        int character = physics.addCharacter(player, 0, 0, 0.25f, false);
+        physics.driveCharacter(character, 30, 0);
+        for (int i = 0; i < 60; i++) {
+            physics.step();
+        }
+        assertTrue(physics.getX(character) < 4.9f, "Stopped by the wall: " + physics.getX(character));
+        assertTrue(physics.getX(character) > 4.0f);
+        assertEquals(physics.getX(character), player.positionX(), 1e-6f, "Written back to the player");
+
+        // A kinematic character passes through
+        int ghost = physics.addCharacter("ghost", 0, 3, 0.25f, true);
+        physics.driveCharacter(ghost, 10, 0);
+        for (int i = 0; i < 60; i++) {
+            physics.step();
+        }
+        assertTrue(physics.getX(ghost) > 6.0f);
+
+        // Props start asleep, move when shoved and fall asleep again
+        int prop = physics.addProp("chair", -3, 0, 0.3f, 0.3f, 20);
+        assertFalse(physics.isAwake(prop));
+        physics.driveCharacter(character, -10, 0);
+        for (int i = 0; i < 60; i++) {
+            physics.step();
+        }
+        physics.driveCharacter(character, 0, 0);
+        assertTrue(physics.getX(prop) < -3.0f, "Pushed: " + physics.getX(prop));
+        for (int i = 0; i < 600 && physics.isAwake(prop); i++) {
+            physics.step();
+        }
+        assertFalse(physics.isAwake(prop), "Back to sleep");
+
+        // A door swings when pushed, and not while locked
+        physics.teleport(character, 10, -2);
+        int door = physics.addDoor("door", 9, 0, 1.2f, 0, (float) Math.PI / 2);
+        physics.setDoorLocked(door, true);
+        assertTrue(physics.isDoorLocked(door));
+        physics.driveCharacter(character, 0, 3);
+        for (int i = 0; i < 60; i++) {
+            physics.step();
+        }
+        assertEquals(0.0f, physics.getDoorAngle(door), 0.05f);
+        assertTrue(physics.getZ(character) < 0.0f, "Locked door blocks");
+        physics.setDoorLocked(door, false);
+        for (int i = 0; i < 120; i++) {
+            physics.step();
+        }
+        assertTrue(Math.abs(physics.getDoorAngle(door)) > 0.3f, "Door swung: " + physics.getDoorAngle(door));
+
+        // Area queries through the broadphase, and fixed-step updates
+        int[] found = new int[8];
+        int n = physics.queryArea(4, -1, 6, 1, found);
+        boolean sawWall = false;
+        for (int i = 0; i < Math.min(n, found.length); i++) {
+            sawWall |= found[i] == wall;
+        }
+        assertTrue(sawWall);
+        assertEquals(0, physics.update(0.001));
+        assertEquals(PhysicsWorld.MAX_STEPS_PER_FRAME, physics.update(10.0));
+        physics.remove(door);
+        assertFalse(physics.contains(door));
+        assertThrows(IllegalArgumentException.class, () -> physics.getDoorAngle(door));
+
+        // A monster chasing through its body is stopped by the wall as well
+        LookBasedMonster monster = new LookBasedMonster(new float[]{3, 0, 6});
+        monster.setPhysicsWorld(physics);
+        float[] beyondWall = {8, 0, 6};
+        for (int i = 0; i < 300; i++) {
+            monster.updateLookBasedBehavior(beyondWall, true, PhysicsWorld.STEP);
+            physics.step();
+        }
+        assertTrue(monster.positionX() > 4.0f, "Chased: " + monster.positionX());
+        assertTrue(monster.positionX() < 4.9f, "Stopped by the wall: " + monster.positionX());
+        monster.setPhysicsWorld(null);
+
+        // Room walls, doors and furniture come from the generator
+        EnhancedRoomGenerator generator = new EnhancedRoomGenerator();
+        PhysicsWorld roomPhysics = new PhysicsWorld();
+        generator.setPhysicsWorld(roomPhysics);
+        generator.update(new float[]{0, 0, 0}, new float[]{0, 0, 1}, 0.1);
+        assertFalse(generator.getActiveRooms().isEmpty());
+        assertTrue(roomPhysics.size() >= generator.getActiveRooms().size());
+        generator.setPhysicsWorld(null);
+        assertEquals(0, roomPhysics.size());
+    }
+
+    @Test
+    @DisplayName("Dynamic AABB tree stays balanced and matches brute-force queries")
+    void testDynamicAABBTree() {
+        java.util.Random random = new java.util.Random(20);
+        DynamicAABBTree tree = new DynamicAABBTree(0.2f);
+        int count = 400;
+        float[][] boxes = new float[count][];
+        int[] proxies = new int[count];
+        boolean[] removed = new boolean[count];
+        java.util.Map<Integer, Integer> indexOf = new java.util.HashMap<>();
+        for (int i = 0; i < count; i++) {
+            boxes[i] = randomBox(random);
+            float[] b = boxes[i];
+            proxies[i] = tree.createProxy(i, b[0], b[1], b[2], b[3], b[4], b[5]);
+            indexOf.put(proxies[i], i);
+        }
+        tree.validate();
+        assertTrue(tree.getHeight() <= 2 * 9 + 1, "Balanced: height " + tree.getHeight());
+
+        // Small moves stay inside the fat box; big ones reinsert
+        float[] b0 = boxes[0];
+        assertFalse(tree.moveProxy(proxies[0], b0[0] + 0.1f, b0[1], b0[2], b0[3] + 0.1f, b0[4], b0[5]));
+        boxes[0] = new float[]{b0[0] + 0.1f, b0[1], b0[2], b0[3] + 0.1f, b0[4], b0[5]};
+        for (int i = 1; i < count; i += 3) {
+            float dx = random.nextFloat() * 4 - 2, dz = random.nextFloat() * 4 - 2;
+            float[] b = boxes[i];
+            boxes[i] = new float[]{b[0] + dx, b[1], b[2] + dz, b[3] + dx, b[4], b[5] + dz};
+            tree.moveProxy(proxies[i], boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3], boxes[i][4], boxes[i][5], dx, 0, dz);
+        }
+        for (int i = 2; i < count; i += 5) {
+            tree.destroyProxy(proxies[i]);
+            removed[i] = true;
+        }
+        tree.validate();
+        assertTrue(tree.getReinsertCount() > 0);
+        assertEquals(count - (count + 2) / 5, tree.size());
+        assertThrows(IllegalArgumentException.class, () -> tree.getUserData(proxies[2]));
+
+        // Box queries
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomBox(random);
+            java.util.Set<Integer> found = new java.util.HashSet<>();
+            tree.queryAABB(query[0], query[1], query[2], query[3], query[4], query[5], proxy -> found.add(indexOf.get(proxy)));
+            for (int i = 0; i < count; i++) {
+                float[] b = boxes[i];
+                boolean overlap = !removed[i] && b[3] >= query[0] && b[0] <= query[3] && b[4] >= query[1] &&
+                                  b[1] <= query[4] && b[5] >= query[2] && b[2] <= query[5];
+                assertEquals(overlap, found.contains(i), "Query " + q + ", box " + i);
+            }
+        }
+
+        // Closest ray hit against a brute-force segment test
+        for (int q = 0; q < 50; q++) {
+            float[] segment = {random.nextFloat() * 60 - 30, random.nextFloat() * 4, random.nextFloat() * 60 - 30,
+                               random.nextFloat() * 60 - 30, random.nextFloat() * 4, random.nextFloat() * 60 - 30};
+            float expected = 1.0f;
+            for (int i = 0; i < count; i++) {
+                if (!removed[i]) {
+                    expected = Math.min(expected, segmentBoxFraction(segment, 0, boxes[i], 0));
+                }
+            }
+            float[] closest = {1.0f};
+            tree.raycast(segment[0], segment[1], segment[2], segment[3] - segment[0], segment[4] - segment[1],
+                         segment[5] - segment[2], 1.0f, (proxy, distance) -> {
+                closest[0] = Math.min(closest[0], distance);
+                return closest[0];
+            });
+            assertEquals(expected, closest[0], 1e-4f, "Ray " + q);
+        }
+
+        // Every overlapping pair once
+        java.util.Set<Long> pairs = new java.util.HashSet<>();
+        tree.queryPairs((a, b) -> {
+            assertTrue(a < b);
+            assertTrue(pairs.add(((long) a << 32) | b), "Pair reported twice");
+            return true;
+        });
+        int expectedPairs = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                float[] a = boxes[i], b = boxes[j];
+                if (!removed[i] && !removed[j] && a[3] >= b[0] && a[0] <= b[3] && a[4] >= b[1] &&
+                    a[1] <= b[4] && a[5] >= b[2] && a[2] <= b[5]) {
+                    expectedPairs++;
+                    assertTrue(pairs.contains(((long) Math.min(proxies[i], proxies[j]) << 32) | Math.max(proxies[i], proxies[j])));
+                }
+            }
+        }
+        assertEquals(expectedPairs, pairs.size());
+
+        // New pairs only involve proxies that moved since the last call
+        tree.updatePairs((a, b) -> true);
+        int[] newPairs = new int[1];
+        assertTrue(tree.updatePairs((a, b) -> ++newPairs[0] > 0));
+        assertEquals(0, newPairs[0]);
+        float[] far = {500, 0, 500, 501, 1, 501};
+        int lone = tree.createProxy("lone", far[0], far[1], far[2], far[3], far[4], far[5]);
+        int partner = tree.createProxy("partner", 500.5f, 0, 500.5f, 502, 1, 502);
+        java.util.List<int[]> reported = new java.util.ArrayList<>();
+        tree.updatePairs((a, b) -> reported.add(new int[]{a, b}));
+        assertEquals(1, reported.size());
+        assertArrayEquals(new int[]{Math.min(lone, partner), Math.max(lone, partner)}, reported.get(0));
+
+        // Monsters through the collision helpers
+        DynamicAABBTree monsters = new DynamicAABBTree(0.5f);
+        BasicMonster monster = new BasicMonster(3, 0, 0);
+        int proxy = CollisionDetector.addMonster(monsters, monster);
+        Player player = new Player();
+        player.setPosition(0, 0, 0);
+        assertTrue(CollisionDetector.forEachPlayerMonsterCollision(player, monsters, p -> false));
+        assertTrue(CollisionDetector.isMovementBlocked(player, 2.9f, 0, 0, monsters));
+        monster.setPosition(0.2f, 0, 0);
+        assertTrue(CollisionDetector.moveMonster(monsters, proxy, monster));
+        assertFalse(CollisionDetector.forEachPlayerMonsterCollision(player, monsters, p -> false));
+        monster.setPosition(0.3f, 0, 0);
+        assertFalse(CollisionDetector.moveMonster(monsters, proxy, monster), "Small move stays in the fat box");
+        assertSame(monster, monsters.getUserData(proxy));
+    }
+
+    private static float[] randomBox(java.util.Random random) {
+        float x = random.nextFloat() * 60 - 30, y = random.nextFloat() * 4, z = random.nextFloat() * 60 - 30;
+        return new float[]{x, y, z, x + random.nextFloat() * 5, y + random.nextFloat() * 2, z + random.nextFloat() * 5};
+    }
+
+    /**
+     * Brute-force segment/box test
+     * @return Fraction along the segment where it enters the box, or 1 if it misses
+     */
+    private static float segmentBoxFraction(float[] segment, int s, float[] box, int b) {
+        float near = 0.0f, far = 1.0f;
+        for (int axis = 0; axis < 3; axis++) {
+            float from = segment[s + axis];
+            float delta = segment[s + 3 + axis] - from;
+            if (delta == 0.0f) {
+                if (from < box[b + axis] || from > box[b + 3 + axis]) {
+                    return 1.0f;
+                }
+                continue;
+            }
+            float t1 = (box[b + axis] - from) / delta;
+            float t2 = (box[b + 3 + axis] - from) / delta;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return near <= far ? near : 1.0f;
+    }
+
     // === Integration Tests ===
     
     @Test
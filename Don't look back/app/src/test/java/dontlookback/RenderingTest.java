@@ -0,0 +1,733 @@
+package dontlookback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for the retained-mode rendering pipeline.
+ *
+ * Only the CPU side (geometry building, matrix math, headless behavior)
+ * is exercised here; GPU upload requires an OpenGL context.
+ */
+public class RenderingTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    // === Mesh Geometry Tests ===
+
+    @Test
+    @DisplayName("Cube geometry is 24 vertices and 12 indexed triangles")
+    void testCubeGeometry() {
+        MeshBuilder builder = new MeshBuilder();
+        Shapes.appendColorCube(builder);
+
+        assertEquals(24, builder.getVertexCount());
+        assertEquals(36, builder.getIndexCount());
+        assertEquals(24 * Mesh.FLOATS_PER_VERTEX, builder.getVertices().length);
+
+        for (int index : builder.getIndices()) {
+            assertTrue(index >= 0 && index < 24, "Index out of range: " + index);
+        }
+    }
+
+    @Test
+    @DisplayName("Faces wind counter-clockwise around their normal")
+    void testFaceWinding() {
+        MeshBuilder builder = new MeshBuilder();
+        Shapes.appendColorCube(builder);
+        float[] v = builder.getVertices();
+        int[] indices = builder.getIndices();
+        int stride = Mesh.FLOATS_PER_VERTEX;
+
+        for (int t = 0; t < indices.length; t += 3) {
+            int a = indices[t] * stride;
+            int b = indices[t + 1] * stride;
+            int c = indices[t + 2] * stride;
+
+            float e1x = v[b] - v[a], e1y = v[b + 1] - v[a + 1], e1z = v[b + 2] - v[a + 2];
+            float e2x = v[c] - v[a], e2y = v[c + 1] - v[a + 1], e2z = v[c + 2] - v[a + 2];
+            float cx = e1y * e2z - e1z * e2y;
+            float cy = e1z * e2x - e1x * e2z;
+            float cz = e1x * e2y - e1y * e2x;
+
+            // Outward-facing cube: normal points away from the center
+            float dot = cx * v[a + 3] + cy * v[a + 4] + cz * v[a + 5];
+            assertTrue(dot > 0, "Triangle " + (t / 3) + " winds against its normal");
+            float outward = v[a] * v[a + 3] + v[a + 1] * v[a + 4] + v[a + 2] * v[a + 5];
+            assertTrue(outward > 0, "Triangle " + (t / 3) + " normal points inwards");
+        }
+    }
+
+    @Test
+    @DisplayName("Room interior faces point inwards")
+    void testRoomFacesInward() {
+        MeshBuilder builder = new MeshBuilder();
+        Shapes.appendRoom(builder);
+        float[] v = builder.getVertices();
+
+        assertEquals(24, builder.getVertexCount());
+        for (int i = 0; i < builder.getVertexCount(); i++) {
+            int o = i * Mesh.FLOATS_PER_VERTEX;
+            // Vector from vertex to room center (0, 0.5, 0) should agree with the normal
+            float toCenter = -v[o] * v[o + 3] + (0.5f - v[o + 1]) * v[o + 4] - v[o + 2] * v[o + 5];
+            assertTrue(toCenter > 0, "Vertex " + i + " faces away from the room");
+        }
+    }
+
+    // === Matrix Tests ===
+
+    @Test
+    @DisplayName("Model matrix translates, rotates and scales points")
+    void testModelMatrix() {
+        float[] m = Matrix4.create();
+        float[] out = new float[4];
+
+        Matrix4.model(m, 10.0f, 2.0f, -3.0f, 90.0f, 2.0f, 2.0f, 2.0f);
+        Matrix4.transformPoint(m, new float[]{1.0f, 0.0f, 0.0f}, out);
+
+        // +X rotated 90 degrees around Y becomes -Z, then scaled and translated
+        assertEquals(10.0f, out[0], EPSILON);
+        assertEquals(2.0f, out[1], EPSILON);
+        assertEquals(-5.0f, out[2], EPSILON);
+        assertEquals(1.0f, out[3], EPSILON);
+    }
+
+    @Test
+    @DisplayName("In-place transforms match the equivalent model matrix")
+    void testInPlaceTransforms() {
+        float[] direct = Matrix4.create();
+        float[] stacked = Matrix4.create();
+
+        Matrix4.model(direct, 1.0f, 2.0f, 3.0f, 30.0f, 1.5f, 0.5f, 2.0f);
+        Matrix4.translate(stacked, 1.0f, 2.0f, 3.0f);
+        Matrix4.rotateY(stacked, 30.0f);
+        Matrix4.scale(stacked, 1.5f, 0.5f, 2.0f);
+
+        assertArrayEquals(direct, stacked, EPSILON);
+    }
+
+    @Test
+    @DisplayName("Frustum maps near and far planes to clip space bounds")
+    void testFrustum() {
+        float[] projection = Matrix4.create();
+        float[] out = new float[4];
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+
+        Matrix4.transformPoint(projection, new float[]{0.0f, 0.0f, -1.0f}, out);
+        assertEquals(-1.0f, out[2] / out[3], EPSILON);
+
+        Matrix4.transformPoint(projection, new float[]{0.0f, 0.0f, -100.0f}, out);
+        assertEquals(1.0f, out[2] / out[3], 1e-4f);
+    }
+
+    // === Instancing Tests ===
+
+    @Test
+    @DisplayName("Instance batch packs center, width, yaw and color")
+    void testInstanceBatchLayout() {
+        InstanceBatch batch = new InstanceBatch(null, 1, false);
+        batch.add(1.0f, 2.0f, 3.0f, 0.5f, 0.25f, 0.1f, 0.2f, 0.3f);
+        batch.add(4.0f, 5.0f, 6.0f, 1.5f, 0.0f, 1.0f, 1.0f, 1.0f);
+
+        assertEquals(2, batch.getInstanceCount());
+        assertTrue(batch.isDirty());
+        assertArrayEquals(new float[]{
+            1.0f, 2.0f, 3.0f, 0.5f, 0.25f, 0.1f, 0.2f, 0.3f,
+            4.0f, 5.0f, 6.0f, 1.5f, 0.0f, 1.0f, 1.0f, 1.0f
+        }, batch.getInstanceData(), EPSILON);
+
+        batch.clear();
+        assertEquals(0, batch.getInstanceCount());
+    }
+
+    @Test
+    @DisplayName("Render lists batch only cubes with a bound mesh")
+    void testRenderListInstancing() {
+        RenderList list = new RenderList();
+        Cube bound = new Cube(1.0f, 0.0f, 2.0f, 90.0f, 2.0f);
+        bound.setRGB(0.6f, 0.4f, 0.2f);
+        bound.setUpVBO();
+        Cube unbound = new Cube(0.0f, 0.0f, 0.0f, 0.0f, 1.0f);
+        list.add(bound);
+        list.add(unbound);
+
+        InstanceBatch batch = new InstanceBatch(null, 4, true);
+        list.appendInstances(batch);
+
+        assertEquals(1, batch.getInstanceCount());
+        float[] data = batch.getInstanceData();
+        assertEquals(1.0f, data[0], EPSILON);
+        assertEquals(2.0f, data[3], EPSILON);
+        assertEquals((float) Math.toRadians(90.0), data[4], EPSILON);
+        assertEquals(0.6f, data[5], EPSILON);
+    }
+
+    // === Shader Library Tests ===
+
+    @Test
+    @DisplayName("Shader includes expand recursively and record dependencies")
+    void testShaderIncludes() throws IOException {
+        Path dir = Files.createTempDirectory("dlb-shaders");
+        Files.write(dir.resolve("main.fs"), "#version 330 core\n#include \"lighting.fsh\"\nvoid main() {}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("lighting.fsh"), "#include \"common.glh\"\nfloat light;\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("common.glh"), "float common;\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("loop.glh"), "#include \"loop.glh\"\n".getBytes(StandardCharsets.UTF_8));
+
+        ShaderLibrary library = new ShaderLibrary(dir, null, false);
+        Set<String> dependencies = new LinkedHashSet<>();
+        String source = library.resolveIncludes("main.fs", dependencies);
+
+        assertEquals("#version 330 core\nfloat common;\nfloat light;\nvoid main() {}\n", source);
+        assertEquals(Set.of("main.fs", "lighting.fsh", "common.glh"), dependencies);
+        assertThrows(IllegalStateException.class, () -> library.resolveIncludes("loop.glh", new LinkedHashSet<>()));
+    }
+
+    @Test
+    @DisplayName("Uniform ids are stable and shared between programs")
+    void testUniformIds() {
+        int model = ShaderLibrary.uniformId("T_model");
+        assertEquals(model, ShaderLibrary.uniformId("T_model"));
+        assertNotEquals(model, ShaderLibrary.uniformId("R_tint"));
+        assertEquals(ShaderLibrary.hashSources("gl", "vs", "fs"), ShaderLibrary.hashSources("gl", "vs", "fs"));
+        assertNotEquals(ShaderLibrary.hashSources("gl", "vs", "fs"), ShaderLibrary.hashSources("gl2", "vs", "fs"));
+    }
+
+    // === Culling Tests ===
+
+    @Test
+    @DisplayName("Frustum planes follow the camera")
+    void testFrustumPlanes() {
+        float[] projection = Matrix4.create();
+        float[] view = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+        Frustum frustum = new Frustum();
+        frustum.update(projection, view);
+
+        assertTrue(frustum.containsPoint(0.0f, 0.0f, -10.0f));
+        assertFalse(frustum.containsPoint(0.0f, 0.0f, 10.0f));
+        assertFalse(frustum.containsPoint(0.0f, 0.0f, -150.0f));
+        assertEquals(Frustum.INSIDE, frustum.testAABB(-1, -1, -11, 1, 1, -9));
+        assertEquals(Frustum.INTERSECTING, frustum.testAABB(-1, -1, -2, 1, 1, 2));
+        assertEquals(Frustum.OUTSIDE, frustum.testAABB(50, -1, -11, 52, 1, -9));
+
+        // Turn the camera around (yaw 180): what was behind is now visible
+        Matrix4.rotateY(view, 180.0f);
+        frustum.update(projection, view);
+        assertTrue(frustum.containsPoint(0.0f, 0.0f, 10.0f));
+        assertFalse(frustum.containsPoint(0.0f, 0.0f, -10.0f));
+    }
+
+    @Test
+    @DisplayName("BVH culling matches brute force and refits moved objects")
+    void testBvhCulling() {
+        float[] projection = Matrix4.create();
+        float[] view = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+        Frustum frustum = new Frustum();
+        frustum.update(projection, view);
+
+        Random random = new Random(7);
+        SceneCuller culler = new SceneCuller();
+        List<Cube> cubes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Cube cube = new Cube(random.nextFloat() * 200 - 100, random.nextFloat() * 20 - 10,
+                                 random.nextFloat() * 200 - 100, 0.0f, 1.0f);
+            cubes.add(cube);
+            culler.track(cube);
+        }
+        Room room = new Room(1, RoomType.SMALL_ROOM, new float[]{0.0f, -1.0f, -20.0f});
+        culler.track(room);
+
+        culler.cull(frustum);
+        for (Cube cube : cubes) {
+            boolean expected = frustum.intersectsSphere(cube.getX(), cube.getY(), cube.getZ(),
+                                                        cube.getBoundingRadius());
+            // The BVH tests the sphere's box, which may keep a few extra corner cases
+            if (expected) {
+                assertTrue(culler.getVisibleObjects().contains(cube));
+            }
+        }
+        assertEquals(List.of(room), culler.getVisibleRooms());
+        assertTrue(culler.getVisibleObjects().size() < cubes.size());
+
+        // Move a hidden cube into view: refit, not rebuild
+        Cube mover = cubes.stream().filter(c -> !culler.getVisibleObjects().contains(c)).findFirst().orElseThrow();
+        int rebuilds = culler.getHierarchy().getRebuildCount();
+        mover.setCenter(new float[]{0.0f, 0.0f, -30.0f});
+        culler.updateBounds();
+        culler.cull(frustum);
+        assertTrue(culler.getVisibleObjects().contains(mover));
+        assertEquals(rebuilds, culler.getHierarchy().getRebuildCount());
+        assertTrue(culler.getHierarchy().getRefitCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Snapshots copy the world and rooms, and the culler draws from the copies")
+    void testSnapshotCulling() {
+        float[] projection = Matrix4.create();
+        float[] view = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+        Frustum frustum = new Frustum();
+        frustum.update(projection, view);
+
+        RenderList world = new RenderList();
+        Cube ahead = new Cube(0.0f, 0.0f, -10.0f, 0.0f, 1.0f);
+        Cube behind = new Cube(0.0f, 0.0f, 10.0f, 0.0f, 1.0f);
+        world.add(ahead);
+        world.add(behind);
+        Room room = new Room(1, RoomType.SMALL_ROOM, new float[]{0.0f, -1.0f, -20.0f});
+        room.generateContent();
+        room.updateLastViewedTime();
+        Room hidden = new Room(2, RoomType.SMALL_ROOM, new float[]{0.0f, -1.0f, -40.0f});
+
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.begin(1, 0.0, GameState.PLAYING);
+        snapshot.setWorld(world);
+        snapshot.setRooms(List.of(room, hidden));
+        assertEquals(2 + room.getRoomContents().size(), snapshot.getInstanceCount());
+        assertEquals(1, snapshot.getRoomCount(), "Inactive, empty rooms are not drawn");
+
+        // Moving the simulation's cube does not change the published copy
+        ahead.setCenter(new float[]{0.0f, 0.0f, 50.0f});
+        assertEquals(-10.0f, snapshot.getInstanceData()[2], EPSILON);
+        assertEquals(-20.0f, snapshot.getRoomData()[2], EPSILON);
+
+        SceneCuller culler = new SceneCuller();
+        culler.syncSnapshot(snapshot);
+        culler.cull(frustum);
+        Set<Integer> visible = new LinkedHashSet<>();
+        for (int i = 0; i < culler.getVisibleInstanceCount(); i++) {
+            visible.add(culler.getVisibleInstance(i));
+        }
+        assertTrue(visible.contains(0));
+        assertFalse(visible.contains(1), "The cube behind the camera is culled");
+        assertEquals(1, culler.getVisibleRoomCount());
+        assertEquals(0, culler.getVisibleRoom(0));
+
+        // The next frame has fewer records: the extra leaves are dropped
+        RenderSnapshot next = new RenderSnapshot();
+        next.begin(2, 0.0, GameState.PLAYING);
+        next.setWorld(world);
+        culler.syncSnapshot(next);
+        assertEquals(2, culler.getTrackedCount());
+        culler.cull(frustum);
+        assertEquals(0, culler.getVisibleInstanceCount(), "Both cubes are behind the camera now");
+        assertEquals(0, culler.getVisibleRoomCount());
+    }
+
+    @Test
+    @DisplayName("Instances and lights are drawn between their previous and current step")
+    void testSnapshotInterpolation() {
+        RenderList world = new RenderList();
+        Cube cube = new Cube(0.0f, 0.0f, -10.0f, 170.0f, 1.0f);
+        world.add(cube);
+        LightManager lights = new LightManager(GameClock.manual());
+        LightSource lantern = new LightSource(LightSource.LightType.LANTERN, new float[]{0.0f, 0.0f, -10.0f}, 0.0f);
+        lantern.light();
+        assertTrue(lights.addLightSource(lantern));
+        lights.update(0.0f);
+
+        RenderSnapshot previous = new RenderSnapshot();
+        previous.begin(1, 0.0, GameState.PLAYING);
+        previous.setWorld(world);
+        previous.setLightBuffer(lights);
+
+        // One step: the cube moves and turns across 180 degrees, the lantern moves
+        cube.setCenter(new float[]{4.0f, 0.0f, -10.0f});
+        cube.setOrientation(-170.0f);
+        lantern.setCenter(new float[]{2.0f, 0.0f, -10.0f});
+        lights.update(0.0f);
+
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.begin(2, 0.0, GameState.PLAYING);
+        snapshot.setWorld(world);
+        snapshot.setLightBuffer(lights);
+        float[] out = new float[4];
+        snapshot.interpolateInstance(0, 0.5f, out);
+        assertEquals(4.0f, out[0], EPSILON, "Without a previous step records stand still");
+
+        snapshot.setPreviousStep(previous);
+        snapshot.interpolateInstance(0, 0.5f, out);
+        assertEquals(2.0f, out[0], EPSILON);
+        assertEquals(-10.0f, out[2], EPSILON);
+        assertEquals(Math.PI, Math.abs(out[3]), EPSILON, "Yaw turns the short way through 180");
+        snapshot.interpolateInstance(0, 1.0f, out);
+        assertEquals(4.0f, out[0], EPSILON);
+
+        LightBuffer blended = snapshot.interpolateLights(0.5f, new LightBuffer(lights.getLightBufferCapacity()));
+        assertEquals(1, blended.size());
+        assertEquals(1.0f, blended.getData()[LightBuffer.X * blended.getCapacity()], EPSILON);
+        assertEquals(2.0f, snapshot.getLightBuffer().getData()[LightBuffer.X * blended.getCapacity()], EPSILON,
+                     "The snapshot's own buffer is untouched");
+
+        // Another light taking the lantern's slot does not slide in from the lantern
+        LightSource candle = new LightSource(LightSource.LightType.CANDLE, new float[]{6.0f, 0.0f, -10.0f}, 0.0f);
+        candle.light();
+        assertTrue(lights.removeLightSource(lantern));
+        assertTrue(lights.addLightSource(candle));
+        lights.update(0.0f);
+        RenderSnapshot swapped = new RenderSnapshot();
+        swapped.begin(3, 0.0, GameState.PLAYING);
+        swapped.setLightBuffer(lights);
+        swapped.setPreviousStep(snapshot);
+        blended = swapped.interpolateLights(0.5f, blended);
+        assertEquals(1, blended.size());
+        assertEquals(6.0f, blended.getData()[LightBuffer.X * blended.getCapacity()], EPSILON);
+
+        // A changed world size leaves records still
+        world.add(new Cube(0.0f, 0.0f, -5.0f, 0.0f, 1.0f));
+        RenderSnapshot grown = new RenderSnapshot();
+        grown.begin(3, 0.0, GameState.PLAYING);
+        grown.setWorld(world);
+        grown.setPreviousStep(previous);
+        grown.interpolateInstance(0, 0.5f, out);
+        assertEquals(4.0f, out[0], EPSILON);
+    }
+
+    // === Model Loading Tests ===
+
+    @Test
+    @DisplayName("OBJ faces are triangulated and shared vertices deduplicated")
+    void testObjParsing() {
+        String obj = "# quad\nv 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvn 0 0 1\n" +
+                     "f 1//1 2//1 3//1 4//1\nf -4//1 -2//1 -1//1\n";
+        ObjLoader loader = new ObjLoader();
+        loader.parse(ByteBuffer.wrap(obj.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(4, loader.getVertexCount());
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 0, 2, 3}, loader.getIndices());
+        float[] v = loader.getVertices();
+        assertEquals(1.0f, v[Mesh.FLOATS_PER_VERTEX * 2], EPSILON);
+        assertEquals(1.0f, v[5], EPSILON);
+    }
+
+    @Test
+    @DisplayName("Models write a .dlbmesh cache and reload it memory-mapped")
+    void testModelCache() throws IOException {
+        Path dir = Files.createTempDirectory("dlb-models");
+        Path obj = dir.resolve("plane3.obj");
+        try (InputStream in = RenderingTest.class.getResourceAsStream("/models/plane3.obj")) {
+            assertNotNull(in, "plane3.obj should be on the classpath");
+            Files.copy(in, obj);
+        }
+
+        Model parsed = Model.load(obj);
+        assertFalse(parsed.isFromCache());
+        assertTrue(Files.isRegularFile(dir.resolve("plane3" + Model.CACHE_EXTENSION)));
+        // Six faces with distinct normals: 24 vertices, 12 triangles
+        assertEquals(24, parsed.getVertexCount());
+        assertEquals(36, parsed.getIndexCount());
+
+        Model mapped = Model.load(obj);
+        assertTrue(mapped.isFromCache());
+        assertEquals(parsed.getVertexData(), mapped.getVertexData());
+        assertEquals(parsed.getIndexData(), mapped.getIndexData());
+    }
+
+    // === Clustered Lighting Tests ===
+
+    @Test
+    @DisplayName("Lights are binned only into the clusters they can reach")
+    void testLightClustering() {
+        float[] view = Matrix4.create();
+        float[] projection = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+
+        LightSource ahead = new LightSource(LightSource.LightType.TORCH, new float[]{0.0f, 0.0f, -10.0f}, 0.0f);
+        LightSource behind = new LightSource(LightSource.LightType.TORCH, new float[]{0.0f, 0.0f, 10.0f}, 0.0f);
+        LightSource unlit = new LightSource(LightSource.LightType.CANDLE, new float[]{0.0f, 0.0f, -5.0f}, 0.0f);
+        ahead.light();
+        behind.light();
+
+        ClusteredLighting clusters = new ClusteredLighting();
+        clusters.build(Arrays.asList(ahead, behind, unlit), view, projection, 1.0f, 100.0f);
+
+        assertEquals(1, clusters.getLightCount());
+        assertEquals(-10.0f, clusters.getLightData()[2], EPSILON);
+
+        // Depth 10 of 1..100 is the middle slice; the screen center sees the torch, the corner does not
+        int slice = (int) (Math.log(10.0) / Math.log(100.0) * ClusteredLighting.DEPTH_SLICES);
+        int center = ClusteredLighting.clusterIndex(ClusteredLighting.TILES_X / 2, ClusteredLighting.TILES_Y / 2, slice);
+        int corner = ClusteredLighting.clusterIndex(0, 0, slice);
+        int far = ClusteredLighting.clusterIndex(ClusteredLighting.TILES_X / 2, ClusteredLighting.TILES_Y / 2,
+                                                 ClusteredLighting.DEPTH_SLICES - 1);
+        assertEquals(1, clusters.getClusterLightCount(center));
+        assertEquals(0, clusters.getClusterLight(center, 0));
+        assertEquals(0, clusters.getClusterLightCount(corner));
+        assertEquals(0, clusters.getClusterLightCount(far));
+    }
+
+    @Test
+    @DisplayName("Clusters bin light buffer slots without repacking")
+    void testLightBufferClustering() {
+        float[] view = Matrix4.create();
+        float[] projection = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+
+        LightBuffer buffer = new LightBuffer(8);
+        LightSource unlit = new LightSource(LightSource.LightType.CANDLE, new float[]{0.0f, 0.0f, -5.0f}, 0.0f);
+        LightSource ahead = new LightSource(LightSource.LightType.FLASHLIGHT, new float[]{0.0f, 0.0f, -10.0f}, 90.0f);
+        ahead.light();
+        buffer.append(unlit);
+        buffer.append(ahead);
+
+        ClusteredLighting clusters = new ClusteredLighting();
+        clusters.build(buffer, view, projection, 1.0f, 100.0f);
+        assertEquals(1, clusters.getLightCount());
+        int slice = (int) (Math.log(10.0) / Math.log(100.0) * ClusteredLighting.DEPTH_SLICES);
+        int center = ClusteredLighting.clusterIndex(ClusteredLighting.TILES_X / 2, ClusteredLighting.TILES_Y / 2, slice);
+        assertEquals(1, clusters.getClusterLight(center, 0), "Cluster lists hold buffer slots");
+
+        // Records match the list path
+        ClusteredLighting fromList = new ClusteredLighting();
+        fromList.build(Arrays.asList(unlit, ahead), view, projection, 1.0f, 100.0f);
+        assertArrayEquals(fromList.getLightData(), clusters.getLightData());
+        float[] record = clusters.getLightData();
+        assertEquals(1.0f, record[8], EPSILON, "Yaw 90 faces +X");
+        assertEquals(Math.cos(Math.toRadians(15.0)), record[11], EPSILON);
+        assertEquals(ahead.getCurrentIntensity() / 100.0f, record[7], EPSILON);
+    }
+
+    @Test
+    @DisplayName("Frames from an attached light manager build clusters for upload")
+    void testLightClusterUpload() {
+        float[] view = Matrix4.create();
+        float[] projection = Matrix4.create();
+        Matrix4.frustum(projection, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, 100.0f);
+        ClusteredLighting clusters = new ClusteredLighting();
+
+        // Without a light manager there is nothing to upload
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.begin(1, 0.0, GameState.PLAYING);
+        assertFalse(Graphics.buildLightClusters(clusters, snapshot.getLightBuffer(), view, projection));
+
+        LightManager lights = new LightManager(GameClock.manual());
+        LightSource lantern = new LightSource(LightSource.LightType.LANTERN, new float[]{0.0f, 0.0f, -10.0f}, 0.0f);
+        lantern.light();
+        assertTrue(lights.addLightSource(lantern));
+        lights.update(0.0f);
+
+        snapshot.begin(2, 0.0, GameState.PLAYING);
+        snapshot.setLightBuffer(lights);
+        assertTrue(Graphics.buildLightClusters(clusters, snapshot.getLightBuffer(), view, projection));
+        assertEquals(1, clusters.getLightCount());
+        int slice = (int) (Math.log(10.0) / Math.log(100.0) * ClusteredLighting.DEPTH_SLICES);
+        int center = ClusteredLighting.clusterIndex(ClusteredLighting.TILES_X / 2, ClusteredLighting.TILES_Y / 2, slice);
+        assertEquals(1, clusters.getClusterLightCount(center));
+    }
+
+    @Test
+    @DisplayName("Streaming buffer allocations align, fill their region and wrap around the ring")
+    void testStreamingBufferAllocation() {
+        // Alignment
+        assertEquals(0, StreamingBuffer.align(0, 256));
+        assertEquals(256, StreamingBuffer.align(1, 256));
+        assertEquals(48, StreamingBuffer.align(48, 16));
+        assertEquals(48, StreamingBuffer.align(40, 12));
+        assertEquals(13, StreamingBuffer.align(13, 1));
+        assertEquals(13, StreamingBuffer.align(13, 0));
+
+        // Consecutive allocations in a 1 KB region, each placed at an aligned offset
+        int region = 1024;
+        int cursor = 0;
+        int first = StreamingBuffer.placeAllocation(cursor, 100, 16, region);
+        assertEquals(0, first);
+        cursor = first + 100;
+        int second = StreamingBuffer.placeAllocation(cursor, 64, 256, region);
+        assertEquals(256, second);
+        cursor = second + 64;
+
+        // Filling the region exactly fits; one byte more does not
+        assertEquals(512, StreamingBuffer.placeAllocation(cursor, region - 512, 256, region));
+        assertEquals(-1, StreamingBuffer.placeAllocation(cursor, region - 512 + 1, 256, region));
+        assertEquals(-1, StreamingBuffer.placeAllocation(region, 1, 1, region), "Full region");
+        assertEquals(region, StreamingBuffer.placeAllocation(region, 0, 1, region));
+
+        // Oversize requests never fit, even without overflowing the offset math
+        assertEquals(-1, StreamingBuffer.placeAllocation(0, region + 1, 16, region));
+        assertEquals(-1, StreamingBuffer.placeAllocation(512, Integer.MAX_VALUE, 16, region));
+        assertThrows(IllegalArgumentException.class, () -> StreamingBuffer.placeAllocation(0, -1, 16, region));
+
+        // The ring wraps after the last region; offsets are absolute only when persistent
+        int current = StreamingBuffer.REGION_COUNT - 1;
+        for (int frame = 0; frame < StreamingBuffer.REGION_COUNT * 2; frame++) {
+            current = StreamingBuffer.nextRegion(current);
+            assertEquals(frame % StreamingBuffer.REGION_COUNT, current);
+            assertEquals(current * region, StreamingBuffer.regionBase(current, region, true));
+            assertEquals(0, StreamingBuffer.regionBase(current, region, false));
+        }
+    }
+
+    @Test
+    @DisplayName("Sort keys order by layer, shader, material, then depth")
+    void testRenderSortKeys() {
+        long near = RenderQueue.makeKey(RenderQueue.LAYER_OPAQUE, 1, 5, 0.1f);
+        long far = RenderQueue.makeKey(RenderQueue.LAYER_OPAQUE, 1, 5, 0.9f);
+        long otherMesh = RenderQueue.makeKey(RenderQueue.LAYER_OPAQUE, 1, 6, 0.0f);
+        long otherShader = RenderQueue.makeKey(RenderQueue.LAYER_OPAQUE, 2, 0, 0.0f);
+        long glassNear = RenderQueue.makeKey(RenderQueue.LAYER_TRANSPARENT, 0, 0, 0.1f);
+        long glassFar = RenderQueue.makeKey(RenderQueue.LAYER_TRANSPARENT, 0, 0, 0.9f);
+        long overlay = RenderQueue.makeKey(RenderQueue.LAYER_OVERLAY, 0, 0, 0.0f);
+
+        assertTrue(near < far, "Opaque draws go front to back");
+        assertTrue(far < otherMesh, "Material outranks depth");
+        assertTrue(otherMesh < otherShader, "Shader outranks material");
+        assertTrue(otherShader < glassFar, "Transparent layer follows opaque");
+        assertTrue(glassFar < glassNear, "Transparent draws go back to front");
+        assertTrue(glassNear < overlay);
+
+        // Radix sort agrees with an unsigned comparison, including the top bit
+        java.util.Random random = new java.util.Random(42);
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        keys[7] = 0L;
+        keys[8] = -1L;
+        RadixSort sorter = new RadixSort();
+        int[] order = sorter.sort(keys, keys.length);
+        for (int i = 1; i < keys.length; i++) {
+            assertTrue(Long.compareUnsigned(keys[order[i - 1]], keys[order[i]]) <= 0);
+        }
+        assertEquals(0L, keys[order[0]]);
+        assertEquals(-1L, keys[order[keys.length - 1]]);
+
+        // Keys that only differ in a few bits skip the other passes; equal keys stay in order
+        long[] grouped = {near, far, near, otherMesh, near};
+        order = sorter.sort(grouped, grouped.length);
+        assertTrue(sorter.getLastPasses() < 8);
+        assertArrayEquals(new int[]{0, 2, 4, 1, 3}, java.util.Arrays.copyOf(order, grouped.length));
+    }
+
+    @Test
+    @DisplayName("Triple buffer hands the newest snapshot to the reader")
+    void testSnapshotHandoff() throws InterruptedException {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[1]);
+        assertNull(buffer.acquire(), "Nothing published yet");
+
+        buffer.getWriteSlot()[0] = 1;
+        buffer.publish();
+        buffer.getWriteSlot()[0] = 2;
+        buffer.publish();
+        assertTrue(buffer.hasNewFrame());
+        assertEquals(2, buffer.acquire()[0], "Older unread frames are skipped");
+        assertFalse(buffer.hasNewFrame());
+        assertEquals(2, buffer.acquire()[0], "Without a new frame the reader keeps the last one");
+
+        // A writer thread never hands the reader a slot it is still filling
+        TripleBuffer<long[]> shared = new TripleBuffer<>(() -> new long[2]);
+        Thread writer = new Thread(() -> {
+            for (long frame = 1; frame <= 200_000; frame++) {
+                long[] slot = shared.getWriteSlot();
+                slot[0] = frame;
+                slot[1] = -frame;
+                shared.publish();
+            }
+        });
+        writer.start();
+        long lastSeen = 0;
+        while (writer.isAlive() || shared.hasNewFrame()) {
+            long[] slot = shared.acquire();
+            if (slot != null) {
+                assertEquals(slot[0], -slot[1], "Torn snapshot");
+                assertTrue(slot[0] >= lastSeen, "Frames go backwards");
+                lastSeen = slot[0];
+            }
+        }
+        writer.join();
+        assertEquals(200_000, shared.acquire()[0]);
+
+        // Input events survive packing, including unknown (negative) keys
+        InputQueue input = new InputQueue(4);
+        assertTrue(input.offer(87, 1, 3));
+        assertTrue(input.offer(-1, 0, 0));
+        long event = input.poll();
+        assertEquals(87, InputQueue.keyOf(event));
+        assertEquals(1, InputQueue.actionOf(event));
+        assertEquals(3, InputQueue.modsOf(event));
+        assertEquals(-1, InputQueue.keyOf(input.poll()));
+        assertEquals(InputQueue.EMPTY, input.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(input.offer(65, 1, 0));
+        }
+        assertFalse(input.offer(65, 1, 0), "Full queue drops the event");
+        assertEquals(1, input.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Fixed timestep turns frame times into whole steps")
+    void testFixedTimestep() {
+        FixedTimestep timestep = new FixedTimestep(0.01, 5);
+
+        assertEquals(0, timestep.advance(0.004));
+        assertEquals(0.4, timestep.getAlpha(), 1e-9);
+        assertEquals(1, timestep.advance(0.008), "Leftover time carries over");
+        assertEquals(0.2, timestep.getAlpha(), 1e-9);
+
+        // A long hitch runs at most five steps and drops the backlog
+        assertEquals(5, timestep.advance(0.2));
+        assertEquals(0.15, timestep.getDroppedTime(), 1e-9);
+        assertTrue(timestep.getAlpha() < 1.0);
+
+        // Frames longer than the clamp lose the excess up front
+        timestep.advance(1.0);
+        assertEquals(0.75 + 0.15 + 0.2, timestep.getDroppedTime(), 1e-6);
+
+        // Same total time, different frame rates: same number of steps
+        FixedTimestep fast = new FixedTimestep(1.0 / 60.0, 5);
+        FixedTimestep slow = new FixedTimestep(1.0 / 60.0, 5);
+        int fastSteps = 0;
+        int slowSteps = 0;
+        for (int i = 0; i < 144; i++) {
+            fastSteps += fast.advance(1.0 / 144.0);
+        }
+        for (int i = 0; i < 30; i++) {
+            slowSteps += slow.advance(1.0 / 30.0);
+        }
+        assertEquals(60, fastSteps, 1);
+        assertEquals(60, slowSteps, 1);
+
+        // Snapshots blend the camera from the previous step to the current one
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.setTiming(1_000_000_000L, 0.01);
+        snapshot.setPreviousCamera(new float[]{0, 0, 0, 0, 10, 0});
+        snapshot.setCamera(2, 0, -4, 0, 20, 0);
+        float[] camera = new float[6];
+        snapshot.interpolateCamera(snapshot.getAlpha(1_005_000_000L), camera);
+        assertEquals(1.0f, camera[0], EPSILON);
+        assertEquals(-2.0f, camera[2], EPSILON);
+        assertEquals(15.0f, camera[4], EPSILON);
+        assertEquals(1.0f, snapshot.getAlpha(2_000_000_000L), EPSILON);
+    }
+
+    // === Headless Behavior Tests ===
+
+    @Test
+    @DisplayName("Cubes and shapes render safely without a renderer")
+    void testHeadlessRendering() {
+        assertNull(MeshRenderer.getActive());
+
+        Cube cube = new Cube(0.0f, 0.0f, 0.0f, 0.0f, 1.0f);
+        cube.setUpVBO();
+        assertDoesNotThrow(cube::render);
+        assertDoesNotThrow(() -> Shapes.renderCube(new float[]{0.0f, 0.0f, 0.0f}, 2.0f));
+        assertDoesNotThrow(() -> Shapes.renderRoom(new float[]{0.0f, 0.0f, 0.0f}, 3));
+        cube.delete();
+    }
+}
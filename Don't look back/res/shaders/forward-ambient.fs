@@ -1,11 +1,13 @@
-#version 120
+#version 330 core
 
-varying vec2 texCoord0;
+in vec2 texCoord0;
+
+out vec4 fragColor;
 
 uniform vec3 R_ambient;
 uniform sampler2D diffuse;
 
 void main()
 {
-	gl_FragColor = texture2D(diffuse, texCoord0.xy) * vec4(R_ambient, 1);
+	fragColor = texture(diffuse, texCoord0.xy) * vec4(R_ambient, 1);
 }
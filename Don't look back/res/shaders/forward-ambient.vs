@@ -1,9 +1,9 @@
-#version 120
+#version 330 core
 
-attribute vec3 position;
-attribute vec2 texCoord;
+in vec3 position;
+in vec2 texCoord;
 
-varying vec2 texCoord0;
+out vec2 texCoord0;
 
 uniform mat4 T_MVP;
 
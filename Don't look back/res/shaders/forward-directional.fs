@@ -1,4 +1,4 @@
-#version 120
+#version 330 core
 #include "lighting.fsh"
 
 uniform DirectionalLight R_directionalLight;
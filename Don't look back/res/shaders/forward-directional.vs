@@ -1,2 +1,2 @@
-#version 120
+#version 330 core
 #include "lighting.vsh"
@@ -1,11 +1,10 @@
-#version 120
+#version 330 core
 #include "lighting.fsh"
-
-uniform PointLight R_pointLight;
+#include "clustered.glh"
 
 vec4 CalcLightingEffect(vec3 normal, vec3 worldPos)
 {
-	return CalcPointLight(R_pointLight, normal, worldPos);
+	return CalcClusteredLights(normal, worldPos, false);
 }
 
 #include "lightingMain.fsh"
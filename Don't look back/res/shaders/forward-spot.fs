@@ -1,11 +1,10 @@
-#version 120
+#version 330 core
 #include "lighting.fsh"
-
-uniform SpotLight R_spotLight;
+#include "clustered.glh"
 
 vec4 CalcLightingEffect(vec3 normal, vec3 worldPos)
 {
-	return CalcSpotLight(R_spotLight, normal, worldPos);
+	return CalcClusteredLights(normal, worldPos, true);
 }
 
 #include "lightingMain.fsh"
@@ -0,0 +1,18 @@
+#version 330 core
+
+in vec3 normal0;
+in vec3 color0;
+
+out vec4 fragColor;
+
+uniform vec4 R_tint;
+uniform float R_shade;
+
+const vec3 KEY_DIRECTION = vec3(0.37, 0.84, 0.39);
+
+void main()
+{
+    float diffuse = max(dot(normalize(normal0), KEY_DIRECTION), 0.0);
+    float light = mix(1.0, 0.55 + 0.45 * diffuse, R_shade);
+    fragColor = vec4(color0 * R_tint.rgb * light, R_tint.a);
+}
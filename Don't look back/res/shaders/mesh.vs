@@ -0,0 +1,19 @@
+#version 330 core
+
+layout(location = 0) in vec3 position;
+layout(location = 1) in vec3 normal;
+layout(location = 2) in vec3 color;
+
+out vec3 normal0;
+out vec3 color0;
+
+uniform mat4 T_projection;
+uniform mat4 T_view;
+uniform mat4 T_model;
+
+void main()
+{
+    gl_Position = T_projection * T_view * T_model * vec4(position, 1.0);
+    normal0 = mat3(T_model) * normal;
+    color0 = color;
+}
@@ -0,0 +1,29 @@
+#version 330 core
+
+layout(location = 0) in vec3 position;
+layout(location = 1) in vec3 normal;
+layout(location = 2) in vec3 color;
+
+// Per-instance attributes: (center.xyz, width) and (yaw in radians, rgb)
+layout(location = 3) in vec4 instanceTransform;
+layout(location = 4) in vec4 instanceYawColor;
+
+out vec3 normal0;
+out vec3 color0;
+
+uniform mat4 T_projection;
+uniform mat4 T_view;
+
+void main()
+{
+    float c = cos(instanceYawColor.x);
+    float s = sin(instanceYawColor.x);
+    mat3 yaw = mat3(c, 0.0, -s,
+                    0.0, 1.0, 0.0,
+                    s, 0.0, c);
+
+    vec3 worldPos = yaw * (position * instanceTransform.w) + instanceTransform.xyz;
+    gl_Position = T_projection * T_view * vec4(worldPos, 1.0);
+    normal0 = yaw * normal;
+    color0 = color * instanceYawColor.yzw;
+}
@@ -0,0 +1,253 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * AABB Store for Don't Look Back
+ *
+ * Collision boxes of many entities kept as six parallel float arrays
+ * (min X/Y/Z, max X/Y/Z) instead of one float[] per box. Overlap queries
+ * run as tight loops over those arrays and write the ids they find into
+ * buffers the caller owns, so per-frame collision checks allocate nothing.
+ *
+ * Features:
+ * - Stable entity ids; the arrays stay packed (removal moves the last box
+ *   into the gap), so loops never skip holes
+ * - Box-against-all, entity-against-all and pairwise overlap tests
+ * - Early-out "any overlap" test for movement checks
+ * - Touching boxes count as overlapping, like {@link CollisionDetector}
+ *
+ * Not thread-safe.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class AABBStore {
+
+    private static final int NO_INDEX = -1;
+
+    // === Boxes (packed, by index) ===
+
+    private float[] minX;
+    private float[] minY;
+    private float[] minZ;
+    private float[] maxX;
+    private float[] maxY;
+    private float[] maxZ;
+
+    /** Entity id of each packed box */
+    private int[] ids;
+
+    private int count = 0;
+
+    // === Ids ===
+
+    /** Packed index of each id, NO_INDEX for free ids */
+    private int[] indexOf;
+
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+    private int idLimit = 0;
+
+    /**
+     * Create an empty store
+     * @param initialCapacity Boxes before the arrays grow
+     */
+    public AABBStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        minX = new float[capacity];
+        minY = new float[capacity];
+        minZ = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+        maxZ = new float[capacity];
+        ids = new int[capacity];
+        indexOf = new int[capacity];
+    }
+
+    // === Boxes ===
+
+    /**
+     * Add a box
+     * @return Entity id of the box
+     */
+    public int add(float x0, float y0, float z0, float x1, float y1, float z1) {
+        checkBox(x0, y0, z0, x1, y1, z1);
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (idLimit == indexOf.length) {
+                indexOf = Arrays.copyOf(indexOf, idLimit * 2);
+            }
+            id = idLimit++;
+        }
+        if (count == ids.length) {
+            grow();
+        }
+        int index = count++;
+        ids[index] = id;
+        indexOf[id] = index;
+        write(index, x0, y0, z0, x1, y1, z1);
+        return id;
+    }
+
+    /**
+     * Replace an entity's box
+     */
+    public void set(int id, float x0, float y0, float z0, float x1, float y1, float z1) {
+        int index = checkId(id);
+        checkBox(x0, y0, z0, x1, y1, z1);
+        write(index, x0, y0, z0, x1, y1, z1);
+    }
+
+    /**
+     * Remove an entity's box; its id may be handed out again
+     */
+    public void remove(int id) {
+        int index = checkId(id);
+        int last = --count;
+        if (index != last) {
+            minX[index] = minX[last];
+            minY[index] = minY[last];
+            minZ[index] = minZ[last];
+            maxX[index] = maxX[last];
+            maxY[index] = maxY[last];
+            maxZ[index] = maxZ[last];
+            ids[index] = ids[last];
+            indexOf[ids[index]] = index;
+        }
+        indexOf[id] = NO_INDEX;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < idLimit && indexOf[id] != NO_INDEX;
+    }
+
+    // === Queries ===
+
+    /**
+     * Check whether two entities' boxes overlap
+     */
+    public boolean overlaps(int a, int b) {
+        int i = checkId(a);
+        int j = checkId(b);
+        return !(maxX[i] < minX[j] || minX[i] > maxX[j] ||
+                 maxY[i] < minY[j] || minY[i] > maxY[j] ||
+                 maxZ[i] < minZ[j] || minZ[i] > maxZ[j]);
+    }
+
+    /**
+     * Check whether any stored box overlaps a box
+     * @param skipId Entity to leave out (e.g. the one moving), or -1
+     */
+    public boolean overlapsAny(float x0, float y0, float z0, float x1, float y1, float z1, int skipId) {
+        for (int i = 0; i < count; i++) {
+            if (maxX[i] < x0 || minX[i] > x1 || maxY[i] < y0 || minY[i] > y1 ||
+                maxZ[i] < z0 || minZ[i] > z1) {
+                continue;
+            }
+            if (ids[i] != skipId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the stored boxes that overlap a box
+     * @param skipId Entity to leave out, or -1
+     * @param out Receives the ids of overlapping entities, as many as fit
+     * @return Number of overlaps (may exceed out.length)
+     */
+    public int queryOverlaps(float x0, float y0, float z0, float x1, float y1, float z1, int skipId, int[] out) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (maxX[i] < x0 || minX[i] > x1 || maxY[i] < y0 || minY[i] > y1 ||
+                maxZ[i] < z0 || minZ[i] > z1 || ids[i] == skipId) {
+                continue;
+            }
+            if (found < out.length) {
+                out[found] = ids[i];
+            }
+            found++;
+        }
+        return found;
+    }
+
+    /**
+     * Find the other entities whose boxes overlap an entity's box
+     * @param out Receives their ids, as many as fit
+     * @return Number of overlaps (may exceed out.length)
+     */
+    public int queryOverlaps(int id, int[] out) {
+        int i = checkId(id);
+        return queryOverlaps(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i], id, out);
+    }
+
+    // === Accessors ===
+
+    /**
+     * Copy an entity's box
+     * @param out Receives minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void getBounds(int id, float[] out) {
+        int i = checkId(id);
+        out[0] = minX[i];
+        out[1] = minY[i];
+        out[2] = minZ[i];
+        out[3] = maxX[i];
+        out[4] = maxY[i];
+        out[5] = maxZ[i];
+    }
+
+    public float getMinX(int id) { return minX[checkId(id)]; }
+    public float getMinY(int id) { return minY[checkId(id)]; }
+    public float getMinZ(int id) { return minZ[checkId(id)]; }
+    public float getMaxX(int id) { return maxX[checkId(id)]; }
+    public float getMaxY(int id) { return maxY[checkId(id)]; }
+    public float getMaxZ(int id) { return maxZ[checkId(id)]; }
+
+    public int size() {
+        return count;
+    }
+
+    // === Helper Methods ===
+
+    private static void checkBox(float x0, float y0, float z0, float x1, float y1, float z1) {
+        if (!(x0 <= x1 && y0 <= y1 && z0 <= z1)) {
+            throw new IllegalArgumentException("Invalid box: minimum exceeds maximum");
+        }
+    }
+
+    private void write(int index, float x0, float y0, float z0, float x1, float y1, float z1) {
+        minX[index] = x0;
+        minY[index] = y0;
+        minZ[index] = z0;
+        maxX[index] = x1;
+        maxY[index] = y1;
+        maxZ[index] = z1;
+    }
+
+    private int checkId(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Unknown AABB id: " + id);
+        }
+        return indexOf[id];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+}
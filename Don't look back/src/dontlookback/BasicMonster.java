@@ -217,19 +217,40 @@ public class BasicMonster implements Monster {
      * Returns {minX, minY, minZ, maxX, maxY, maxZ}
      */
     public float[] getBoundingBox() {
-        int[] dims = dimensions();
-        float halfWidth = dims[0] / 200.0f;  // Convert cm to game units
-        float height = dims[1] / 100.0f;
-        float halfDepth = dims[2] / 200.0f;
+        return getBoundingBox(new float[6]);
+    }
+    
+    /**
+     * Write the monster's bounding box into a caller-owned array
+     * @param out Receives {minX, minY, minZ, maxX, maxY, maxZ}
+     * @return out
+     */
+    public float[] getBoundingBox(float[] out) {
+        float halfWidth = getCollisionHalfWidth();
+        float halfDepth = getCollisionHalfDepth();
         
-        return new float[] {
-            posX - halfWidth,  // minX
-            posY,              // minY (ground level)
-            posZ - halfDepth,  // minZ
-            posX + halfWidth,  // maxX
-            posY + height,     // maxY
-            posZ + halfDepth   // maxZ
-        };
+        out[0] = posX - halfWidth;               // minX
+        out[1] = posY;                           // minY (ground level)
+        out[2] = posZ - halfDepth;               // minZ
+        out[3] = posX + halfWidth;               // maxX
+        out[4] = posY + getCollisionHeight();    // maxY
+        out[5] = posZ + halfDepth;               // maxZ
+        return out;
+    }
+    
+    /** Half the monster's width in game units (dimensions are in cm) */
+    public float getCollisionHalfWidth() {
+        return DEFAULT_DIMENSIONS[0] / 200.0f;
+    }
+    
+    /** The monster's height in game units */
+    public float getCollisionHeight() {
+        return DEFAULT_DIMENSIONS[1] / 100.0f;
+    }
+    
+    /** Half the monster's depth in game units */
+    public float getCollisionHalfDepth() {
+        return DEFAULT_DIMENSIONS[2] / 200.0f;
     }
     
     // === Additional Setter Methods ===
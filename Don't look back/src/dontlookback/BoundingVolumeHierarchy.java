@@ -0,0 +1,553 @@
+package dontlookback;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounding Volume Hierarchy for Don't Look Back
+ *
+ * Binary AABB tree over scene items (game Objects, Rooms) used to cull
+ * whole groups of the world against the view frustum at once. The tree is
+ * built top-down when items are added or removed; when items merely move,
+ * their leaf is updated and only the chain of ancestors is refit, which is
+ * far cheaper than a rebuild and keeps per-frame cost proportional to the
+ * number of objects that actually moved.
+ *
+ * Features:
+ * - Flat array storage (no node objects), reused across rebuilds
+ * - Median split on the longest centroid axis
+ * - Incremental refit that stops as soon as an ancestor's box is unchanged
+ * - Frustum query that skips plane tests below fully visible nodes
+ * - Ray query, nearest boxes first, that the visitor can shorten or stop
+ *
+ * @param <T> Item type stored in the leaves
+ * @author DLB Team
+ * @version 1.0
+ */
+public class BoundingVolumeHierarchy<T> {
+
+    private static final int NULL_NODE = -1;
+
+    /**
+     * Told about each item whose box a ray enters
+     */
+    public interface RayVisitor<T> {
+        /**
+         * @param item Item hit
+         * @param id Proxy id of the item
+         * @param distance Distance along the ray where it enters the box (0 if it starts inside)
+         * @return New search limit: the current one to go on, a shorter one to
+         *         skip boxes beyond it, or a negative value to stop
+         */
+        float visit(T item, int id, float distance);
+    }
+
+    // === Items (proxies) ===
+
+    /** Item per proxy id (null for free ids) */
+    private Object[] items = new Object[64];
+
+    /** Bounds per proxy: minX, minY, minZ, maxX, maxY, maxZ */
+    private float[] itemBounds = new float[64 * 6];
+
+    /** Leaf node of each proxy (NULL_NODE before the next build) */
+    private int[] itemLeaf = new int[64];
+
+    /** Free proxy ids, reused before new ones are handed out */
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+
+    /** Highest proxy id handed out + 1 */
+    private int idLimit = 0;
+
+    /** Number of live items */
+    private int itemCount = 0;
+
+    // === Nodes ===
+
+    private float[] nodeBounds = new float[128 * 6];
+    private int[] nodeLeft = new int[128];
+    private int[] nodeRight = new int[128];
+    private int[] nodeParent = new int[128];
+
+    /** Proxy id stored in a leaf, NULL_NODE for internal nodes */
+    private int[] nodeItem = new int[128];
+
+    private int nodeCount = 0;
+    private int root = NULL_NODE;
+
+    /** Whether the set of items changed since the last build */
+    private boolean structureDirty = false;
+
+    // === Scratch ===
+
+    private int[] buildIds = new int[64];
+    private int[] stack = new int[64];
+
+    /** Entry distance of each node on the stack during a ray query */
+    private float[] rayStack = new float[64];
+
+    // === Statistics ===
+
+    private int rebuildCount = 0;
+    private int refitCount = 0;
+    private int nodesTested = 0;
+
+    // === Item Management ===
+
+    /**
+     * Add an item with its world-space bounds
+     * @return Proxy id used to move or remove the item
+     */
+    public int add(T item, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (item == null) {
+            throw new IllegalArgumentException("BVH items must not be null");
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = idLimit++;
+            if (id == items.length) {
+                int capacity = items.length * 2;
+                items = Arrays.copyOf(items, capacity);
+                itemBounds = Arrays.copyOf(itemBounds, capacity * 6);
+                itemLeaf = Arrays.copyOf(itemLeaf, capacity);
+            }
+        }
+        items[id] = item;
+        setBounds(itemBounds, id, minX, minY, minZ, maxX, maxY, maxZ);
+        itemLeaf[id] = NULL_NODE;
+        itemCount++;
+        structureDirty = true;
+        return id;
+    }
+
+    /**
+     * Remove an item
+     * @param id Proxy id returned by {@link #add}
+     */
+    public void remove(int id) {
+        checkId(id);
+        items[id] = null;
+        itemLeaf[id] = NULL_NODE;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        itemCount--;
+        structureDirty = true;
+    }
+
+    /**
+     * Move an item. Refits the ancestors of its leaf instead of rebuilding.
+     * @return true if the bounds changed
+     */
+    public boolean update(int id, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        checkId(id);
+        int o = id * 6;
+        if (itemBounds[o] == minX && itemBounds[o + 1] == minY && itemBounds[o + 2] == minZ &&
+            itemBounds[o + 3] == maxX && itemBounds[o + 4] == maxY && itemBounds[o + 5] == maxZ) {
+            return false;
+        }
+        setBounds(itemBounds, id, minX, minY, minZ, maxX, maxY, maxZ);
+
+        int leaf = itemLeaf[id];
+        if (!structureDirty && leaf != NULL_NODE) {
+            System.arraycopy(itemBounds, o, nodeBounds, leaf * 6, 6);
+            refitAncestors(nodeParent[leaf]);
+        }
+        return true;
+    }
+
+    /**
+     * Remove every item
+     */
+    public void clear() {
+        Arrays.fill(items, 0, idLimit, null);
+        idLimit = 0;
+        freeCount = 0;
+        itemCount = 0;
+        nodeCount = 0;
+        root = NULL_NODE;
+        structureDirty = false;
+    }
+
+    // === Queries ===
+
+    /**
+     * Append every item whose bounds touch the frustum
+     * @param frustum Camera frustum
+     * @param out Receives visible items (not cleared)
+     * @return Number of items appended
+     */
+    @SuppressWarnings("unchecked")
+    public int cull(Frustum frustum, List<T> out) {
+        if (structureDirty) {
+            rebuild();
+        }
+        if (root == NULL_NODE) {
+            return 0;
+        }
+        int added = 0;
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            int o = node * 6;
+            nodesTested++;
+            int result = frustum.testAABB(nodeBounds[o], nodeBounds[o + 1], nodeBounds[o + 2],
+                                          nodeBounds[o + 3], nodeBounds[o + 4], nodeBounds[o + 5]);
+            if (result == Frustum.OUTSIDE) {
+                continue;
+            }
+            if (result == Frustum.INSIDE) {
+                added += collectLeaves(node, top, out);
+                continue;
+            }
+            if (nodeItem[node] != NULL_NODE) {
+                out.add((T) items[nodeItem[node]]);
+                added++;
+            } else {
+                top = push(top, nodeLeft[node]);
+                top = push(top, nodeRight[node]);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Walk the boxes a ray passes through, nearer child first
+     * @param ox Ray origin X
+     * @param oy Ray origin Y
+     * @param oz Ray origin Z
+     * @param dx Ray direction X (distances are in multiples of the direction's length)
+     * @param dy Ray direction Y
+     * @param dz Ray direction Z
+     * @param maxDistance Search limit
+     * @param visitor Told about every item box entered within the limit (must not query this tree)
+     */
+    @SuppressWarnings("unchecked")
+    public void raycast(float ox, float oy, float oz, float dx, float dy, float dz,
+                        float maxDistance, RayVisitor<T> visitor) {
+        if (structureDirty) {
+            rebuild();
+        }
+        if (root == NULL_NODE) {
+            return;
+        }
+        float invX = 1.0f / dx;
+        float invY = 1.0f / dy;
+        float invZ = 1.0f / dz;
+        float limit = maxDistance;
+        float entry = rayEntry(root, ox, oy, oz, invX, invY, invZ, limit);
+        if (entry < 0.0f) {
+            return;
+        }
+        int top = pushRay(0, root, entry);
+        while (top > 0) {
+            int node = stack[--top];
+            if (rayStack[top] > limit) {
+                // Entered beyond a hit found since it was pushed
+                continue;
+            }
+            if (nodeItem[node] != NULL_NODE) {
+                int id = nodeItem[node];
+                limit = visitor.visit((T) items[id], id, rayStack[top]);
+                if (limit < 0.0f) {
+                    return;
+                }
+                continue;
+            }
+            // Push the farther child first so the nearer one is walked first
+            int left = nodeLeft[node];
+            int right = nodeRight[node];
+            float leftEntry = rayEntry(left, ox, oy, oz, invX, invY, invZ, limit);
+            float rightEntry = rayEntry(right, ox, oy, oz, invX, invY, invZ, limit);
+            if (leftEntry <= rightEntry) {
+                top = rightEntry >= 0.0f ? pushRay(top, right, rightEntry) : top;
+                top = leftEntry >= 0.0f ? pushRay(top, left, leftEntry) : top;
+            } else {
+                top = leftEntry >= 0.0f ? pushRay(top, left, leftEntry) : top;
+                top = rightEntry >= 0.0f ? pushRay(top, right, rightEntry) : top;
+            }
+        }
+    }
+
+    /**
+     * Rebuild the tree from the current items
+     */
+    public void rebuild() {
+        structureDirty = false;
+        nodeCount = 0;
+        root = NULL_NODE;
+        if (itemCount == 0) {
+            return;
+        }
+        if (buildIds.length < itemCount) {
+            buildIds = new int[items.length];
+        }
+        int n = 0;
+        for (int id = 0; id < idLimit; id++) {
+            if (items[id] != null) {
+                buildIds[n++] = id;
+            }
+        }
+        ensureNodeCapacity(2 * n - 1);
+        root = buildRange(0, n, NULL_NODE);
+        rebuildCount++;
+    }
+
+    // === Accessors ===
+
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * Copy an item's bounds
+     * @param out Receives minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void getBounds(int id, float[] out) {
+        checkId(id);
+        System.arraycopy(itemBounds, id * 6, out, 0, 6);
+    }
+
+    /**
+     * Get the root bounds (empty array if the tree is empty)
+     */
+    public float[] getRootBounds() {
+        if (structureDirty) {
+            rebuild();
+        }
+        return root == NULL_NODE ? new float[0] : Arrays.copyOfRange(nodeBounds, root * 6, root * 6 + 6);
+    }
+
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public int getRefitCount() {
+        return refitCount;
+    }
+
+    /**
+     * Get the number of node tests (frustum or ray) since the last call, then reset it
+     */
+    public int takeNodesTested() {
+        int tested = nodesTested;
+        nodesTested = 0;
+        return tested;
+    }
+
+    // === Helper Methods ===
+
+    /**
+     * Build a subtree over buildIds[from, to)
+     * @return Root node of the subtree
+     */
+    private int buildRange(int from, int to, int parent) {
+        int node = nodeCount++;
+        nodeParent[node] = parent;
+
+        if (to - from == 1) {
+            int id = buildIds[from];
+            System.arraycopy(itemBounds, id * 6, nodeBounds, node * 6, 6);
+            nodeItem[node] = id;
+            nodeLeft[node] = NULL_NODE;
+            nodeRight[node] = NULL_NODE;
+            itemLeaf[id] = node;
+            return node;
+        }
+
+        // Split at the median centroid along the axis with the widest centroid spread
+        float minCx = Float.MAX_VALUE, minCy = Float.MAX_VALUE, minCz = Float.MAX_VALUE;
+        float maxCx = -Float.MAX_VALUE, maxCy = -Float.MAX_VALUE, maxCz = -Float.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            int o = buildIds[i] * 6;
+            float cx = itemBounds[o] + itemBounds[o + 3];
+            float cy = itemBounds[o + 1] + itemBounds[o + 4];
+            float cz = itemBounds[o + 2] + itemBounds[o + 5];
+            minCx = Math.min(minCx, cx); maxCx = Math.max(maxCx, cx);
+            minCy = Math.min(minCy, cy); maxCy = Math.max(maxCy, cy);
+            minCz = Math.min(minCz, cz); maxCz = Math.max(maxCz, cz);
+        }
+        float spreadX = maxCx - minCx, spreadY = maxCy - minCy, spreadZ = maxCz - minCz;
+        int axis = (spreadX >= spreadY && spreadX >= spreadZ) ? 0 : (spreadY >= spreadZ ? 1 : 2);
+        int mid = (from + to) >>> 1;
+        selectByCentroid(from, to - 1, mid, axis);
+
+        nodeItem[node] = NULL_NODE;
+        nodeLeft[node] = buildRange(from, mid, node);
+        nodeRight[node] = buildRange(mid, to, node);
+        unionChildren(node);
+        return node;
+    }
+
+    /**
+     * Quickselect: partially order buildIds so that index k holds the median centroid
+     */
+    private void selectByCentroid(int lo, int hi, int k, int axis) {
+        while (lo < hi) {
+            float pivot = centroid(buildIds[(lo + hi) >>> 1], axis);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (centroid(buildIds[i], axis) < pivot) {
+                    i++;
+                }
+                while (centroid(buildIds[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = buildIds[i];
+                    buildIds[i] = buildIds[j];
+                    buildIds[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private float centroid(int id, int axis) {
+        return itemBounds[id * 6 + axis] + itemBounds[id * 6 + 3 + axis];
+    }
+
+    /**
+     * Walk up from a node recomputing boxes until one does not change
+     */
+    private void refitAncestors(int node) {
+        while (node != NULL_NODE) {
+            if (!unionChildren(node)) {
+                return;
+            }
+            refitCount++;
+            node = nodeParent[node];
+        }
+    }
+
+    /**
+     * Set a node's box to the union of its children
+     * @return true if the box changed
+     */
+    private boolean unionChildren(int node) {
+        int o = node * 6;
+        int l = nodeLeft[node] * 6;
+        int r = nodeRight[node] * 6;
+        boolean changed = false;
+        for (int axis = 0; axis < 3; axis++) {
+            float min = Math.min(nodeBounds[l + axis], nodeBounds[r + axis]);
+            float max = Math.max(nodeBounds[l + 3 + axis], nodeBounds[r + 3 + axis]);
+            if (nodeBounds[o + axis] != min || nodeBounds[o + 3 + axis] != max) {
+                nodeBounds[o + axis] = min;
+                nodeBounds[o + 3 + axis] = max;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Append every leaf below a node without further tests
+     * @param base First free stack slot (entries below it belong to the caller)
+     */
+    @SuppressWarnings("unchecked")
+    private int collectLeaves(int subtree, int base, List<T> out) {
+        int added = 0;
+        int top = push(base, subtree);
+        while (top > base) {
+            int node = stack[--top];
+            if (nodeItem[node] != NULL_NODE) {
+                out.add((T) items[nodeItem[node]]);
+                added++;
+            } else {
+                top = push(top, nodeLeft[node]);
+                top = push(top, nodeRight[node]);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Slab test of a node's box
+     * @return Distance where the ray enters the box (0 if inside), or -1 if it
+     *         misses or enters beyond the limit
+     */
+    private float rayEntry(int node, float ox, float oy, float oz,
+                           float invX, float invY, float invZ, float limit) {
+        nodesTested++;
+        int o = node * 6;
+        float t1 = (nodeBounds[o] - ox) * invX;
+        float t2 = (nodeBounds[o + 3] - ox) * invX;
+        float near = Math.min(t1, t2);
+        float far = Math.max(t1, t2);
+        t1 = (nodeBounds[o + 1] - oy) * invY;
+        t2 = (nodeBounds[o + 4] - oy) * invY;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (nodeBounds[o + 2] - oz) * invZ;
+        t2 = (nodeBounds[o + 5] - oz) * invZ;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        // NaN (origin on a slab plane of a zero direction axis) counts as a miss
+        if (!(near <= far) || far < 0.0f || near > limit) {
+            return -1.0f;
+        }
+        return Math.max(near, 0.0f);
+    }
+
+    private int pushRay(int top, int node, float entry) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        if (top == rayStack.length) {
+            rayStack = Arrays.copyOf(rayStack, stack.length);
+        }
+        stack[top] = node;
+        rayStack[top] = entry;
+        return top + 1;
+    }
+
+    private int push(int top, int node) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+
+    private void ensureNodeCapacity(int nodes) {
+        if (nodes > nodeLeft.length) {
+            int capacity = Math.max(nodes, nodeLeft.length * 2);
+            nodeBounds = Arrays.copyOf(nodeBounds, capacity * 6);
+            nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+            nodeRight = Arrays.copyOf(nodeRight, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeItem = Arrays.copyOf(nodeItem, capacity);
+        }
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= idLimit || items[id] == null) {
+            throw new IllegalArgumentException("Invalid BVH proxy id: " + id);
+        }
+    }
+
+    private static void setBounds(float[] bounds, int index, float minX, float minY, float minZ,
+                                  float maxX, float maxY, float maxZ) {
+        int o = index * 6;
+        bounds[o] = minX;
+        bounds[o + 1] = minY;
+        bounds[o + 2] = minZ;
+        bounds[o + 3] = maxX;
+        bounds[o + 4] = maxY;
+        bounds[o + 5] = maxZ;
+    }
+}
@@ -0,0 +1,146 @@
+package dontlookback;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Change Queue for Don't Look Back
+ *
+ * Carries (operation, item) records from any thread to the simulation
+ * thread. A fixed ring with many writers and one reader: a producer claims
+ * a slot with a CAS on the tail and publishes it through the slot's
+ * sequence number, so offering a change never blocks or allocates.
+ *
+ * Features:
+ * - Multi-producer / single-consumer ring, lock-free
+ * - Records are an int operation plus an item reference
+ * - Records are drained in order by a handler on the consumer thread
+ * - Records that do not fit are refused and counted
+ *
+ * A handler may offer new records while draining; they are drained in the
+ * same call.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ChangeQueue<T> {
+
+    /**
+     * Applies drained records (consumer thread)
+     */
+    public interface Handler<T> {
+        void apply(int operation, T item);
+    }
+
+    private final Object[] items;
+    private final int[] operations;
+    private final int mask;
+
+    /**
+     * Per-slot sequence: equal to the claiming position when free, one past
+     * it once written, and a lap further once read
+     */
+    private final AtomicLongArray sequences;
+
+    /** Next position to claim (producers) */
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /** Next position to read (consumer only) */
+    private long head = 0;
+
+    private final AtomicInteger dropped = new AtomicInteger(0);
+
+    /**
+     * Create a queue
+     * @param capacity Maximum queued records, rounded up to a power of two
+     */
+    public ChangeQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+        items = new Object[size];
+        operations = new int[size];
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // === Producer Side ===
+
+    /**
+     * Queue a record (any thread)
+     * @return false if the queue was full and the record was refused
+     */
+    public boolean offer(int operation, T item) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long sequence = sequences.get((int) position & mask);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return false; // Slot not read yet: full
+            }
+            // Another producer claimed this position; try the next one
+        }
+        int slot = (int) position & mask;
+        items[slot] = item;
+        operations[slot] = operation;
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    // === Consumer Side ===
+
+    /**
+     * Apply every published record in order (consumer thread)
+     * @return Number of records applied
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Handler<T> handler) {
+        int count = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) {
+                return count; // Empty, or the next producer is still writing
+            }
+            T item = (T) items[slot];
+            int operation = operations[slot];
+            items[slot] = null;
+            sequences.lazySet(slot, head + mask + 1);
+            head++;
+            handler.apply(operation, item);
+            count++;
+        }
+    }
+
+    /**
+     * Drop every published record (consumer thread)
+     * @return Number of records dropped
+     */
+    public int clear() {
+        return drain((operation, item) -> { });
+    }
+
+    /**
+     * Approximate number of queued records
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int getCapacity() {
+        return items.length;
+    }
+
+    public int getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,535 @@
+package dontlookback;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL43.*;
+
+/**
+ * Clustered Lighting for Don't Look Back
+ *
+ * Bins the lit lights of a {@link LightBuffer} into a froxel grid (screen
+ * tiles x depth slices) on the CPU every frame and uploads per-cluster light
+ * index lists, so the forward-point and forward-spot shaders only shade the
+ * lights that can reach each pixel. Per-pixel cost stays flat as the number
+ * of lights grows.
+ *
+ * Features:
+ * - 16 x 9 screen tiles x 24 logarithmic depth slices
+ * - Conservative sphere-vs-cluster binning from each light's current radius
+ * - Compact index lists (offset/count per cluster) built in two passes,
+ *   holding light buffer slots
+ * - The light buffer's columns uploaded as a float texture buffer, cut
+ *   down to the lights in use
+ * - Uploads share the renderer's {@link StreamingBuffer}, each texture
+ *   reading its range of the frame's region (glTexBufferRange, GL 4.3);
+ *   on GL 3.1 the textures' own buffers are orphaned and refilled
+ * - Texture buffers bound to fixed texture units
+ * - Binning works headless; GPU objects are created on first upload
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ClusteredLighting {
+
+    // === Grid Layout ===
+
+    /** Screen tiles across */
+    public static final int TILES_X = 16;
+
+    /** Screen tiles down */
+    public static final int TILES_Y = 9;
+
+    /** Depth slices between the near and far planes */
+    public static final int DEPTH_SLICES = 24;
+
+    /** Total number of clusters */
+    public static final int CLUSTER_COUNT = TILES_X * TILES_Y * DEPTH_SLICES;
+
+    /** Upper bound on lights binned per frame */
+    public static final int MAX_LIGHTS = 1024;
+
+    /** Floats per light record returned by {@link #getLightData()} */
+    public static final int FLOATS_PER_LIGHT = 12;
+
+    /** LightType intensities are authored on a 0-300 scale; shaders expect ~0-3 */
+    private static final float INTENSITY_SCALE = 100.0f;
+
+    /** Texture units used by the cluster textures (0 and 1 hold diffuse/normal maps) */
+    public static final int UNIT_CLUSTER_GRID = 2;
+    public static final int UNIT_LIGHT_INDICES = 3;
+    public static final int UNIT_LIGHT_DATA = 4;
+
+    // === Uniform Ids ===
+
+    private static final int U_VIEW = ShaderLibrary.uniformId("C_view");
+    private static final int U_SCREEN_SIZE = ShaderLibrary.uniformId("C_screenSize");
+    private static final int U_DEPTH_RANGE = ShaderLibrary.uniformId("C_depthRange");
+    private static final int U_CLUSTER_DIMS = ShaderLibrary.uniformId("C_clusterDims");
+    private static final int U_CLUSTER_GRID = ShaderLibrary.uniformId("C_clusterGrid");
+    private static final int U_LIGHT_INDICES = ShaderLibrary.uniformId("C_lightIndices");
+    private static final int U_LIGHT_DATA = ShaderLibrary.uniformId("C_lightData");
+    private static final int U_LIGHT_STRIDE = ShaderLibrary.uniformId("C_lightStride");
+
+    // === CPU Cluster Data ===
+
+    /** Lights of the last build */
+    private LightBuffer source;
+
+    /** Buffer filled from light lists by {@link #build(List, float[], float[], float, float)} */
+    private final LightBuffer listLights = new LightBuffer(MAX_LIGHTS);
+
+    /** Buffer slot of each binned light */
+    private final int[] binnedSlots = new int[MAX_LIGHTS];
+
+    /** Cluster range of each binned light: minX, maxX, minY, maxY, minSlice, maxSlice */
+    private final int[] lightRanges = new int[MAX_LIGHTS * 6];
+
+    /** (offset, count) into lightIndices for every cluster */
+    private final int[] clusterGrid = new int[CLUSTER_COUNT * 2];
+
+    /** Concatenated per-cluster light index lists */
+    private int[] lightIndices = new int[CLUSTER_COUNT];
+
+    /** Number of lights binned this frame */
+    private int lightCount = 0;
+
+    /** Number of entries used in lightIndices */
+    private int indexCount = 0;
+
+    /** Camera state of the last build */
+    private final float[] view = Matrix4.create();
+    private float nearPlane = 1.0f;
+    private float farPlane = 100.0f;
+
+    // === GPU State ===
+
+    private int gridBuffer = 0;
+    private int indexBuffer = 0;
+    private int dataBuffer = 0;
+    private int gridTexture = 0;
+    private int indexTexture = 0;
+    private int dataTexture = 0;
+
+    /** Offset alignment of texture buffer ranges; 0 without range support, -1 before the first upload */
+    private int rangeAlignment = -1;
+
+    /** Whether the textures read ranges of the streaming buffer rather than their own buffers */
+    private boolean streamed = false;
+
+    /** Column stride of the uploaded light data (the number of lights uploaded) */
+    private int lightStride = 1;
+
+    /** Upload staging for the own-buffer path */
+    private ByteBuffer staging;
+
+    // === Building ===
+
+    /**
+     * Bin the lit lights of a list into clusters for the given camera
+     * @param lights Candidate lights (unlit and zero-radius lights are skipped)
+     * @param viewMatrix Column-major view matrix
+     * @param projection Column-major perspective projection matrix
+     * @param near Near plane distance of the projection
+     * @param far Far plane distance of the projection
+     */
+    public void build(List<LightSource> lights, float[] viewMatrix, float[] projection, float near, float far) {
+        listLights.clear();
+        for (LightSource light : lights) {
+            if (listLights.size() == MAX_LIGHTS) {
+                break;
+            }
+            if (light.getCurrentRadius() > 0.0f) {
+                listLights.append(light);
+            }
+        }
+        build(listLights, viewMatrix, projection, near, far);
+    }
+
+    /**
+     * Bin the lit lights of a light buffer into clusters for the given camera;
+     * the buffer is read again by {@link #upload()}
+     * @param lights Light buffer (zero-radius slots are skipped)
+     */
+    public void build(LightBuffer lights, float[] viewMatrix, float[] projection, float near, float far) {
+        source = lights;
+        System.arraycopy(viewMatrix, 0, view, 0, Matrix4.SIZE);
+        nearPlane = near;
+        farPlane = far;
+        lightCount = 0;
+        Arrays.fill(clusterGrid, 0);
+
+        // Pass 1: cluster range per light, counting lights per cluster
+        float logDepthRatio = (float) Math.log(far / near);
+        float[] data = lights.getData();
+        int stride = lights.getCapacity();
+        for (int slot = 0; slot < lights.size(); slot++) {
+            if (lightCount == MAX_LIGHTS) {
+                break;
+            }
+            float radius = data[LightBuffer.RADIUS * stride + slot];
+            if (radius <= 0.0f) {
+                continue;
+            }
+            float x = data[LightBuffer.X * stride + slot];
+            float y = data[LightBuffer.Y * stride + slot];
+            float z = data[LightBuffer.Z * stride + slot];
+            float vx = view[0] * x + view[4] * y + view[8] * z + view[12];
+            float vy = view[1] * x + view[5] * y + view[9] * z + view[13];
+            float depth = -(view[2] * x + view[6] * y + view[10] * z + view[14]);
+
+            float minDepth = depth - radius;
+            float maxDepth = depth + radius;
+            if (maxDepth < near || minDepth > far) {
+                continue;
+            }
+
+            int r = lightCount * 6;
+            if (minDepth <= near) {
+                // Sphere straddles the camera plane: it can cover any tile
+                lightRanges[r] = 0;
+                lightRanges[r + 1] = TILES_X - 1;
+                lightRanges[r + 2] = 0;
+                lightRanges[r + 3] = TILES_Y - 1;
+            } else {
+                float minNdcX = projection[0] * minOverDepth(vx - radius, minDepth, maxDepth) - projection[8];
+                float maxNdcX = projection[0] * maxOverDepth(vx + radius, minDepth, maxDepth) - projection[8];
+                float minNdcY = projection[5] * minOverDepth(vy - radius, minDepth, maxDepth) - projection[9];
+                float maxNdcY = projection[5] * maxOverDepth(vy + radius, minDepth, maxDepth) - projection[9];
+                if (maxNdcX < -1.0f || minNdcX > 1.0f || maxNdcY < -1.0f || minNdcY > 1.0f) {
+                    continue;
+                }
+                lightRanges[r] = tileOf(minNdcX, TILES_X);
+                lightRanges[r + 1] = tileOf(maxNdcX, TILES_X);
+                lightRanges[r + 2] = tileOf(minNdcY, TILES_Y);
+                lightRanges[r + 3] = tileOf(maxNdcY, TILES_Y);
+            }
+            lightRanges[r + 4] = sliceOf(minDepth, near, logDepthRatio);
+            lightRanges[r + 5] = sliceOf(maxDepth, near, logDepthRatio);
+
+            binnedSlots[lightCount] = slot;
+            forEachCluster(r, -1);
+            lightCount++;
+        }
+
+        // Prefix sum turns counts into offsets
+        int total = 0;
+        for (int c = 0; c < CLUSTER_COUNT; c++) {
+            int count = clusterGrid[c * 2 + 1];
+            clusterGrid[c * 2] = total;
+            clusterGrid[c * 2 + 1] = 0;
+            total += count;
+        }
+        if (total > lightIndices.length) {
+            lightIndices = new int[Math.max(total, lightIndices.length * 2)];
+        }
+        indexCount = total;
+
+        // Pass 2: write light indices into each cluster's list
+        for (int light = 0; light < lightCount; light++) {
+            forEachCluster(light * 6, binnedSlots[light]);
+        }
+    }
+
+    // === GPU Upload ===
+
+    /**
+     * Upload the cluster grid, index lists and the columns of the lights in
+     * use. With range support they go into this frame's streaming region and
+     * the textures are pointed at their ranges; otherwise (or when the region
+     * is full) each texture's own buffer is orphaned and refilled.
+     * @param stream The renderer's streaming buffer, between its beginFrame
+     *               and endFrame, or null to use the own buffers
+     */
+    public void upload(StreamingBuffer stream) {
+        if (gridBuffer == 0) {
+            createTextures();
+            rangeAlignment = queryRangeAlignment();
+        }
+
+        LightBuffer lights = source != null ? source : listLights;
+        lightStride = Math.max(1, lights.size());
+        int gridBytes = CLUSTER_COUNT * 2 * Integer.BYTES;
+        int indexBytes = Math.max(1, indexCount) * Integer.BYTES; // Texture buffers must not be empty
+        int lightBytes = LightBuffer.COLUMNS * lightStride * Float.BYTES;
+
+        if (stream != null && rangeAlignment > 0) {
+            int gridAt = stream.allocate(gridBytes, rangeAlignment);
+            int indexAt = gridAt < 0 ? -1 : stream.allocate(indexBytes, rangeAlignment);
+            int lightAt = indexAt < 0 ? -1 : stream.allocate(lightBytes, rangeAlignment);
+            if (lightAt >= 0) {
+                ByteBuffer out = stream.getWriteBuffer();
+                writeGrid(out, gridAt);
+                writeIndices(out, indexAt);
+                writeLights(out, lightAt, lights);
+                stream.commit(gridAt, gridBytes);
+                stream.commit(indexAt, indexBytes);
+                stream.commit(lightAt, lightBytes);
+                int buffer = stream.getBufferId();
+                attachRange(gridTexture, GL_RG32UI, buffer, gridAt, gridBytes);
+                attachRange(indexTexture, GL_R32UI, buffer, indexAt, indexBytes);
+                attachRange(dataTexture, GL_R32F, buffer, lightAt, lightBytes);
+                streamed = true;
+                return;
+            }
+        }
+
+        if (streamed) {
+            attach(gridTexture, GL_RG32UI, gridBuffer);
+            attach(indexTexture, GL_R32UI, indexBuffer);
+            attach(dataTexture, GL_R32F, dataBuffer);
+            streamed = false;
+        }
+        int total = gridBytes + indexBytes + lightBytes;
+        if (staging == null || staging.capacity() < total) {
+            staging = BufferUtils.createByteBuffer(Math.max(total, staging == null ? 0 : staging.capacity() * 2));
+        }
+        writeGrid(staging, 0);
+        writeIndices(staging, gridBytes);
+        writeLights(staging, gridBytes + indexBytes, lights);
+        refill(gridBuffer, 0, gridBytes);
+        refill(indexBuffer, gridBytes, indexBytes);
+        refill(dataBuffer, gridBytes + indexBytes, lightBytes);
+        glBindBuffer(GL_TEXTURE_BUFFER, 0);
+    }
+
+    /**
+     * Bind the cluster textures and camera uniforms for a forward shader.
+     * The program must already be in use.
+     * @param program forward-point or forward-spot program
+     * @param screenWidth Framebuffer width in pixels
+     * @param screenHeight Framebuffer height in pixels
+     */
+    public void bind(ShaderProgram program, int screenWidth, int screenHeight) {
+        bindTexture(UNIT_CLUSTER_GRID, gridTexture);
+        bindTexture(UNIT_LIGHT_INDICES, indexTexture);
+        bindTexture(UNIT_LIGHT_DATA, dataTexture);
+        glActiveTexture(GL_TEXTURE0);
+
+        glUniform1i(program.getLocation(U_CLUSTER_GRID), UNIT_CLUSTER_GRID);
+        glUniform1i(program.getLocation(U_LIGHT_INDICES), UNIT_LIGHT_INDICES);
+        glUniform1i(program.getLocation(U_LIGHT_DATA), UNIT_LIGHT_DATA);
+        glUniform1i(program.getLocation(U_LIGHT_STRIDE), lightStride);
+        glUniformMatrix4fv(program.getLocation(U_VIEW), false, view);
+        glUniform2f(program.getLocation(U_SCREEN_SIZE), screenWidth, screenHeight);
+        glUniform2f(program.getLocation(U_DEPTH_RANGE), nearPlane, farPlane);
+        glUniform3i(program.getLocation(U_CLUSTER_DIMS), TILES_X, TILES_Y, DEPTH_SLICES);
+    }
+
+    /**
+     * Release the texture buffers
+     */
+    public void delete() {
+        int[] textures = {gridTexture, indexTexture, dataTexture};
+        for (int texture : textures) {
+            if (texture != 0) {
+                glDeleteTextures(texture);
+            }
+        }
+        int[] buffers = {gridBuffer, indexBuffer, dataBuffer};
+        for (int buffer : buffers) {
+            if (buffer != 0) {
+                glDeleteBuffers(buffer);
+            }
+        }
+        gridTexture = indexTexture = dataTexture = 0;
+        gridBuffer = indexBuffer = dataBuffer = 0;
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get the cluster index for a tile and depth slice
+     */
+    public static int clusterIndex(int tileX, int tileY, int slice) {
+        return (slice * TILES_Y + tileY) * TILES_X + tileX;
+    }
+
+    public int getLightCount() {
+        return lightCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Get the number of lights binned into a cluster
+     */
+    public int getClusterLightCount(int cluster) {
+        return clusterGrid[cluster * 2 + 1];
+    }
+
+    /**
+     * Get the i-th light (slot in the light buffer) of a cluster
+     */
+    public int getClusterLight(int cluster, int i) {
+        return lightIndices[clusterGrid[cluster * 2] + i];
+    }
+
+    /**
+     * Get the binned lights as records, in binning order: position + radius,
+     * color + intensity (shader scale), direction + spot cutoff
+     */
+    public float[] getLightData() {
+        float[] records = new float[lightCount * FLOATS_PER_LIGHT];
+        for (int light = 0; light < lightCount; light++) {
+            int slot = binnedSlots[light];
+            int o = light * FLOATS_PER_LIGHT;
+            records[o] = source.get(LightBuffer.X, slot);
+            records[o + 1] = source.get(LightBuffer.Y, slot);
+            records[o + 2] = source.get(LightBuffer.Z, slot);
+            records[o + 3] = source.get(LightBuffer.RADIUS, slot);
+            records[o + 4] = source.get(LightBuffer.RED, slot);
+            records[o + 5] = source.get(LightBuffer.GREEN, slot);
+            records[o + 6] = source.get(LightBuffer.BLUE, slot);
+            records[o + 7] = source.get(LightBuffer.INTENSITY, slot) / INTENSITY_SCALE;
+            records[o + 8] = source.get(LightBuffer.DIRECTION_X, slot);
+            records[o + 10] = source.get(LightBuffer.DIRECTION_Z, slot);
+            records[o + 11] = source.get(LightBuffer.CUTOFF, slot);
+        }
+        return records;
+    }
+
+    // === Helper Methods ===
+
+    /**
+     * Visit every cluster a light covers: count it (light &lt; 0) or append it
+     */
+    private void forEachCluster(int rangeOffset, int light) {
+        for (int slice = lightRanges[rangeOffset + 4]; slice <= lightRanges[rangeOffset + 5]; slice++) {
+            for (int y = lightRanges[rangeOffset + 2]; y <= lightRanges[rangeOffset + 3]; y++) {
+                for (int x = lightRanges[rangeOffset]; x <= lightRanges[rangeOffset + 1]; x++) {
+                    int c = clusterIndex(x, y, slice) * 2;
+                    if (light < 0) {
+                        clusterGrid[c + 1]++;
+                    } else {
+                        lightIndices[clusterGrid[c] + clusterGrid[c + 1]++] = light;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Smallest value of x / depth over the depth interval */
+    private static float minOverDepth(float x, float minDepth, float maxDepth) {
+        return x < 0.0f ? x / minDepth : x / maxDepth;
+    }
+
+    /** Largest value of x / depth over the depth interval */
+    private static float maxOverDepth(float x, float minDepth, float maxDepth) {
+        return x > 0.0f ? x / minDepth : x / maxDepth;
+    }
+
+    private static int tileOf(float ndc, int tiles) {
+        int tile = (int) Math.floor((ndc + 1.0f) * 0.5f * tiles);
+        return Math.max(0, Math.min(tiles - 1, tile));
+    }
+
+    private static int sliceOf(float depth, float near, float logDepthRatio) {
+        if (depth <= near) {
+            return 0;
+        }
+        int slice = (int) (Math.log(depth / near) / logDepthRatio * DEPTH_SLICES);
+        return Math.max(0, Math.min(DEPTH_SLICES - 1, slice));
+    }
+
+    private void writeGrid(ByteBuffer out, int offset) {
+        for (int i = 0; i < CLUSTER_COUNT * 2; i++) {
+            out.putInt(offset + i * Integer.BYTES, clusterGrid[i]);
+        }
+    }
+
+    private void writeIndices(ByteBuffer out, int offset) {
+        for (int i = 0; i < indexCount; i++) {
+            out.putInt(offset + i * Integer.BYTES, lightIndices[i]);
+        }
+        if (indexCount == 0) {
+            out.putInt(offset, 0);
+        }
+    }
+
+    /**
+     * Write the light columns packed to the lights in use (column c of light
+     * i at c * lightStride + i, as the shaders read them)
+     */
+    private void writeLights(ByteBuffer out, int offset, LightBuffer lights) {
+        float[] data = lights.getData();
+        int capacity = lights.getCapacity();
+        int count = lights.size();
+        for (int column = 0; column < LightBuffer.COLUMNS; column++) {
+            int from = column * capacity;
+            int to = offset + column * lightStride * Float.BYTES;
+            for (int slot = 0; slot < count; slot++) {
+                out.putFloat(to + slot * Float.BYTES, data[from + slot]);
+            }
+        }
+    }
+
+    /**
+     * Orphan an own buffer and fill it from a range of the staging buffer
+     */
+    private void refill(int buffer, int offset, int bytes) {
+        ByteBuffer range = staging.duplicate();
+        range.limit(offset + bytes).position(offset);
+        glBindBuffer(GL_TEXTURE_BUFFER, buffer);
+        glBufferData(GL_TEXTURE_BUFFER, bytes, GL_STREAM_DRAW);
+        glBufferSubData(GL_TEXTURE_BUFFER, 0L, range);
+    }
+
+    private static int queryRangeAlignment() {
+        GLCapabilities caps = GL.getCapabilities();
+        if (caps == null || !(caps.OpenGL43 || caps.GL_ARB_texture_buffer_range)) {
+            return 0;
+        }
+        return Math.max(1, glGetInteger(GL_TEXTURE_BUFFER_OFFSET_ALIGNMENT));
+    }
+
+    private static void attach(int texture, int format, int buffer) {
+        glBindTexture(GL_TEXTURE_BUFFER, texture);
+        glTexBuffer(GL_TEXTURE_BUFFER, format, buffer);
+        glBindTexture(GL_TEXTURE_BUFFER, 0);
+    }
+
+    private static void attachRange(int texture, int format, int buffer, int offset, int bytes) {
+        glBindTexture(GL_TEXTURE_BUFFER, texture);
+        glTexBufferRange(GL_TEXTURE_BUFFER, format, buffer, offset, bytes);
+        glBindTexture(GL_TEXTURE_BUFFER, 0);
+    }
+
+    private void createTextures() {
+        gridBuffer = glGenBuffers();
+        indexBuffer = glGenBuffers();
+        dataBuffer = glGenBuffers();
+        gridTexture = createBufferTexture(gridBuffer, GL_RG32UI);
+        indexTexture = createBufferTexture(indexBuffer, GL_R32UI);
+        dataTexture = createBufferTexture(dataBuffer, GL_R32F);
+    }
+
+    private static int createBufferTexture(int buffer, int format) {
+        // A buffer needs storage before it can back a texture
+        glBindBuffer(GL_TEXTURE_BUFFER, buffer);
+        glBufferData(GL_TEXTURE_BUFFER, 16L, GL_STREAM_DRAW);
+        glBindBuffer(GL_TEXTURE_BUFFER, 0);
+
+        int texture = glGenTextures();
+        attach(texture, format, buffer);
+        return texture;
+    }
+
+    private static void bindTexture(int unit, int texture) {
+        glActiveTexture(GL_TEXTURE0 + unit);
+        glBindTexture(GL_TEXTURE_BUFFER, texture);
+    }
+}
@@ -0,0 +1,199 @@
+package dontlookback;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Collision Broadphase Benchmark
+ *
+ * Measures player-sized box queries against worlds of 100 to 100,000
+ * obstacles at the same density, once through the {@link SpatialHash}
+ * broadphase and once by scanning every obstacle. The broadphase time
+ * should stay flat as the world grows; the scan grows with it.
+ *
+ * A second table reports the bytes allocated per movement check, for the
+ * old array-returning API and for the allocation-free narrowphase paths
+ * (obstacle array, {@link SpatialHash}, {@link AABBStore}). The new paths
+ * should show zero.
+ *
+ * Run with: java -cp build/classes/java/main dontlookback.CollisionBenchmark
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class CollisionBenchmark {
+
+    /** World area per obstacle (square units), kept constant across sizes */
+    private static final float AREA_PER_OBSTACLE = 16.0f;
+
+    /** Grid cell size, about the size of an obstacle */
+    private static final float CELL_SIZE = 2.0f;
+
+    private static final int QUERIES = 200_000;
+
+    /** Counts overlaps so the JIT cannot drop the queries */
+    private static int hits;
+    
+    /** Keeps the legacy result reachable, as a caller holding on to it would */
+    private static float[] lastBox;
+
+    public static void main(String[] args) {
+        System.out.println("=============================================================");
+        System.out.println("        Don't Look Back - Collision Broadphase Benchmark    ");
+        System.out.println("=============================================================");
+        System.out.println(String.format("%10s %16s %16s %14s",
+            "Obstacles", "Hash ns/query", "Scan ns/query", "Tested/query"));
+
+        for (int count : new int[]{100, 1_000, 10_000, 100_000}) {
+            run(count);
+        }
+        
+        System.out.println();
+        runAllocation(1_000);
+    }
+    
+    /** Narrowphase checks each allocation probe runs */
+    private static final int ALLOCATION_QUERIES = 100_000;
+    
+    private static void runAllocation(int count) {
+        Random random = new Random(count);
+        float side = (float) Math.sqrt(count * AREA_PER_OBSTACLE);
+        
+        float[][] obstacles = new float[count][];
+        AABBStore store = new AABBStore(count);
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * side;
+            float z = random.nextFloat() * side;
+            float[] box = CollisionDetector.createWallBoundingBox(x, 0, z,
+                0.5f + random.nextFloat() * 1.5f, 3.0f, 0.5f + random.nextFloat() * 1.5f);
+            obstacles[i] = box;
+            store.add(box[0], box[1], box[2], box[3], box[4], box[5]);
+        }
+        SpatialHash hash = CollisionDetector.createObstacleHash(obstacles, CELL_SIZE);
+        float[] queries = new float[ALLOCATION_QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextFloat() * side;
+        }
+        Player player = new Player();
+        float[] box = new float[6];
+        
+        System.out.println(String.format("Narrowphase allocation, %d obstacles", count));
+        System.out.println(String.format("%-36s %14s %14s", "Path", "Bytes/query", "ns/query"));
+        
+        Runnable legacy = () -> {
+            for (int i = 0; i < ALLOCATION_QUERIES; i++) {
+                if (CollisionDetector.getSafeMovementPosition(player, queries[i * 2], 0, queries[i * 2 + 1], obstacles) != null) {
+                    hits++;
+                }
+                lastBox = CollisionDetector.getPlayerBoundingBox(player);
+            }
+        };
+        Runnable array = () -> {
+            for (int i = 0; i < ALLOCATION_QUERIES; i++) {
+                if (CollisionDetector.isMovementBlocked(player, queries[i * 2], 0, queries[i * 2 + 1], obstacles)) {
+                    hits++;
+                }
+                lastBox = CollisionDetector.getPlayerBoundingBox(player, box);
+            }
+        };
+        Runnable spatial = () -> {
+            for (int i = 0; i < ALLOCATION_QUERIES; i++) {
+                if (CollisionDetector.isMovementBlocked(player, queries[i * 2], 0, queries[i * 2 + 1], hash)) {
+                    hits++;
+                }
+            }
+        };
+        Runnable packed = () -> {
+            for (int i = 0; i < ALLOCATION_QUERIES; i++) {
+                if (CollisionDetector.isMovementBlocked(player, queries[i * 2], 0, queries[i * 2 + 1], store, -1)) {
+                    hits++;
+                }
+            }
+        };
+        
+        measureAllocation("getSafeMovementPosition + box", legacy);
+        measureAllocation("isMovementBlocked(float[][]) + box", array);
+        measureAllocation("isMovementBlocked(SpatialHash)", spatial);
+        measureAllocation("isMovementBlocked(AABBStore)", packed);
+    }
+    
+    private static void measureAllocation(String name, Runnable probe) {
+        com.sun.management.ThreadMXBean threads = 
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        
+        // Warm up so the JIT has compiled (and scalar-replaced) the loop
+        for (int i = 0; i < 5; i++) {
+            probe.run();
+        }
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        probe.run();
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+        
+        System.out.println(String.format("%-36s %14.2f %14.1f", name, 
+            bytes / (double) ALLOCATION_QUERIES, nanos / (double) ALLOCATION_QUERIES));
+    }
+
+    private static void run(int count) {
+        Random random = new Random(count);
+        float side = (float) Math.sqrt(count * AREA_PER_OBSTACLE);
+
+        float[][] obstacles = new float[count][];
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * side;
+            float z = random.nextFloat() * side;
+            obstacles[i] = CollisionDetector.createWallBoundingBox(x, 0, z,
+                0.5f + random.nextFloat() * 1.5f, 3.0f, 0.5f + random.nextFloat() * 1.5f);
+        }
+        SpatialHash hash = CollisionDetector.createObstacleHash(obstacles, CELL_SIZE);
+
+        float[] queries = new float[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextFloat() * side;
+        }
+        SpatialHash.Visitor counter = proxy -> {
+            hits++;
+            return true;
+        };
+
+        // Warm up, then time
+        timeHash(hash, queries, counter);
+        hash.takeCandidatesTested();
+        double hashNanos = timeHash(hash, queries, counter);
+        double tested = hash.takeCandidatesTested() / (double) QUERIES;
+
+        // The scan is slow for big worlds: time fewer queries there
+        int scanQueries = Math.max(1_000, QUERIES / Math.max(1, count / 100));
+        timeScan(obstacles, queries, scanQueries);
+        double scanNanos = timeScan(obstacles, queries, scanQueries);
+
+        System.out.println(String.format("%10d %16.1f %16.1f %14.2f", count, hashNanos, scanNanos, tested));
+    }
+
+    private static double timeHash(SpatialHash hash, float[] queries, SpatialHash.Visitor counter) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            float x = queries[i * 2];
+            float z = queries[i * 2 + 1];
+            hash.queryAABB(x - 0.3f, 0.0f, z - 0.3f, x + 0.3f, 1.8f, z + 0.3f, counter);
+        }
+        return (System.nanoTime() - start) / (double) QUERIES;
+    }
+
+    private static double timeScan(float[][] obstacles, float[] queries, int count) {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            float x = queries[i * 2];
+            float z = queries[i * 2 + 1];
+            for (float[] box : obstacles) {
+                if (box[3] >= x - 0.3f && box[0] <= x + 0.3f && box[4] >= 0.0f && box[1] <= 1.8f &&
+                    box[5] >= z - 0.3f && box[2] <= z + 0.3f) {
+                    hits++;
+                }
+            }
+        }
+        return (System.nanoTime() - start) / (double) count;
+    }
+}
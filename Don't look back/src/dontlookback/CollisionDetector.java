@@ -7,11 +7,24 @@ package dontlookback;
  * Uses Axis-Aligned Bounding Box (AABB) collision detection for efficient
  * and reliable collision checking between game entities.
  * 
+ * Obstacles and monsters can be kept in a {@link SpatialHash} broadphase,
+ * so a check only looks at the boxes near the player instead of scanning
+ * every one. Monsters that move every frame fit a {@link DynamicAABBTree}
+ * better: small moves do not touch the tree at all.
+ * 
+ * Per-frame checks allocate nothing: boxes are compared as scalars, written
+ * into caller-owned arrays, or kept in an {@link AABBStore}. The methods
+ * that return new arrays remain as thin wrappers for existing callers.
+ * 
  * @author DLB Team
  * @version 1.0
  */
 public class CollisionDetector {
     
+    /** Broadphase visitors that stop at the first candidate */
+    private static final SpatialHash.Visitor STOP_AT_FIRST = proxy -> false;
+    private static final DynamicAABBTree.Visitor TREE_STOP_AT_FIRST = proxy -> false;
+    
     /**
      * Check collision between player and monster using AABB collision detection
      * 
@@ -20,10 +33,21 @@ public class CollisionDetector {
      * @return true if collision detected, false otherwise
      */
     public static boolean checkPlayerMonsterCollision(Player player, BasicMonster monster) {
-        float[] playerBox = getPlayerBoundingBox(player);
-        float[] monsterBox = monster.getBoundingBox();
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
         
-        return checkAABBCollision(playerBox, monsterBox);
+        float mx = monster.positionX();
+        float my = monster.positionY();
+        float mz = monster.positionZ();
+        float monsterHalfWidth = monster.getCollisionHalfWidth();
+        float monsterHalfDepth = monster.getCollisionHalfDepth();
+        
+        return boxesOverlap(x - halfWidth, y, z - halfDepth, x + halfWidth, y + playerHeight(player), z + halfDepth,
+                            mx - monsterHalfWidth, my, mz - monsterHalfDepth,
+                            mx + monsterHalfWidth, my + monster.getCollisionHeight(), mz + monsterHalfDepth);
     }
     
     /**
@@ -34,8 +58,14 @@ public class CollisionDetector {
      * @return true if collision detected, false otherwise
      */
     public static boolean checkPlayerWallCollision(Player player, float[] wallBox) {
-        float[] playerBox = getPlayerBoundingBox(player);
-        return checkAABBCollision(playerBox, wallBox);
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return boxesOverlap(x - halfWidth, y, z - halfDepth, x + halfWidth, y + playerHeight(player), z + halfDepth,
+                            wallBox[0], wallBox[1], wallBox[2], wallBox[3], wallBox[4], wallBox[5]);
     }
     
     /**
@@ -65,7 +95,9 @@ public class CollisionDetector {
     }
     
     /**
-     * Check if a movement would cause a collision and return safe position
+     * Check if a movement would cause a collision and return safe position.
+     * The whole move is rejected on any overlap; {@link CollisionResolver}
+     * moves up to the obstacle and slides along it instead.
      * 
      * @param player The player attempting to move
      * @param newX Proposed new X position
@@ -75,19 +107,274 @@ public class CollisionDetector {
      * @return Array with safe position {x, y, z} or null if movement is safe
      */
     public static float[] getSafeMovementPosition(Player player, float newX, float newY, float newZ, float[][] obstacles) {
-        // Create temporary bounding box for proposed position
-        float[] proposedBox = getPlayerBoundingBoxAt(player, newX, newY, newZ);
+        if (isMovementBlocked(player, newX, newY, newZ, obstacles)) {
+            // Collision detected, return current safe position
+            return new float[] {player.positionX(), player.positionY(), player.positionZ()};
+        }
+        
+        // No collision, movement is safe
+        return null;
+    }
+    
+    /**
+     * Check if a movement would cause a collision, testing only the
+     * obstacles near the proposed position
+     * 
+     * @param player The player attempting to move
+     * @param newX Proposed new X position
+     * @param newY Proposed new Y position
+     * @param newZ Proposed new Z position
+     * @param obstacles Broadphase of obstacle bounding boxes
+     * @return Array with safe position {x, y, z} or null if movement is safe
+     */
+    public static float[] getSafeMovementPosition(Player player, float newX, float newY, float newZ, SpatialHash obstacles) {
+        if (isMovementBlocked(player, newX, newY, newZ, obstacles)) {
+            return new float[] {player.positionX(), player.positionY(), player.positionZ()};
+        }
+        return null;
+    }
+    
+    /**
+     * Check whether the player's box at a proposed position would overlap
+     * an obstacle, without allocating
+     * 
+     * @param obstacles Array of obstacle bounding boxes to check against
+     * @return true if the movement is blocked
+     */
+    public static boolean isMovementBlocked(Player player, float newX, float newY, float newZ, float[][] obstacles) {
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        float x0 = newX - halfWidth;
+        float z0 = newZ - halfDepth;
+        float x1 = newX + halfWidth;
+        float y1 = newY + playerHeight(player);
+        float z1 = newZ + halfDepth;
         
-        // Check collision with each obstacle
         for (float[] obstacle : obstacles) {
-            if (checkAABBCollision(proposedBox, obstacle)) {
-                // Collision detected, return current safe position
-                return new float[] {player.positionX(), player.positionY(), player.positionZ()};
+            if (boxesOverlap(x0, newY, z0, x1, y1, z1,
+                             obstacle[0], obstacle[1], obstacle[2], obstacle[3], obstacle[4], obstacle[5])) {
+                return true;
             }
         }
+        return false;
+    }
+    
+    /**
+     * Check whether the player's box at a proposed position would overlap
+     * an obstacle in a broadphase, without allocating
+     * 
+     * @return true if the movement is blocked
+     */
+    public static boolean isMovementBlocked(Player player, float newX, float newY, float newZ, SpatialHash obstacles) {
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
         
-        // No collision, movement is safe
-        return null;
+        // The first overlapping obstacle stops the query
+        return !obstacles.queryAABB(newX - halfWidth, newY, newZ - halfDepth, 
+                                    newX + halfWidth, newY + playerHeight(player), newZ + halfDepth, STOP_AT_FIRST);
+    }
+    
+    /**
+     * Check whether the player's box at a proposed position would overlap
+     * a box in a dynamic tree (e.g. a monster), without allocating
+     * 
+     * @return true if the movement is blocked
+     */
+    public static boolean isMovementBlocked(Player player, float newX, float newY, float newZ, DynamicAABBTree boxes) {
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return !boxes.queryAABB(newX - halfWidth, newY, newZ - halfDepth, 
+                                newX + halfWidth, newY + playerHeight(player), newZ + halfDepth, TREE_STOP_AT_FIRST);
+    }
+    
+    /**
+     * Check whether the player's box at a proposed position would overlap
+     * a box in a store, without allocating
+     * 
+     * @param skipId The player's own id in the store, or -1
+     * @return true if the movement is blocked
+     */
+    public static boolean isMovementBlocked(Player player, float newX, float newY, float newZ, AABBStore boxes, int skipId) {
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return boxes.overlapsAny(newX - halfWidth, newY, newZ - halfDepth, 
+                                 newX + halfWidth, newY + playerHeight(player), newZ + halfDepth, skipId);
+    }
+    
+    /**
+     * Visit every monster touching the player, instead of checking each pair
+     * 
+     * @param player The player to check
+     * @param monsters Broadphase of monster boxes (see {@link #addMonster})
+     * @param visitor Given the proxy of each colliding monster; 
+     *                {@link SpatialHash#getUserData} returns the monster
+     * @return false if the visitor stopped early
+     */
+    public static boolean forEachPlayerMonsterCollision(Player player, SpatialHash monsters, SpatialHash.Visitor visitor) {
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return monsters.queryAABB(x - halfWidth, y, z - halfDepth, 
+                                  x + halfWidth, y + playerHeight(player), z + halfDepth, visitor);
+    }
+    
+    /**
+     * Put a monster's bounding box into a broadphase
+     * 
+     * @return Proxy to pass to {@link #moveMonster} after the monster moves
+     */
+    public static int addMonster(SpatialHash monsters, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        return monsters.insert(monster, x - halfWidth, y, z - halfDepth, 
+                               x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Bring a monster's box in a broadphase up to date with its position
+     */
+    public static void moveMonster(SpatialHash monsters, int proxy, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        monsters.move(proxy, x - halfWidth, y, z - halfDepth, 
+                      x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Visit every monster touching the player, through a dynamic tree
+     * 
+     * @param monsters Tree of monster boxes (see {@link #addMonster(DynamicAABBTree, BasicMonster)})
+     * @param visitor Given the proxy of each colliding monster; 
+     *                {@link DynamicAABBTree#getUserData} returns the monster
+     * @return false if the visitor stopped early
+     */
+    public static boolean forEachPlayerMonsterCollision(Player player, DynamicAABBTree monsters, DynamicAABBTree.Visitor visitor) {
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return monsters.queryAABB(x - halfWidth, y, z - halfDepth, 
+                                  x + halfWidth, y + playerHeight(player), z + halfDepth, visitor);
+    }
+    
+    /**
+     * Put a monster's bounding box into a dynamic tree
+     * 
+     * @return Proxy to pass to {@link #moveMonster(DynamicAABBTree, int, BasicMonster)} after the monster moves
+     */
+    public static int addMonster(DynamicAABBTree monsters, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        return monsters.createProxy(monster, x - halfWidth, y, z - halfDepth, 
+                                    x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Bring a monster's box in a dynamic tree up to date with its position;
+     * the tree only changes once the monster leaves its fat box
+     * 
+     * @return true if the monster's proxy was reinserted
+     */
+    public static boolean moveMonster(DynamicAABBTree monsters, int proxy, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        return monsters.moveProxy(proxy, x - halfWidth, y, z - halfDepth, 
+                                  x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Put the player's bounding box into a store
+     * 
+     * @return Id to pass to {@link #updatePlayer} after the player moves
+     */
+    public static int addPlayer(AABBStore boxes, Player player) {
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        return boxes.add(x - halfWidth, y, z - halfDepth, x + halfWidth, y + playerHeight(player), z + halfDepth);
+    }
+    
+    /**
+     * Bring the player's box in a store up to date with its position
+     */
+    public static void updatePlayer(AABBStore boxes, int id, Player player) {
+        float x = player.positionX();
+        float y = player.positionY();
+        float z = player.positionZ();
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
+        
+        boxes.set(id, x - halfWidth, y, z - halfDepth, x + halfWidth, y + playerHeight(player), z + halfDepth);
+    }
+    
+    /**
+     * Put a monster's bounding box into a store
+     * 
+     * @return Id to pass to {@link #updateMonster} after the monster moves
+     */
+    public static int addMonster(AABBStore boxes, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        return boxes.add(x - halfWidth, y, z - halfDepth, x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Bring a monster's box in a store up to date with its position
+     */
+    public static void updateMonster(AABBStore boxes, int id, BasicMonster monster) {
+        float x = monster.positionX();
+        float y = monster.positionY();
+        float z = monster.positionZ();
+        float halfWidth = monster.getCollisionHalfWidth();
+        float halfDepth = monster.getCollisionHalfDepth();
+        
+        boxes.set(id, x - halfWidth, y, z - halfDepth, x + halfWidth, y + monster.getCollisionHeight(), z + halfDepth);
+    }
+    
+    /**
+     * Build a broadphase from obstacle bounding boxes
+     * 
+     * @param obstacles Boxes {minX, minY, minZ, maxX, maxY, maxZ}; each proxy's user data is its index
+     * @param cellSize Grid cell size, about the size of a typical obstacle
+     * @return Spatial hash holding every obstacle
+     */
+    public static SpatialHash createObstacleHash(float[][] obstacles, float cellSize) {
+        SpatialHash hash = new SpatialHash(cellSize);
+        for (int i = 0; i < obstacles.length; i++) {
+            float[] box = obstacles[i];
+            hash.insert(i, box[0], box[1], box[2], box[3], box[4], box[5]);
+        }
+        return hash;
     }
     
     /**
@@ -97,7 +384,18 @@ public class CollisionDetector {
      * @return Bounding box {minX, minY, minZ, maxX, maxY, maxZ}
      */
     public static float[] getPlayerBoundingBox(Player player) {
-        return getPlayerBoundingBoxAt(player, player.positionX(), player.positionY(), player.positionZ());
+        return getPlayerBoundingBox(player, new float[6]);
+    }
+    
+    /**
+     * Write the player's bounding box into a caller-owned array
+     * 
+     * @param player The player
+     * @param out Receives {minX, minY, minZ, maxX, maxY, maxZ}
+     * @return out
+     */
+    public static float[] getPlayerBoundingBox(Player player, float[] out) {
+        return getPlayerBoundingBoxAt(player, player.positionX(), player.positionY(), player.positionZ(), out);
     }
     
     /**
@@ -109,44 +407,56 @@ public class CollisionDetector {
      * @param z Z position
      * @return Bounding box {minX, minY, minZ, maxX, maxY, maxZ}
      */
-    private static float[] getPlayerBoundingBoxAt(Player player, float x, float y, float z) {
-        // Convert player dimensions from cm to game units
-        float halfWidth = player.width() / 200.0f;  // Half width in game units
-        float height = player.height() / 100.0f;    // Height in game units
-        float halfDepth = player.depth() / 200.0f;  // Half depth in game units
+    public static float[] getPlayerBoundingBoxAt(Player player, float x, float y, float z) {
+        return getPlayerBoundingBoxAt(player, x, y, z, new float[6]);
+    }
+    
+    /**
+     * Write the player's bounding box at a specific position into a
+     * caller-owned array
+     * 
+     * @param out Receives {minX, minY, minZ, maxX, maxY, maxZ}
+     * @return out
+     */
+    public static float[] getPlayerBoundingBoxAt(Player player, float x, float y, float z, float[] out) {
+        float halfWidth = playerHalfWidth(player);
+        float halfDepth = playerHalfDepth(player);
         
-        return new float[] {
-            x - halfWidth,    // minX
-            y,                // minY (ground level)
-            z - halfDepth,    // minZ
-            x + halfWidth,    // maxX
-            y + height,       // maxY
-            z + halfDepth     // maxZ
-        };
+        out[0] = x - halfWidth;                 // minX
+        out[1] = y;                             // minY (ground level)
+        out[2] = z - halfDepth;                 // minZ
+        out[3] = x + halfWidth;                 // maxX
+        out[4] = y + playerHeight(player);      // maxY
+        out[5] = z + halfDepth;                 // maxZ
+        return out;
+    }
+    
+    // Convert player dimensions from cm to game units
+    
+    private static float playerHalfWidth(Player player) {
+        return player.width() / 200.0f;
+    }
+    
+    private static float playerHeight(Player player) {
+        return player.height() / 100.0f;
+    }
+    
+    private static float playerHalfDepth(Player player) {
+        return player.depth() / 200.0f;
     }
     
     /**
      * Check collision between two AABB (Axis-Aligned Bounding Box) objects
+     * given as scalars; touching boxes collide
      * 
-     * @param box1 First bounding box {minX, minY, minZ, maxX, maxY, maxZ}
-     * @param box2 Second bounding box {minX, minY, minZ, maxX, maxY, maxZ}
      * @return true if boxes overlap, false otherwise
      */
-    private static boolean checkAABBCollision(float[] box1, float[] box2) {
-        // Check for separation on each axis
+    private static boolean boxesOverlap(float ax0, float ay0, float az0, float ax1, float ay1, float az1,
+                                        float bx0, float by0, float bz0, float bx1, float by1, float bz1) {
         // If separated on any axis, no collision
-        
-        // X axis check
-        if (box1[3] < box2[0] || box1[0] > box2[3]) return false;
-        
-        // Y axis check
-        if (box1[4] < box2[1] || box1[1] > box2[4]) return false;
-        
-        // Z axis check
-        if (box1[5] < box2[2] || box1[2] > box2[5]) return false;
-        
-        // No separation found, collision detected
-        return true;
+        return !(ax1 < bx0 || ax0 > bx1 ||   // X axis
+                 ay1 < by0 || ay0 > by1 ||   // Y axis
+                 az1 < bz0 || az0 > bz1);    // Z axis
     }
     
     /**
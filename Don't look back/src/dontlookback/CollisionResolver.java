@@ -0,0 +1,363 @@
+package dontlookback;
+
+/**
+ * Collision Resolver for Don't Look Back
+ *
+ * Moves a box through static obstacles with swept AABB tests instead of
+ * rejecting the whole move on overlap. Each step finds the earliest time
+ * of impact along the remaining displacement, moves up to the contact,
+ * drops the part of the motion that points into the surface and tries
+ * again with the rest, so an entity slides along walls rather than
+ * sticking to them, and a fast one cannot skip over a thin wall between
+ * two frames.
+ *
+ * Features:
+ * - Time of impact and contact normal from a slab test per obstacle
+ * - Sliding along the contact normal, for a bounded number of steps
+ * - Obstacles from a plain array, a {@link SpatialHash}, a
+ *   {@link DynamicAABBTree} or an {@link AABBStore}; every obstacle the
+ *   swept box may touch is tested
+ * - Deterministic: equal impact times go to the lower obstacle index, so
+ *   replays resolve the same way whatever order the broadphase returns
+ * - Boxes already overlapping by more than the contact skin are ignored,
+ *   so an entity spawned inside furniture can walk out
+ * - Allocation-free once constructed (the {@link AABBStore} candidate
+ *   buffer grows only when a move touches more boxes than ever before)
+ *
+ * Not thread-safe; give each thread its own resolver.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class CollisionResolver {
+
+    /** Returned by {@link #sweep} when the box does not hit the obstacle */
+    public static final float NO_HIT = Float.POSITIVE_INFINITY;
+
+    /** Contact and slide steps per move (one per axis, plus one) */
+    public static final int MAX_ITERATIONS = 4;
+
+    /** Gap left between the box and a surface it stops against */
+    public static final float SKIN = 0.001f;
+
+    private static final int NO_AXIS = -1;
+
+    // === Move State ===
+
+    // Current box and the displacement still to apply
+    private float x0, y0, z0, x1, y1, z1;
+    private float dx, dy, dz;
+
+    // Earliest hit of the current step
+    private float hitTime;
+    private int hitAxis;
+    private float hitGap;
+    private int hitObstacle;
+
+    /** Obstacle to leave out of AABBStore moves (the mover's own box) */
+    private int skipId = -1;
+
+    private int[] candidates = new int[32];
+    private int contactCount;
+
+    /** Tests broadphase candidates without allocating a visitor per move */
+    private final SpatialHash.Visitor hashVisitor;
+    private SpatialHash hash;
+    private final DynamicAABBTree.Visitor treeVisitor;
+    private DynamicAABBTree tree;
+    private final float[] boundsScratch = new float[6];
+
+    /**
+     * Create a resolver
+     */
+    public CollisionResolver() {
+        hashVisitor = proxy -> {
+            float[] b = boundsScratch;
+            hash.getBounds(proxy, b);
+            test(proxy, b[0], b[1], b[2], b[3], b[4], b[5]);
+            return true;
+        };
+        treeVisitor = proxy -> {
+            float[] b = boundsScratch;
+            tree.getBounds(proxy, b);
+            test(proxy, b[0], b[1], b[2], b[3], b[4], b[5]);
+            return true;
+        };
+    }
+
+    // === Moves ===
+
+    /**
+     * Move a box through an array of obstacles
+     *
+     * @param box The box before the move {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param obstacles Obstacle boxes {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param out Receives the displacement actually applied {x, y, z}
+     * @return true if the box touched an obstacle on the way
+     */
+    public boolean move(float[] box, float moveX, float moveY, float moveZ, float[][] obstacles, float[] out) {
+        begin(box, moveX, moveY, moveZ);
+        for (int step = 0; step < MAX_ITERATIONS && moving(); step++) {
+            beginStep();
+            for (int i = 0; i < obstacles.length; i++) {
+                float[] b = obstacles[i];
+                test(i, b[0], b[1], b[2], b[3], b[4], b[5]);
+            }
+            if (!advance()) {
+                break;
+            }
+        }
+        return finish(box, out);
+    }
+
+    /**
+     * Move a box through the obstacles of a broadphase; only those the
+     * swept box overlaps are tested
+     *
+     * @param box The box before the move {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param out Receives the displacement actually applied {x, y, z}
+     * @return true if the box touched an obstacle on the way
+     */
+    public boolean move(float[] box, float moveX, float moveY, float moveZ, SpatialHash obstacles, float[] out) {
+        begin(box, moveX, moveY, moveZ);
+        hash = obstacles;
+        try {
+            for (int step = 0; step < MAX_ITERATIONS && moving(); step++) {
+                beginStep();
+                obstacles.queryAABB(sweptMin(x0, dx), sweptMin(y0, dy), sweptMin(z0, dz),
+                                    sweptMax(x1, dx), sweptMax(y1, dy), sweptMax(z1, dz), hashVisitor);
+                if (!advance()) {
+                    break;
+                }
+            }
+        } finally {
+            hash = null;
+        }
+        return finish(box, out);
+    }
+
+    /**
+     * Move a box through the boxes of a dynamic tree (e.g. other monsters)
+     *
+     * @param box The box before the move {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param out Receives the displacement actually applied {x, y, z}
+     * @return true if the box touched an obstacle on the way
+     */
+    public boolean move(float[] box, float moveX, float moveY, float moveZ, DynamicAABBTree obstacles, float[] out) {
+        begin(box, moveX, moveY, moveZ);
+        tree = obstacles;
+        try {
+            for (int step = 0; step < MAX_ITERATIONS && moving(); step++) {
+                beginStep();
+                obstacles.queryAABB(sweptMin(x0, dx), sweptMin(y0, dy), sweptMin(z0, dz),
+                                    sweptMax(x1, dx), sweptMax(y1, dy), sweptMax(z1, dz), treeVisitor);
+                if (!advance()) {
+                    break;
+                }
+            }
+        } finally {
+            tree = null;
+        }
+        return finish(box, out);
+    }
+
+    /**
+     * Move a box through the boxes of a store
+     *
+     * @param box The box before the move {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param skip Id of the mover's own box in the store, or -1
+     * @param out Receives the displacement actually applied {x, y, z}
+     * @return true if the box touched an obstacle on the way
+     */
+    public boolean move(float[] box, float moveX, float moveY, float moveZ, AABBStore obstacles, int skip, float[] out) {
+        begin(box, moveX, moveY, moveZ);
+        skipId = skip;
+        for (int step = 0; step < MAX_ITERATIONS && moving(); step++) {
+            beginStep();
+            int found;
+            while ((found = obstacles.queryOverlaps(sweptMin(x0, dx), sweptMin(y0, dy), sweptMin(z0, dz),
+                                                    sweptMax(x1, dx), sweptMax(y1, dy), sweptMax(z1, dz),
+                                                    skipId, candidates)) > candidates.length) {
+                candidates = new int[Integer.highestOneBit(found) * 2];
+            }
+            for (int i = 0; i < found; i++) {
+                int id = candidates[i];
+                test(id, obstacles.getMinX(id), obstacles.getMinY(id), obstacles.getMinZ(id),
+                     obstacles.getMaxX(id), obstacles.getMaxY(id), obstacles.getMaxZ(id));
+            }
+            if (!advance()) {
+                break;
+            }
+        }
+        skipId = -1;
+        return finish(box, out);
+    }
+
+    /**
+     * Sweep one box against one obstacle
+     *
+     * @param box The moving box {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param obstacle The obstacle {minX, minY, minZ, maxX, maxY, maxZ}
+     * @param normalOut Receives the obstacle's surface normal at the contact {x, y, z}
+     * @return Fraction of the move at the contact, in [0, 1], or {@link #NO_HIT}
+     */
+    public float sweep(float[] box, float moveX, float moveY, float moveZ, float[] obstacle, float[] normalOut) {
+        begin(box, moveX, moveY, moveZ);
+        beginStep();
+        test(0, obstacle[0], obstacle[1], obstacle[2], obstacle[3], obstacle[4], obstacle[5]);
+        normalOut[0] = normalOut[1] = normalOut[2] = 0.0f;
+        if (hitAxis == NO_AXIS) {
+            return NO_HIT;
+        }
+        normalOut[hitAxis] = -Math.signum(component(hitAxis));
+        return hitTime;
+    }
+
+    /**
+     * Number of contacts the last move stopped or slid against
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    // === Sweep Steps ===
+
+    private void begin(float[] box, float moveX, float moveY, float moveZ) {
+        x0 = box[0];
+        y0 = box[1];
+        z0 = box[2];
+        x1 = box[3];
+        y1 = box[4];
+        z1 = box[5];
+        dx = moveX;
+        dy = moveY;
+        dz = moveZ;
+        contactCount = 0;
+    }
+
+    private boolean moving() {
+        return dx != 0.0f || dy != 0.0f || dz != 0.0f;
+    }
+
+    private void beginStep() {
+        hitTime = NO_HIT;
+        hitAxis = NO_AXIS;
+        hitObstacle = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Apply the current step: move to the earliest contact and keep the
+     * remaining motion along the surface, or move all the way
+     * @return false once there is nothing left to move
+     */
+    private boolean advance() {
+        if (hitAxis == NO_AXIS) {
+            translate(dx, dy, dz);
+            dx = dy = dz = 0.0f;
+            return false;
+        }
+        contactCount++;
+
+        float t = hitTime;
+        float stepX = dx * t;
+        float stepY = dy * t;
+        float stepZ = dz * t;
+        // Stop SKIN short of the surface along the contact axis (backing
+        // up a little if the box started closer than that)
+        switch (hitAxis) {
+            case 0: stepX = Math.signum(dx) * (hitGap - SKIN); break;
+            case 1: stepY = Math.signum(dy) * (hitGap - SKIN); break;
+            default: stepZ = Math.signum(dz) * (hitGap - SKIN); break;
+        }
+        translate(stepX, stepY, stepZ);
+
+        // Slide: the rest of the move without its component into the surface
+        float rest = 1.0f - t;
+        dx = hitAxis == 0 ? 0.0f : dx * rest;
+        dy = hitAxis == 1 ? 0.0f : dy * rest;
+        dz = hitAxis == 2 ? 0.0f : dz * rest;
+        return true;
+    }
+
+    private void translate(float x, float y, float z) {
+        x0 += x;
+        x1 += x;
+        y0 += y;
+        y1 += y;
+        z0 += z;
+        z1 += z;
+    }
+
+    private boolean finish(float[] box, float[] out) {
+        out[0] = x0 - box[0];
+        out[1] = y0 - box[1];
+        out[2] = z0 - box[2];
+        return contactCount > 0;
+    }
+
+    /**
+     * Slab test of the current box and displacement against one obstacle;
+     * keeps it if it is hit earlier than the best so far
+     */
+    private void test(int obstacle, float bx0, float by0, float bz0, float bx1, float by1, float bz1) {
+        float entry = Float.NEGATIVE_INFINITY;
+        float exit = Float.POSITIVE_INFINITY;
+        int axis = NO_AXIS;
+        float gap = 0.0f;
+
+        for (int a = 0; a < 3; a++) {
+            float amin, amax, bmin, bmax, d;
+            switch (a) {
+                case 0: amin = x0; amax = x1; bmin = bx0; bmax = bx1; d = dx; break;
+                case 1: amin = y0; amax = y1; bmin = by0; bmax = by1; d = dy; break;
+                default: amin = z0; amax = z1; bmin = bz0; bmax = bz1; d = dz; break;
+            }
+            if (d == 0.0f) {
+                // Not moving on this axis: only a strict overlap blocks, so
+                // sliding along a surface the box rests on is free
+                if (amax <= bmin || amin >= bmax) {
+                    return;
+                }
+                continue;
+            }
+            float near = d > 0.0f ? bmin - amax : amin - bmax;
+            float far = d > 0.0f ? bmax - amin : amax - bmin;
+            float abs = Math.abs(d);
+            float tNear = near / abs;
+            float tFar = far / abs;
+            if (tNear > entry) {
+                entry = tNear;
+                axis = a;
+                gap = near;
+            }
+            exit = Math.min(exit, tFar);
+        }
+
+        if (axis == NO_AXIS || entry > 1.0f || entry >= exit || exit <= 0.0f) {
+            return;
+        }
+        if (gap < -SKIN) {
+            // Already well inside this obstacle: let the box move out of it
+            return;
+        }
+        float t = Math.max(0.0f, entry);
+        if (t < hitTime || (t == hitTime && obstacle < hitObstacle)) {
+            hitTime = t;
+            hitAxis = axis;
+            hitGap = gap;
+            hitObstacle = obstacle;
+        }
+    }
+
+    private float component(int axis) {
+        return axis == 0 ? dx : axis == 1 ? dy : dz;
+    }
+
+    private static float sweptMin(float min, float d) {
+        return d < 0.0f ? min + d : min;
+    }
+
+    private static float sweptMax(float max, float d) {
+        return d > 0.0f ? max + d : max;
+    }
+}
@@ -33,9 +33,13 @@ public class CompleteGraphicalDemo {
     /** Graphics system instance (if available) */
     private static Graphics graphics = null;
     
+    /** Game time shared by every system's timers */
+    private static GameClock clock;
+    
     /** Core game systems */
     private static LightManager lightManager;
     private static EnhancedRoomGenerator roomGen;
+    private static PhysicsWorld physics;
     private static InventorySystem inventory;
     private static PlayerSurvivalSystem survival;
     
@@ -44,6 +48,9 @@ public class CompleteGraphicalDemo {
     private static LookBasedMonster monster1;
     private static LookBasedMonster monster2;
     
+    /** The match lit in chapter 3, if any */
+    private static LightSource match;
+    
     /** Player state */
     private static float[] playerPos = {0.0f, 0.0f, 0.0f};
     private static float[] viewDirection = {0.0f, 0.0f, 1.0f};
@@ -186,16 +193,39 @@ public class CompleteGraphicalDemo {
     private static void initializeGameSystems() {
         System.out.println("🎮 Initializing complete game systems...");
         
+        // One clock for every timer, so pausing or scaling time affects them all
+        clock = graphics != null ? graphics.getGameClock() : GameClock.manual();
+        
         // Core systems
-        lightManager = new LightManager();
-        roomGen = new EnhancedRoomGenerator();
+        lightManager = new LightManager(clock);
+        if (graphics != null) {
+            // Lights are clustered for forward shading
+            graphics.setLightManager(lightManager);
+        }
+        if (graphics != null) {
+            // Rooms are drawn, and observed in the graphics observation pass
+            roomGen = new EnhancedRoomGenerator(clock, graphics.getObservationSystem());
+            graphics.setRoomGenerator(roomGen);
+        } else {
+            // Graphics steps its own physics world; without it, passTime does
+            roomGen = new EnhancedRoomGenerator(clock);
+            physics = new PhysicsWorld();
+            roomGen.setPhysicsWorld(physics);
+        }
         inventory = new InventorySystem();
-        survival = new PlayerSurvivalSystem();
+        survival = new PlayerSurvivalSystem(clock);
         
         // Horror elements
-        grue = new Grue(lightManager);
-        monster1 = new LookBasedMonster(new float[]{20.0f, 0.0f, 10.0f});
-        monster2 = new LookBasedMonster(new float[]{-15.0f, 0.0f, 20.0f});
+        grue = new Grue(lightManager, clock);
+        monster1 = new LookBasedMonster(new float[]{20.0f, 0.0f, 10.0f}, clock);
+        monster2 = new LookBasedMonster(new float[]{-15.0f, 0.0f, 20.0f}, clock);
+        monster1.setLightManager(lightManager);
+        monster2.setLightManager(lightManager);
+        if (physics != null) {
+            // Monsters walk through the same world as the room walls
+            monster1.setPhysicsWorld(physics);
+            monster2.setPhysicsWorld(physics);
+        }
         
         System.out.println("✅ All systems initialized successfully");
         
@@ -260,7 +290,7 @@ public class CompleteGraphicalDemo {
         
         // Player explores cautiously
         survival.setActivity(PlayerSurvivalSystem.PlayerActivity.WALKING);
-        survival.update(3.0);
+        passTime(3.0);
         
         if (graphicalMode) {
             System.out.println("🎮 [GRAPHICS] Use WASD to explore, survival stats shown in HUD");
@@ -288,7 +318,7 @@ public class CompleteGraphicalDemo {
         System.out.println("👁️ Player turns a corner and spots a dark figure...");
         monster1.updateLookBasedBehavior(playerPos, true, 0.1);
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.MONSTER_SPOTTED);
-        survival.update(2.0);
+        passTime(2.0);
         
         printPlayerStatus("After spotting first monster");
     }
@@ -310,7 +340,7 @@ public class CompleteGraphicalDemo {
         
         // Darkness encounter
         System.out.println("🌚 Light source fails - player engulfed in darkness...");
-        survival.setInDarkness(true);
+        survival.updateDarkness(lightManager, playerPos);
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.LIGHT_FAILURE);
         
         // Grue becomes active
@@ -319,13 +349,17 @@ public class CompleteGraphicalDemo {
             survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.GRUE_APPROACHING);
         }
         
-        survival.update(5.0);
+        passTime(5.0);
         
         // Use a match for emergency light
         if (inventory.countItem("match") > 0) {
             System.out.println("🔥 Player desperately lights a match...");
             useItem("match");
-            survival.setInDarkness(false);
+            match = new LightSource(LightSource.LightType.MATCH, playerPos.clone(), 0.0f);
+            match.light();
+            lightManager.addLightSource(match);
+            lightManager.update(0.0f);
+            survival.updateDarkness(lightManager, playerPos);
             survival.triggerBeneficialEvent(PlayerSurvivalSystem.BeneficialEvent.FOUND_LIGHT);
             
             if (graphicalMode) {
@@ -360,7 +394,7 @@ public class CompleteGraphicalDemo {
         
         System.out.println("🏃 Player runs frantically, trying not to look back...");
         survival.setActivity(PlayerSurvivalSystem.PlayerActivity.RUNNING);
-        survival.update(8.0);
+        passTime(8.0);
         
         printPlayerStatus("After monster chase sequence");
     }
@@ -375,7 +409,7 @@ public class CompleteGraphicalDemo {
         System.out.println("⚔️ Monster catches up - player suffers injury...");
         survival.setBeingChased(false);
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.MONSTER_ATTACK);
-        survival.update(3.0);
+        passTime(3.0);
         
         if (graphicalMode) {
             System.out.println("🖼️ [GRAPHICS] Screen flashes red during attack");
@@ -416,7 +450,7 @@ public class CompleteGraphicalDemo {
             System.out.println("😌 [EFFECTS] Peaceful music replaces horror ambiance");
         }
         
-        survival.update(15.0); // Extended rest
+        passTime(15.0); // Extended rest
         
         printPlayerStatus("After finding safety and rest");
     }
@@ -443,19 +477,39 @@ public class CompleteGraphicalDemo {
         
         // Rapid succession of horror events
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.ROOM_CHANGED);
-        survival.update(2.0);
+        passTime(2.0);
         
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.DOOR_SLAM);
-        survival.update(2.0);
+        passTime(2.0);
         
         survival.triggerHorrorEvent(PlayerSurvivalSystem.HorrorEvent.GRUE_APPROACHING);
-        survival.setInDarkness(true);
+        if (match != null) {
+            System.out.println("🔥 The match burns down to the player's fingers...");
+            match.extinguish();
+            lightManager.update(0.0f);
+        }
+        survival.updateDarkness(lightManager, playerPos);
         survival.setBeingChased(true);
-        survival.update(10.0);
+        passTime(10.0);
         
         printPlayerStatus("Final state - after complete nightmare");
     }
     
+    /**
+     * Let time pass: the survival system updates and every timer on the
+     * shared clock (status effects, grue, monsters, rooms, lights) moves with it,
+     * and monsters walk in the physics world
+     * @param seconds Game time that passes
+     */
+    private static void passTime(double seconds) {
+        // With graphics running, its simulation loop advances the clock
+        if (graphics == null) {
+            clock.step(seconds);
+            physics.update(seconds);
+        }
+        survival.update(seconds);
+    }
+    
     /**
      * Integrate systems with the graphics game loop
      */
@@ -103,6 +103,14 @@ public class Cube extends Objects {
         this.width = width;
     }
 
+    /**
+     * Half the cube's space diagonal, so any yaw stays inside the sphere
+     */
+    @Override
+    public float getBoundingRadius() {
+        return width * 0.8660254f;
+    }
+
     /**
      * Get the rotation angle
      */
@@ -118,13 +126,45 @@ public class Cube extends Objects {
     }
 
     /**
-     * Render this cube using the modern graphics pipeline
-     * The actual rendering is handled by the graphics system
+     * Render this cube through the active mesh renderer.
+     * Does nothing until {@link #setUpVBO()} has bound the shared cube mesh.
      */
     public void render() {
-        // Modern rendering is handled by the graphics system
-        // This method exists for compatibility but actual rendering
-        // is done through the modern graphics pipeline
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (handle == 0 || renderer == null) {
+            return;
+        }
+        renderer.drawAt(renderer.getUnitCube(), x, y, z, orientation,
+                        width, width, width, rgb[0], rgb[1], rgb[2]);
+    }
+
+    /**
+     * Add this cube to an instanced batch instead of drawing it directly
+     * @return False if the cube has no mesh bound (see {@link #setUpVBO()})
+     */
+    @Override
+    public boolean appendInstance(InstanceBatch batch) {
+        if (handle == 0) {
+            return false;
+        }
+        batch.add(x, y, z, width, (float) Math.toRadians(orientation), rgb[0], rgb[1], rgb[2]);
+        return true;
+    }
+
+    /**
+     * Write this cube's instance record (drawn later from the copy)
+     */
+    @Override
+    public boolean writeInstance(float[] out, int offset) {
+        out[offset] = x;
+        out[offset + 1] = y;
+        out[offset + 2] = z;
+        out[offset + 3] = width;
+        out[offset + 4] = (float) Math.toRadians(orientation);
+        out[offset + 5] = rgb[0];
+        out[offset + 6] = rgb[1];
+        out[offset + 7] = rgb[2];
+        return true;
     }
 
     /**
@@ -144,20 +184,24 @@ public class Cube extends Objects {
         }
     }
 
+    /** Handle of a cube drawn with the renderer's shared unit cube mesh */
+    static final int SHARED_MESH = 1;
+
     /**
-     * Set up VBO for modern rendering (compatibility method)
+     * Bind this cube to the shared unit cube mesh.
+     * Touches no GL state, so it is safe on the simulation thread: the mesh
+     * is created by the renderer on the render thread.
      */
     public void setUpVBO() {
-        // VBO setup is now handled by the modern graphics system
-        // This method exists for compatibility
+        handle = SHARED_MESH;
     }
 
     /**
-     * Delete/cleanup resources (compatibility method)
+     * Release this cube's reference to the shared mesh.
+     * The mesh itself is owned by the renderer and freed on shutdown.
      */
     public void delete() {
-        // Resource cleanup is now handled by the modern graphics system
-        // This method exists for compatibility
+        handle = 0;
     }
 
     /**
@@ -0,0 +1,819 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic AABB Tree for Don't Look Back
+ *
+ * Incremental bounding volume tree for things that move every frame:
+ * monsters, the Grue, thrown or dropped lights. Unlike
+ * {@link BoundingVolumeHierarchy}, which is built top-down and refit, this
+ * tree (after Box2D's b2DynamicTree) inserts and removes single leaves and
+ * keeps itself balanced with tree rotations, so it never needs a rebuild.
+ * Each leaf stores a fattened box around the entity; as long as the entity
+ * stays inside it, a move only updates the exact box and the tree is left
+ * alone.
+ *
+ * Features:
+ * - Flat int/float arrays for nodes, free nodes chained in a free list
+ * - Surface-area cost heuristic when picking where to insert a leaf
+ * - AVL-style rotations keep the height logarithmic
+ * - Fat boxes grown by a margin, and stretched along the displacement
+ *   when a move is given one, so small moves skip reinsertion
+ * - Box, ray and pair queries; results are checked against the exact
+ *   boxes, so they match a brute-force scan
+ * - Pairs of every overlapping proxy, or only those involving proxies
+ *   reinserted since the last call (new potential contacts)
+ * - No allocation per query
+ *
+ * Not thread-safe. Visitors must not change the tree.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class DynamicAABBTree {
+
+    private static final int NULL_NODE = -1;
+
+    /** A moving proxy's fat box reaches this many displacements ahead */
+    private static final float DISPLACEMENT_MULTIPLIER = 2.0f;
+
+    /**
+     * Told about each proxy found by a box query
+     */
+    public interface Visitor {
+        /**
+         * @param proxy Proxy whose box overlaps the query box
+         * @return false to stop the query
+         */
+        boolean visit(int proxy);
+    }
+
+    /**
+     * Told about each proxy whose box a ray enters
+     */
+    public interface RayVisitor {
+        /**
+         * @param proxy Proxy hit
+         * @param distance Distance along the ray where it enters the box (0 if it starts inside)
+         * @return New search limit: the current one to go on, a shorter one to
+         *         skip boxes beyond it, or a negative value to stop
+         */
+        float visit(int proxy, float distance);
+    }
+
+    /**
+     * Told about each pair of proxies found by a pair query
+     */
+    public interface PairVisitor {
+        /**
+         * @param proxyA Lower proxy of the pair
+         * @param proxyB Higher proxy of the pair
+         * @return false to stop the query
+         */
+        boolean visit(int proxyA, int proxyB);
+    }
+
+    private final float margin;
+
+    // === Nodes (proxies are leaf node ids) ===
+
+    /** Fat bounds per node: minX, minY, minZ, maxX, maxY, maxZ */
+    private float[] fat = new float[64 * 6];
+
+    /** Exact bounds per leaf */
+    private float[] tight = new float[64 * 6];
+
+    private int[] parent = new int[64];
+    private int[] child1 = new int[64];
+    private int[] child2 = new int[64];
+
+    /** Leaf 0, internal 1 + max(children), free -1 */
+    private int[] height = new int[64];
+
+    private Object[] userData = new Object[64];
+
+    /** Whether a leaf was inserted since the last {@link #updatePairs} */
+    private boolean[] moved = new boolean[64];
+
+    private int root = NULL_NODE;
+    private int nodeCapacity = 64;
+    private int nodeCount = 0;
+    private int proxyCount = 0;
+
+    /** Free nodes, chained through parent[] */
+    private int freeList = NULL_NODE;
+    private int nodeLimit = 0;
+
+    // === Move Buffer ===
+
+    private int[] moveBuffer = new int[16];
+    private int moveCount = 0;
+
+    // === Scratch ===
+
+    private int[] stack = new int[64];
+
+    private int reinsertCount = 0;
+    private int nodesTested = 0;
+
+    /**
+     * Create an empty tree
+     * @param margin How far fat boxes extend beyond the exact ones; about
+     *               the distance an entity moves in a few frames
+     */
+    public DynamicAABBTree(float margin) {
+        if (!(margin >= 0.0f)) {
+            throw new IllegalArgumentException("Margin must not be negative: " + margin);
+        }
+        this.margin = margin;
+    }
+
+    // === Proxies ===
+
+    /**
+     * Add a box
+     * @param data Returned by {@link #getUserData}
+     * @return Proxy id used to move or remove the box
+     */
+    public int createProxy(Object data, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        int proxy = allocateNode();
+        userData[proxy] = data;
+        height[proxy] = 0;
+        setBox(tight, proxy, minX, minY, minZ, maxX, maxY, maxZ);
+        setBox(fat, proxy, minX - margin, minY - margin, minZ - margin,
+               maxX + margin, maxY + margin, maxZ + margin);
+        insertLeaf(proxy);
+        bufferMove(proxy);
+        proxyCount++;
+        return proxy;
+    }
+
+    /**
+     * Remove a box
+     */
+    public void destroyProxy(int proxy) {
+        checkProxy(proxy);
+        removeLeaf(proxy);
+        unbufferMove(proxy);
+        userData[proxy] = null;
+        freeNode(proxy);
+        proxyCount--;
+    }
+
+    /**
+     * Move a box
+     * @return true if it left its fat box and was reinserted
+     */
+    public boolean moveProxy(int proxy, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return moveProxy(proxy, minX, minY, minZ, maxX, maxY, maxZ, 0.0f, 0.0f, 0.0f);
+    }
+
+    /**
+     * Move a box that is travelling. If it has to be reinserted, its new fat
+     * box also reaches ahead along the displacement, so it can keep moving
+     * the same way for a while without another reinsertion.
+     * @param dx Displacement since the last move (or per frame) along X
+     * @param dy Displacement along Y
+     * @param dz Displacement along Z
+     * @return true if it left its fat box and was reinserted
+     */
+    public boolean moveProxy(int proxy, float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                             float dx, float dy, float dz) {
+        checkProxy(proxy);
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        setBox(tight, proxy, minX, minY, minZ, maxX, maxY, maxZ);
+        int o = proxy * 6;
+        if (fat[o] <= minX && fat[o + 1] <= minY && fat[o + 2] <= minZ &&
+            fat[o + 3] >= maxX && fat[o + 4] >= maxY && fat[o + 5] >= maxZ) {
+            return false;
+        }
+
+        removeLeaf(proxy);
+        float ax = dx * DISPLACEMENT_MULTIPLIER;
+        float ay = dy * DISPLACEMENT_MULTIPLIER;
+        float az = dz * DISPLACEMENT_MULTIPLIER;
+        setBox(fat, proxy,
+               minX - margin + Math.min(ax, 0.0f), minY - margin + Math.min(ay, 0.0f), minZ - margin + Math.min(az, 0.0f),
+               maxX + margin + Math.max(ax, 0.0f), maxY + margin + Math.max(ay, 0.0f), maxZ + margin + Math.max(az, 0.0f));
+        insertLeaf(proxy);
+        bufferMove(proxy);
+        reinsertCount++;
+        return true;
+    }
+
+    /**
+     * Remove every proxy
+     */
+    public void clear() {
+        Arrays.fill(userData, 0, nodeLimit, null);
+        Arrays.fill(moved, 0, nodeLimit, false);
+        root = NULL_NODE;
+        nodeCount = 0;
+        proxyCount = 0;
+        freeList = NULL_NODE;
+        nodeLimit = 0;
+        moveCount = 0;
+    }
+
+    // === Queries ===
+
+    /**
+     * Visit every proxy whose exact box overlaps a box (touching counts)
+     * @return false if the visitor stopped the query
+     */
+    public boolean queryAABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, Visitor visitor) {
+        if (root == NULL_NODE) {
+            return true;
+        }
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            nodesTested++;
+            if (!overlaps(fat, node, minX, minY, minZ, maxX, maxY, maxZ)) {
+                continue;
+            }
+            if (child1[node] == NULL_NODE) {
+                if (overlaps(tight, node, minX, minY, minZ, maxX, maxY, maxZ) && !visitor.visit(node)) {
+                    return false;
+                }
+            } else {
+                top = push(top, child1[node]);
+                top = push(top, child2[node]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit every proxy whose exact box a ray enters within a distance
+     * @param dx Ray direction X (distances are in multiples of the direction's length)
+     * @param maxDistance Search limit
+     * @param visitor Told about each box entered within the current limit
+     */
+    public void raycast(float ox, float oy, float oz, float dx, float dy, float dz,
+                        float maxDistance, RayVisitor visitor) {
+        if (root == NULL_NODE) {
+            return;
+        }
+        float invX = 1.0f / dx;
+        float invY = 1.0f / dy;
+        float invZ = 1.0f / dz;
+        float limit = maxDistance;
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            nodesTested++;
+            if (rayEntry(fat, node, ox, oy, oz, invX, invY, invZ, limit) < 0.0f) {
+                continue;
+            }
+            if (child1[node] == NULL_NODE) {
+                float entry = rayEntry(tight, node, ox, oy, oz, invX, invY, invZ, limit);
+                if (entry >= 0.0f) {
+                    limit = visitor.visit(node, entry);
+                    if (limit < 0.0f) {
+                        return;
+                    }
+                }
+            } else {
+                top = push(top, child1[node]);
+                top = push(top, child2[node]);
+            }
+        }
+    }
+
+    /**
+     * Visit every pair of proxies whose exact boxes overlap, each pair once
+     * @return false if the visitor stopped the query
+     */
+    public boolean queryPairs(PairVisitor visitor) {
+        for (int a = 0; a < nodeLimit; a++) {
+            if (height[a] != 0) {
+                continue;
+            }
+            int o = a * 6;
+            if (!queryPairsOf(a, tight[o], tight[o + 1], tight[o + 2], tight[o + 3], tight[o + 4], tight[o + 5],
+                              false, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit the pairs involving proxies created or reinserted since the
+     * last call whose fat boxes overlap (the candidates for new contacts),
+     * each pair once, then forget those moves
+     * @return false if the visitor stopped the query (the moves are forgotten anyway)
+     */
+    public boolean updatePairs(PairVisitor visitor) {
+        boolean finished = true;
+        for (int i = 0; i < moveCount && finished; i++) {
+            int a = moveBuffer[i];
+            int o = a * 6;
+            finished = queryPairsOf(a, fat[o], fat[o + 1], fat[o + 2], fat[o + 3], fat[o + 4], fat[o + 5],
+                                    true, visitor);
+        }
+        for (int i = 0; i < moveCount; i++) {
+            moved[moveBuffer[i]] = false;
+        }
+        moveCount = 0;
+        return finished;
+    }
+
+    /**
+     * Report a proxy's partners, avoiding duplicates
+     * @param movedOnly Pair mode of {@link #updatePairs}: fat boxes, partners
+     *                  that also moved are reported from the lower proxy only
+     */
+    private boolean queryPairsOf(int a, float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                                 boolean movedOnly, PairVisitor visitor) {
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            nodesTested++;
+            if (!overlaps(fat, node, minX, minY, minZ, maxX, maxY, maxZ)) {
+                continue;
+            }
+            if (child1[node] != NULL_NODE) {
+                top = push(top, child1[node]);
+                top = push(top, child2[node]);
+                continue;
+            }
+            if (!movedOnly && !overlaps(tight, node, minX, minY, minZ, maxX, maxY, maxZ)) {
+                continue;
+            }
+            int b = node;
+            boolean duplicate = movedOnly ? (b == a || (moved[b] && b < a)) : b <= a;
+            if (!duplicate && !visitor.visit(Math.min(a, b), Math.max(a, b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // === Accessors ===
+
+    public Object getUserData(int proxy) {
+        checkProxy(proxy);
+        return userData[proxy];
+    }
+
+    /**
+     * Copy a proxy's exact box
+     * @param out Receives minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void getBounds(int proxy, float[] out) {
+        checkProxy(proxy);
+        System.arraycopy(tight, proxy * 6, out, 0, 6);
+    }
+
+    /**
+     * Copy a proxy's fat box
+     * @param out Receives minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void getFatBounds(int proxy, float[] out) {
+        checkProxy(proxy);
+        System.arraycopy(fat, proxy * 6, out, 0, 6);
+    }
+
+    public boolean contains(int proxy) {
+        return proxy >= 0 && proxy < nodeLimit && height[proxy] == 0;
+    }
+
+    public int size() {
+        return proxyCount;
+    }
+
+    /**
+     * Height of the tree (0 for a single leaf, -1 when empty)
+     */
+    public int getHeight() {
+        return root == NULL_NODE ? -1 : height[root];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public float getMargin() {
+        return margin;
+    }
+
+    /**
+     * Number of moves that left their fat box
+     */
+    public int getReinsertCount() {
+        return reinsertCount;
+    }
+
+    /**
+     * Get the number of nodes tested by queries since the last call, then reset it
+     */
+    public int takeNodesTested() {
+        int tested = nodesTested;
+        nodesTested = 0;
+        return tested;
+    }
+
+    /**
+     * Check the tree's invariants (parent links, heights, balance,
+     * enclosing boxes, node count)
+     * @throws IllegalStateException if one is broken
+     */
+    void validate() {
+        if (root != NULL_NODE && parent[root] != NULL_NODE) {
+            throw new IllegalStateException("Root has a parent");
+        }
+        int counted = root == NULL_NODE ? 0 : validateNode(root);
+        if (counted != nodeCount) {
+            throw new IllegalStateException("Reachable nodes " + counted + " != " + nodeCount);
+        }
+    }
+
+    private int validateNode(int node) {
+        if (child1[node] == NULL_NODE) {
+            if (height[node] != 0 || child2[node] != NULL_NODE) {
+                throw new IllegalStateException("Bad leaf " + node);
+            }
+            int o = node * 6;
+            for (int axis = 0; axis < 3; axis++) {
+                if (fat[o + axis] > tight[o + axis] || fat[o + 3 + axis] < tight[o + 3 + axis]) {
+                    throw new IllegalStateException("Fat box of " + node + " misses its exact box");
+                }
+            }
+            return 1;
+        }
+        int a = child1[node];
+        int b = child2[node];
+        if (parent[a] != node || parent[b] != node) {
+            throw new IllegalStateException("Broken parent link under " + node);
+        }
+        if (height[node] != 1 + Math.max(height[a], height[b]) || Math.abs(height[a] - height[b]) > 1) {
+            throw new IllegalStateException("Bad height or balance at " + node);
+        }
+        int o = node * 6;
+        for (int axis = 0; axis < 3; axis++) {
+            if (fat[o + axis] != Math.min(fat[a * 6 + axis], fat[b * 6 + axis]) ||
+                fat[o + 3 + axis] != Math.max(fat[a * 6 + 3 + axis], fat[b * 6 + 3 + axis])) {
+                throw new IllegalStateException("Box of " + node + " does not enclose its children exactly");
+            }
+        }
+        return 1 + validateNode(a) + validateNode(b);
+    }
+
+    // === Tree Maintenance ===
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL_NODE) {
+            root = leaf;
+            parent[leaf] = NULL_NODE;
+            return;
+        }
+
+        // Walk down to the sibling with the lowest surface-area cost
+        int l = leaf * 6;
+        int index = root;
+        while (child1[index] != NULL_NODE) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+            float area = area(fat, index * 6);
+            float combinedArea = unionArea(index * 6, l);
+
+            // Cost of pairing the leaf with this node here
+            float cost = 2.0f * combinedArea;
+            // Every node further down pays for growing this one
+            float inheritance = 2.0f * (combinedArea - area);
+
+            float cost1 = descendCost(c1, l) + inheritance;
+            float cost2 = descendCost(c2, l) + inheritance;
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        userData[newParent] = null;
+        union(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        if (oldParent != NULL_NODE) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+
+        fixUpwards(parent[leaf]);
+    }
+
+    private float descendCost(int child, int l) {
+        float combined = unionArea(child * 6, l);
+        if (child1[child] == NULL_NODE) {
+            return combined;
+        }
+        return combined - area(fat, child * 6);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if (grandParent != NULL_NODE) {
+            if (child1[grandParent] == p) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(p);
+            fixUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(p);
+        }
+    }
+
+    /**
+     * Rebalance and refit from a node up to the root
+     */
+    private void fixUpwards(int index) {
+        while (index != NULL_NODE) {
+            index = balance(index);
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            union(index, c1, c2);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * Rotate the taller grandchild up if a node's subtrees differ in
+     * height by more than one
+     * @return The node now at this position
+     */
+    private int balance(int a) {
+        if (child1[a] == NULL_NODE || height[a] < 2) {
+            return a;
+        }
+        int b = child1[a];
+        int c = child2[a];
+        int difference = height[c] - height[b];
+
+        if (difference > 1) {
+            // Rotate C up
+            int f = child1[c];
+            int g = child2[c];
+            child1[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+
+            if (height[f] > height[g]) {
+                child2[c] = f;
+                child2[a] = g;
+                parent[g] = a;
+                union(a, b, g);
+                union(c, a, f);
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            } else {
+                child2[c] = g;
+                child2[a] = f;
+                parent[f] = a;
+                union(a, b, f);
+                union(c, a, g);
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+            return c;
+        }
+
+        if (difference < -1) {
+            // Rotate B up
+            int d = child1[b];
+            int e = child2[b];
+            child1[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+
+            if (height[d] > height[e]) {
+                child2[b] = d;
+                child1[a] = e;
+                parent[e] = a;
+                union(a, c, e);
+                union(b, a, d);
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            } else {
+                child2[b] = e;
+                child1[a] = d;
+                parent[d] = a;
+                union(a, c, d);
+                union(b, a, e);
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    private void replaceChild(int p, int oldChild, int newChild) {
+        if (p == NULL_NODE) {
+            root = newChild;
+        } else if (child1[p] == oldChild) {
+            child1[p] = newChild;
+        } else {
+            child2[p] = newChild;
+        }
+    }
+
+    // === Node Storage ===
+
+    private int allocateNode() {
+        int node;
+        if (freeList != NULL_NODE) {
+            node = freeList;
+            freeList = parent[node];
+        } else {
+            if (nodeLimit == nodeCapacity) {
+                grow();
+            }
+            node = nodeLimit++;
+        }
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        moved[node] = false;
+        nodeCount++;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        freeList = node;
+        nodeCount--;
+    }
+
+    private void grow() {
+        nodeCapacity *= 2;
+        fat = Arrays.copyOf(fat, nodeCapacity * 6);
+        tight = Arrays.copyOf(tight, nodeCapacity * 6);
+        parent = Arrays.copyOf(parent, nodeCapacity);
+        child1 = Arrays.copyOf(child1, nodeCapacity);
+        child2 = Arrays.copyOf(child2, nodeCapacity);
+        height = Arrays.copyOf(height, nodeCapacity);
+        userData = Arrays.copyOf(userData, nodeCapacity);
+        moved = Arrays.copyOf(moved, nodeCapacity);
+    }
+
+    private void bufferMove(int proxy) {
+        if (moved[proxy]) {
+            return;
+        }
+        moved[proxy] = true;
+        if (moveCount == moveBuffer.length) {
+            moveBuffer = Arrays.copyOf(moveBuffer, moveCount * 2);
+        }
+        moveBuffer[moveCount++] = proxy;
+    }
+
+    private void unbufferMove(int proxy) {
+        if (!moved[proxy]) {
+            return;
+        }
+        moved[proxy] = false;
+        for (int i = 0; i < moveCount; i++) {
+            if (moveBuffer[i] == proxy) {
+                moveBuffer[i] = moveBuffer[--moveCount];
+                return;
+            }
+        }
+    }
+
+    // === Helper Methods ===
+
+    private static void checkBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!(minX <= maxX && minY <= maxY && minZ <= maxZ)) {
+            throw new IllegalArgumentException("Invalid box: minimum exceeds maximum");
+        }
+    }
+
+    private void checkProxy(int proxy) {
+        if (!contains(proxy)) {
+            throw new IllegalArgumentException("Unknown proxy: " + proxy);
+        }
+    }
+
+    private static void setBox(float[] boxes, int node, float minX, float minY, float minZ,
+                               float maxX, float maxY, float maxZ) {
+        int o = node * 6;
+        boxes[o] = minX;
+        boxes[o + 1] = minY;
+        boxes[o + 2] = minZ;
+        boxes[o + 3] = maxX;
+        boxes[o + 4] = maxY;
+        boxes[o + 5] = maxZ;
+    }
+
+    /**
+     * Set a node's fat box to the union of two others'
+     */
+    private void union(int node, int a, int b) {
+        int o = node * 6;
+        int oa = a * 6;
+        int ob = b * 6;
+        for (int axis = 0; axis < 3; axis++) {
+            fat[o + axis] = Math.min(fat[oa + axis], fat[ob + axis]);
+            fat[o + 3 + axis] = Math.max(fat[oa + 3 + axis], fat[ob + 3 + axis]);
+        }
+    }
+
+    /**
+     * Surface area (halved) of a box
+     */
+    private static float area(float[] boxes, int o) {
+        float x = boxes[o + 3] - boxes[o];
+        float y = boxes[o + 4] - boxes[o + 1];
+        float z = boxes[o + 5] - boxes[o + 2];
+        return x * y + y * z + z * x;
+    }
+
+    /**
+     * Surface area (halved) of the union of two fat boxes
+     */
+    private float unionArea(int oa, int ob) {
+        float x = Math.max(fat[oa + 3], fat[ob + 3]) - Math.min(fat[oa], fat[ob]);
+        float y = Math.max(fat[oa + 4], fat[ob + 4]) - Math.min(fat[oa + 1], fat[ob + 1]);
+        float z = Math.max(fat[oa + 5], fat[ob + 5]) - Math.min(fat[oa + 2], fat[ob + 2]);
+        return x * y + y * z + z * x;
+    }
+
+    private static boolean overlaps(float[] boxes, int node, float minX, float minY, float minZ,
+                                    float maxX, float maxY, float maxZ) {
+        int o = node * 6;
+        return boxes[o] <= maxX && boxes[o + 3] >= minX &&
+               boxes[o + 1] <= maxY && boxes[o + 4] >= minY &&
+               boxes[o + 2] <= maxZ && boxes[o + 5] >= minZ;
+    }
+
+    /**
+     * Slab test
+     * @return Entry distance (0 if the origin is inside), or -1 if the ray
+     *         misses the box within the limit
+     */
+    private static float rayEntry(float[] boxes, int node, float ox, float oy, float oz,
+                                  float invX, float invY, float invZ, float limit) {
+        int o = node * 6;
+        float t1 = (boxes[o] - ox) * invX;
+        float t2 = (boxes[o + 3] - ox) * invX;
+        float near = Math.min(t1, t2);
+        float far = Math.max(t1, t2);
+        t1 = (boxes[o + 1] - oy) * invY;
+        t2 = (boxes[o + 4] - oy) * invY;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (boxes[o + 2] - oz) * invZ;
+        t2 = (boxes[o + 5] - oz) * invZ;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        // NaN (origin on a slab face of a zero direction) counts as a miss
+        if (!(near <= far) || far < 0.0f || near > limit) {
+            return -1.0f;
+        }
+        return Math.max(near, 0.0f);
+    }
+
+    private int push(int top, int node) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+}
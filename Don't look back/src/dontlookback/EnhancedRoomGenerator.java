@@ -1,6 +1,7 @@
 package dontlookback;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Enhanced Room Generation System for Don't Look Back
@@ -11,7 +12,15 @@ import java.util.*;
  * 
  * Features:
  * - Procedural room generation based on player view
- * - 5-second regeneration timer when not observed
+ * - Rooms observed through an {@link ObservationSystem} pass (view cone
+ *   plus door portals)
+ * - Walls (split around open doorways) and furniture kept as boxes in a
+ *   {@link RaycastService} for line-of-sight queries and a
+ *   {@link SpatialHash} for swept movement
+ * - Optionally, the same walls, pushable furniture and swinging door
+ *   leaves as bodies in a {@link PhysicsWorld}
+ * - 5-second regeneration timer when not observed, scheduled on the game
+ *   clock's timing wheel instead of polled per room
  * - Door system with random connections
  * - Room persistence and state management
  * - Environmental storytelling placement
@@ -28,7 +37,7 @@ public class EnhancedRoomGenerator {
     private static final double REGENERATION_TIME = 5.0;
     
     /** Maximum distance for room generation */
-    private static final float MAX_VIEW_DISTANCE = 25.0f;
+    public static final float MAX_VIEW_DISTANCE = 25.0f;
     
     /** Grid spacing for room placement */
     private static final float ROOM_SPACING = 10.0f;
@@ -36,9 +45,44 @@ public class EnhancedRoomGenerator {
     /** Maximum number of active rooms */
     private static final int MAX_ACTIVE_ROOMS = 50;
     
+    /** Radius of the sphere around a room tested against the view cone */
+    private static final float ROOM_BOUNDING_RADIUS = ROOM_SPACING * 0.7072f;
+    
+    /** Half of the horizontal field of view used for door-portal visibility (radians) */
+    public static final float VIEW_HALF_ANGLE = (float) Math.toRadians(60.0);
+    
+    /** Cosine of the wide cone rooms are streamed in for (ahead of what is seen) */
+    private static final float STREAM_CONE_COS = -0.5f;
+    
+    /** Thickness of the walls used for line of sight */
+    private static final float WALL_THICKNESS = 0.2f;
+    
+    /** How far walls reach below the floor, so rays along the floor still hit them */
+    private static final float WALL_FOOTING = 0.5f;
+    
+    /** Wall directions: +Z, -Z, +X, -X (same order as door generation) */
+    private static final int[] WALL_STEP_X = {0, 0, 1, -1};
+    private static final int[] WALL_STEP_Z = {1, -1, 0, 0};
+    
+    /** Cell size of the wall collision broadphase, about a furniture item */
+    private static final float COLLISION_CELL_SIZE = 2.0f;
+    
+    /** Physics door hinges sit this far into the doorway, clear of the wall end */
+    private static final float DOOR_HINGE_INSET = 0.15f;
+    
+    /** How far physics doors swing either way (radians) */
+    private static final float DOOR_SWING = (float) (Math.PI * 0.5);
+    
+    /** Mass of a piece of furniture in the physics world (kg) */
+    private static final float FURNITURE_MASS = 30.0f;
+    
     /** Probability of door generation between rooms */
     private static final float DOOR_PROBABILITY = 0.3f;
     
+    /** Room keys: tenths of a unit per axis, 21 bits each */
+    private static final int KEY_BITS = 21;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    
     // === Enhanced Room Types ===
     
     public enum EnhancedRoomType {
@@ -96,6 +140,11 @@ public class EnhancedRoomGenerator {
     public static class EnhancedRoom extends Room {
         
         // Room state tracking
+        private final GameClock clock;
+        private final TimingWheel.Timer regenerationTimer;
+        private Consumer<EnhancedRoom> regenerationListener;
+        private Consumer<EnhancedRoom> doorwayListener;
+        private boolean geometryQueued;
         private double lastObservedTime;
         private boolean isCurrentlyObserved;
         private boolean needsRegeneration;
@@ -114,9 +163,21 @@ public class EnhancedRoomGenerator {
         private boolean isPlayerOccupied;
         private float[] lastKnownPlayerPosition;
         
+        /**
+         * Create a room timed in real time
+         */
         public EnhancedRoom(int id, float[] position) {
+            this(id, position, new GameClock());
+        }
+        
+        /**
+         * Create a room
+         * @param clock Game clock the regeneration timer runs on
+         */
+        public EnhancedRoom(int id, float[] position, GameClock clock) {
             super(id, RoomType.SMALL_ROOM, position);
             
+            this.clock = clock;
             this.lastObservedTime = getCurrentTime();
             this.isCurrentlyObserved = false;
             this.needsRegeneration = false;
@@ -133,6 +194,10 @@ public class EnhancedRoomGenerator {
             
             // Generate initial room content
             generateRoomContent();
+            
+            // Unobserved from the start
+            this.regenerationTimer = clock.getTimers().newTimer(this::markForRegeneration);
+            scheduleRegeneration();
         }
         
         // === Room Generation ===
@@ -407,6 +472,7 @@ public class EnhancedRoomGenerator {
                     };
                     
                     Door door = new Door(doorNames[i], doorPos, targetPos);
+                    door.owner = this;
                     doors.add(door);
                 }
             }
@@ -427,7 +493,12 @@ public class EnhancedRoomGenerator {
                 // Just started being observed
                 lastObservedTime = getCurrentTime();
                 needsRegeneration = false;
+                regenerationTimer.cancel();
                 System.out.println("Room " + getId() + " being observed");
+            } else if (!isObserved && isCurrentlyObserved) {
+                // Just looked away: the countdown starts now
+                lastObservedTime = getCurrentTime();
+                scheduleRegeneration();
             }
             
             isCurrentlyObserved = isObserved;
@@ -438,30 +509,63 @@ public class EnhancedRoomGenerator {
         }
         
         /**
-         * Update room state
+         * Update room state: fires the room's regeneration timer if it is due.
+         * Only needed for rooms outside a generator, whose clock nobody ticks.
          * @param deltaTime Time since last update
          */
         public void update(double deltaTime) {
-            if (!isCurrentlyObserved) {
-                double timeSinceLastObserved = getCurrentTime() - lastObservedTime;
-                
-                if (timeSinceLastObserved >= REGENERATION_TIME && !needsRegeneration) {
-                    markForRegeneration();
-                }
-            }
+            clock.runTimers();
+        }
+        
+        /**
+         * Start (or restart) the regeneration countdown
+         */
+        private void scheduleRegeneration() {
+            clock.getTimers().scheduleAt(regenerationTimer, lastObservedTime + REGENERATION_TIME);
         }
         
         /**
-         * Mark room for regeneration
+         * Mark room for regeneration (regeneration timer action)
          */
         private void markForRegeneration() {
-            if (!isPlayerOccupied) {
+            if (!isPlayerOccupied && !isCurrentlyObserved && !needsRegeneration) {
                 needsRegeneration = true;
                 System.out.println("Room " + getId() + " marked for regeneration after " + 
                                  String.format("%.1f", getCurrentTime() - lastObservedTime) + " seconds");
+                if (regenerationListener != null) {
+                    regenerationListener.accept(this);
+                }
+            }
+        }
+        
+        /**
+         * Set who is told when the room is due for regeneration
+         */
+        void setRegenerationListener(Consumer<EnhancedRoom> listener) {
+            this.regenerationListener = listener;
+        }
+        
+        /**
+         * Set who is told when the room's doors change (added, replaced,
+         * opened or closed)
+         */
+        void setDoorwayListener(Consumer<EnhancedRoom> listener) {
+            this.doorwayListener = listener;
+        }
+        
+        private void doorsChanged() {
+            if (doorwayListener != null) {
+                doorwayListener.accept(this);
             }
         }
         
+        /**
+         * Stop the room's timers (room discarded)
+         */
+        public void dispose() {
+            regenerationTimer.cancel();
+        }
+        
         /**
          * Regenerate room content
          */
@@ -471,6 +575,9 @@ public class EnhancedRoomGenerator {
             regenerationCount++;
             
             // Clear old content
+            for (Door door : doors) {
+                door.owner = null;
+            }
             doors.clear();
             containedItems.clear();
             documents.clear();
@@ -484,6 +591,10 @@ public class EnhancedRoomGenerator {
             
             needsRegeneration = false;
             lastObservedTime = getCurrentTime();
+            doorsChanged();
+            if (!isCurrentlyObserved) {
+                scheduleRegeneration();
+            }
             
             System.out.println("Room " + getId() + " regenerated (count: " + regenerationCount + ")");
         }
@@ -511,6 +622,10 @@ public class EnhancedRoomGenerator {
          */
         public void onPlayerExit() {
             isPlayerOccupied = false;
+            if (!isCurrentlyObserved && !regenerationTimer.isPending()) {
+                // The countdown ran out while the player was inside
+                scheduleRegeneration();
+            }
             System.out.println("Player left " + roomType.getDisplayName());
         }
         
@@ -681,7 +796,33 @@ public class EnhancedRoomGenerator {
          * Get current time in seconds
          */
         private double getCurrentTime() {
-            return System.currentTimeMillis() / 1000.0;
+            return clock.now();
+        }
+        
+        /**
+         * Add a door connection (for scripted layouts; regeneration replaces it)
+         * @param door Door to add
+         */
+        public void addDoor(Door door) {
+            door.owner = this;
+            doors.add(door);
+            doorsChanged();
+        }
+        
+        /**
+         * Check whether an open door of this room leads toward a position
+         * @param x Target X
+         * @param z Target Z
+         * @return true if an open door's target is at (x, z)
+         */
+        public boolean hasOpenDoorToward(float x, float z) {
+            for (Door door : doors) {
+                if (door.isOpen && Math.abs(door.targetPosition[0] - x) < 0.01f &&
+                    Math.abs(door.targetPosition[2] - z) < 0.01f) {
+                    return true;
+                }
+            }
+            return false;
         }
         
         // === Getters ===
@@ -710,12 +851,17 @@ public class EnhancedRoomGenerator {
     // === Door System ===
     
     public static class Door {
+        
+        /** Width of a doorway in the wall between two rooms */
+        public static final float DOOR_WIDTH = 1.5f;
+        
         private final String name;
         private final float[] position;
         private final float[] targetPosition;
         private boolean isOpen;
         private boolean isLocked;
         private String requiredKey;
+        private EnhancedRoom owner;
         
         public Door(String name, float[] position, float[] targetPosition) {
             this.name = name;
@@ -733,7 +879,15 @@ public class EnhancedRoomGenerator {
         public boolean isLocked() { return isLocked; }
         public String getRequiredKey() { return requiredKey; }
         
-        public void setOpen(boolean open) { this.isOpen = open; }
+        public void setOpen(boolean open) {
+            if (open != isOpen) {
+                isOpen = open;
+                if (owner != null) {
+                    owner.doorsChanged();
+                }
+            }
+        }
+        
         public void setLocked(boolean locked) { this.isLocked = locked; }
         public void setRequiredKey(String keyId) { this.requiredKey = keyId; }
         
@@ -745,23 +899,98 @@ public class EnhancedRoomGenerator {
     
     // === Room Generator State ===
     
-    private final Map<String, EnhancedRoom> activeRooms;
+    private final Map<Long, EnhancedRoom> activeRooms;
     private final Queue<EnhancedRoom> roomsToRegenerate;
     private final Random random;
     private float[] playerPosition;
     private float[] playerViewDirection;
     private int nextRoomId;
     
+    // Visibility through open doors
+    private final PortalVisibility portalVisibility;
+    private final Set<EnhancedRoom> visibleRooms;
+    
+    // Observation entries of the active rooms
+    private final ObservationSystem observation;
+    private final boolean ownsObservation;
+    private final Map<EnhancedRoom, Integer> observationHandles;
+    private final ObservationSystem.Occluder doorOccluder;
+    
+    // Walls and furniture of the active rooms, for line-of-sight queries
+    private final RaycastService lineOfSight;
+    private final Map<EnhancedRoom, Integer> geometryHandles;
+    private final Map<EnhancedRoom, Integer> geometryDoorways;
+    private final Queue<EnhancedRoom> geometryQueue;
+    private int geometryChecks;
+    private float[] geometryBoxes = new float[16 * 6];
+    
+    // The same boxes, for swept movement of monsters and the player
+    private final SpatialHash collisionWalls;
+    private final Map<EnhancedRoom, int[]> collisionProxies;
+    private int geometryWallCount;
+    
+    // Rigid bodies of the active rooms, if a physics world is attached:
+    // walls and door leaves (rebuilt with the geometry) and furniture
+    private PhysicsWorld physics;
+    private final Map<EnhancedRoom, int[]> physicsWalls = new IdentityHashMap<>();
+    private final Map<EnhancedRoom, int[]> physicsFurniture = new IdentityHashMap<>();
+    
+    // Game time for the rooms' regeneration timers
+    private final GameClock clock;
+    private final boolean ownsClock;
+    
     /**
-     * Create enhanced room generator
+     * Create enhanced room generator with its own clock, advanced by the
+     * deltaTime of each update, and its own observation pass
      */
     public EnhancedRoomGenerator() {
+        this(GameClock.manual(), true, new ObservationSystem(MAX_ACTIVE_ROOMS), true);
+    }
+    
+    /**
+     * Create enhanced room generator on a shared game clock
+     * @param clock Game clock, advanced by the game loop
+     */
+    public EnhancedRoomGenerator(GameClock clock) {
+        this(clock, false, new ObservationSystem(MAX_ACTIVE_ROOMS), true);
+    }
+    
+    /**
+     * Create enhanced room generator on a shared clock and observation pass.
+     * The game loop sets the observation camera before {@link #update} and
+     * runs the pass after it.
+     * @param clock Game clock, advanced by the game loop
+     * @param observation Observation pass the rooms are registered with
+     */
+    public EnhancedRoomGenerator(GameClock clock, ObservationSystem observation) {
+        this(clock, false, observation, false);
+    }
+    
+    private EnhancedRoomGenerator(GameClock clock, boolean ownsClock, 
+                                  ObservationSystem observation, boolean ownsObservation) {
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.observation = observation;
+        this.ownsObservation = ownsObservation;
+        this.observationHandles = new IdentityHashMap<>();
+        this.lineOfSight = new RaycastService();
+        this.geometryHandles = new IdentityHashMap<>();
+        this.geometryDoorways = new IdentityHashMap<>();
+        this.geometryQueue = new ArrayDeque<>();
+        this.collisionWalls = new SpatialHash(COLLISION_CELL_SIZE);
+        this.collisionProxies = new IdentityHashMap<>();
         this.activeRooms = new HashMap<>();
         this.roomsToRegenerate = new ArrayDeque<>();
         this.random = new Random();
         this.playerPosition = new float[]{0, 0, 0};
         this.playerViewDirection = new float[]{0, 0, 1}; // Looking forward
         this.nextRoomId = 1;
+        this.portalVisibility = new PortalVisibility(ROOM_SPACING, MAX_VIEW_DISTANCE);
+        this.visibleRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        // Inside a room, only rooms reached through open doors can be seen
+        this.doorOccluder = target -> portalVisibility.getStartRoom() == null || 
+                                      portalVisibility.isVisible((EnhancedRoom) target);
         
         System.out.println("Enhanced Room Generator initialized");
     }
@@ -777,61 +1006,302 @@ public class EnhancedRoomGenerator {
     public void update(float[] playerPos, float[] viewDirection, double deltaTime) {
         System.arraycopy(playerPos, 0, playerPosition, 0, 3);
         System.arraycopy(viewDirection, 0, playerViewDirection, 0, 3);
-        
-        // Update existing rooms
-        updateExistingRooms(deltaTime);
+        if (ownsObservation) {
+            observation.setCamera(playerPosition, playerViewDirection, VIEW_HALF_ANGLE, MAX_VIEW_DISTANCE);
+        }
         
         // Generate new rooms in view
         generateRoomsInView();
         
+        // Walls follow the doorways that are open (only rooms whose
+        // doorways may have changed are looked at)
+        updateRoomGeometry();
+        
+        // Find the rooms reachable through open doors
+        portalVisibility.update(activeRooms.values(), playerPosition, 
+                                playerViewDirection, VIEW_HALF_ANGLE);
+        
+        // Observation pass: rooms that drop out of view start their regeneration
+        // timers (a shared pass is run by the game loop instead)
+        if (ownsObservation) {
+            observation.update();
+        }
+        
         // Process room regenerations
         processRoomRegenerations();
         
         // Clean up distant rooms
         cleanupDistantRooms();
+        
+        // A private clock moves with the updates (firing due regenerations);
+        // a shared one is advanced by the game loop
+        if (ownsClock && deltaTime > 0) {
+            clock.step(deltaTime);
+        }
     }
     
     /**
-     * Update all existing rooms
+     * Register a new room with the observation pass: it is observed when
+     * its bounds are in the view cone and, if the player is in a room,
+     * reachable through open doors
      */
-    private void updateExistingRooms(double deltaTime) {
-        for (EnhancedRoom room : activeRooms.values()) {
-            // Update observation status
-            boolean inView = isRoomInView(room);
-            room.updateObservation(inView);
-            
-            // Update room state
-            room.update(deltaTime);
-            
-            // Queue for regeneration if needed
-            if (room.needsRegeneration()) {
-                roomsToRegenerate.offer(room);
-            }
-        }
+    private void observeRoom(EnhancedRoom room) {
+        float[] center = room.getPosition();
+        int handle = observation.add(room, center[0], center[1], center[2], ROOM_BOUNDING_RADIUS, 
+            observed -> {
+                room.updateObservation(observed);
+                if (observed) {
+                    visibleRooms.add(room);
+                } else {
+                    visibleRooms.remove(room);
+                }
+            });
+        observation.setOccluder(handle, doorOccluder);
+        observationHandles.put(room, handle);
     }
     
     /**
-     * Generate rooms in player's view
+     * Generate rooms in player's view (rooms ahead are created before doors
+     * can reveal them; the room the player stands in always exists)
      */
     private void generateRoomsInView() {
         List<float[]> potentialPositions = generatePotentialRoomPositions();
+        float playerCellX = Math.round(playerPosition[0] / ROOM_SPACING) * ROOM_SPACING;
+        float playerCellZ = Math.round(playerPosition[2] / ROOM_SPACING) * ROOM_SPACING;
         
         for (float[] position : potentialPositions) {
-            String posKey = positionToKey(position);
+            Long posKey = roomKey(position[0], position[1], position[2]);
+            boolean playerCell = position[0] == playerCellX && position[2] == playerCellZ;
             
             if (!activeRooms.containsKey(posKey) && 
                 activeRooms.size() < MAX_ACTIVE_ROOMS &&
-                isPositionInView(position)) {
+                (playerCell || observation.isInCone(position[0], position[1], position[2], STREAM_CONE_COS))) {
                 
-                EnhancedRoom newRoom = new EnhancedRoom(nextRoomId++, position);
+                EnhancedRoom newRoom = new EnhancedRoom(nextRoomId++, position, clock);
+                newRoom.setRegenerationListener(roomsToRegenerate::offer);
+                newRoom.setDoorwayListener(this::queueGeometry);
+                observeRoom(newRoom);
                 activeRooms.put(posKey, newRoom);
-                newRoom.updateObservation(true);
+                portalVisibility.roomsChanged();
+                queueGeometry(newRoom);
                 
                 System.out.println("Generated new room at " + Arrays.toString(position));
             }
         }
     }
     
+    /**
+     * Queue a room and its four neighbours for a geometry rebuild: a shared
+     * doorway is open if either room's door through that wall is open, so a
+     * change on one side can open or close the other side's wall
+     */
+    private void queueGeometry(EnhancedRoom room) {
+        float[] center = room.getPosition();
+        queueGeometryOf(room);
+        for (int i = 0; i < 4; i++) {
+            EnhancedRoom neighbour = activeRooms.get(roomKey(center[0] + WALL_STEP_X[i] * ROOM_SPACING, center[1], 
+                                                             center[2] + WALL_STEP_Z[i] * ROOM_SPACING));
+            if (neighbour != null) {
+                queueGeometryOf(neighbour);
+            }
+        }
+    }
+    
+    private void queueGeometryOf(EnhancedRoom room) {
+        if (!room.geometryQueued) {
+            room.geometryQueued = true;
+            geometryQueue.offer(room);
+        }
+    }
+    
+    /**
+     * Rebuild the line-of-sight geometry of queued rooms (new rooms, rooms
+     * next to added or removed ones, and rooms whose doors changed) if their
+     * doorways opened or closed
+     */
+    private void updateRoomGeometry() {
+        EnhancedRoom room;
+        while ((room = geometryQueue.poll()) != null) {
+            room.geometryQueued = false;
+            float[] center = room.getPosition();
+            if (activeRooms.get(roomKey(center[0], center[1], center[2])) != room) {
+                // Removed after it was queued
+                continue;
+            }
+            geometryChecks++;
+            int doorways = 0;
+            for (int i = 0; i < 4; i++) {
+                float nextX = center[0] + WALL_STEP_X[i] * ROOM_SPACING;
+                float nextZ = center[2] + WALL_STEP_Z[i] * ROOM_SPACING;
+                if (room.hasOpenDoorToward(nextX, nextZ)) {
+                    doorways |= 1 << i;
+                } else {
+                    EnhancedRoom neighbour = activeRooms.get(roomKey(nextX, center[1], nextZ));
+                    if (neighbour != null && neighbour.hasOpenDoorToward(center[0], center[2])) {
+                        doorways |= 1 << i;
+                    }
+                }
+            }
+            
+            Integer built = geometryDoorways.get(room);
+            if (built != null && built == doorways) {
+                continue;
+            }
+            Integer handle = geometryHandles.get(room);
+            if (handle != null) {
+                lineOfSight.removeStatic(handle);
+            }
+            int boxes = buildRoomGeometry(room, center, doorways);
+            geometryHandles.put(room, lineOfSight.addStatic(room, geometryBoxes, boxes));
+            geometryDoorways.put(room, doorways);
+            
+            removeCollisionWalls(room);
+            int[] proxies = new int[boxes];
+            for (int i = 0; i < boxes; i++) {
+                int o = i * 6;
+                proxies[i] = collisionWalls.insert(room, geometryBoxes[o], geometryBoxes[o + 1], geometryBoxes[o + 2],
+                                                   geometryBoxes[o + 3], geometryBoxes[o + 4], geometryBoxes[o + 5]);
+            }
+            collisionProxies.put(room, proxies);
+            
+            if (physics != null) {
+                buildRoomPhysics(room, center, doorways);
+            }
+        }
+    }
+    
+    /**
+     * Replace a room's static walls and door leaves in the physics world,
+     * and add its furniture the first time. Only the room on the negative
+     * side of a shared doorway hangs a door in it, so neighbours never
+     * put two leaves in one gap.
+     */
+    private void buildRoomPhysics(EnhancedRoom room, float[] center, int doorways) {
+        removePhysicsWalls(room);
+        float half = ROOM_SPACING * 0.5f;
+        float doorHalf = Door.DOOR_WIDTH * 0.5f;
+        
+        int[] handles = new int[3];
+        int count = 0;
+        handles[count++] = physics.addStatic(room, geometryBoxes, geometryWallCount);
+        for (int i = 0; i < 4; i++) {
+            if ((doorways & (1 << i)) == 0 || WALL_STEP_X[i] + WALL_STEP_Z[i] < 0) {
+                continue;
+            }
+            float wallX = center[0] + WALL_STEP_X[i] * half;
+            float wallZ = center[2] + WALL_STEP_Z[i] * half;
+            float width = Door.DOOR_WIDTH - 2.0f * DOOR_HINGE_INSET;
+            if (WALL_STEP_X[i] == 0) {
+                // Wall runs along X: hinge at the doorway's low-X edge, leaf along +X
+                handles[count++] = physics.addDoor(room, wallX - doorHalf + DOOR_HINGE_INSET, wallZ, 
+                                                   width, 0.0f, DOOR_SWING);
+            } else {
+                handles[count++] = physics.addDoor(room, wallX, wallZ - doorHalf + DOOR_HINGE_INSET, 
+                                                   width, (float) (Math.PI * 0.5), DOOR_SWING);
+            }
+        }
+        physicsWalls.put(room, Arrays.copyOf(handles, count));
+        
+        if (!physicsFurniture.containsKey(room)) {
+            List<Objects> furniture = room.getFurniture();
+            int[] props = new int[furniture.size()];
+            for (int i = 0; i < props.length; i++) {
+                Objects item = furniture.get(i);
+                float r = item.getBoundingRadius();
+                props[i] = physics.addProp(item, item.getX(), item.getZ(), r, r, FURNITURE_MASS);
+            }
+            physicsFurniture.put(room, props);
+        }
+    }
+    
+    private void removePhysicsWalls(EnhancedRoom room) {
+        int[] handles = physicsWalls.remove(room);
+        if (handles != null) {
+            for (int handle : handles) {
+                physics.remove(handle);
+            }
+        }
+    }
+    
+    private void removeRoomPhysics(EnhancedRoom room) {
+        if (physics == null) {
+            return;
+        }
+        removePhysicsWalls(room);
+        int[] props = physicsFurniture.remove(room);
+        if (props != null) {
+            for (int handle : props) {
+                physics.remove(handle);
+            }
+        }
+    }
+    
+    private void removeCollisionWalls(EnhancedRoom room) {
+        int[] proxies = collisionProxies.remove(room);
+        if (proxies != null) {
+            for (int proxy : proxies) {
+                collisionWalls.remove(proxy);
+            }
+        }
+    }
+    
+    /**
+     * Fill geometryBoxes with a room's walls (split around open doorways)
+     * and furniture
+     * @return Number of boxes
+     */
+    private int buildRoomGeometry(EnhancedRoom room, float[] center, int doorways) {
+        float half = ROOM_SPACING * 0.5f;
+        float doorHalf = Door.DOOR_WIDTH * 0.5f;
+        float bottom = center[1] - WALL_FOOTING;
+        float top = center[1] + room.getDimensions()[2];
+        
+        int count = 0;
+        for (int i = 0; i < 4; i++) {
+            float wallX = center[0] + WALL_STEP_X[i] * half;
+            float wallZ = center[2] + WALL_STEP_Z[i] * half;
+            if ((doorways & (1 << i)) != 0) {
+                count = addWall(count, i, wallX, wallZ, -half, -doorHalf, bottom, top);
+                count = addWall(count, i, wallX, wallZ, doorHalf, half, bottom, top);
+            } else {
+                count = addWall(count, i, wallX, wallZ, -half, half, bottom, top);
+            }
+        }
+        geometryWallCount = count;
+        for (Objects item : room.getFurniture()) {
+            float r = item.getBoundingRadius();
+            count = addBox(count, item.getX() - r, item.getY() - r, item.getZ() - r, 
+                           item.getX() + r, item.getY() + r, item.getZ() + r);
+        }
+        return count;
+    }
+    
+    /**
+     * Add a wall section running along the wall from 'from' to 'to'
+     */
+    private int addWall(int count, int side, float wallX, float wallZ, float from, float to, 
+                        float bottom, float top) {
+        float t = WALL_THICKNESS * 0.5f;
+        if (WALL_STEP_X[side] == 0) {
+            return addBox(count, wallX + from, bottom, wallZ - t, wallX + to, top, wallZ + t);
+        }
+        return addBox(count, wallX - t, bottom, wallZ + from, wallX + t, top, wallZ + to);
+    }
+    
+    private int addBox(int count, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if ((count + 1) * 6 > geometryBoxes.length) {
+            geometryBoxes = Arrays.copyOf(geometryBoxes, geometryBoxes.length * 2);
+        }
+        int o = count * 6;
+        geometryBoxes[o] = minX;
+        geometryBoxes[o + 1] = minY;
+        geometryBoxes[o + 2] = minZ;
+        geometryBoxes[o + 3] = maxX;
+        geometryBoxes[o + 4] = maxY;
+        geometryBoxes[o + 5] = maxZ;
+        return count + 1;
+    }
+    
     /**
      * Process room regenerations
      */
@@ -848,19 +1318,35 @@ public class EnhancedRoomGenerator {
      * Clean up rooms that are too far away
      */
     private void cleanupDistantRooms() {
-        Iterator<Map.Entry<String, EnhancedRoom>> iterator = activeRooms.entrySet().iterator();
+        Iterator<Map.Entry<Long, EnhancedRoom>> iterator = activeRooms.entrySet().iterator();
+        boolean removed = false;
         
         while (iterator.hasNext()) {
-            Map.Entry<String, EnhancedRoom> entry = iterator.next();
+            Map.Entry<Long, EnhancedRoom> entry = iterator.next();
             EnhancedRoom room = entry.getValue();
             
             float distance = calculateDistance(playerPosition, room.getPosition());
             
             if (distance > MAX_VIEW_DISTANCE * 1.5f && !room.isPlayerOccupied()) {
                 iterator.remove();
+                observation.remove(observationHandles.remove(room));
+                lineOfSight.removeStatic(geometryHandles.remove(room));
+                geometryDoorways.remove(room);
+                removeCollisionWalls(room);
+                removeRoomPhysics(room);
+                visibleRooms.remove(room);
+                room.setDoorwayListener(null);
+                // Neighbours lose any doorway only the removed side had open
+                queueGeometry(room);
+                room.dispose();
+                removed = true;
                 System.out.println("Removed distant room " + room.getId());
             }
         }
+        
+        if (removed) {
+            portalVisibility.roomsChanged();
+        }
     }
     
     // === Utility Methods ===
@@ -890,52 +1376,6 @@ public class EnhancedRoomGenerator {
         return positions;
     }
     
-    /**
-     * Check if room is in player's view
-     */
-    private boolean isRoomInView(EnhancedRoom room) {
-        return isPositionInView(room.getPosition());
-    }
-    
-    /**
-     * Check if position is in player's view
-     */
-    private boolean isPositionInView(float[] position) {
-        float distance = calculateDistance(playerPosition, position);
-        
-        if (distance > MAX_VIEW_DISTANCE) {
-            return false;
-        }
-        
-        // Simple view frustum check
-        float[] directionToRoom = {
-            position[0] - playerPosition[0],
-            position[1] - playerPosition[1], 
-            position[2] - playerPosition[2]
-        };
-        
-        // Normalize
-        float length = (float) Math.sqrt(
-            directionToRoom[0] * directionToRoom[0] +
-            directionToRoom[1] * directionToRoom[1] +
-            directionToRoom[2] * directionToRoom[2]
-        );
-        
-        if (length == 0) return true; // Same position
-        
-        directionToRoom[0] /= length;
-        directionToRoom[1] /= length;
-        directionToRoom[2] /= length;
-        
-        // Dot product with view direction
-        float dot = directionToRoom[0] * playerViewDirection[0] +
-                   directionToRoom[1] * playerViewDirection[1] +
-                   directionToRoom[2] * playerViewDirection[2];
-        
-        // Wide view cone (120 degrees)
-        return dot > -0.5f;
-    }
-    
     /**
      * Calculate distance between two positions
      */
@@ -948,10 +1388,13 @@ public class EnhancedRoomGenerator {
     }
     
     /**
-     * Convert position to string key
+     * Pack a room position into a map key (rounded to a tenth of a unit,
+     * the precision room positions were keyed by as text)
      */
-    private String positionToKey(float[] position) {
-        return String.format("%.1f_%.1f_%.1f", position[0], position[1], position[2]);
+    static long roomKey(float x, float y, float z) {
+        return ((Math.round(x * 10.0f) & KEY_MASK) << (2 * KEY_BITS)) |
+               ((Math.round(y * 10.0f) & KEY_MASK) << KEY_BITS) |
+               (Math.round(z * 10.0f) & KEY_MASK);
     }
     
     // === Public Interface ===
@@ -960,8 +1403,7 @@ public class EnhancedRoomGenerator {
      * Get room at specific position
      */
     public EnhancedRoom getRoomAt(float[] position) {
-        String key = positionToKey(position);
-        return activeRooms.get(key);
+        return activeRooms.get(roomKey(position[0], position[1], position[2]));
     }
     
     /**
@@ -991,6 +1433,85 @@ public class EnhancedRoomGenerator {
         }
     }
     
+    /**
+     * Get the rooms visible at the last update (live view, do not modify)
+     */
+    public Set<EnhancedRoom> getVisibleRooms() {
+        return visibleRooms;
+    }
+    
+    /**
+     * Get the door-portal visibility pass
+     */
+    public PortalVisibility getPortalVisibility() {
+        return portalVisibility;
+    }
+    
+    /**
+     * Get the line-of-sight geometry of the active rooms (walls up to date
+     * as of the last update); moving entities may add their boxes to it
+     */
+    public RaycastService getLineOfSight() {
+        return lineOfSight;
+    }
+    
+    /**
+     * Get the walls and furniture of the active rooms as a collision
+     * broadphase (each proxy's user data is its room), for swept movement
+     * with {@link CollisionResolver}
+     */
+    public SpatialHash getCollisionWalls() {
+        return collisionWalls;
+    }
+    
+    /**
+     * Put the active rooms' walls, furniture and doors into a physics world
+     * (from the next update on), or take them out again
+     * @param world The world, stepped by the game loop, or null to detach
+     */
+    public void setPhysicsWorld(PhysicsWorld world) {
+        if (world == physics) {
+            return;
+        }
+        for (EnhancedRoom room : new ArrayList<>(physicsWalls.keySet())) {
+            removeRoomPhysics(room);
+        }
+        for (EnhancedRoom room : new ArrayList<>(physicsFurniture.keySet())) {
+            removeRoomPhysics(room);
+        }
+        physics = world;
+        // Rebuild every room's geometry, and with it its bodies, next update
+        geometryDoorways.clear();
+        for (EnhancedRoom room : activeRooms.values()) {
+            queueGeometryOf(room);
+        }
+    }
+    
+    /**
+     * Get the attached physics world, or null
+     */
+    public PhysicsWorld getPhysicsWorld() {
+        return physics;
+    }
+    
+    /**
+     * Get the game clock the rooms' timers run on
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Get and reset the number of rooms whose doorways were checked for a
+     * geometry rebuild (profiling: zero on updates where no room was
+     * generated or removed and no door changed)
+     */
+    public int takeGeometryChecks() {
+        int count = geometryChecks;
+        geometryChecks = 0;
+        return count;
+    }
+    
     /**
      * Get status report
      */
@@ -1004,10 +1525,12 @@ public class EnhancedRoomGenerator {
             "Enhanced Room Generator:\n" +
             "  Active Rooms: %d/%d\n" +
             "  Currently Observed: %d\n" +
+            "  Visible Through Doors: %d (%d/%d portals passed)\n" +
             "  Pending Regeneration: %d\n" +
             "  Player Position: [%.1f, %.1f, %.1f]",
             totalRooms, MAX_ACTIVE_ROOMS,
             observedRooms,
+            visibleRooms.size(), portalVisibility.getPortalsPassed(), portalVisibility.getPortalsTested(),
             roomsPendingRegen,
             playerPosition[0], playerPosition[1], playerPosition[2]
         );
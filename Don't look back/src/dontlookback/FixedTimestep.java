@@ -0,0 +1,112 @@
+package dontlookback;
+
+/**
+ * Fixed Timestep Accumulator for Don't Look Back
+ *
+ * Turns variable frame times into a whole number of fixed simulation steps,
+ * so AI, light fuel and survival stats advance the same way at any frame
+ * rate. Leftover time stays in the accumulator for the next frame and gives
+ * the renderer its interpolation factor.
+ *
+ * Features:
+ * - Spiral-of-death guard: frame times are clamped and at most a fixed
+ *   number of steps run per frame; time beyond that is dropped (the game
+ *   slows down instead of falling further behind)
+ * - Interpolation factor between the last two simulation states
+ * - Counters for steps taken and time dropped
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class FixedTimestep {
+
+    /** Longest frame time accepted in one go (seconds) */
+    public static final double MAX_FRAME_TIME = 0.25;
+
+    private final double step;
+    private final int maxStepsPerFrame;
+
+    private double accumulator = 0.0;
+    private long totalSteps = 0;
+    private double droppedTime = 0.0;
+
+    /**
+     * Create an accumulator
+     * @param step Simulation step length in seconds
+     * @param maxStepsPerFrame Most steps run for one frame
+     */
+    public FixedTimestep(double step, int maxStepsPerFrame) {
+        if (step <= 0.0) {
+            throw new IllegalArgumentException("Step must be positive: " + step);
+        }
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("Need at least one step per frame: " + maxStepsPerFrame);
+        }
+        this.step = step;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Add a frame's elapsed time
+     * @param frameTime Wall time since the last call (seconds)
+     * @return Number of fixed steps to simulate now
+     */
+    public int advance(double frameTime) {
+        if (frameTime > MAX_FRAME_TIME) {
+            droppedTime += frameTime - MAX_FRAME_TIME;
+            frameTime = MAX_FRAME_TIME;
+        } else if (frameTime < 0.0) {
+            frameTime = 0.0;
+        }
+        accumulator += frameTime;
+
+        int steps = (int) (accumulator / step);
+        if (steps > maxStepsPerFrame) {
+            // Keep the fraction of a step, drop the backlog
+            double backlog = (steps - maxStepsPerFrame) * step;
+            droppedTime += backlog;
+            accumulator -= backlog;
+            steps = maxStepsPerFrame;
+        }
+        accumulator -= steps * step;
+        totalSteps += steps;
+        return steps;
+    }
+
+    /**
+     * Get how far the present lies between the last two simulation states
+     * @return 0 (last state exactly) to just under 1 (next state nearly due)
+     */
+    public double getAlpha() {
+        return accumulator / step;
+    }
+
+    /**
+     * Get the time until the next step is due (seconds)
+     */
+    public double getTimeUntilNextStep() {
+        return step - accumulator;
+    }
+
+    /**
+     * Get the unsimulated time carried to the next frame (seconds)
+     */
+    public double getAccumulator() {
+        return accumulator;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * Get the total time discarded by the spiral-of-death guard (seconds)
+     */
+    public double getDroppedTime() {
+        return droppedTime;
+    }
+}
@@ -0,0 +1,119 @@
+package dontlookback;
+
+/**
+ * View Frustum for Don't Look Back
+ *
+ * Six clipping planes extracted from the camera's view-projection matrix,
+ * used to reject scene bounds before anything is drawn. Planes point inwards
+ * and are normalized, so plane distances are in world units.
+ *
+ * Features:
+ * - Plane extraction straight from the projection and view matrices
+ *   (Gribb/Hartmann), matching whatever Graphics feeds the shaders
+ * - AABB and sphere tests with inside / intersecting / outside results
+ * - No allocation per frame
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class Frustum {
+
+    // === Test Results ===
+
+    /** Bounds are completely outside at least one plane */
+    public static final int OUTSIDE = 0;
+
+    /** Bounds straddle one or more planes */
+    public static final int INTERSECTING = 1;
+
+    /** Bounds are inside every plane */
+    public static final int INSIDE = 2;
+
+    // === Plane Storage ===
+
+    /** Planes in order left, right, bottom, top, near, far; (a, b, c, d) each */
+    private final float[] planes = new float[24];
+
+    /** Scratch view-projection matrix */
+    private final float[] viewProjection = Matrix4.create();
+
+    /**
+     * Extract the planes for a camera
+     * @param projection Column-major projection matrix
+     * @param view Column-major view matrix
+     */
+    public void update(float[] projection, float[] view) {
+        Matrix4.multiply(viewProjection, projection, view);
+        float[] m = viewProjection;
+
+        // Row i of a column-major matrix is m[i], m[4+i], m[8+i], m[12+i]
+        for (int p = 0; p < 6; p++) {
+            int row = p / 2;
+            float sign = (p % 2 == 0) ? 1.0f : -1.0f;
+            float a = m[3] + sign * m[row];
+            float b = m[7] + sign * m[4 + row];
+            float c = m[11] + sign * m[8 + row];
+            float d = m[15] + sign * m[12 + row];
+            float length = (float) Math.sqrt(a * a + b * b + c * c);
+            int o = p * 4;
+            planes[o] = a / length;
+            planes[o + 1] = b / length;
+            planes[o + 2] = c / length;
+            planes[o + 3] = d / length;
+        }
+    }
+
+    // === Intersection Tests ===
+
+    /**
+     * Classify an axis-aligned box against the frustum
+     * @return {@link #OUTSIDE}, {@link #INTERSECTING} or {@link #INSIDE}
+     */
+    public int testAABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int result = INSIDE;
+        for (int o = 0; o < 24; o += 4) {
+            float a = planes[o], b = planes[o + 1], c = planes[o + 2], d = planes[o + 3];
+
+            // Corner furthest along the plane normal decides "outside"
+            float far = a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + d;
+            if (far < 0) {
+                return OUTSIDE;
+            }
+            // Corner furthest against the normal decides "fully inside"
+            float near = a * (a >= 0 ? minX : maxX) + b * (b >= 0 ? minY : maxY) + c * (c >= 0 ? minZ : maxZ) + d;
+            if (near < 0) {
+                result = INTERSECTING;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether a sphere touches the frustum
+     */
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (int o = 0; o < 24; o += 4) {
+            if (planes[o] * x + planes[o + 1] * y + planes[o + 2] * z + planes[o + 3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a point is inside the frustum
+     */
+    public boolean containsPoint(float x, float y, float z) {
+        return intersectsSphere(x, y, z, 0.0f);
+    }
+
+    /**
+     * Get a copy of one plane as (a, b, c, d) with an inward unit normal
+     * @param index 0 left, 1 right, 2 bottom, 3 top, 4 near, 5 far
+     */
+    public float[] getPlane(int index) {
+        float[] plane = new float[4];
+        System.arraycopy(planes, index * 4, plane, 0, 4);
+        return plane;
+    }
+}
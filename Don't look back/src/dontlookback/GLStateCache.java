@@ -0,0 +1,229 @@
+package dontlookback;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * OpenGL State Cache for Don't Look Back
+ *
+ * Shadows the GL state the renderer toggles most (program, vertex array,
+ * depth test, blending, face culling, depth writes, blend function, clear
+ * color) and only calls into GL when a value actually changes.
+ *
+ * Features:
+ * - Unknown state after {@link #invalidate()}: the next set always reaches GL
+ * - Counters for GL calls issued and redundant changes skipped
+ * - Capabilities other than the tracked three pass straight through
+ *
+ * Code that changes this state behind the cache's back must call
+ * {@link #invalidate()} (or leave the state as the cache expects it).
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class GLStateCache {
+
+    /** Marker for "not known, always issue the next call" */
+    private static final int UNKNOWN = -1;
+
+    // === Tracked State ===
+
+    private int program = UNKNOWN;
+    private int vertexArray = UNKNOWN;
+
+    /** GL_DEPTH_TEST, GL_BLEND, GL_CULL_FACE: 1 enabled, 0 disabled, UNKNOWN */
+    private final int[] capabilities = {UNKNOWN, UNKNOWN, UNKNOWN};
+
+    private int depthMask = UNKNOWN;
+    private int blendSource = UNKNOWN;
+    private int blendDestination = UNKNOWN;
+    private final float[] clearColor = {Float.NaN, Float.NaN, Float.NaN, Float.NaN};
+
+    // === Statistics ===
+
+    private int stateChanges = 0;
+    private int redundantSkipped = 0;
+    private int programBinds = 0;
+    private int vertexArrayBinds = 0;
+
+    // === State Changes ===
+
+    /**
+     * Bind a shader program by GL id
+     */
+    public void useProgram(int programId) {
+        if (program == programId) {
+            redundantSkipped++;
+            return;
+        }
+        glUseProgram(programId);
+        program = programId;
+        programBinds++;
+        stateChanges++;
+    }
+
+    /**
+     * Bind a vertex array object by GL id
+     */
+    public void bindVertexArray(int vao) {
+        if (vertexArray == vao) {
+            redundantSkipped++;
+            return;
+        }
+        glBindVertexArray(vao);
+        vertexArray = vao;
+        vertexArrayBinds++;
+        stateChanges++;
+    }
+
+    /**
+     * Record a vertex array binding made directly through GL
+     */
+    public void setBoundVertexArray(int vao) {
+        vertexArray = vao;
+    }
+
+    /**
+     * Enable or disable a capability
+     * @param capability GL capability, e.g. GL_BLEND
+     * @param enabled New state
+     */
+    public void setCapability(int capability, boolean enabled) {
+        int slot = capabilitySlot(capability);
+        int value = enabled ? 1 : 0;
+        if (slot >= 0) {
+            if (capabilities[slot] == value) {
+                redundantSkipped++;
+                return;
+            }
+            capabilities[slot] = value;
+        }
+        if (enabled) {
+            glEnable(capability);
+        } else {
+            glDisable(capability);
+        }
+        stateChanges++;
+    }
+
+    public void enable(int capability) {
+        setCapability(capability, true);
+    }
+
+    public void disable(int capability) {
+        setCapability(capability, false);
+    }
+
+    /**
+     * Enable or disable depth buffer writes
+     */
+    public void depthMask(boolean write) {
+        int value = write ? 1 : 0;
+        if (depthMask == value) {
+            redundantSkipped++;
+            return;
+        }
+        glDepthMask(write);
+        depthMask = value;
+        stateChanges++;
+    }
+
+    /**
+     * Set the blend factors
+     */
+    public void blendFunc(int source, int destination) {
+        if (blendSource == source && blendDestination == destination) {
+            redundantSkipped++;
+            return;
+        }
+        glBlendFunc(source, destination);
+        blendSource = source;
+        blendDestination = destination;
+        stateChanges++;
+    }
+
+    /**
+     * Set the color used by the next glClear
+     */
+    public void clearColor(float r, float g, float b, float a) {
+        if (clearColor[0] == r && clearColor[1] == g && clearColor[2] == b && clearColor[3] == a) {
+            redundantSkipped++;
+            return;
+        }
+        glClearColor(r, g, b, a);
+        clearColor[0] = r;
+        clearColor[1] = g;
+        clearColor[2] = b;
+        clearColor[3] = a;
+        stateChanges++;
+    }
+
+    /**
+     * Forget all shadowed state, e.g. after code outside the cache touched GL
+     */
+    public void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        capabilities[0] = UNKNOWN;
+        capabilities[1] = UNKNOWN;
+        capabilities[2] = UNKNOWN;
+        depthMask = UNKNOWN;
+        blendSource = UNKNOWN;
+        blendDestination = UNKNOWN;
+        clearColor[0] = Float.NaN;
+    }
+
+    // === Statistics ===
+
+    /**
+     * Zero the counters (called once per frame)
+     */
+    public void resetCounters() {
+        stateChanges = 0;
+        redundantSkipped = 0;
+        programBinds = 0;
+        vertexArrayBinds = 0;
+    }
+
+    /**
+     * Get the number of state-changing GL calls issued since the last reset
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Get the number of calls skipped because the state already matched
+     */
+    public int getRedundantSkipped() {
+        return redundantSkipped;
+    }
+
+    public int getProgramBinds() {
+        return programBinds;
+    }
+
+    public int getVertexArrayBinds() {
+        return vertexArrayBinds;
+    }
+
+    public int getBoundProgram() {
+        return program;
+    }
+
+    // === Helper Methods ===
+
+    private static int capabilitySlot(int capability) {
+        switch (capability) {
+            case GL_DEPTH_TEST:
+                return 0;
+            case GL_BLEND:
+                return 1;
+            case GL_CULL_FACE:
+                return 2;
+            default:
+                return -1;
+        }
+    }
+}
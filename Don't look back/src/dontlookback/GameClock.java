@@ -0,0 +1,191 @@
+package dontlookback;
+
+/**
+ * Game Clock for Don't Look Back
+ *
+ * The one source of game time for timers such as monster despawn, room
+ * regeneration, light flicker and audio cue intervals. Subsystems read the
+ * clock they were given instead of the wall clock, so the game loop can
+ * pause, slow down or fast-forward all of them together, and tests can run
+ * minutes of play in milliseconds.
+ *
+ * Features:
+ * - Real-time clocks follow System.nanoTime(), scaled
+ * - Manual clocks only move when ticked or stepped (fixed-step simulation,
+ *   headless runs, tests)
+ * - Pause and resume: paused time does not count towards any timer
+ * - Time scaling for slow motion and fast-forward
+ * - Single stepping, which also works while paused
+ * - A {@link TimingWheel} of deadlines on game time, fired as the clock moves
+ *
+ * Thread-safe for reading: the simulation thread advances the clock (and
+ * runs its timers) while other threads may read the time.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class GameClock {
+
+    private final boolean manual;
+
+    /** Game time at the anchor (seconds) */
+    private double baseTime = 0.0;
+
+    /** Wall time the real-time clock counts from */
+    private long anchorNanos;
+
+    private double timeScale = 1.0;
+    private boolean paused = false;
+
+    /** Deadlines on this clock, created on first use */
+    private TimingWheel timers;
+
+    /**
+     * Create a real-time clock starting at zero
+     */
+    public GameClock() {
+        this(false);
+    }
+
+    private GameClock(boolean manual) {
+        this.manual = manual;
+        this.anchorNanos = System.nanoTime();
+    }
+
+    /**
+     * Create a clock that only moves when ticked or stepped
+     */
+    public static GameClock manual() {
+        return new GameClock(true);
+    }
+
+    // === Reading ===
+
+    /**
+     * Get the current game time in seconds
+     */
+    public synchronized double now() {
+        if (manual || paused) {
+            return baseTime;
+        }
+        return baseTime + (System.nanoTime() - anchorNanos) * 1.0e-9 * timeScale;
+    }
+
+    /**
+     * Get the current game time in milliseconds
+     */
+    public long nowMillis() {
+        return (long) (now() * 1000.0);
+    }
+
+    // === Advancing ===
+
+    /**
+     * Account for a frame of real time: manual clocks move forward by it,
+     * scaled; real-time clocks have already moved on their own. Due timers
+     * run afterwards.
+     * @param realSeconds Real time elapsed
+     * @return Game time that elapsed (0 while paused)
+     */
+    public double tick(double realSeconds) {
+        double elapsed;
+        synchronized (this) {
+            if (paused || realSeconds <= 0.0) {
+                elapsed = 0.0;
+            } else {
+                elapsed = realSeconds * timeScale;
+                if (manual) {
+                    baseTime += elapsed;
+                }
+            }
+        }
+        runTimers();
+        return elapsed;
+    }
+
+    /**
+     * Move game time forward by an exact amount, unscaled and even while
+     * paused, then run due timers
+     * @param seconds Game time to skip
+     */
+    public void step(double seconds) {
+        if (seconds < 0.0) {
+            throw new IllegalArgumentException("Cannot step backwards: " + seconds);
+        }
+        synchronized (this) {
+            baseTime += seconds;
+        }
+        runTimers();
+    }
+
+    // === Timers ===
+
+    /**
+     * Get the deadlines that run on this clock (simulation thread only)
+     */
+    public TimingWheel getTimers() {
+        if (timers == null) {
+            timers = new TimingWheel();
+            timers.advanceTo(now());
+        }
+        return timers;
+    }
+
+    /**
+     * Fire every timer that is due at the current time; done by
+     * {@link #tick} and {@link #step}
+     * @return Number of timers fired
+     */
+    public int runTimers() {
+        return timers == null ? 0 : timers.advanceTo(now());
+    }
+
+    // === Pause and Scale ===
+
+    public synchronized void pause() {
+        if (!paused) {
+            baseTime = now();
+            paused = true;
+        }
+    }
+
+    public synchronized void resume() {
+        if (paused) {
+            paused = false;
+            anchorNanos = System.nanoTime();
+        }
+    }
+
+    public void setPaused(boolean paused) {
+        if (paused) {
+            pause();
+        } else {
+            resume();
+        }
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Set how fast game time runs relative to real time
+     * @param timeScale 1 = normal, 0.5 = half speed, 0 = frozen
+     */
+    public synchronized void setTimeScale(double timeScale) {
+        if (!(timeScale >= 0.0) || Double.isInfinite(timeScale)) {
+            throw new IllegalArgumentException("Invalid time scale: " + timeScale);
+        }
+        baseTime = now();
+        anchorNanos = System.nanoTime();
+        this.timeScale = timeScale;
+    }
+
+    public synchronized double getTimeScale() {
+        return timeScale;
+    }
+
+    public boolean isManual() {
+        return manual;
+    }
+}
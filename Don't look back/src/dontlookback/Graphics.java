@@ -7,6 +7,7 @@ import org.lwjgl.opengl.*;
 import org.lwjgl.system.*;
 
 import java.nio.*;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL11.*;
@@ -69,10 +70,7 @@ public class Graphics {
     
     // === Timing System ===
     
-    /** Last frame timestamp for delta time calculation */
-    private double lastTime = 0.0;
-    
-    /** Time elapsed since last frame (for frame-rate independent movement) */
+    /** Length of the current simulation step (fixed, see SIMULATION_STEP) */
     private float deltaTime = 0.0f;
     
     // === Game Objects ===
@@ -83,6 +81,114 @@ public class Graphics {
     /** Test data object */
     private testData test;
     
+    /** Lantern the player carries, following the camera */
+    private LightSource playerLight;
+    
+    /** Walking speed (units per second) and footprint radius of the player */
+    private static final float WALK_SPEED = 6.0f;
+    private static final float PLAYER_RADIUS = 0.2f;
+    
+    /** Walls, furniture, doors and the player as rigid bodies (simulation thread) */
+    private PhysicsWorld physics;
+    
+    /** The player's character body, or -1 before gameplay starts */
+    private int playerBody = -1;
+    
+    /** Velocity the held movement keys ask for this step */
+    private float walkX = 0.0f;
+    private float walkZ = 0.0f;
+    
+    // === Rendering Resources ===
+    
+    /** Shader programs for the current context (null in headless mode) */
+    private ShaderLibrary shaderLibrary;
+    
+    /** Retained-mode mesh renderer (null in headless mode) */
+    private MeshRenderer meshRenderer;
+    
+    /** Per-frame light clusters for the forward lighting shaders (null in headless mode) */
+    private ClusteredLighting clusteredLighting;
+    
+    /** Light sources simulated and shown in the world, or null if no lighting is attached */
+    private volatile LightManager lightManager;
+    
+    /** Generated rooms, simulated and drawn through door-portal visibility, or null */
+    private volatile EnhancedRoomGenerator roomGenerator;
+    
+    /** Demo cube mesh, uploaded once at startup */
+    private Mesh demoCube;
+    
+    /** Projection and view matrices, rebuilt each frame without allocation */
+    private final float[] projectionMatrix = Matrix4.create();
+    private final float[] viewMatrix = Matrix4.create();
+    
+    /** Camera frustum, extracted from the matrices above each frame */
+    private final Frustum frustum = new Frustum();
+    
+    /** BVH-backed visibility for world objects and rooms */
+    private final SceneCuller sceneCuller = new SceneCuller();
+    
+    /** What the player is looking at, tested once per simulation step */
+    private final ObservationSystem observation = new ObservationSystem(64);
+    
+    // === Simulation Thread ===
+    
+    /** Fixed simulation step: 60 Hz regardless of render rate (seconds) */
+    private static final double SIMULATION_STEP = 1.0 / 60.0;
+    
+    /** Most simulation steps run to catch up after a slow frame */
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    
+    /** Run headless simulations without sleeping (-Ddlb.headless.fast=true) */
+    private static final boolean FAST_HEADLESS = Boolean.getBoolean("dlb.headless.fast");
+    
+    /** Game time for every gameplay timer; advanced one fixed step at a time, frozen while paused */
+    private final GameClock gameClock = GameClock.manual();
+    
+    /** Time spent in game states; advanced every fixed step and never paused */
+    private final GameClock stateClock = GameClock.manual();
+    
+    /** Accumulator turning wall time into fixed steps */
+    private final FixedTimestep timestep = new FixedTimestep(SIMULATION_STEP, MAX_STEPS_PER_FRAME);
+    
+    /** Frames handed from the simulation thread to the render thread */
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    
+    /** Key events from the GLFW callback, consumed by the simulation thread */
+    private final InputQueue inputQueue = new InputQueue(256);
+    
+    /** Keys currently held, as seen by the simulation thread */
+    private final boolean[] keysDown = new boolean[GLFW_KEY_LAST + 1];
+    
+    private Thread simulationThread;
+    private volatile boolean simulationRunning = false;
+    private volatile RuntimeException simulationFailure;
+    
+    /** Simulation-side frame counter, clock and close request */
+    private long simulationFrame = 0;
+    private double simulationTime = 0.0;
+    private boolean closeRequested = false;
+    
+    /** Camera before the latest step ([x, y, z, rotX, rotY, rotZ]) */
+    private final float[] previousCamera = new float[6];
+    
+    /** World instances and lights before the latest step */
+    private final RenderSnapshot previousStep = new RenderSnapshot();
+    
+    /** Wall time at which the latest simulated state became current */
+    private long stateNanos = System.nanoTime();
+    
+    /** Interpolated camera used by the render thread */
+    private final float[] renderCamera = new float[6];
+    
+    /** This frame's interpolation factor and blended lights (render thread) */
+    private float renderAlpha = 1.0f;
+    private LightBuffer renderLights;
+    
+    /** Scratch arrays for room generator updates */
+    private final float[] simPosition = new float[3];
+    private final float[] simViewDirection = new float[3];
+    
     /**
      * Initialize Graphics System and State Management
      * 
@@ -97,18 +203,19 @@ public class Graphics {
         if (headlessMode) {
             System.out.println("Running in headless mode - graphics operations will be skipped");
             // Initialize minimal state for headless mode
-            stateManager = new StateManager();
+            stateManager = new StateManager(stateClock);
             stateManager.addStateChangeListener(new GameStateChangeListener());
             Settings.setStateManager(stateManager);
             splashScreen = new ModernSplash(headlessMode);
             mainMenu = new MainMenu(stateManager);
+            initializeWorld();
             runHeadlessLoop();
             cleanup();
             return;
         }
         
         // Initialize state management
-        stateManager = new StateManager();
+        stateManager = new StateManager(stateClock);
         stateManager.addStateChangeListener(new GameStateChangeListener());
         
         // Register state manager with Settings for compatibility
@@ -120,6 +227,9 @@ public class Graphics {
         // Initialize main menu
         mainMenu = new MainMenu(stateManager);
         
+        // World systems on the game clock
+        initializeWorld();
+        
         // Set up graphics and start main loop
         try {
             initializeGraphics();
@@ -132,6 +242,16 @@ public class Graphics {
         }
     }
     
+    /**
+     * Build the world systems on the game clock and observation pass and
+     * attach them (before the simulation starts)
+     */
+    private void initializeWorld() {
+        physics = new PhysicsWorld();
+        setLightManager(new LightManager(gameClock));
+        setRoomGenerator(new EnhancedRoomGenerator(gameClock, observation));
+    }
+    
     /**
      * Initialize GLFW, create window, and set up OpenGL context
      */
@@ -161,11 +281,9 @@ public class Graphics {
             throw new RuntimeException("Failed to create the GLFW window");
         }
         
-        // Setup key callback
+        // Key events are queued for the simulation thread, which owns all game state
         glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
-            if (key == GLFW_KEY_ESCAPE && action == GLFW_RELEASE) {
-                glfwSetWindowShouldClose(window, true);
-            }
+            inputQueue.offer(key, action, mods);
         });
         
         // Get the thread stack and push a new frame
@@ -220,6 +338,14 @@ public class Graphics {
                 System.out.println("OpenGL vendor: " + vendor);
                 System.out.println("OpenGL renderer: " + renderer);
                 System.out.println("Graphics initialized successfully");
+                
+                // Upload shared geometry once; frames only issue draw calls
+                shaderLibrary = new ShaderLibrary();
+                shaderLibrary.loadAll();
+                meshRenderer = new MeshRenderer(shaderLibrary);
+                MeshRenderer.setActive(meshRenderer);
+                clusteredLighting = new ClusteredLighting();
+                demoCube = createDemoCubeMesh();
             } else {
                 System.err.println("OpenGL context validation failed - version string is null or empty");
                 openGLContextValid = false;
@@ -231,50 +357,41 @@ public class Graphics {
     }
     
     /**
-     * Run a simplified loop for headless mode
+     * Run a simplified loop for headless mode: 3 seconds of simulation in
+     * fixed steps, paced to the wall clock or, in fast mode, back to back
      */
     private void runHeadlessLoop() {
-        System.out.println("Running headless simulation for 3 seconds...");
-        
-        // Set initial time
-        lastTime = System.nanoTime() / 1_000_000_000.0;
-        
-        double runTime = 0.0;
         final double MAX_RUN_TIME = 3.0; // Run for 3 seconds in headless mode
+        System.out.println("Running headless simulation for " + MAX_RUN_TIME + " seconds" +
+                           (FAST_HEADLESS ? " (as fast as possible)..." : "..."));
         
-        while (runTime < MAX_RUN_TIME) {
-            // Calculate delta time
-            double currentTime = System.nanoTime() / 1_000_000_000.0;
-            deltaTime = (float)(currentTime - lastTime);
-            lastTime = currentTime;
-            runTime += deltaTime;
-            
-            // Update current state logic
-            updateCurrentState(deltaTime);
+        long startNanos = System.nanoTime();
+        long last = startNanos;
+        
+        while (simulationTime < MAX_RUN_TIME) {
+            if (FAST_HEADLESS) {
+                // No render thread and no pacing: step at full CPU speed
+                simulationStep((float) SIMULATION_STEP);
+                continue;
+            }
             
-            // Update game objects based on state
-            if (stateManager.isTimeActive()) {
-                // Initialize game objects if entering gameplay for first time
-                if (player == null && stateManager.isInGameplay()) {
-                    player = new Player();
-                    test = new testData(75);
-                    System.out.println("Game objects initialized for gameplay");
-                }
-                
-                // Update game objects (non-graphics)
-                update(deltaTime);
+            long now = System.nanoTime();
+            int steps = timestep.advance((now - last) / 1_000_000_000.0);
+            last = now;
+            for (int i = 0; i < steps && simulationTime < MAX_RUN_TIME; i++) {
+                simulationStep((float) SIMULATION_STEP);
             }
             
-            // Simulate frame timing (roughly 60 FPS)
-            try {
-                Thread.sleep(16); // ~60 FPS
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            // Wait for the next step to come due
+            LockSupport.parkNanos((long) (timestep.getTimeUntilNextStep() * 1_000_000_000L));
+            if (Thread.currentThread().isInterrupted()) {
                 break;
             }
         }
         
-        System.out.println("Headless simulation completed successfully");
+        System.out.println(String.format("Headless simulation completed successfully " +
+                           "(%d steps in %.2f s wall time)", simulationFrame,
+                           (System.nanoTime() - startNanos) / 1_000_000_000.0));
     }
     
     /**
@@ -326,52 +443,202 @@ public class Graphics {
     }
     
     /**
-     * Main game loop with state management
+     * Main loop of the window thread: starts the simulation thread, then
+     * renders the newest published snapshot until the window closes
      */
     private void gameLoop() {
-        lastTime = glfwGetTime();
-        
-        // Initialize game objects (delayed until after splash)
-        Player player = null;
-        testData test = null;
-        
-        while (!glfwWindowShouldClose(window)) {
-            // Calculate delta time
-            double currentTime = glfwGetTime();
-            deltaTime = (float)(currentTime - lastTime);
-            lastTime = currentTime;
-            
-            // Update current state
-            updateCurrentState(deltaTime);
-            
-            // Process input based on current state
-            if (stateManager.isInputAllowed()) {
-                processInput();
+        startSimulation();
+        try {
+            while (!glfwWindowShouldClose(window)) {
+                // Callbacks run here and queue their events for the simulation
+                glfwPollEvents();
+                
+                if (simulationFailure != null) {
+                    throw new RuntimeException("Simulation thread failed", simulationFailure);
+                }
+                RenderSnapshot snapshot = snapshots.acquire();
+                if (snapshot.isCloseRequested()) {
+                    glfwSetWindowShouldClose(window, true);
+                }
+                
+                // Pick up edited shaders (dev builds only), then render the snapshot
+                if (shaderLibrary != null) {
+                    shaderLibrary.pollReloads();
+                }
+                render(snapshot);
+                
+                glfwSwapBuffers(window);
             }
-            
-            // Handle special key inputs (always processed)
-            processSpecialInput();
-            
-            // Update game objects based on state
-            if (stateManager.isTimeActive()) {
-                // Initialize game objects if entering gameplay for first time
-                if (player == null && stateManager.isInGameplay()) {
-                    player = new Player();
-                    test = new testData(75);
-                    System.out.println("Game objects initialized for gameplay");
+        } finally {
+            stopSimulation();
+        }
+    }
+    
+    // === Simulation Thread ===
+    
+    /**
+     * Publish a first snapshot and start stepping the game on its own thread
+     */
+    private void startSimulation() {
+        previousCamera[0] = cameraX;
+        previousCamera[1] = cameraY;
+        previousCamera[2] = cameraZ;
+        previousCamera[3] = rotX;
+        previousCamera[4] = rotY;
+        previousCamera[5] = rotZ;
+        capturePreviousStep();
+        stateNanos = System.nanoTime();
+        publishSnapshot();
+        simulationRunning = true;
+        simulationThread = new Thread(this::runSimulation, "Simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+    
+    /**
+     * Stop the simulation thread and wait for it to finish its step
+     */
+    private void stopSimulation() {
+        simulationRunning = false;
+        if (simulationThread == null) {
+            return;
+        }
+        LockSupport.unpark(simulationThread);
+        try {
+            simulationThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        simulationThread = null;
+    }
+    
+    /**
+     * Simulation thread body: run the fixed steps that came due, publish,
+     * then sleep until the next step
+     */
+    private void runSimulation() {
+        long last = System.nanoTime();
+        try {
+            while (simulationRunning) {
+                long now = System.nanoTime();
+                int steps = timestep.advance((now - last) / 1_000_000_000.0);
+                last = now;
+                
+                if (steps > 0) {
+                    for (int i = 0; i < steps; i++) {
+                        simulationStep((float) SIMULATION_STEP);
+                    }
+                    // The newest state belongs to the moment its step came due
+                    stateNanos = now - (long) (timestep.getAccumulator() * 1_000_000_000L);
+                    publishSnapshot();
                 }
                 
-                // Update game objects
-                update(deltaTime);
+                LockSupport.parkNanos((long) (timestep.getTimeUntilNextStep() * 1_000_000_000L));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Simulation thread failed: " + e.getMessage());
+            simulationFailure = e;
+        }
+    }
+    
+    /**
+     * Advance the game by one step: input, state logic and game objects.
+     * Runs on the simulation thread (or the only thread in headless mode).
+     * @param deltaTime Time since the last step
+     */
+    private void simulationStep(float deltaTime) {
+        this.deltaTime = deltaTime;
+        previousCamera[0] = cameraX;
+        previousCamera[1] = cameraY;
+        previousCamera[2] = cameraZ;
+        previousCamera[3] = rotX;
+        previousCamera[4] = rotY;
+        previousCamera[5] = rotZ;
+        capturePreviousStep();
+        
+        // Menus, pauses and loading screens time themselves too
+        stateClock.tick(deltaTime);
+        
+        processInputEvents();
+        
+        // Update current state
+        updateCurrentState(deltaTime);
+        
+        // Process held movement keys based on current state
+        walkX = 0.0f;
+        walkZ = 0.0f;
+        if (stateManager.isInputAllowed()) {
+            processInput(deltaTime);
+        }
+        
+        // Game time only moves while the game is running
+        gameClock.setPaused(!stateManager.isTimeActive());
+        double gameDelta = gameClock.tick(deltaTime);
+        
+        // Update game objects based on state
+        if (stateManager.isTimeActive()) {
+            // Initialize game objects if entering gameplay for first time
+            if (player == null && stateManager.isInGameplay()) {
+                player = new Player();
+                player.setPosition(cameraX, cameraY, cameraZ);
+                playerBody = physics.addCharacter(player, cameraX, cameraZ, PLAYER_RADIUS, false);
+                test = new testData(75);
+                
+                LightManager lights = lightManager;
+                if (lights != null) {
+                    playerLight = new LightSource(LightSource.LightType.LANTERN, 
+                                                  new float[]{cameraX, cameraY, cameraZ}, 0.0f);
+                    playerLight.light();
+                    lights.addLightSource(playerLight);
+                }
+                System.out.println("Game objects initialized for gameplay");
             }
             
-            // Render current state
-            render();
-            
-            // Swap buffers and poll events
-            glfwSwapBuffers(window);
-            glfwPollEvents();
+            // Update game objects
+            update((float) gameDelta);
         }
+        
+        simulationTime += deltaTime;
+        simulationFrame++;
+    }
+    
+    /**
+     * Record world transforms and lights as they are before a step, for the
+     * renderer to interpolate from
+     */
+    private void capturePreviousStep() {
+        previousStep.begin(simulationFrame, simulationTime, stateManager.getCurrentState());
+        previousStep.setWorld(test);
+        LightManager lights = lightManager;
+        if (lights != null) {
+            previousStep.setLightBuffer(lights);
+        }
+    }
+    
+    /**
+     * Fill the next snapshot from the simulation state and hand it to the renderer
+     */
+    private void publishSnapshot() {
+        RenderSnapshot snapshot = snapshots.getWriteSlot();
+        snapshot.begin(simulationFrame, simulationTime, stateManager.getCurrentState());
+        snapshot.setTiming(stateNanos, SIMULATION_STEP);
+        snapshot.setCamera(cameraX, cameraY, cameraZ, rotX, rotY, rotZ);
+        snapshot.setPreviousCamera(previousCamera);
+        snapshot.setWorld(test);
+        
+        LightManager lights = lightManager;
+        if (lights != null) {
+            snapshot.setLightBuffer(lights);
+        }
+        snapshot.setPreviousStep(previousStep);
+        EnhancedRoomGenerator rooms = roomGenerator;
+        if (rooms != null) {
+            snapshot.setRooms(rooms.getVisibleRooms());
+        }
+        if (closeRequested) {
+            snapshot.requestClose();
+        }
+        snapshots.publish();
     }
     
     /**
@@ -418,9 +685,51 @@ public class Graphics {
     }
     
     /**
-     * Process input from keyboard and mouse (gameplay)
+     * Apply queued key events: track held keys and handle key presses
      */
-    private void processInput() {
+    private void processInputEvents() {
+        for (long event = inputQueue.poll(); event != InputQueue.EMPTY; event = inputQueue.poll()) {
+            int key = InputQueue.keyOf(event);
+            int action = InputQueue.actionOf(event);
+            if (key >= 0 && key < keysDown.length) {
+                keysDown[key] = action != GLFW_RELEASE;
+            }
+            if (action == GLFW_PRESS) {
+                handleKeyPress(key);
+            }
+        }
+    }
+    
+    /**
+     * Handle a key press (special keys are always active)
+     */
+    private void handleKeyPress(int key) {
+        switch (key) {
+            case GLFW_KEY_ESCAPE:
+                handleEscapeKey();
+                break;
+            case GLFW_KEY_P:
+                // Pause/unpause with P key
+                handlePauseKey();
+                break;
+            case GLFW_KEY_SPACE:
+            case GLFW_KEY_ENTER:
+                // Skip splash screen with Space or Enter
+                if (stateManager.getCurrentState() == GameState.LOADING) {
+                    splashScreen.skip();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Process held keys (gameplay movement): set the velocity the player's
+     * body walks at, so walls stop it during the physics step
+     * @param deltaTime Time since the last step
+     */
+    private void processInput(float deltaTime) {
         // Skip input processing in headless mode
         if (headlessMode || !openGLContextValid) {
             return;
@@ -431,49 +740,21 @@ public class Graphics {
             return;
         }
         
-        if (glfwGetKey(window, GLFW_KEY_W) == GLFW_PRESS) {
+        if (keysDown[GLFW_KEY_W]) {
             // Move forward
-            cameraZ -= 0.1f * deltaTime * 60; // 60 FPS normalized movement
+            walkZ -= WALK_SPEED;
         }
-        if (glfwGetKey(window, GLFW_KEY_S) == GLFW_PRESS) {
+        if (keysDown[GLFW_KEY_S]) {
             // Move backward
-            cameraZ += 0.1f * deltaTime * 60;
+            walkZ += WALK_SPEED;
         }
-        if (glfwGetKey(window, GLFW_KEY_A) == GLFW_PRESS) {
+        if (keysDown[GLFW_KEY_A]) {
             // Move left
-            cameraX -= 0.1f * deltaTime * 60;
+            walkX -= WALK_SPEED;
         }
-        if (glfwGetKey(window, GLFW_KEY_D) == GLFW_PRESS) {
+        if (keysDown[GLFW_KEY_D]) {
             // Move right
-            cameraX += 0.1f * deltaTime * 60;
-        }
-    }
-    
-    /**
-     * Process special input (always active)
-     */
-    private void processSpecialInput() {
-        // Skip input processing in headless mode
-        if (headlessMode || !openGLContextValid) {
-            return;
-        }
-        
-        // ESC key handling
-        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
-            handleEscapeKey();
-        }
-        
-        // Skip splash screen with Space or Enter
-        if (stateManager.getCurrentState() == GameState.LOADING) {
-            if (glfwGetKey(window, GLFW_KEY_SPACE) == GLFW_PRESS || 
-                glfwGetKey(window, GLFW_KEY_ENTER) == GLFW_PRESS) {
-                splashScreen.skip();
-            }
-        }
-        
-        // Pause/unpause with P key
-        if (glfwGetKey(window, GLFW_KEY_P) == GLFW_PRESS) {
-            handlePauseKey();
+            walkX += WALK_SPEED;
         }
     }
     
@@ -493,7 +774,8 @@ public class Graphics {
                 if (headlessMode) {
                     System.out.println("Escape pressed - closing game");
                 } else {
-                    glfwSetWindowShouldClose(window, true);
+                    // The render thread closes the window when it sees the request
+                    closeRequested = true;
                 }
                 break;
             default:
@@ -541,16 +823,57 @@ public class Graphics {
     }
     
     /**
-     * Update game state
+     * Update game systems (simulation thread)
      */
     private void update(float deltaTime) {
-        // Update camera and game objects here
+        // The player walks through the physics world and the camera follows
+        if (playerBody >= 0) {
+            if (player.positionX() != cameraX || player.positionZ() != cameraZ) {
+                // The camera was placed directly (setCameraPosition)
+                physics.teleport(playerBody, cameraX, cameraZ);
+            }
+            physics.driveCharacter(playerBody, walkX, walkZ);
+        }
+        physics.update(deltaTime);
+        if (playerBody >= 0) {
+            cameraX = player.positionX();
+            cameraZ = player.positionZ();
+        }
+        
+        simPosition[0] = cameraX;
+        simPosition[1] = cameraY;
+        simPosition[2] = cameraZ;
+        
+        // The lantern moves with the player before lights are indexed
+        LightManager lights = lightManager;
+        if (lights != null) {
+            if (playerLight != null) {
+                playerLight.setCenter(simPosition);
+            }
+            lights.update(deltaTime);
+        }
+        
+        // Camera looks down -Z, turned by the yaw
+        double yaw = Math.toRadians(rotY);
+        simViewDirection[0] = (float) Math.sin(yaw);
+        simViewDirection[1] = 0.0f;
+        simViewDirection[2] = (float) -Math.cos(yaw);
+        observation.setCamera(simPosition, simViewDirection,
+                              EnhancedRoomGenerator.VIEW_HALF_ANGLE, EnhancedRoomGenerator.MAX_VIEW_DISTANCE);
+        
+        EnhancedRoomGenerator rooms = roomGenerator;
+        if (rooms != null) {
+            rooms.update(simPosition, simViewDirection, deltaTime);
+        }
+        
+        // One observation pass for everything registered this step
+        observation.update();
     }
     
     /**
-     * Render the scene based on current state
+     * Render a simulation snapshot based on its game state (window thread)
      */
-    private void render() {
+    private void render(RenderSnapshot snapshot) {
         // Skip rendering if in headless mode or no valid OpenGL context
         if (headlessMode || !openGLContextValid) {
             return;
@@ -566,8 +889,8 @@ public class Graphics {
         // Update viewport
         glViewport(0, 0, width, height);
         
-        // Render based on current state
-        switch (stateManager.getCurrentState()) {
+        // Render based on the snapshot's state
+        switch (snapshot.getState()) {
             case LOADING:
                 renderSplashScreen();
                 break;
@@ -575,16 +898,19 @@ public class Graphics {
                 renderMainMenu();
                 break;
             case PLAYING:
-                renderGameplay();
+                renderGameplay(snapshot);
                 break;
             case PAUSED:
-                renderGameplay();  // Render game in background
+                renderGameplay(snapshot);  // Render game in background
                 renderPauseOverlay();
                 break;
             default:
-                renderDefault();
+                renderDefault(snapshot);
                 break;
         }
+        
+        // Fence this frame's streamed data before the buffers are swapped
+        meshRenderer.endFrame();
     }
     
     /**
@@ -602,60 +928,35 @@ public class Graphics {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
         
         // Dark blue background for menu
-        glClearColor(0.1f, 0.1f, 0.3f, 1.0f);
+        setClearColor(0.1f, 0.1f, 0.3f, 1.0f);
         glClear(GL_COLOR_BUFFER_BIT);
         
         // Render menu (console output for headless demo)
         mainMenu.render();
         
-        // Set up 2D rendering for menu (placeholder for actual UI)
-        glMatrixMode(GL_PROJECTION);
-        glPushMatrix();
-        glLoadIdentity();
-        glOrtho(0, width, height, 0, -1, 1);
-        
-        glMatrixMode(GL_MODELVIEW);
-        glPushMatrix();
-        glLoadIdentity();
-        
         // In a full implementation, render menu UI elements here
         // For now, we just output to console
-        
-        // Restore matrices
-        glPopMatrix();
-        glMatrixMode(GL_PROJECTION);
-        glPopMatrix();
-        glMatrixMode(GL_MODELVIEW);
     }
     
     /**
      * Render gameplay
      */
-    private void renderGameplay() {
+    private void renderGameplay(RenderSnapshot snapshot) {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
         
         // Dark background for horror atmosphere
-        glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-        
-        // Set up projection matrix
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        float aspectRatio = (float) width / height;
-        // Simple perspective projection
-        glFrustum(-aspectRatio, aspectRatio, -1.0f, 1.0f, 1.0f, 100.0f);
+        setClearColor(0.0f, 0.0f, 0.0f, 1.0f);
         
-        // Set up modelview matrix
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-        
-        // Apply camera transformations
-        glRotatef(rotX, 1.0f, 0.0f, 0.0f);
-        glRotatef(rotY, 0.0f, 1.0f, 0.0f);
-        glRotatef(rotZ, 0.0f, 0.0f, 1.0f);
-        glTranslatef(-cameraX, -cameraY, -cameraZ);
+        // Set up camera for world rendering
+        beginWorldFrame(snapshot);
         
-        // Render game world
+        // Render game world: only what survives frustum culling is drawn
         renderDemoCube();
+        syncCulledWorld(snapshot);
+        frustum.update(projectionMatrix, viewMatrix);
+        sceneCuller.updateBounds();
+        sceneCuller.cull(frustum);
+        sceneCuller.render(renderAlpha);
         
         // Render UI elements
         renderGameplayUI();
@@ -665,38 +966,11 @@ public class Graphics {
      * Render pause overlay
      */
     private void renderPauseOverlay() {
-        // Set up 2D rendering for overlay
-        glMatrixMode(GL_PROJECTION);
-        glPushMatrix();
-        glLoadIdentity();
-        glOrtho(0, width, height, 0, -1, 1);
-        
-        glMatrixMode(GL_MODELVIEW);
-        glPushMatrix();
-        glLoadIdentity();
-        
         // Semi-transparent overlay
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        
-        glColor4f(0.0f, 0.0f, 0.0f, 0.5f);
-        glBegin(GL_QUADS);
-        glVertex2f(0, 0);
-        glVertex2f(width, 0);
-        glVertex2f(width, height);
-        glVertex2f(0, height);
-        glEnd();
-        
-        glDisable(GL_BLEND);
+        meshRenderer.drawOverlay(0.0f, 0.0f, 0.0f, 0.5f);
         
         // Pause text (placeholder)
         System.out.println("PAUSED - Press P to resume, ESC for menu");
-        
-        // Restore matrices
-        glPopMatrix();
-        glMatrixMode(GL_PROJECTION);
-        glPopMatrix();
-        glMatrixMode(GL_MODELVIEW);
     }
     
     /**
@@ -710,61 +984,105 @@ public class Graphics {
     /**
      * Render default fallback
      */
-    private void renderDefault() {
+    private void renderDefault(RenderSnapshot snapshot) {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
-        glClearColor(0.2f, 0.0f, 0.2f, 1.0f); // Purple background for unknown states
+        setClearColor(0.2f, 0.0f, 0.2f, 1.0f); // Purple background for unknown states
+        beginWorldFrame(snapshot);
         renderDemoCube();
     }
     
+    /**
+     * Set the clear color through the renderer's state cache (no-op without a context)
+     */
+    private void setClearColor(float r, float g, float b, float a) {
+        if (meshRenderer != null) {
+            meshRenderer.getStateCache().clearColor(r, g, b, a);
+        }
+    }
+    
+    /**
+     * Track the snapshot's copied instances and rooms in the scene culler
+     */
+    private void syncCulledWorld(RenderSnapshot snapshot) {
+        sceneCuller.syncSnapshot(snapshot);
+    }
+    
+    /**
+     * Build the camera matrices from a snapshot, interpolated between its
+     * last two simulation steps, and bind them for world rendering
+     */
+    private void beginWorldFrame(RenderSnapshot snapshot) {
+        // Simple perspective projection
+        float aspectRatio = (float) width / height;
+        Matrix4.frustum(projectionMatrix, -aspectRatio, aspectRatio, -1.0f, 1.0f, 1.0f, 100.0f);
+        
+        // Apply camera transformations
+        Matrix4.identity(viewMatrix);
+        renderAlpha = snapshot.getAlpha(System.nanoTime());
+        snapshot.interpolateCamera(renderAlpha, renderCamera);
+        Matrix4.rotateX(viewMatrix, renderCamera[3]);
+        Matrix4.rotateY(viewMatrix, renderCamera[4]);
+        Matrix4.rotateZ(viewMatrix, renderCamera[5]);
+        Matrix4.translate(viewMatrix, -renderCamera[0], -renderCamera[1], -renderCamera[2]);
+        
+        meshRenderer.beginFrame(projectionMatrix, viewMatrix);
+        
+        // Bin visible lights into clusters for the forward-point/spot passes
+        if (buildLightClusters(clusteredLighting, interpolateLights(snapshot, renderAlpha),
+                               viewMatrix, projectionMatrix)) {
+            clusteredLighting.upload(meshRenderer.getStreamingBuffer());
+        }
+    }
+    
+    /**
+     * Blend a snapshot's light positions for this frame into the render-side buffer
+     * @return The interpolated lights, or null if the frame carries none
+     */
+    private LightBuffer interpolateLights(RenderSnapshot snapshot, float alpha) {
+        LightBuffer lights = snapshot.getLightBuffer();
+        if (lights == null) {
+            return null;
+        }
+        if (renderLights == null || renderLights.getCapacity() != lights.getCapacity()) {
+            renderLights = new LightBuffer(lights.getCapacity());
+        }
+        return snapshot.interpolateLights(alpha, renderLights);
+    }
+    
+    /**
+     * Bin a frame's lights into clusters for the view
+     * @param lights Lights to bin, or null if the frame has none
+     * @return true if the clusters were rebuilt and need uploading, false
+     *         if the frame carries no light buffer (no light manager attached)
+     */
+    static boolean buildLightClusters(ClusteredLighting clusters, LightBuffer lights, 
+                                      float[] viewMatrix, float[] projectionMatrix) {
+        if (lights == null) {
+            return false;
+        }
+        clusters.build(lights, viewMatrix, projectionMatrix, 1.0f, 100.0f);
+        return true;
+    }
+    
     /**
      * Render a simple demo cube
      */
     private void renderDemoCube() {
-        glBegin(GL_QUADS);
-        
-        // Front face
-        glColor3f(1.0f, 0.0f, 0.0f);
-        glVertex3f(-1.0f, -1.0f, 1.0f);
-        glVertex3f( 1.0f, -1.0f, 1.0f);
-        glVertex3f( 1.0f,  1.0f, 1.0f);
-        glVertex3f(-1.0f,  1.0f, 1.0f);
-        
-        // Back face
-        glColor3f(0.0f, 1.0f, 0.0f);
-        glVertex3f(-1.0f, -1.0f, -1.0f);
-        glVertex3f(-1.0f,  1.0f, -1.0f);
-        glVertex3f( 1.0f,  1.0f, -1.0f);
-        glVertex3f( 1.0f, -1.0f, -1.0f);
-        
-        // Top face
-        glColor3f(0.0f, 0.0f, 1.0f);
-        glVertex3f(-1.0f,  1.0f, -1.0f);
-        glVertex3f(-1.0f,  1.0f,  1.0f);
-        glVertex3f( 1.0f,  1.0f,  1.0f);
-        glVertex3f( 1.0f,  1.0f, -1.0f);
-        
-        // Bottom face
-        glColor3f(1.0f, 1.0f, 0.0f);
-        glVertex3f(-1.0f, -1.0f, -1.0f);
-        glVertex3f( 1.0f, -1.0f, -1.0f);
-        glVertex3f( 1.0f, -1.0f,  1.0f);
-        glVertex3f(-1.0f, -1.0f,  1.0f);
-        
-        // Right face
-        glColor3f(1.0f, 0.0f, 1.0f);
-        glVertex3f( 1.0f, -1.0f, -1.0f);
-        glVertex3f( 1.0f,  1.0f, -1.0f);
-        glVertex3f( 1.0f,  1.0f,  1.0f);
-        glVertex3f( 1.0f, -1.0f,  1.0f);
-        
-        // Left face
-        glColor3f(0.0f, 1.0f, 1.0f);
-        glVertex3f(-1.0f, -1.0f, -1.0f);
-        glVertex3f(-1.0f, -1.0f,  1.0f);
-        glVertex3f(-1.0f,  1.0f,  1.0f);
-        glVertex3f(-1.0f,  1.0f, -1.0f);
-        
-        glEnd();
+        meshRenderer.drawWorld(demoCube);
+    }
+    
+    /**
+     * Build the demo cube mesh (2 units wide, one color per face)
+     */
+    private Mesh createDemoCubeMesh() {
+        MeshBuilder builder = new MeshBuilder(24);
+        builder.addFace( 0.0f,  1.0f,  0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f); // Top
+        builder.addFace( 0.0f,  0.0f,  1.0f, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 0.0f, 0.0f); // Front
+        builder.addFace( 1.0f,  0.0f,  0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f); // Right
+        builder.addFace(-1.0f,  0.0f,  0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 0.0f, 0.0f, 1.0f, 1.0f); // Left
+        builder.addFace( 0.0f, -1.0f,  0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 1.0f, 0.0f); // Bottom
+        builder.addFace( 0.0f,  0.0f, -1.0f, 0.0f, 1.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f); // Back
+        return builder.build();
     }
     
     /**
@@ -777,6 +1095,24 @@ public class Graphics {
             return;
         }
         
+        // Release GPU resources while the context is still current
+        if (demoCube != null) {
+            demoCube.delete();
+            demoCube = null;
+        }
+        if (clusteredLighting != null) {
+            clusteredLighting.delete();
+            clusteredLighting = null;
+        }
+        if (meshRenderer != null) {
+            meshRenderer.cleanup();
+            meshRenderer = null;
+        }
+        if (shaderLibrary != null) {
+            shaderLibrary.cleanup();
+            shaderLibrary = null;
+        }
+        
         // Free the window callbacks and destroy the window
         if (window != 0) {
             Callbacks.glfwFreeCallbacks(window);
@@ -812,6 +1148,84 @@ public class Graphics {
         this.rotZ = z;
     }
     
+    /**
+     * Get the game clock: build attached systems on it (e.g.
+     * {@code new LightManager(graphics.getGameClock())}) so their timers
+     * pause, scale and step with the simulation
+     */
+    public GameClock getGameClock() {
+        return gameClock;
+    }
+    
+    /**
+     * Get the observation pass run after each simulation step: register
+     * monsters ({@link LookBasedMonster#observeWith}) and rooms (e.g.
+     * {@code new EnhancedRoomGenerator(getGameClock(), getObservationSystem())})
+     * with it
+     */
+    public ObservationSystem getObservationSystem() {
+        return observation;
+    }
+
+    /**
+     * Get the physics world stepped after each simulation step's input:
+     * attach monsters ({@link LookBasedMonster#setPhysicsWorld}) to it from
+     * the simulation thread
+     */
+    public PhysicsWorld getPhysicsWorld() {
+        return physics;
+    }
+    
+    /**
+     * Attach the light manager whose lights are clustered for forward shading
+     * @param lightManager Light manager, or null to disable clustering
+     */
+    public void setLightManager(LightManager lightManager) {
+        this.lightManager = lightManager;
+    }
+    
+    /**
+     * Attach the room generator whose rooms are drawn; only rooms visible
+     * through open doors from the player's room survive culling. Its walls,
+     * furniture and doors go into the physics world the player walks in.
+     * @param roomGenerator Room generator, or null to detach
+     */
+    public void setRoomGenerator(EnhancedRoomGenerator roomGenerator) {
+        EnhancedRoomGenerator previous = this.roomGenerator;
+        if (previous != null && previous != roomGenerator) {
+            previous.setPhysicsWorld(null);
+        }
+        if (roomGenerator != null) {
+            // Its walls, furniture and doors become bodies the player collides with
+            roomGenerator.setPhysicsWorld(physics);
+        }
+        this.roomGenerator = roomGenerator;
+    }
+    
+    /**
+     * Get the per-frame light clusters for binding to forward shaders
+     * @return Clustered lighting, or null in headless mode
+     */
+    public ClusteredLighting getClusteredLighting() {
+        return clusteredLighting;
+    }
+    
+    /**
+     * Get the last frame's draw call, bind and redundant state change counters
+     * @return One-line summary
+     */
+    public String getRenderStats() {
+        return meshRenderer != null ? meshRenderer.getFrameStats() : "Render: headless";
+    }
+    
+    /**
+     * Get the culler that decides which world objects and rooms are drawn
+     * @return Scene culler
+     */
+    public SceneCuller getSceneCuller() {
+        return sceneCuller;
+    }
+    
     /**
      * Get current state manager
      * @return State manager instance
@@ -829,31 +1243,8 @@ public class Graphics {
         public void onStateChanged(GameState oldState, GameState newState) {
             System.out.println("Graphics: State changed from " + oldState + " to " + newState);
             
-            // Handle graphics-specific state changes
-            switch (newState) {
-                case LOADING:
-                    // Reset graphics for loading
-                    glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-                    break;
-                    
-                case MAIN_MENU:
-                    // Set menu graphics
-                    glClearColor(0.1f, 0.1f, 0.3f, 1.0f);
-                    break;
-                    
-                case PLAYING:
-                    // Set gameplay graphics
-                    glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-                    glEnable(GL_DEPTH_TEST);
-                    break;
-                    
-                case PAUSED:
-                    // Graphics remain same as gameplay
-                    break;
-                    
-                default:
-                    break;
-            }
+            // Listeners run on the simulation thread: no GL calls here. The
+            // render thread sets clear color and depth state per snapshot state.
         }
         
         @Override
@@ -1,6 +1,9 @@
 package dontlookback;
 
 import dontlookback.interfaces.Monster;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * The Grue - Darkness Monster
@@ -15,6 +18,8 @@ import dontlookback.interfaces.Monster;
  * - Cannot be seen or fought, only avoided with light
  * - Represents ultimate fear of the unknown
  * - Makes camping in corners impossible
+ * - Spawns in the darkest of a ring of candidate spots around the player
+ * - Prefers spawn spots the player cannot see (with a {@link RaycastService})
  * 
  * @author DLB Team
  * @version 1.0
@@ -26,6 +31,9 @@ public class Grue extends BasicMonster {
     /** Time in darkness before grue becomes active (seconds) */
     private static final float DARKNESS_ACTIVATION_TIME = 5.0f;
     
+    /** Minimum distance grue must be from player when spawning */
+    private static final float MIN_SPAWN_DISTANCE = 8.0f;
+    
     /** Maximum distance grue can be from player when spawning */
     private static final float MAX_SPAWN_DISTANCE = 15.0f;
     
@@ -38,10 +46,21 @@ public class Grue extends BasicMonster {
     /** Warning distance - player gets audio cues when grue is this close */
     private static final float WARNING_DISTANCE = 5.0f;
     
+    /** Spawn candidates: directions around the player, and rings along each */
+    private static final int SPAWN_DIRECTIONS = 16;
+    private static final int SPAWN_RINGS = 4;
+    private static final int SPAWN_CANDIDATES = SPAWN_DIRECTIONS * SPAWN_RINGS;
+    
+    /** Height above the floor at which sight lines are tested */
+    private static final float SIGHT_LINE_HEIGHT = 1.0f;
+    
     // === Grue State ===
     
-    /** How long the area has been in darkness */
-    private float darknessTime;
+    /** Game time the player entered darkness, or -1 while in light */
+    private double darknessStart;
+    
+    /** Wakes the grue DARKNESS_ACTIVATION_TIME after darkness falls */
+    private final TimingWheel.Timer activationTimer;
     
     /** Whether the grue is currently active */
     private boolean isActive;
@@ -55,21 +74,55 @@ public class Grue extends BasicMonster {
     /** Whether the grue has killed the player */
     private boolean hasKilled;
     
+    /** Walls and furniture for choosing hidden spawn spots, or null */
+    private RaycastService lineOfSight;
+    
     /** Reference to light manager for darkness detection */
     private LightManager lightManager;
     
+    /** Spawn candidates (packed x, y, z) with their light levels and protection */
+    private final float[] spawnCandidates = new float[SPAWN_CANDIDATES * 3];
+    private final float[] spawnLevels = new float[SPAWN_CANDIDATES];
+    private final BitSet spawnProtected = new BitSet(SPAWN_CANDIDATES);
+    
+    /** Lights found near the grue, reused by every update */
+    private final List<LightSource> nearbyLights = new ArrayList<>();
+    
+    /** Source of game time for activation and audio cues */
+    private final GameClock clock;
+    
+    /** Whether this grue advances its own clock (no shared clock given) */
+    private final boolean ownsClock;
+    
     /** Audio cues for grue presence */
     private boolean isGrowling;
     private long lastGrowlTime;
     
     /**
-     * Create a grue instance
+     * Create a grue instance with its own clock, advanced by the deltaTime
+     * of each update
      * @param lightManager Reference to light management system
      */
     public Grue(LightManager lightManager) {
+        this(lightManager, GameClock.manual(), true);
+    }
+    
+    /**
+     * Create a grue instance on a shared game clock
+     * @param lightManager Reference to light management system
+     * @param clock Game clock, advanced by the game loop
+     */
+    public Grue(LightManager lightManager, GameClock clock) {
+        this(lightManager, clock, false);
+    }
+    
+    private Grue(LightManager lightManager, GameClock clock, boolean ownsClock) {
         super();
         this.lightManager = lightManager;
-        this.darknessTime = 0.0f;
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.activationTimer = clock.getTimers().newTimer(this::onDarknessTimer);
+        this.darknessStart = -1.0;
         this.isActive = false;
         this.targetPosition = new float[]{0.0f, 0.0f, 0.0f};
         this.lastWarningTime = 0;
@@ -98,16 +151,14 @@ public class Grue extends BasicMonster {
         // Store target position
         System.arraycopy(playerPosition, 0, targetPosition, 0, 3);
         
-        // Check if player is in darkness
-        boolean playerInDarkness = !lightManager.isPositionProtected(playerPosition);
+        // Check if player is in darkness (a lookup in the cached light field)
+        boolean playerInDarkness = !lightManager.isPositionProtectedCached(playerPosition);
         
         if (playerInDarkness) {
-            // Accumulate darkness time
-            darknessTime += deltaTime;
-            
-            // Activate grue after sufficient darkness time
-            if (darknessTime >= DARKNESS_ACTIVATION_TIME && !isActive) {
-                activateGrue();
+            // Darkness just fell: the grue wakes when the timer runs out
+            if (darknessStart < 0) {
+                darknessStart = clock.now();
+                clock.getTimers().scheduleAt(activationTimer, darknessStart + DARKNESS_ACTIVATION_TIME);
             }
             
             // Update active grue behavior
@@ -116,10 +167,25 @@ public class Grue extends BasicMonster {
             }
         } else {
             // Player is in light - deactivate grue
-            if (isActive || darknessTime > 0) {
+            if (isActive || darknessStart >= 0) {
                 deactivateGrue();
             }
         }
+        
+        // A private clock moves with the updates (firing a due activation);
+        // a shared one is advanced by the game loop
+        if (ownsClock && deltaTime > 0) {
+            clock.step(deltaTime);
+        }
+    }
+    
+    /**
+     * Activate after sufficient darkness time (activation timer action)
+     */
+    private void onDarknessTimer() {
+        if (!isActive) {
+            activateGrue();
+        }
     }
     
     /**
@@ -151,7 +217,8 @@ public class Grue extends BasicMonster {
         isActive = false;
         setVisible(false);
         setHostile(false);
-        darknessTime = 0.0f;
+        darknessStart = -1.0;
+        activationTimer.cancel();
         isGrowling = false;
         
         // Move grue away from play area
@@ -159,30 +226,65 @@ public class Grue extends BasicMonster {
     }
     
     /**
-     * Spawn the grue near the player
+     * Spawn the grue near the player, in the darkest unprotected spot of a
+     * ring of candidates (one out of the player's sight if there is one)
      */
     private void spawnNearPlayer() {
-        // Choose a random position near the player but outside light radius
+        // Candidates around the player at its height, starting from a random direction
         float angle = (float) (Math.random() * 2 * Math.PI);
-        float distance = 8.0f + (float) (Math.random() * (MAX_SPAWN_DISTANCE - 8.0f));
+        float ringWidth = (MAX_SPAWN_DISTANCE - MIN_SPAWN_DISTANCE) / SPAWN_RINGS;
+        for (int i = 0; i < SPAWN_CANDIDATES; i++) {
+            double direction = angle + (i % SPAWN_DIRECTIONS) * 2 * Math.PI / SPAWN_DIRECTIONS;
+            float distance = MIN_SPAWN_DISTANCE + (i / SPAWN_DIRECTIONS + (float) Math.random()) * ringWidth;
+            spawnCandidates[i * 3] = targetPosition[0] + (float) Math.cos(direction) * distance;
+            spawnCandidates[i * 3 + 1] = targetPosition[1];
+            spawnCandidates[i * 3 + 2] = targetPosition[2] + (float) Math.sin(direction) * distance;
+        }
+        lightManager.classifyPositions(spawnCandidates, SPAWN_CANDIDATES, spawnLevels, spawnProtected);
         
-        float spawnX = targetPosition[0] + (float) Math.cos(angle) * distance;
-        float spawnY = targetPosition[1]; // Same Y level as player
-        float spawnZ = targetPosition[2] + (float) Math.sin(angle) * distance;
+        // The darkest spot out of the light, preferring one hidden behind a wall
+        int best = -1;
+        boolean bestHidden = false;
+        for (int i = 0; i < SPAWN_CANDIDATES; i++) {
+            if (spawnProtected.get(i) || (bestHidden && spawnLevels[i] >= spawnLevels[best])) {
+                continue;
+            }
+            boolean hidden = lineOfSight != null &&
+                             isHiddenFromPlayer(spawnCandidates[i * 3], spawnCandidates[i * 3 + 1],
+                                                spawnCandidates[i * 3 + 2]);
+            if (best < 0 || (hidden && !bestHidden) ||
+                (hidden == bestHidden && spawnLevels[i] < spawnLevels[best])) {
+                best = i;
+                bestHidden = hidden;
+            }
+        }
         
-        // Ensure spawn position is not too close to any light source
-        float[] spawnPos = {spawnX, spawnY, spawnZ};
-        if (lightManager.isPositionProtected(spawnPos)) {
-            // Try opposite direction
-            spawnX = targetPosition[0] - (float) Math.cos(angle) * distance;
-            spawnZ = targetPosition[2] - (float) Math.sin(angle) * distance;
+        // Light everywhere: the dimmest spot
+        if (best < 0) {
+            best = 0;
+            for (int i = 1; i < SPAWN_CANDIDATES; i++) {
+                if (spawnLevels[i] < spawnLevels[best]) {
+                    best = i;
+                }
+            }
         }
         
+        float spawnX = spawnCandidates[best * 3];
+        float spawnY = spawnCandidates[best * 3 + 1];
+        float spawnZ = spawnCandidates[best * 3 + 2];
         setPosition(spawnX, spawnY, spawnZ);
         
         System.out.println("Grue spawned at: " + java.util.Arrays.toString(new float[]{spawnX, spawnY, spawnZ}));
     }
     
+    /**
+     * Check whether a wall or furniture blocks the player's view of a position
+     */
+    private boolean isHiddenFromPlayer(float x, float y, float z) {
+        return lineOfSight.raycastAny(targetPosition[0], targetPosition[1] + SIGHT_LINE_HEIGHT, targetPosition[2],
+                                      x, y + SIGHT_LINE_HEIGHT, z, this);
+    }
+    
     /**
      * Update active grue behavior
      * @param deltaTime Time since last update
@@ -251,7 +353,7 @@ public class Grue extends BasicMonster {
      * @param distance Distance to player
      */
     private void updateAudioCues(float distance) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nowMillis();
         
         // Warning sounds when grue is close
         if (distance < WARNING_DISTANCE) {
@@ -282,14 +384,16 @@ public class Grue extends BasicMonster {
      * Make grue avoid getting too close to light sources
      */
     private void avoidLightSources() {
-        // Check all light sources and avoid getting too close
-        for (LightSource light : lightManager.getActiveLights()) {
+        // Check the nearby light sources and avoid getting too close
+        int count = lightManager.getLightSourcesInRadius(positionX(), positionY(), positionZ(),
+                                                         MIN_LIGHT_DISTANCE, nearbyLights);
+        for (int i = 0; i < count; i++) {
+            LightSource light = nearbyLights.get(i);
             if (!light.isLit()) continue;
             
-            float[] lightPos = light.getCenter();
-            float dx = positionX() - lightPos[0];
-            float dy = positionY() - lightPos[1];
-            float dz = positionZ() - lightPos[2];
+            float dx = positionX() - light.getX();
+            float dy = positionY() - light.getY();
+            float dz = positionZ() - light.getZ();
             
             float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
             
@@ -368,6 +472,14 @@ public class Grue extends BasicMonster {
         return isActive;
     }
     
+    /**
+     * Use room geometry to spawn out of the player's sight
+     * @param lineOfSight Walls and furniture (e.g. {@link EnhancedRoomGenerator#getLineOfSight()}), or null
+     */
+    public void setLineOfSight(RaycastService lineOfSight) {
+        this.lineOfSight = lineOfSight;
+    }
+    
     /**
      * Check if the grue has killed the player
      * @return true if player is dead
@@ -381,7 +493,7 @@ public class Grue extends BasicMonster {
      * @return Darkness time in seconds
      */
     public float getDarknessTime() {
-        return darknessTime;
+        return darknessStart < 0 ? 0.0f : (float) (clock.now() - darknessStart);
     }
     
     /**
@@ -407,8 +519,8 @@ public class Grue extends BasicMonster {
      */
     public float getTimeUntilActivation() {
         if (isActive) return 0.0f;
-        if (darknessTime == 0.0f) return -1.0f;
-        return Math.max(0.0f, DARKNESS_ACTIVATION_TIME - darknessTime);
+        if (darknessStart < 0) return -1.0f;
+        return Math.max(0.0f, DARKNESS_ACTIVATION_TIME - getDarknessTime());
     }
     
     // === Monster Interface Overrides ===
@@ -432,7 +544,7 @@ public class Grue extends BasicMonster {
     public int state() {
         if (hasKilled) return 5;     // Victory state
         if (isActive) return 4;      // Hunting state
-        if (darknessTime > 0) return 2; // Awakening state
+        if (darknessStart >= 0) return 2; // Awakening state
         return 1;                    // Dormant state
     }
     
@@ -444,7 +556,6 @@ public class Grue extends BasicMonster {
     public void reset() {
         deactivateGrue();
         hasKilled = false;
-        darknessTime = 0.0f;
         setPosition(-1000.0f, -1000.0f, -1000.0f);
         System.out.println("Grue reset to dormant state");
     }
@@ -453,7 +564,8 @@ public class Grue extends BasicMonster {
      * Force activate grue for testing
      */
     public void forceActivate() {
-        darknessTime = DARKNESS_ACTIVATION_TIME;
+        darknessStart = clock.now() - DARKNESS_ACTIVATION_TIME;
+        activationTimer.cancel();
         activateGrue();
     }
     
@@ -461,7 +573,7 @@ public class Grue extends BasicMonster {
     public String toString() {
         return "Grue{" +
                 "active=" + isActive +
-                ", darknessTime=" + String.format("%.1f", darknessTime) +
+                ", darknessTime=" + String.format("%.1f", getDarknessTime()) +
                 ", distanceToPlayer=" + (isActive ? String.format("%.1f", calculateDistanceToPlayer()) : "N/A") +
                 ", hasKilled=" + hasKilled +
                 ", threatening=" + isThreatening() +
@@ -0,0 +1,115 @@
+package dontlookback;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Input Event Queue for Don't Look Back
+ *
+ * Carries key events from the GLFW callbacks (window thread) to the
+ * simulation thread. A fixed ring of packed events with one writer and one
+ * reader, so posting an event never blocks the window thread or allocates.
+ *
+ * Features:
+ * - Single-producer / single-consumer ring, lock-free
+ * - Events packed into a long: key, action and modifier bits
+ * - Events that do not fit are dropped and counted (the ring is sized for
+ *   many frames of typing, so this only happens if the simulation stalls)
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class InputQueue {
+
+    /** Returned by {@link #poll()} when no event is waiting */
+    public static final long EMPTY = -1L;
+
+    private final long[] events;
+    private final int mask;
+
+    /** Next slot to read (consumer) and to write (producer) */
+    private final AtomicInteger head = new AtomicInteger(0);
+    private final AtomicInteger tail = new AtomicInteger(0);
+
+    private volatile int dropped = 0;
+
+    /**
+     * Create a queue
+     * @param capacity Maximum queued events, rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        events = new long[Math.max(size, 2)];
+        mask = events.length - 1;
+    }
+
+    // === Producer Side ===
+
+    /**
+     * Post a key event (window thread)
+     * @param key GLFW key code
+     * @param action GLFW_PRESS, GLFW_RELEASE or GLFW_REPEAT
+     * @param mods GLFW modifier bits
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(int key, int action, int mods) {
+        int t = tail.get();
+        if (t - head.get() == events.length) {
+            dropped++;
+            return false;
+        }
+        events[t & mask] = pack(key, action, mods);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // === Consumer Side ===
+
+    /**
+     * Take the oldest event (simulation thread)
+     * @return Packed event, or {@link #EMPTY}
+     */
+    public long poll() {
+        int h = head.get();
+        if (h == tail.get()) {
+            return EMPTY;
+        }
+        long event = events[h & mask];
+        head.lazySet(h + 1);
+        return event;
+    }
+
+    /**
+     * Get the number of events waiting
+     */
+    public int size() {
+        return tail.get() - head.get();
+    }
+
+    public int getDroppedCount() {
+        return dropped;
+    }
+
+    // === Event Packing ===
+
+    /**
+     * Pack an event: key in the high 32 bits, action and modifiers below
+     */
+    public static long pack(int key, int action, int mods) {
+        return ((long) key << 32) | ((long) (action & 0xFF) << 16) | (mods & 0xFFFF);
+    }
+
+    public static int keyOf(long event) {
+        return (int) (event >> 32);
+    }
+
+    public static int actionOf(long event) {
+        return (int) ((event >>> 16) & 0xFF);
+    }
+
+    public static int modsOf(long event) {
+        return (int) (event & 0xFFFF);
+    }
+}
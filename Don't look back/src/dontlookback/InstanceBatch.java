@@ -0,0 +1,288 @@
+package dontlookback;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Instance Batch for Don't Look Back
+ *
+ * Gathers many copies of one shared mesh into a per-instance attribute
+ * buffer so they are drawn with a single glDrawElementsInstanced call.
+ * Draw-call count stays flat no matter how many cubes a room contains.
+ *
+ * Features:
+ * - Per-instance center, width, yaw and rgb (8 floats per instance)
+ * - Own VAO that reuses the mesh's vertex and index buffers
+ * - Dirty tracking: unchanged batches are not re-uploaded
+ * - Static (upload once) or streaming (rebuilt each frame) usage
+ * - Streaming batches write into the shared {@link StreamingBuffer} ring
+ * - CPU side usable in headless mode; GPU objects are created on first draw
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class InstanceBatch {
+
+    // === Instance Layout ===
+
+    /** Attribute location of (center.xyz, width) */
+    public static final int ATTRIB_INSTANCE_TRANSFORM = 3;
+
+    /** Attribute location of (yaw, r, g, b) */
+    public static final int ATTRIB_INSTANCE_YAW_COLOR = 4;
+
+    /** Floats per instance */
+    public static final int FLOATS_PER_INSTANCE = 8;
+
+    /** Byte stride of one instance */
+    public static final int INSTANCE_STRIDE_BYTES = FLOATS_PER_INSTANCE * Float.BYTES;
+
+    // === Instance Data ===
+
+    /** Shared mesh drawn for every instance */
+    private final Mesh mesh;
+
+    /** Whether the batch is rebuilt every frame */
+    private final boolean streaming;
+
+    /** CPU copy of the instance attributes */
+    private float[] instanceData;
+
+    /** Number of instances in the batch */
+    private int instanceCount = 0;
+
+    /** Whether CPU data changed since the last upload */
+    private boolean dirty = true;
+
+    // === GPU State ===
+
+    /** Vertex array combining mesh and instance buffers */
+    private int vao = 0;
+
+    /** Per-instance attribute buffer */
+    private int instanceVbo = 0;
+
+    /** Capacity of the GPU buffer in instances */
+    private int gpuCapacity = 0;
+
+    /** Buffer and offset the instance attributes currently point at */
+    private int attribBuffer = 0;
+    private int attribOffset = -1;
+
+    /** Staging buffer for uploads */
+    private FloatBuffer staging;
+
+    /**
+     * Create a batch for a shared mesh
+     * @param mesh Mesh drawn once per instance
+     * @param initialCapacity Expected number of instances
+     * @param streaming True if the batch is rebuilt every frame
+     */
+    public InstanceBatch(Mesh mesh, int initialCapacity, boolean streaming) {
+        this.mesh = mesh;
+        this.streaming = streaming;
+        this.instanceData = new float[Math.max(1, initialCapacity) * FLOATS_PER_INSTANCE];
+    }
+
+    // === Building ===
+
+    /**
+     * Remove all instances (capacity is kept)
+     */
+    public void clear() {
+        instanceCount = 0;
+        dirty = true;
+    }
+
+    /**
+     * Append one instance
+     * @param yawRadians Rotation around the vertical axis in radians
+     */
+    public void add(float x, float y, float z, float width, float yawRadians, float r, float g, float b) {
+        int offset = instanceCount * FLOATS_PER_INSTANCE;
+        if (offset + FLOATS_PER_INSTANCE > instanceData.length) {
+            instanceData = Arrays.copyOf(instanceData, instanceData.length * 2);
+        }
+        instanceData[offset] = x;
+        instanceData[offset + 1] = y;
+        instanceData[offset + 2] = z;
+        instanceData[offset + 3] = width;
+        instanceData[offset + 4] = yawRadians;
+        instanceData[offset + 5] = r;
+        instanceData[offset + 6] = g;
+        instanceData[offset + 7] = b;
+        instanceCount++;
+        dirty = true;
+    }
+
+    // === Drawing ===
+
+    /**
+     * Upload (if changed) and draw all instances with the bound program
+     * @return True if a draw call was issued
+     */
+    public boolean draw() {
+        return draw(null);
+    }
+
+    /**
+     * Draw all instances, streaming the data through a shared ring buffer
+     * when this is a streaming batch. Falls back to the batch's own buffer
+     * if no stream is given or the frame region is full.
+     * @param stream Frame streaming buffer, or null
+     * @return True if a draw call was issued
+     */
+    public boolean draw(StreamingBuffer stream) {
+        if (instanceCount == 0 || mesh.isDeleted()) {
+            return false;
+        }
+        if (vao == 0) {
+            createVertexArray();
+        }
+        glBindVertexArray(vao);
+
+        int streamOffset = (streaming && stream != null) ? streamInstances(stream) : -1;
+        if (streamOffset >= 0) {
+            pointInstanceAttributes(stream.getBufferId(), streamOffset);
+        } else {
+            if (dirty) {
+                upload();
+            }
+            pointInstanceAttributes(instanceVbo, 0);
+        }
+
+        glDrawElementsInstanced(GL_TRIANGLES, mesh.getIndexCount(), GL_UNSIGNED_INT, 0L, instanceCount);
+        glBindVertexArray(0);
+        return true;
+    }
+
+    /**
+     * Release the batch's VAO and instance buffer (the mesh is not owned)
+     */
+    public void delete() {
+        if (instanceVbo != 0) {
+            glDeleteBuffers(instanceVbo);
+            instanceVbo = 0;
+            gpuCapacity = 0;
+        }
+        if (vao != 0) {
+            glDeleteVertexArrays(vao);
+            vao = 0;
+        }
+        attribBuffer = 0;
+        attribOffset = -1;
+        dirty = true;
+    }
+
+    // === Accessors ===
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public Mesh getMesh() {
+        return mesh;
+    }
+
+    /**
+     * Get a trimmed copy of the instance attributes
+     */
+    public float[] getInstanceData() {
+        return Arrays.copyOf(instanceData, instanceCount * FLOATS_PER_INSTANCE);
+    }
+
+    // === Helper Methods ===
+
+    private void createVertexArray() {
+        vao = glGenVertexArrays();
+        glBindVertexArray(vao);
+
+        // Per-vertex attributes come straight from the shared mesh buffers
+        glBindBuffer(GL_ARRAY_BUFFER, mesh.getVbo());
+        Mesh.enableVertexLayout();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, mesh.getEbo());
+
+        // Per-instance attributes advance once per instance; their source
+        // buffer is attached at draw time (own buffer or streaming ring)
+        glEnableVertexAttribArray(ATTRIB_INSTANCE_TRANSFORM);
+        glVertexAttribDivisor(ATTRIB_INSTANCE_TRANSFORM, 1);
+        glEnableVertexAttribArray(ATTRIB_INSTANCE_YAW_COLOR);
+        glVertexAttribDivisor(ATTRIB_INSTANCE_YAW_COLOR, 1);
+
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Point the instance attributes of the bound VAO at a buffer range
+     */
+    private void pointInstanceAttributes(int sourceBuffer, int byteOffset) {
+        if (sourceBuffer == attribBuffer && byteOffset == attribOffset) {
+            return;
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, sourceBuffer);
+        glVertexAttribPointer(ATTRIB_INSTANCE_TRANSFORM, 4, GL_FLOAT, false, INSTANCE_STRIDE_BYTES, byteOffset);
+        glVertexAttribPointer(ATTRIB_INSTANCE_YAW_COLOR, 4, GL_FLOAT, false, INSTANCE_STRIDE_BYTES,
+                              byteOffset + 4L * Float.BYTES);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        attribBuffer = sourceBuffer;
+        attribOffset = byteOffset;
+    }
+
+    /**
+     * Copy the instance data into this frame's streaming region
+     * @return Byte offset of the data, or -1 if the region is full
+     */
+    private int streamInstances(StreamingBuffer stream) {
+        int bytes = instanceCount * INSTANCE_STRIDE_BYTES;
+        int offset = stream.allocate(bytes, INSTANCE_STRIDE_BYTES);
+        if (offset < 0) {
+            return -1;
+        }
+        ByteBuffer out = stream.getWriteBuffer();
+        int floats = instanceCount * FLOATS_PER_INSTANCE;
+        for (int i = 0; i < floats; i++) {
+            out.putFloat(offset + i * Float.BYTES, instanceData[i]);
+        }
+        stream.commit(offset, bytes);
+        return offset;
+    }
+
+    private void upload() {
+        if (instanceVbo == 0) {
+            instanceVbo = glGenBuffers();
+        }
+        int floats = instanceCount * FLOATS_PER_INSTANCE;
+        if (staging == null || staging.capacity() < floats) {
+            staging = BufferUtils.createFloatBuffer(instanceData.length);
+        }
+        staging.clear();
+        staging.put(instanceData, 0, floats);
+        staging.flip();
+
+        int usage = streaming ? GL_STREAM_DRAW : GL_STATIC_DRAW;
+        glBindBuffer(GL_ARRAY_BUFFER, instanceVbo);
+        if (instanceCount > gpuCapacity || streaming) {
+            // Grow, or orphan the old storage so the driver never stalls on in-flight draws
+            gpuCapacity = Math.max(instanceCount, gpuCapacity);
+            glBufferData(GL_ARRAY_BUFFER, (long) gpuCapacity * INSTANCE_STRIDE_BYTES, usage);
+        }
+        glBufferSubData(GL_ARRAY_BUFFER, 0L, staging);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        dirty = false;
+    }
+}
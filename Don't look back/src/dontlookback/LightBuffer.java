@@ -0,0 +1,424 @@
+package dontlookback;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * Light Buffer for Don't Look Back
+ *
+ * Packed structure-of-arrays store of the per-frame light data: position,
+ * radius, intensity, color, flags and spot cone, one column per field.
+ * {@link LightManager} keeps one slot per active light and rewrites the
+ * slots once per update, so lighting loops run over flat float columns
+ * instead of walking LightSource objects, and the renderer can hand the
+ * whole array to the GPU as it is.
+ *
+ * Features:
+ * - One float[] holding {@link #COLUMNS} columns of {@link #getCapacity()}
+ *   entries each (column c, slot i at {@code c * capacity + i})
+ * - Dense slots: removal moves the last light into the hole and updates
+ *   its handle
+ * - Batch light-level evaluation of many points against every light, in
+ *   branch-free inner loops over the columns
+ * - Verbatim copies between buffers (render snapshots, GPU staging)
+ * - A per-slot id that follows the light through moves and copies, so
+ *   copies from different steps pair up by light rather than by slot
+ *
+ * Intensities are stored on the LightType scale (0-300); flags are small
+ * integers stored as floats, so shaders read them with int(). Not
+ * thread-safe.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class LightBuffer {
+
+    // === Columns ===
+
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int Z = 2;
+    public static final int RADIUS = 3;
+    public static final int INTENSITY = 4;
+    public static final int RED = 5;
+    public static final int GREEN = 6;
+    public static final int BLUE = 7;
+    public static final int FLAGS = 8;
+    /** Spot direction (yaw 0 faces -Z, matching the camera) */
+    public static final int DIRECTION_X = 9;
+    public static final int DIRECTION_Z = 10;
+    /** Cosine of half the spread; -1 for omnidirectional lights */
+    public static final int CUTOFF = 11;
+
+    /** Number of columns */
+    public static final int COLUMNS = 12;
+
+    // === Flags ===
+
+    public static final int FLAG_LIT = 1;
+    public static final int FLAG_PORTABLE = 2;
+    public static final int FLAG_SPOT = 4;
+
+    /** LightType intensities are authored on a 0-300 scale; light levels use ~0-3 */
+    private static final float INTENSITY_SCALE = 100.0f;
+
+    /** Contribution floor at the edge of a light's radius (as in LightManager) */
+    private static final float MIN_FALLOFF = 0.1f;
+
+    private final int capacity;
+    private final float[] data;
+    private final LightSource[] lights;
+    /** Whether a slot is its light's handle (added rather than appended) */
+    private final boolean[] handles;
+    /** Id of the light occupying each slot; 0 for empty slots */
+    private final int[] ids;
+    private int nextId = 1;
+    private int count;
+
+    /**
+     * Create an empty light buffer
+     * @param capacity Maximum number of lights
+     */
+    public LightBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.data = new float[capacity * COLUMNS];
+        this.lights = new LightSource[capacity];
+        this.handles = new boolean[capacity];
+        this.ids = new int[capacity];
+    }
+
+    // === Slots ===
+
+    /**
+     * Give a light a slot and write its current state; the light keeps the
+     * slot as its handle (a light has a slot in one buffer at a time)
+     * @return The light's slot
+     */
+    public int add(LightSource light) {
+        if (light == null) {
+            throw new IllegalArgumentException("Light must not be null");
+        }
+        if (light.bufferSlot >= 0 && light.bufferSlot < count && lights[light.bufferSlot] == light &&
+            handles[light.bufferSlot]) {
+            throw new IllegalArgumentException("Light already has a slot: " + light.bufferSlot);
+        }
+        if (count == capacity) {
+            throw new IllegalStateException("Light buffer full: " + capacity);
+        }
+        int slot = count++;
+        lights[slot] = light;
+        handles[slot] = true;
+        ids[slot] = takeId();
+        light.bufferSlot = slot;
+        writeSlot(slot, light);
+        return slot;
+    }
+
+    /**
+     * Write a light's current state into a new slot without making it the
+     * light's handle (for buffers rebuilt every frame)
+     * @return The slot written
+     */
+    public int append(LightSource light) {
+        if (count == capacity) {
+            throw new IllegalStateException("Light buffer full: " + capacity);
+        }
+        int slot = count++;
+        lights[slot] = light;
+        ids[slot] = takeId();
+        writeSlot(slot, light);
+        return slot;
+    }
+
+    /**
+     * Free a light's slot, moving the last light into it
+     */
+    public void remove(LightSource light) {
+        int slot = slotOf(light);
+        int last = --count;
+        if (slot != last) {
+            for (int c = 0; c < COLUMNS; c++) {
+                data[c * capacity + slot] = data[c * capacity + last];
+            }
+            lights[slot] = lights[last];
+            handles[slot] = handles[last];
+            ids[slot] = ids[last];
+            if (handles[slot]) {
+                lights[slot].bufferSlot = slot;
+            }
+        }
+        for (int c = 0; c < COLUMNS; c++) {
+            data[c * capacity + last] = 0.0f;
+        }
+        lights[last] = null;
+        handles[last] = false;
+        ids[last] = 0;
+        light.bufferSlot = -1;
+    }
+
+    /**
+     * Copy a light's current state into its slot
+     */
+    public void write(LightSource light) {
+        writeSlot(slotOf(light), light);
+    }
+
+    private void writeSlot(int slot, LightSource light) {
+        boolean lit = light.isLit() && !light.isConsumed();
+        float spread = light.spread();
+        int flags = (lit ? FLAG_LIT : 0) |
+                    (light.getLightType().isPortable() ? FLAG_PORTABLE : 0) |
+                    (spread < 360.0f ? FLAG_SPOT : 0);
+        Color color = light.getLightColor();
+        float yaw = (float) Math.toRadians(light.getOrientation());
+
+        data[X * capacity + slot] = light.getX();
+        data[Y * capacity + slot] = light.getY();
+        data[Z * capacity + slot] = light.getZ();
+        data[RADIUS * capacity + slot] = light.getCurrentRadius();
+        data[INTENSITY * capacity + slot] = light.getCurrentIntensity();
+        data[RED * capacity + slot] = color.getRed() / 255.0f;
+        data[GREEN * capacity + slot] = color.getGreen() / 255.0f;
+        data[BLUE * capacity + slot] = color.getBlue() / 255.0f;
+        data[FLAGS * capacity + slot] = flags;
+        data[DIRECTION_X * capacity + slot] = (float) Math.sin(yaw);
+        data[DIRECTION_Z * capacity + slot] = (float) -Math.cos(yaw);
+        data[CUTOFF * capacity + slot] = (float) Math.cos(Math.toRadians(Math.min(spread, 360.0f) * 0.5f));
+    }
+
+    /**
+     * Rewrite every slot from its light
+     */
+    public void writeAll() {
+        for (int slot = 0; slot < count; slot++) {
+            writeSlot(slot, lights[slot]);
+        }
+    }
+
+    /**
+     * Copy another buffer's columns verbatim (the lights stay with the source)
+     */
+    public void copyFrom(LightBuffer source) {
+        if (source.capacity != capacity) {
+            throw new IllegalArgumentException("Capacity mismatch: " + source.capacity + " vs " + capacity);
+        }
+        clear();
+        System.arraycopy(source.data, 0, data, 0, data.length);
+        System.arraycopy(source.ids, 0, ids, 0, source.count);
+        count = source.count;
+    }
+
+    /**
+     * Copy a buffer's lights into a new buffer just large enough to hold
+     * them (for copies that are kept, e.g. published snapshots)
+     * @return A copy holding the same slots and ids, without the lights
+     */
+    public static LightBuffer compactCopy(LightBuffer source) {
+        LightBuffer copy = new LightBuffer(Math.max(1, source.count));
+        for (int c = 0; c < COLUMNS; c++) {
+            System.arraycopy(source.data, c * source.capacity, copy.data, c * copy.capacity, source.count);
+        }
+        System.arraycopy(source.ids, 0, copy.ids, 0, source.count);
+        copy.count = source.count;
+        return copy;
+    }
+
+    /**
+     * Whether a buffer holds the same lights with the same values in the
+     * same slots
+     */
+    public boolean sameContents(LightBuffer other) {
+        if (other.count != count) {
+            return false;
+        }
+        for (int slot = 0; slot < count; slot++) {
+            if (ids[slot] != other.ids[slot]) {
+                return false;
+            }
+        }
+        for (int c = 0; c < COLUMNS; c++) {
+            if (!Arrays.equals(data, c * capacity, c * capacity + count,
+                               other.data, c * other.capacity, c * other.capacity + count)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blend slot positions from an earlier copy of the same buffer toward
+     * this buffer's (render-side interpolation). Only slots still holding
+     * the same light as in the earlier copy move; lights added, removed or
+     * moved to another slot in between stay where they are now.
+     * @param previous Copy taken one simulation step earlier
+     * @param alpha 0 (previous positions) to 1 (this buffer's)
+     */
+    public void interpolatePositions(LightBuffer previous, float alpha) {
+        if (previous.capacity != capacity) {
+            return;
+        }
+        int shared = Math.min(count, previous.count);
+        for (int slot = 0; slot < shared; slot++) {
+            if (ids[slot] != previous.ids[slot]) {
+                continue;
+            }
+            for (int column = X; column <= Z; column++) {
+                int at = column * capacity + slot;
+                float from = previous.data[at];
+                data[at] = from + (data[at] - from) * alpha;
+            }
+        }
+    }
+
+    /**
+     * Drop every light
+     */
+    public void clear() {
+        for (int slot = 0; slot < count; slot++) {
+            if (handles[slot]) {
+                lights[slot].bufferSlot = -1;
+            }
+        }
+        Arrays.fill(lights, null);
+        Arrays.fill(handles, false);
+        Arrays.fill(ids, 0);
+        Arrays.fill(data, 0.0f);
+        count = 0;
+    }
+
+    // === Batch Evaluation ===
+
+    /**
+     * Add every light's contribution (LightManager's falloff: 1 - d^2/r^2,
+     * at least 0.1 inside the radius) to the levels of many points
+     * @param xyz Points, packed x, y, z
+     * @param points Number of points
+     * @param levels Per-point levels to add to (ambient light is up to the caller)
+     */
+    public void accumulateLevels(float[] xyz, int points, float[] levels) {
+        checkPoints(xyz, points, levels.length);
+        int xs = X * capacity, ys = Y * capacity, zs = Z * capacity;
+        int radii = RADIUS * capacity, intensities = INTENSITY * capacity;
+        for (int slot = 0; slot < count; slot++) {
+            float radius = data[radii + slot];
+            if (radius <= 0.0f) {
+                continue; // Unlit
+            }
+            float lx = data[xs + slot], ly = data[ys + slot], lz = data[zs + slot];
+            float radiusSquared = radius * radius;
+            float inverseRadiusSquared = 1.0f / radiusSquared;
+            float scale = data[intensities + slot] / INTENSITY_SCALE;
+            for (int p = 0, o = 0; p < points; p++, o += 3) {
+                float dx = xyz[o] - lx;
+                float dy = xyz[o + 1] - ly;
+                float dz = xyz[o + 2] - lz;
+                float distanceSquared = dx * dx + dy * dy + dz * dz;
+                float falloff = Math.max(MIN_FALLOFF, 1.0f - distanceSquared * inverseRadiusSquared);
+                levels[p] += distanceSquared <= radiusSquared ? scale * falloff : 0.0f;
+            }
+        }
+    }
+
+    /**
+     * Count, for many points, the lit lights whose radius reaches each point
+     * @param counts Per-point counts to add to
+     */
+    public void accumulateReach(float[] xyz, int points, int[] counts) {
+        checkPoints(xyz, points, counts.length);
+        int xs = X * capacity, ys = Y * capacity, zs = Z * capacity, radii = RADIUS * capacity;
+        for (int slot = 0; slot < count; slot++) {
+            float radius = data[radii + slot];
+            if (radius <= 0.0f) {
+                continue;
+            }
+            float lx = data[xs + slot], ly = data[ys + slot], lz = data[zs + slot];
+            float radiusSquared = radius * radius;
+            for (int p = 0, o = 0; p < points; p++, o += 3) {
+                float dx = xyz[o] - lx;
+                float dy = xyz[o + 1] - ly;
+                float dz = xyz[o + 2] - lz;
+                counts[p] += dx * dx + dy * dy + dz * dz <= radiusSquared ? 1 : 0;
+            }
+        }
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get a value of a slot
+     * @param column One of the column constants
+     */
+    public float get(int column, int slot) {
+        if (column < 0 || column >= COLUMNS || slot < 0 || slot >= count) {
+            throw new IllegalArgumentException("Invalid column/slot: " + column + "/" + slot);
+        }
+        return data[column * capacity + slot];
+    }
+
+    public int getFlags(int slot) {
+        return (int) get(FLAGS, slot);
+    }
+
+    /**
+     * Get the light in a slot (null in copies)
+     */
+    public LightSource getLight(int slot) {
+        if (slot < 0 || slot >= count) {
+            throw new IllegalArgumentException("Invalid slot: " + slot);
+        }
+        return lights[slot];
+    }
+
+    /**
+     * Get the id of the light in a slot (kept by copies, unique within the
+     * buffer that gave the light its slot)
+     */
+    public int getId(int slot) {
+        if (slot < 0 || slot >= count) {
+            throw new IllegalArgumentException("Invalid slot: " + slot);
+        }
+        return ids[slot];
+    }
+
+    /**
+     * Get the backing array (live view, do not modify): column c, slot i at c * capacity + i
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // === Helper Methods ===
+
+    private int takeId() {
+        int id = nextId++;
+        if (nextId <= 0) {
+            nextId = 1; // 0 marks empty slots
+        }
+        return id;
+    }
+
+    private int slotOf(LightSource light) {
+        int slot = light.bufferSlot;
+        if (slot < 0 || slot >= count || lights[slot] != light || !handles[slot]) {
+            throw new IllegalArgumentException("Light has no slot in this buffer");
+        }
+        return slot;
+    }
+
+    private static void checkPoints(float[] xyz, int points, int outLength) {
+        if (points < 0 || xyz.length < points * 3 || outLength < points) {
+            throw new IllegalArgumentException("Invalid point count: " + points);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Cached Light-Level Field for Don't Look Back
+ *
+ * Coarse grids of light levels, one per room-sized tile of the floor plan,
+ * that answer "how bright is it here" with a bilinear lookup instead of
+ * summing every light that reaches the point. Samples are computed on first
+ * use by an evaluator (the exact light sum) and kept; when a light changes,
+ * only the samples under its reach are marked stale, and they are computed
+ * again the next time a lookup needs them.
+ *
+ * Features:
+ * - Tiles made on demand, keyed by packed (x, layer, z) tile coordinates in
+ *   an open-addressing table (no boxing, no per-lookup allocation)
+ * - One flat float[] of samples per tile, NaN marking a stale sample
+ * - Region invalidation that touches only the samples it covers
+ * - Bilinear lookup between the four samples around a point
+ *
+ * Tiles are centered on multiples of the tile size, like the rooms of
+ * {@link EnhancedRoomGenerator}. Heights are snapped to layers: a tile
+ * samples the plane at its layer's height, so a lookup is exact at sample
+ * points on a layer and interpolated elsewhere. Not thread-safe.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class LightField {
+
+    /**
+     * Exact light level at a point (without ambient light)
+     */
+    public interface Evaluator {
+        float evaluate(float x, float y, float z);
+    }
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    /** Tile coordinates are packed into 21 bits each */
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private final float tileSize;
+    private final float spacing;
+    private final float layerHeight;
+    private final int samplesPerSide;
+    private final Evaluator evaluator;
+
+    // === Tiles (open addressing) ===
+
+    private long[] keys;
+    private float[][] tiles;
+    private int tileCount;
+
+    /** Statistics */
+    private int samplesEvaluated;
+
+    /**
+     * Create an empty light field
+     * @param tileSize Side of a tile (a room)
+     * @param spacing Distance between samples; should divide the tile size
+     * @param layerHeight Height between sampled planes
+     * @param evaluator Exact light level used to fill samples
+     */
+    public LightField(float tileSize, float spacing, float layerHeight, Evaluator evaluator) {
+        if (!(tileSize > 0.0f) || !(spacing > 0.0f) || spacing > tileSize || !(layerHeight > 0.0f)) {
+            throw new IllegalArgumentException("Invalid light field size: tile " + tileSize +
+                                               ", spacing " + spacing + ", layer " + layerHeight);
+        }
+        if (evaluator == null) {
+            throw new IllegalArgumentException("Evaluator must not be null");
+        }
+        this.tileSize = tileSize;
+        this.spacing = spacing;
+        this.layerHeight = layerHeight;
+        this.samplesPerSide = Math.round(tileSize / spacing) + 1;
+        this.evaluator = evaluator;
+        this.keys = new long[64];
+        this.tiles = new float[64][];
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    // === Lookup ===
+
+    /**
+     * Get the cached light level at a point, filling stale samples around it
+     */
+    public float sample(float x, float y, float z) {
+        int tileX = tileOf(x);
+        int tileZ = tileOf(z);
+        int layer = Math.round(y / layerHeight);
+        float[] tile = tile(tileX, layer, tileZ);
+
+        float u = (x - tileOrigin(tileX)) / spacing;
+        float v = (z - tileOrigin(tileZ)) / spacing;
+        int last = samplesPerSide - 2;
+        int i = Math.max(0, Math.min(last, (int) Math.floor(u)));
+        int j = Math.max(0, Math.min(last, (int) Math.floor(v)));
+        float fu = Math.max(0.0f, Math.min(1.0f, u - i));
+        float fv = Math.max(0.0f, Math.min(1.0f, v - j));
+
+        float s00 = sampleAt(tile, tileX, layer, tileZ, i, j);
+        float s10 = sampleAt(tile, tileX, layer, tileZ, i + 1, j);
+        float s01 = sampleAt(tile, tileX, layer, tileZ, i, j + 1);
+        float s11 = sampleAt(tile, tileX, layer, tileZ, i + 1, j + 1);
+        float near = s00 + (s10 - s00) * fu;
+        float far = s01 + (s11 - s01) * fu;
+        return near + (far - near) * fv;
+    }
+
+    private float sampleAt(float[] tile, int tileX, int layer, int tileZ, int i, int j) {
+        int index = j * samplesPerSide + i;
+        float value = tile[index];
+        if (Float.isNaN(value)) {
+            value = evaluator.evaluate(tileOrigin(tileX) + i * spacing, layer * layerHeight,
+                                       tileOrigin(tileZ) + j * spacing);
+            tile[index] = value;
+            samplesEvaluated++;
+        }
+        return value;
+    }
+
+    // === Invalidation ===
+
+    /**
+     * Mark every cached sample inside a box as stale
+     */
+    public void invalidate(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (tileCount == 0) {
+            return;
+        }
+        int fromLayer = (int) Math.ceil(minY / layerHeight);
+        int toLayer = (int) Math.floor(maxY / layerHeight);
+        int fromX = tileOf(minX), toX = tileOf(maxX);
+        int fromZ = tileOf(minZ), toZ = tileOf(maxZ);
+        for (int layer = fromLayer; layer <= toLayer; layer++) {
+            for (int tileX = fromX; tileX <= toX; tileX++) {
+                for (int tileZ = fromZ; tileZ <= toZ; tileZ++) {
+                    int slot = find(packTile(tileX, layer, tileZ));
+                    if (slot >= 0) {
+                        invalidateTile(tiles[slot], tileX, tileZ, minX, minZ, maxX, maxZ);
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalidateTile(float[] tile, int tileX, int tileZ,
+                                float minX, float minZ, float maxX, float maxZ) {
+        int fromI = Math.max(0, (int) Math.ceil((minX - tileOrigin(tileX)) / spacing));
+        int toI = Math.min(samplesPerSide - 1, (int) Math.floor((maxX - tileOrigin(tileX)) / spacing));
+        int fromJ = Math.max(0, (int) Math.ceil((minZ - tileOrigin(tileZ)) / spacing));
+        int toJ = Math.min(samplesPerSide - 1, (int) Math.floor((maxZ - tileOrigin(tileZ)) / spacing));
+        for (int j = fromJ; j <= toJ; j++) {
+            int row = j * samplesPerSide;
+            for (int i = fromI; i <= toI; i++) {
+                tile[row + i] = Float.NaN;
+            }
+        }
+    }
+
+    /**
+     * Mark every sample stale, keeping the tiles
+     */
+    public void invalidateAll() {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY_KEY) {
+                Arrays.fill(tiles[slot], Float.NaN);
+            }
+        }
+    }
+
+    /**
+     * Drop every tile (e.g. on level transitions)
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        Arrays.fill(tiles, null);
+        tileCount = 0;
+    }
+
+    // === Accessors ===
+
+    public float getTileSize() {
+        return tileSize;
+    }
+
+    public float getSpacing() {
+        return spacing;
+    }
+
+    public float getLayerHeight() {
+        return layerHeight;
+    }
+
+    /**
+     * Number of tiles made so far
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * Number of samples in one tile
+     */
+    public int getSamplesPerTile() {
+        return samplesPerSide * samplesPerSide;
+    }
+
+    /**
+     * Get and reset the number of samples computed by the evaluator
+     */
+    public int takeSamplesEvaluated() {
+        int count = samplesEvaluated;
+        samplesEvaluated = 0;
+        return count;
+    }
+
+    // === Tile Table ===
+
+    private int tileOf(float coordinate) {
+        return (int) Math.floor(coordinate / tileSize + 0.5f);
+    }
+
+    private float tileOrigin(int tile) {
+        return (tile - 0.5f) * tileSize;
+    }
+
+    private static long packTile(int tileX, int layer, int tileZ) {
+        return ((tileX & COORDINATE_MASK) << (2 * COORDINATE_BITS)) |
+               ((layer & COORDINATE_MASK) << COORDINATE_BITS) |
+               (tileZ & COORDINATE_MASK);
+    }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = home(key); keys[slot] != EMPTY_KEY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find a tile, making it (all samples stale) the first time
+     */
+    private float[] tile(int tileX, int layer, int tileZ) {
+        long key = packTile(tileX, layer, tileZ);
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return tiles[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((tileCount + 1) * 2 > keys.length) {
+            growTable();
+            return tile(tileX, layer, tileZ);
+        }
+        float[] tile = new float[samplesPerSide * samplesPerSide];
+        Arrays.fill(tile, Float.NaN);
+        keys[slot] = key;
+        tiles[slot] = tile;
+        tileCount++;
+        return tile;
+    }
+
+    private void growTable() {
+        long[] oldKeys = keys;
+        float[][] oldTiles = tiles;
+        keys = new long[oldKeys.length * 2];
+        tiles = new float[oldKeys.length * 2][];
+        Arrays.fill(keys, EMPTY_KEY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = home(oldKeys[i]);
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                tiles[slot] = oldTiles[i];
+            }
+        }
+    }
+}
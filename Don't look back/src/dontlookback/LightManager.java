@@ -1,7 +1,7 @@
 package dontlookback;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Light Management System for Don't Look Back
@@ -12,12 +12,29 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * 
  * Features:
  * - Global light source registry
- * - Position protection calculation
+ * - Position protection calculation over a spatial index of lit lights
+ * - Cached per-room light-level field for cheap "how bright is it here" lookups
+ * - Packed {@link LightBuffer} of every active light for batch evaluation and rendering
+ * - Batch darkness classification of many points, binned on a floor grid (spawn sampling, AI planning)
  * - Environmental lighting simulation
  * - Light flickering and failure events
  * - Power management systems
  * - Atmospheric lighting effects
  * 
+ * Lights tell their manager when they are lit, put out or moved, so the
+ * index stays current without rescanning; protection and light-level
+ * queries only look at lights whose full radius can reach the point, and
+ * compare squared distances.
+ * 
+ * Threading: additions, removals and light changes may come from any
+ * thread. They are queued without locks and applied by {@link #update} on
+ * the simulation thread, which owns the indexes, the light buffer and the
+ * field; the queries and the other mutators belong to that thread too.
+ * Added lights are moved onto the manager's clock there as well. Other
+ * threads (renderer, audio, AI) read the lights through the {@link Snapshot}
+ * published at the end of each update, which carries a copy of the light
+ * buffer; the LightSource objects it lists stay owned by the simulation.
+ * 
  * @author DLB Team
  * @version 1.0
  */
@@ -25,8 +42,8 @@ public class LightManager {
     
     // === Light Management Constants ===
     
-    /** Maximum number of active light sources */
-    private static final int MAX_ACTIVE_LIGHTS = 50;
+    /** Maximum number of active light sources (clustered shading keeps per-pixel cost flat) */
+    private static final int MAX_ACTIVE_LIGHTS = 512;
     
     /** Ambient light level (never completely dark for gameplay) */
     private static final float AMBIENT_LIGHT_LEVEL = 0.05f;
@@ -37,22 +54,94 @@ public class LightManager {
     /** Frequency of environmental light events (seconds) */
     private static final float EVENT_CHECK_INTERVAL = 5.0f;
     
+    /** Cell size of the light indexes (the largest light radius, a fireplace's) */
+    private static final float LIGHT_INDEX_CELL_SIZE = 5.0f;
+    
+    /** Times a nearest-light search widens before looking at every light */
+    private static final int NEAREST_SEARCH_ROUNDS = 3;
+    
+    /** Light field tiles match the room grid of {@link EnhancedRoomGenerator} */
+    private static final float LIGHT_FIELD_TILE_SIZE = 10.0f;
+    
+    /** Distance between light field samples */
+    private static final float LIGHT_FIELD_SPACING = 0.5f;
+    
+    /** Height between the sampled planes of the light field */
+    private static final float LIGHT_FIELD_LAYER_HEIGHT = 1.0f;
+    
+    /** Intensity change (1/100 of a light level) that makes a light redraw its part of the field */
+    private static final float LIGHT_FIELD_INTENSITY_TOLERANCE = 2.0f;
+    
+    /** Radius change that makes a light redraw its part of the field */
+    private static final float LIGHT_FIELD_RADIUS_TOLERANCE = 0.05f;
+    
+    /** Floor cells per point allowed when binning a batch of points */
+    private static final int CLASSIFY_CELLS_PER_POINT = 2;
+    
+    /** Queued changes per active light the queue has room for (adds, removals, light changes) */
+    private static final int CHANGE_QUEUE_FACTOR = 4;
+    
+    // === Change Operations ===
+    
+    private static final int CHANGE_ADD = 0;
+    private static final int CHANGE_REMOVE = 1;
+    private static final int CHANGE_LIGHT = 2;
+    
     // === Light Source Management ===
     
-    /** All active light sources in the world */
-    private final List<LightSource> activeLights;
+    /** Additions, removals and light changes from any thread, applied by update */
+    private final ChangeQueue<LightSource> changes;
+    private final ChangeQueue.Handler<LightSource> changeHandler;
+    private final ChangeQueue.Handler<LightSource> discardHandler;
+    
+    /** Active lights plus queued additions, so producers can respect the limit */
+    private final AtomicInteger reservedLights;
+    
+    /** Counts over the active lights, kept as lights come, go and change */
+    private int litCount;
+    private int consumedCount;
+    private int environmentalCount;
+    private int playerCount;
+    
+    /** Latest published view of the active lights, and whether it is out of date */
+    private volatile Snapshot snapshot;
+    private boolean snapshotDirty;
+    
+    // === Light Index ===
     
-    /** Light sources pending addition (thread-safe) */
-    private final Queue<LightSource> pendingAdditions;
+    /** Lit lights, each as a box around its full (unflickered) radius */
+    private final SpatialHash litIndex;
     
-    /** Light sources pending removal (thread-safe) */
-    private final Queue<LightSource> pendingRemovals;
+    /** Every active light as a point, for radius searches */
+    private final SpatialHash lightIndex;
     
-    /** Environmental light sources (fixed installations) */
-    private final List<LightSource> environmentalLights;
+    /** Query state shared with the index visitors */
+    private float queryX, queryY, queryZ;
+    private float queryLevel;
+    private LightSource queryNearest;
+    private float queryNearestDistanceSquared;
+    private List<LightSource> queryResults;
     
-    /** Player-owned light sources */
-    private final List<LightSource> playerLights;
+    /** Per-frame light data, one slot per active light; its slots are the active set */
+    private final LightBuffer lightBuffer;
+    
+    /** Cached light levels */
+    private final LightField lightField;
+    private final float[] fieldBounds = new float[6];
+    
+    /** Floor grid of the points of a batch query: point indexes sorted by cell, and where each cell starts */
+    private int[] binStarts = new int[0];
+    private int[] binnedPoints = new int[0];
+    private int[] pointBins = new int[0];
+    private float binMinX, binMinZ, binMaxX, binMaxZ;
+    private float binCellSize;
+    private int binColumns, binRows;
+    
+    /** Index visitors, made once so queries do not allocate */
+    private final SpatialHash.Visitor protectionVisitor;
+    private final SpatialHash.Visitor levelVisitor;
+    private final SpatialHash.Visitor nearestVisitor;
+    private final SpatialHash.Visitor radiusVisitor;
     
     // === Environmental Lighting ===
     
@@ -70,7 +159,10 @@ public class LightManager {
     
     // === State Tracking ===
     
-    /** Last update time for delta calculations */
+    /** Source of game time, shared with the managed lights */
+    private final GameClock clock;
+    
+    /** Game time of the last update (milliseconds) */
     private long lastUpdateTime;
     
     /** Statistics for debugging */
@@ -84,21 +176,46 @@ public class LightManager {
     private float lightFailureChance;
     
     /**
-     * Create a new Light Manager
+     * Create a new Light Manager on real time
      */
     public LightManager() {
-        this.activeLights = new CopyOnWriteArrayList<>();
-        this.pendingAdditions = new ArrayDeque<>();
-        this.pendingRemovals = new ArrayDeque<>();
-        this.environmentalLights = new ArrayList<>();
-        this.playerLights = new ArrayList<>();
+        this(new GameClock());
+    }
+    
+    /**
+     * Create a new Light Manager
+     * @param clock Game clock for light timers (flicker, burn time)
+     */
+    public LightManager(GameClock clock) {
+        this.clock = clock;
+        this.changes = new ChangeQueue<>(MAX_ACTIVE_LIGHTS * CHANGE_QUEUE_FACTOR);
+        this.changeHandler = this::applyChange;
+        this.discardHandler = this::discardChange;
+        this.reservedLights = new AtomicInteger(0);
+        this.snapshot = new Snapshot(0, new LightSource[0], new LightSource[0], new LightSource[0],
+                                     new LightBuffer(1), 0, 0);
+        this.lightBuffer = new LightBuffer(MAX_ACTIVE_LIGHTS);
+        this.litIndex = new SpatialHash(LIGHT_INDEX_CELL_SIZE);
+        this.lightIndex = new SpatialHash(LIGHT_INDEX_CELL_SIZE);
+        this.protectionVisitor = proxy -> !reaches((LightSource) litIndex.getUserData(proxy));
+        this.levelVisitor = proxy -> {
+            addLightContribution((LightSource) litIndex.getUserData(proxy));
+            return true;
+        };
+        this.nearestVisitor = proxy -> {
+            considerNearest((LightSource) litIndex.getUserData(proxy));
+            return true;
+        };
+        this.radiusVisitor = proxy -> queryResults.add((LightSource) lightIndex.getUserData(proxy));
+        this.lightField = new LightField(LIGHT_FIELD_TILE_SIZE, LIGHT_FIELD_SPACING, LIGHT_FIELD_LAYER_HEIGHT,
+                                         this::sumLightsAt);
         this.random = new Random();
         
         // Initialize environmental settings
         this.globalLightLevel = AMBIENT_LIGHT_LEVEL;
         this.powerAvailable = true;
         this.timeToNextEvent = EVENT_CHECK_INTERVAL;
-        this.lastUpdateTime = System.currentTimeMillis();
+        this.lastUpdateTime = clock.nowMillis();
         
         // Initialize settings
         this.enableFlickering = true;
@@ -111,31 +228,34 @@ public class LightManager {
     // === Light Source Registration ===
     
     /**
-     * Add a light source to the world
+     * Add a light source to the world (any thread; takes effect at the next update)
      * @param lightSource Light source to add
-     * @return true if successfully added
+     * @return true if successfully queued for addition
      */
     public boolean addLightSource(LightSource lightSource) {
         if (lightSource == null) {
             return false;
         }
         
-        synchronized (pendingAdditions) {
-            if (activeLights.size() + pendingAdditions.size() >= MAX_ACTIVE_LIGHTS) {
-                System.out.println("Warning: Maximum light sources reached, cannot add: " + 
-                                 lightSource.getLightType());
-                return false;
-            }
-            
-            pendingAdditions.offer(lightSource);
-            System.out.println("Light source queued for addition: " + lightSource.getLightType() + 
-                             " at " + Arrays.toString(lightSource.getCenter()));
-            return true;
+        if (reservedLights.incrementAndGet() > MAX_ACTIVE_LIGHTS) {
+            reservedLights.decrementAndGet();
+            System.out.println("Warning: Maximum light sources reached, cannot add: " + 
+                             lightSource.getLightType());
+            return false;
         }
+        
+        if (!changes.offer(CHANGE_ADD, lightSource)) {
+            reservedLights.decrementAndGet();
+            System.out.println("Warning: Light change queue full, cannot add: " + lightSource.getLightType());
+            return false;
+        }
+        System.out.println("Light source queued for addition: " + lightSource.getLightType() + 
+                         " at " + Arrays.toString(lightSource.getCenter()));
+        return true;
     }
     
     /**
-     * Remove a light source from the world
+     * Remove a light source from the world (any thread; takes effect at the next update)
      * @param lightSource Light source to remove
      * @return true if successfully queued for removal
      */
@@ -144,46 +264,243 @@ public class LightManager {
             return false;
         }
         
-        synchronized (pendingRemovals) {
-            pendingRemovals.offer(lightSource);
-            System.out.println("Light source queued for removal: " + lightSource.getLightType());
-            return true;
+        if (!changes.offer(CHANGE_REMOVE, lightSource)) {
+            System.out.println("Warning: Light change queue full, cannot remove: " + lightSource.getLightType());
+            return false;
         }
+        System.out.println("Light source queued for removal: " + lightSource.getLightType());
+        return true;
     }
     
     /**
-     * Process pending light source additions and removals
+     * Queue a light change after a light was lit, put out or moved (called
+     * by the light, from any thread); a light has at most one change queued
      */
-    private void processPendingChanges() {
-        // Process additions
-        synchronized (pendingAdditions) {
-            while (!pendingAdditions.isEmpty() && activeLights.size() < MAX_ACTIVE_LIGHTS) {
-                LightSource light = pendingAdditions.poll();
-                activeLights.add(light);
+    void lightChanged(LightSource light) {
+        if (light.changeQueued.compareAndSet(false, true) && !changes.offer(CHANGE_LIGHT, light)) {
+            light.changeQueued.set(false); // Picked up again by its next change
+        }
+    }
+    
+    /**
+     * Drop a queued change, releasing what it holds (when clearing)
+     */
+    private void discardChange(int operation, LightSource light) {
+        if (operation == CHANGE_ADD) {
+            reservedLights.decrementAndGet();
+        } else if (operation == CHANGE_LIGHT) {
+            light.changeQueued.set(false);
+        }
+    }
+    
+    /**
+     * Apply the queued additions, removals and light changes
+     */
+    private void applyChanges() {
+        changes.drain(changeHandler);
+    }
+    
+    private void applyChange(int operation, LightSource light) {
+        switch (operation) {
+            case CHANGE_ADD:
+                // The light runs on this manager's clock from now on
+                if (light.getManager() == null) {
+                    light.setClock(clock);
+                }
+                activateLight(light);
+                break;
                 
-                // Categorize light source
-                if (light.getLightType() == LightSource.LightType.FIREPLACE) {
-                    environmentalLights.add(light);
-                } else if (light.getLightType().isPortable()) {
-                    playerLights.add(light);
-                } else {
-                    environmentalLights.add(light);
+            case CHANGE_REMOVE:
+                if (light.getManager() == this) {
+                    deactivateLight(light);
+                    System.out.println("Light source removed: " + light.getLightType());
                 }
+                break;
                 
-                System.out.println("Light source added: " + light.getLightType());
+            case CHANGE_LIGHT:
+                // Cleared first: a change made from here on queues a new record
+                light.changeQueued.set(false);
+                if (light.getManager() == this) {
+                    applyLightState(light);
+                }
+                break;
+        }
+    }
+    
+    // === Light Index Maintenance ===
+    
+    /**
+     * Start tracking an added light in the active set and the indexes
+     */
+    private void activateLight(LightSource light) {
+        if (light.getManager() != null) {
+            reservedLights.decrementAndGet();
+            if (light.getManager() != this) {
+                System.out.println("Warning: Light source belongs to another manager, cannot add: " +
+                                 light.getLightType());
             }
+            return; // Already active
         }
+        light.setManager(this);
+        float x = light.getX(), y = light.getY(), z = light.getZ();
+        light.indexProxy = lightIndex.insert(light, x, y, z, x, y, z);
+        light.litProxy = -1;
+        light.countedLit = false;
+        light.countedConsumed = false;
+        lightBuffer.add(light);
+        applyLightState(light);
         
-        // Process removals
-        synchronized (pendingRemovals) {
-            while (!pendingRemovals.isEmpty()) {
-                LightSource light = pendingRemovals.poll();
-                activeLights.remove(light);
-                environmentalLights.remove(light);
-                playerLights.remove(light);
-                
-                System.out.println("Light source removed: " + light.getLightType());
+        // Categorize light source
+        if (isPlayerLight(light)) {
+            playerCount++;
+        } else {
+            environmentalCount++;
+        }
+        snapshotDirty = true;
+        
+        System.out.println("Light source added: " + light.getLightType());
+    }
+    
+    /**
+     * Stop tracking a removed light
+     */
+    private void deactivateLight(LightSource light) {
+        lightIndex.remove(light.indexProxy);
+        if (light.litProxy >= 0) {
+            invalidateLightField(light.litProxy);
+            litIndex.remove(light.litProxy);
+        }
+        lightBuffer.remove(light);
+        light.indexProxy = -1;
+        light.litProxy = -1;
+        light.setManager(null);
+        
+        if (light.countedLit) {
+            litCount--;
+        }
+        if (light.countedConsumed) {
+            consumedCount--;
+        }
+        if (isPlayerLight(light)) {
+            playerCount--;
+        } else {
+            environmentalCount--;
+        }
+        reservedLights.decrementAndGet();
+        snapshotDirty = true;
+    }
+    
+    /**
+     * Bring the indexes, buffer slot and counts in line with a light's
+     * current state
+     */
+    private void applyLightState(LightSource light) {
+        float x = light.getX(), y = light.getY(), z = light.getZ();
+        lightIndex.move(light.indexProxy, x, y, z, x, y, z);
+        lightBuffer.write(light);
+        
+        if (light.isLit() && !light.isConsumed()) {
+            // The current radius never exceeds the type's, whatever the fuel or flicker
+            float r = light.getLightType().getLightRadius();
+            if (light.litProxy < 0) {
+                light.litProxy = litIndex.insert(light, x - r, y - r, z - r, x + r, y + r, z + r);
+            } else {
+                invalidateLightField(light.litProxy);
+                litIndex.move(light.litProxy, x - r, y - r, z - r, x + r, y + r, z + r);
             }
+            invalidateLightField(light.litProxy);
+            light.fieldIntensity = light.getCurrentIntensity();
+            light.fieldRadius = light.getCurrentRadius();
+        } else if (light.litProxy >= 0) {
+            invalidateLightField(light.litProxy);
+            litIndex.remove(light.litProxy);
+            light.litProxy = -1;
+        }
+        
+        boolean lit = light.isLit();
+        if (lit != light.countedLit) {
+            litCount += lit ? 1 : -1;
+            light.countedLit = lit;
+            snapshotDirty = true;
+        }
+        boolean consumed = light.isConsumed();
+        if (consumed != light.countedConsumed) {
+            consumedCount += consumed ? 1 : -1;
+            light.countedConsumed = consumed;
+            snapshotDirty = true;
+        }
+    }
+    
+    private static boolean isPlayerLight(LightSource light) {
+        return light.getLightType() != LightSource.LightType.FIREPLACE && light.getLightType().isPortable();
+    }
+    
+    /**
+     * Mark the light field stale under a lit light's full reach
+     */
+    private void invalidateLightField(int litProxy) {
+        litIndex.getBounds(litProxy, fieldBounds);
+        lightField.invalidate(fieldBounds[0], fieldBounds[1], fieldBounds[2],
+                              fieldBounds[3], fieldBounds[4], fieldBounds[5]);
+    }
+    
+    /**
+     * Rewrite the light buffer after the lights updated, and redraw the
+     * field under lights that burned down or flickered past the tolerances
+     * since they were last drawn
+     */
+    private void refreshLightField() {
+        lightBuffer.writeAll();
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
+            if (light.litProxy < 0) {
+                continue;
+            }
+            float intensity = light.getCurrentIntensity();
+            float radius = light.getCurrentRadius();
+            if (Math.abs(intensity - light.fieldIntensity) > LIGHT_FIELD_INTENSITY_TOLERANCE ||
+                Math.abs(radius - light.fieldRadius) > LIGHT_FIELD_RADIUS_TOLERANCE) {
+                invalidateLightField(light.litProxy);
+                light.fieldIntensity = intensity;
+                light.fieldRadius = radius;
+            }
+        }
+    }
+    
+    private void setQueryPoint(float[] position) {
+        queryX = position[0];
+        queryY = position[1];
+        queryZ = position[2];
+    }
+    
+    private float distanceSquared(LightSource light) {
+        float dx = light.getX() - queryX;
+        float dy = light.getY() - queryY;
+        float dz = light.getZ() - queryZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+    
+    private boolean reaches(LightSource light) {
+        float radius = light.getCurrentRadius();
+        return radius > 0.0f && distanceSquared(light) <= radius * radius;
+    }
+    
+    private void addLightContribution(LightSource light) {
+        float radius = light.getCurrentRadius();
+        float radiusSquared = radius * radius;
+        float distanceSquared = distanceSquared(light);
+        if (radius > 0.0f && distanceSquared <= radiusSquared) {
+            // Calculate light falloff (inverse square law with minimum)
+            float falloff = Math.max(0.1f, 1.0f - distanceSquared / radiusSquared);
+            queryLevel += (light.getCurrentIntensity() / 100.0f) * falloff;
+        }
+    }
+    
+    private void considerNearest(LightSource light) {
+        float distanceSquared = distanceSquared(light);
+        if (distanceSquared < queryNearestDistanceSquared) {
+            queryNearestDistanceSquared = distanceSquared;
+            queryNearest = light;
         }
     }
     
@@ -204,14 +521,28 @@ public class LightManager {
             return true; // Sufficient ambient light
         }
         
-        // Check each active light source
-        for (LightSource light : activeLights) {
-            if (light.isPositionProtected(position)) {
-                return true;
-            }
+        // Only lit lights whose radius can reach the position
+        setQueryPoint(position);
+        return !litIndex.queryAABB(queryX, queryY, queryZ, queryX, queryY, queryZ, protectionVisitor);
+    }
+    
+    /**
+     * Check protection from the cached light field instead of the lit
+     * lights: a position is protected while some light reaches it. Agrees
+     * with {@link #isPositionProtected} except within a sample spacing of
+     * a light's edge, where the field is interpolated. Meant for the
+     * per-update darkness checks of the grue and the survival system.
+     * @param position Position to check [x, y, z]
+     * @return true if position is safe from grue
+     */
+    public boolean isPositionProtectedCached(float[] position) {
+        if (position == null || position.length != 3) {
+            return false;
         }
-        
-        return false; // Position is in darkness
+        if (globalLightLevel > 0.3f) {
+            return true; // Sufficient ambient light
+        }
+        return lightField.sample(position[0], position[1], position[2]) > 0.0f;
     }
     
     /**
@@ -226,52 +557,252 @@ public class LightManager {
         
         float totalLight = globalLightLevel;
         
-        // Add light contributions from all sources
-        for (LightSource light : activeLights) {
-            if (!light.isLit()) continue;
-            
-            float distance = light.calculateDistance(position);
-            float radius = light.getCurrentRadius();
-            
-            if (distance <= radius) {
-                // Calculate light falloff (inverse square law with minimum)
-                float falloff = Math.max(0.1f, 1.0f - (distance * distance) / (radius * radius));
-                float contribution = (light.getCurrentIntensity() / 100.0f) * falloff;
-                totalLight += contribution;
+        // Add light contributions from the lit sources reaching the position
+        totalLight += sumLightsAt(position[0], position[1], position[2]);
+        
+        return Math.min(2.0f, totalLight); // Cap at 2x for bright areas
+    }
+    
+    /**
+     * Get the light level at a position from the cached light field: a
+     * bilinear lookup in the room's grid at the nearest sampled height,
+     * exact at the sample points. Meant for the frequent "how bright is it
+     * here" checks; {@link #getLightLevelAtPosition} stays exact.
+     * @param position Position to check [x, y, z]
+     * @return Light level from 0.0 (dark) to 2.0 (very bright)
+     */
+    public float getCachedLightLevel(float[] position) {
+        if (position == null || position.length != 3) {
+            return 0.0f;
+        }
+        
+        return Math.min(2.0f, globalLightLevel + lightField.sample(position[0], position[1], position[2]));
+    }
+    
+    /**
+     * Get the light levels of many points in one pass over the light buffer
+     * (the same values as {@link #getLightLevelAtPosition}, as of the last
+     * update)
+     * @param xyz Points, packed x, y, z
+     * @param count Number of points
+     * @param outLevel Light level of each point (0.0 to 2.0)
+     */
+    public void evaluateLightLevels(float[] xyz, int count, float[] outLevel) {
+        Arrays.fill(outLevel, 0, count, globalLightLevel);
+        lightBuffer.accumulateLevels(xyz, count, outLevel);
+        for (int i = 0; i < count; i++) {
+            outLevel[i] = Math.min(2.0f, outLevel[i]);
+        }
+    }
+    
+    /**
+     * Classify many points at once: the light level of each (the value of
+     * {@link #getLightLevelAtPosition}) and whether it is protected from the
+     * grue ({@link #isPositionProtected}). The points are first binned on a
+     * floor grid, so each lit light only visits the points in the cells
+     * under its reach; thousands of spawn or planning candidates cost about
+     * as much as the light that falls on them.
+     * @param xyz Points, packed x, y, z
+     * @param count Number of points
+     * @param outLevel Light level of each point (0.0 to 2.0)
+     * @param outProtected Bits 0 to count - 1 set for protected points, cleared for the others
+     */
+    public void classifyPositions(float[] xyz, int count, float[] outLevel, BitSet outProtected) {
+        if (count < 0 || xyz.length < count * 3 || outLevel.length < count) {
+            throw new IllegalArgumentException("Invalid point count: " + count);
+        }
+        Arrays.fill(outLevel, 0, count, globalLightLevel);
+        outProtected.clear(0, count);
+        if (globalLightLevel > 0.3f) {
+            outProtected.set(0, count); // Sufficient ambient light
+        }
+        
+        if (count > 0 && litIndex.size() > 0) {
+            binPoints(xyz, count);
+            float[] data = lightBuffer.getData();
+            int capacity = lightBuffer.getCapacity();
+            int xs = LightBuffer.X * capacity, ys = LightBuffer.Y * capacity, zs = LightBuffer.Z * capacity;
+            int radii = LightBuffer.RADIUS * capacity, intensities = LightBuffer.INTENSITY * capacity;
+            for (int slot = 0; slot < lightBuffer.size(); slot++) {
+                float radius = data[radii + slot];
+                float lx = data[xs + slot], lz = data[zs + slot];
+                if (radius <= 0.0f || lx + radius < binMinX || lx - radius > binMaxX ||
+                    lz + radius < binMinZ || lz - radius > binMaxZ) {
+                    continue; // Unlit, or nowhere near the points
+                }
+                classifyAgainst(xyz, lx, data[ys + slot], lz, radius, data[intensities + slot] / 100.0f,
+                                outLevel, outProtected);
             }
         }
         
-        return Math.min(2.0f, totalLight); // Cap at 2x for bright areas
+        for (int i = 0; i < count; i++) {
+            outLevel[i] = Math.min(2.0f, outLevel[i]);
+        }
+    }
+    
+    /**
+     * Sort a batch of points into floor cells of the index size, coarser
+     * cells if the points are spread too thinly for that
+     */
+    private void binPoints(float[] xyz, int count) {
+        binMinX = binMinZ = Float.MAX_VALUE;
+        binMaxX = binMaxZ = -Float.MAX_VALUE;
+        for (int i = 0, o = 0; i < count; i++, o += 3) {
+            binMinX = Math.min(binMinX, xyz[o]);
+            binMaxX = Math.max(binMaxX, xyz[o]);
+            binMinZ = Math.min(binMinZ, xyz[o + 2]);
+            binMaxZ = Math.max(binMaxZ, xyz[o + 2]);
+        }
+        
+        int maxCells = count * CLASSIFY_CELLS_PER_POINT + 16;
+        binCellSize = LIGHT_INDEX_CELL_SIZE;
+        if (!Float.isFinite(binMaxX - binMinX) || !Float.isFinite(binMaxZ - binMinZ)) {
+            binCellSize = Float.POSITIVE_INFINITY; // One cell for everything
+        }
+        while (true) {
+            binColumns = (int) ((binMaxX - binMinX) / binCellSize) + 1;
+            binRows = (int) ((binMaxZ - binMinZ) / binCellSize) + 1;
+            if ((long) binColumns * binRows <= maxCells) {
+                break;
+            }
+            binCellSize *= 2.0f;
+        }
+        
+        // Counting sort of the points by cell
+        int cells = binColumns * binRows;
+        if (binStarts.length < cells + 1) {
+            binStarts = new int[Math.max(cells + 1, binStarts.length * 2)];
+        }
+        if (binnedPoints.length < count) {
+            binnedPoints = new int[Math.max(count, binnedPoints.length * 2)];
+            pointBins = new int[binnedPoints.length];
+        }
+        Arrays.fill(binStarts, 0, cells + 1, 0);
+        for (int i = 0, o = 0; i < count; i++, o += 3) {
+            int bin = binRow(xyz[o + 2]) * binColumns + binColumn(xyz[o]);
+            pointBins[i] = bin;
+            binStarts[bin + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            binStarts[cell + 1] += binStarts[cell];
+        }
+        for (int i = 0; i < count; i++) {
+            binnedPoints[binStarts[pointBins[i]]++] = i;
+        }
+        for (int cell = cells; cell > 0; cell--) {
+            binStarts[cell] = binStarts[cell - 1]; // Back to cell starts after the placement pass
+        }
+        binStarts[0] = 0;
+    }
+    
+    private int binColumn(float x) {
+        return Math.max(0, Math.min(binColumns - 1, (int) ((x - binMinX) / binCellSize)));
+    }
+    
+    private int binRow(float z) {
+        return Math.max(0, Math.min(binRows - 1, (int) ((z - binMinZ) / binCellSize)));
+    }
+    
+    /**
+     * Add one lit light to the binned points under its reach
+     */
+    private void classifyAgainst(float[] xyz, float lx, float ly, float lz, float radius, float scale,
+                                 float[] outLevel, BitSet outProtected) {
+        float radiusSquared = radius * radius;
+        int fromColumn = binColumn(lx - radius), toColumn = binColumn(lx + radius);
+        int fromRow = binRow(lz - radius), toRow = binRow(lz + radius);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                int cell = row * binColumns + column;
+                for (int k = binStarts[cell]; k < binStarts[cell + 1]; k++) {
+                    int point = binnedPoints[k];
+                    int o = point * 3;
+                    float dx = xyz[o] - lx;
+                    float dy = xyz[o + 1] - ly;
+                    float dz = xyz[o + 2] - lz;
+                    float distanceSquared = dx * dx + dy * dy + dz * dz;
+                    if (distanceSquared <= radiusSquared) {
+                        // Same falloff as a single-point query
+                        outLevel[point] += scale * Math.max(0.1f, 1.0f - distanceSquared / radiusSquared);
+                        outProtected.set(point);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Copy the light buffer verbatim, e.g. into a render snapshot
+     * @param out Buffer of capacity {@link #getLightBufferCapacity()}
+     */
+    public void copyLightBuffer(LightBuffer out) {
+        out.copyFrom(lightBuffer);
     }
     
     /**
-     * Find the nearest light source to a position
+     * Get the capacity of the light buffer (the maximum number of active lights)
+     */
+    public int getLightBufferCapacity() {
+        return MAX_ACTIVE_LIGHTS;
+    }
+    
+    /**
+     * Sum the contributions of the lit lights reaching a point
+     */
+    private float sumLightsAt(float x, float y, float z) {
+        queryX = x;
+        queryY = y;
+        queryZ = z;
+        queryLevel = 0.0f;
+        litIndex.queryAABB(x, y, z, x, y, z, levelVisitor);
+        return queryLevel;
+    }
+    
+    /**
+     * Find the nearest lit light source to a position
      * @param position Position to check [x, y, z]
      * @return Nearest light source, or null if none found
      */
     public LightSource getNearestLightSource(float[] position) {
-        if (position == null || activeLights.isEmpty()) {
+        if (position == null) {
             return null;
         }
         
-        LightSource nearest = null;
-        float nearestDistance = Float.MAX_VALUE;
+        if (litIndex.size() == 0) {
+            return null;
+        }
+        setQueryPoint(position);
+        queryNearestDistanceSquared = Float.MAX_VALUE;
         
-        for (LightSource light : activeLights) {
-            if (!light.isLit()) continue;
-            
-            float distance = light.calculateDistance(position);
-            if (distance < nearestDistance) {
-                nearestDistance = distance;
-                nearest = light;
+        // Widen the search until a light turns up; any closer one lies
+        // within the distance of the best found so far
+        float radius = LIGHT_INDEX_CELL_SIZE;
+        for (int round = 0; round < NEAREST_SEARCH_ROUNDS && queryNearest == null; round++) {
+            litIndex.queryRadius(queryX, queryY, queryZ, radius, nearestVisitor);
+            if (queryNearest != null && queryNearestDistanceSquared > radius * radius) {
+                litIndex.queryRadius(queryX, queryY, queryZ, (float) Math.sqrt(queryNearestDistanceSquared),
+                                     nearestVisitor);
             }
+            radius *= 4.0f;
         }
         
+        // Far from every light: look at them all
+        if (queryNearest == null) {
+            for (int slot = 0; slot < lightBuffer.size(); slot++) {
+                LightSource light = lightBuffer.getLight(slot);
+                if (light.isLit()) {
+                    considerNearest(light);
+                }
+            }
+        }
+        
+        LightSource nearest = queryNearest;
+        queryNearest = null;
         return nearest;
     }
     
     /**
-     * Get all light sources within a radius of a position
+     * Get all light sources within a radius of a position, lit or not
      * @param position Center position [x, y, z]
      * @param radius Search radius
      * @return List of light sources within radius
@@ -283,15 +814,40 @@ public class LightManager {
             return nearbyLights;
         }
         
-        for (LightSource light : activeLights) {
-            if (light.calculateDistance(position) <= radius) {
-                nearbyLights.add(light);
-            }
-        }
-        
+        getLightSourcesInRadius(position[0], position[1], position[2], radius, nearbyLights);
         return nearbyLights;
     }
     
+    /**
+     * Get all light sources within a radius of a point, lit or not, into a
+     * caller's list (allocation-free for per-frame queries)
+     * @param radius Search radius
+     * @param out Cleared, then filled with the light sources within radius
+     * @return Number of light sources found
+     */
+    public int getLightSourcesInRadius(float x, float y, float z, float radius, List<LightSource> out) {
+        out.clear();
+        queryResults = out;
+        lightIndex.queryRadius(x, y, z, radius, radiusVisitor);
+        queryResults = null;
+        return out.size();
+    }
+    
+    /**
+     * Get the cached light field (for statistics)
+     */
+    public LightField getLightField() {
+        return lightField;
+    }
+    
+    /**
+     * Get and reset the number of lights the index queries looked at
+     * (profiling: should stay near the number of lights around the queries)
+     */
+    public int takeLightsTested() {
+        return litIndex.takeCandidatesTested() + lightIndex.takeCandidatesTested();
+    }
+    
     // === Environmental Effects ===
     
     /**
@@ -299,14 +855,15 @@ public class LightManager {
      * @param deltaTime Time since last update in seconds
      */
     public void update(float deltaTime) {
-        long currentTime = System.currentTimeMillis();
-        lastUpdateTime = currentTime;
+        lastUpdateTime = clock.nowMillis();
         
-        // Process pending changes
-        processPendingChanges();
+        // Apply queued additions, removals and light changes
+        applyChanges();
         
         // Update all light sources
         updateLightSources(deltaTime);
+        applyChanges(); // Lights that burned out
+        refreshLightField();
         
         // Update environmental effects
         updateEnvironmentalEffects(deltaTime);
@@ -316,6 +873,9 @@ public class LightManager {
         
         // Handle random environmental events
         handleEnvironmentalEvents(deltaTime);
+        applyChanges(); // Lights that failed
+        
+        publishSnapshot();
     }
     
     /**
@@ -323,25 +883,19 @@ public class LightManager {
      * @param deltaTime Time since last update
      */
     private void updateLightSources(float deltaTime) {
-        List<LightSource> toRemove = new ArrayList<>();
-        
-        for (LightSource light : activeLights) {
+        // Backwards, so a removal only moves an already updated light into the hole
+        for (int slot = lightBuffer.size() - 1; slot >= 0; slot--) {
+            LightSource light = lightBuffer.getLight(slot);
+            
             // Update light source
             light.update(deltaTime);
             
-            // Mark consumed light sources for removal
+            // Remove consumed light sources
             if (light.isConsumed() && light.getLightType().isConsumable()) {
-                toRemove.add(light);
+                deactivateLight(light);
+                System.out.println("Consumed light source removed: " + light.getLightType());
             }
         }
-        
-        // Remove consumed light sources
-        for (LightSource light : toRemove) {
-            activeLights.remove(light);
-            environmentalLights.remove(light);
-            playerLights.remove(light);
-            System.out.println("Consumed light source removed: " + light.getLightType());
-        }
     }
     
     /**
@@ -350,10 +904,8 @@ public class LightManager {
      */
     private void updateEnvironmentalEffects(float deltaTime) {
         // Gradually adjust global light level based on active lights
-        int activeLightCount = (int) activeLights.stream().mapToLong(light -> light.isLit() ? 1 : 0).sum();
-        
         float targetGlobalLight = AMBIENT_LIGHT_LEVEL;
-        if (activeLightCount > 10) {
+        if (litCount > 10) {
             targetGlobalLight += 0.1f; // Slight ambient boost with many lights
         }
         
@@ -399,7 +951,8 @@ public class LightManager {
         System.out.println("⚡ Power flicker! ⚡");
         
         // Briefly affect electrical lights
-        for (LightSource light : activeLights) {
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
             if (light.getLightType() == LightSource.LightType.FLASHLIGHT && 
                 light.isLit() && random.nextFloat() < 0.5f) {
                 
@@ -416,7 +969,8 @@ public class LightManager {
      * Trigger random flickering in candles and torches
      */
     private void triggerRandomFlickering() {
-        for (LightSource light : activeLights) {
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
             if ((light.getLightType() == LightSource.LightType.CANDLE || 
                  light.getLightType() == LightSource.LightType.TORCH) && 
                 light.isLit() && random.nextFloat() < 0.2f) {
@@ -431,7 +985,8 @@ public class LightManager {
      */
     private void causeRandomLightFailure() {
         List<LightSource> activeLitLights = new ArrayList<>();
-        for (LightSource light : activeLights) {
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
             if (light.isLit() && !light.getLightType().isPermanent()) {
                 activeLitLights.add(light);
             }
@@ -466,19 +1021,46 @@ public class LightManager {
         }
     }
     
+    /**
+     * Publish a new snapshot if the active set, which lights are lit or
+     * consumed, or any light's buffered values changed since the last one
+     */
+    private void publishSnapshot() {
+        if (!snapshotDirty && lightBuffer.sameContents(snapshot.lightData)) {
+            return;
+        }
+        int count = lightBuffer.size();
+        LightSource[] lights = new LightSource[count];
+        LightSource[] environmental = new LightSource[environmentalCount];
+        LightSource[] player = new LightSource[playerCount];
+        for (int slot = 0, e = 0, p = 0; slot < count; slot++) {
+            LightSource light = lightBuffer.getLight(slot);
+            lights[slot] = light;
+            if (isPlayerLight(light)) {
+                player[p++] = light;
+            } else {
+                environmental[e++] = light;
+            }
+        }
+        snapshot = new Snapshot(snapshot.version + 1, lights, environmental, player,
+                                LightBuffer.compactCopy(lightBuffer), litCount, consumedCount);
+        snapshotDirty = false;
+    }
+    
     /**
      * Update internal statistics
      */
     private void updateStatistics() {
-        totalLightSources = activeLights.size();
-        activeLightSources = (int) activeLights.stream().mapToLong(light -> light.isLit() ? 1 : 0).sum();
+        totalLightSources = lightBuffer.size();
+        activeLightSources = litCount;
         
         if (activeLightSources > 0) {
+            // Unlit lights hold zero intensity in the buffer
+            float[] data = lightBuffer.getData();
+            int intensities = LightBuffer.INTENSITY * lightBuffer.getCapacity();
             float totalIntensity = 0.0f;
-            for (LightSource light : activeLights) {
-                if (light.isLit()) {
-                    totalIntensity += light.getCurrentIntensity();
-                }
+            for (int slot = 0; slot < totalLightSources; slot++) {
+                totalIntensity += data[intensities + slot];
             }
             averageLightLevel = totalIntensity / activeLightSources;
         } else {
@@ -489,27 +1071,69 @@ public class LightManager {
     // === Public Interface ===
     
     /**
-     * Get all active light sources
-     * @return Immutable list of active lights
+     * Get the game clock shared with the managed lights
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Get the game time of the last update in milliseconds
+     */
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+    
+    /**
+     * Get the view of the active lights published by the last update (any thread)
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Get all active light sources (any thread)
+     * @return Immutable list of active lights, as of the last update
      */
     public List<LightSource> getActiveLights() {
-        return Collections.unmodifiableList(activeLights);
+        return snapshot.getLights();
     }
     
     /**
-     * Get player-owned light sources
-     * @return List of portable light sources
+     * Get player-owned light sources (any thread)
+     * @return Immutable list of portable light sources, as of the last update
      */
     public List<LightSource> getPlayerLights() {
-        return Collections.unmodifiableList(playerLights);
+        return snapshot.getPlayerLights();
     }
     
     /**
-     * Get environmental light sources
-     * @return List of fixed light sources
+     * Get environmental light sources (any thread)
+     * @return Immutable list of fixed light sources, as of the last update
      */
     public List<LightSource> getEnvironmentalLights() {
-        return Collections.unmodifiableList(environmentalLights);
+        return snapshot.getEnvironmentalLights();
+    }
+    
+    /**
+     * Get the number of lit active lights (kept up to date by each update)
+     */
+    public int getLitLightCount() {
+        return litCount;
+    }
+    
+    /**
+     * Get the number of consumed lights still active (kept up to date by each update)
+     */
+    public int getConsumedLightCount() {
+        return consumedCount;
+    }
+    
+    /**
+     * Get the number of light changes refused because the change queue was full
+     */
+    public int getDroppedChangeCount() {
+        return changes.getDroppedCount();
     }
     
     /**
@@ -539,7 +1163,8 @@ public class LightManager {
             
             // Affect electrical lights
             if (!available) {
-                for (LightSource light : activeLights) {
+                for (int slot = 0; slot < lightBuffer.size(); slot++) {
+                    LightSource light = lightBuffer.getLight(slot);
                     if (light.getLightType() == LightSource.LightType.FLASHLIGHT && light.isLit()) {
                         light.extinguish();
                         System.out.println("Flashlight disabled due to power failure");
@@ -584,7 +1209,8 @@ public class LightManager {
         System.out.println("🔥 EMERGENCY LIGHTING ACTIVATED 🔥");
         
         int lightsLit = 0;
-        for (LightSource light : activeLights) {
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
             if (!light.isLit() && !light.isConsumed() && 
                 (light.getLightType() == LightSource.LightType.CANDLE || 
                  light.getLightType() == LightSource.LightType.TORCH)) {
@@ -604,7 +1230,8 @@ public class LightManager {
     public void extinguishAllLights() {
         System.out.println("💨 Extinguishing all lights...");
         
-        for (LightSource light : activeLights) {
+        for (int slot = 0; slot < lightBuffer.size(); slot++) {
+            LightSource light = lightBuffer.getLight(slot);
             if (light.isLit() && !light.getLightType().isPermanent()) {
                 light.extinguish();
             }
@@ -632,8 +1259,8 @@ public class LightManager {
             globalLightLevel,
             averageLightLevel,
             powerAvailable ? "Yes" : "No",
-            environmentalLights.size(),
-            playerLights.size()
+            environmentalCount,
+            playerCount
         );
     }
     
@@ -641,16 +1268,57 @@ public class LightManager {
      * Clear all light sources (for level transitions)
      */
     public void clearAllLights() {
-        activeLights.clear();
-        environmentalLights.clear();
-        playerLights.clear();
-        pendingAdditions.clear();
-        pendingRemovals.clear();
+        changes.drain(discardHandler);
+        for (int slot = lightBuffer.size() - 1; slot >= 0; slot--) {
+            deactivateLight(lightBuffer.getLight(slot));
+        }
+        lightField.clear();
+        publishSnapshot();
         
         globalLightLevel = AMBIENT_LIGHT_LEVEL;
         System.out.println("All light sources cleared");
     }
     
+    // === Snapshot ===
+    
+    /**
+     * View of the active lights as of one update, safe to keep and read on
+     * any thread; a new one with a higher version is published whenever
+     * lights come or go, or any light's values change. Other threads read
+     * the copied light data; the listed lights are handles (for identity,
+     * removal) whose state belongs to the simulation thread.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final List<LightSource> lights;
+        private final List<LightSource> environmentalLights;
+        private final List<LightSource> playerLights;
+        private final LightBuffer lightData;
+        private final int litCount;
+        private final int consumedCount;
+        
+        private Snapshot(long version, LightSource[] lights, LightSource[] environmentalLights,
+                         LightSource[] playerLights, LightBuffer lightData, int litCount, int consumedCount) {
+            this.version = version;
+            this.lights = Collections.unmodifiableList(Arrays.asList(lights));
+            this.environmentalLights = Collections.unmodifiableList(Arrays.asList(environmentalLights));
+            this.playerLights = Collections.unmodifiableList(Arrays.asList(playerLights));
+            this.lightData = lightData;
+            this.litCount = litCount;
+            this.consumedCount = consumedCount;
+        }
+        
+        public long getVersion() { return version; }
+        /** Copy of the light buffer as of this snapshot, slot i matching getLights().get(i) (do not modify) */
+        public LightBuffer getLightData() { return lightData; }
+        public int getLightCount() { return lightData.size(); }
+        public List<LightSource> getLights() { return lights; }
+        public List<LightSource> getEnvironmentalLights() { return environmentalLights; }
+        public List<LightSource> getPlayerLights() { return playerLights; }
+        public int getLitCount() { return litCount; }
+        public int getConsumedCount() { return consumedCount; }
+    }
+    
     @Override
     public String toString() {
         return String.format("LightManager{lights=%d, active=%d, globalLevel=%.2f}", 
@@ -1,6 +1,7 @@
 package dontlookback;
 
 import java.awt.Color;
+import java.util.concurrent.atomic.AtomicBoolean;
 import dontlookback.interfaces.Light;
 
 /**
@@ -83,9 +84,36 @@ public class LightSource extends Objects implements Light {
     private boolean isFlickering;
     private long lastFlickerTime;
     
+    /** Real-time clock of lights not (yet) added to a manager, shared by all of them */
+    private static final GameClock UNMANAGED_CLOCK = new GameClock();
+    
+    /** Source of game time for flicker and burn timers (the manager's once added) */
+    private GameClock clock;
+    
     /** Light quality degrades over time for realism */
     private float qualityDegradation;
     
+    /** Manager indexing this light, told when it is lit, put out or moved */
+    private volatile LightManager manager;
+    
+    /** Whether a change record for this light is waiting in the manager's queue */
+    final AtomicBoolean changeQueued = new AtomicBoolean(false);
+    
+    /** Lit / consumed state as last counted by the manager */
+    boolean countedLit;
+    boolean countedConsumed;
+    
+    /** Proxies in the manager's light indexes (-1 when not indexed) */
+    int indexProxy = -1;
+    int litProxy = -1;
+    
+    /** Slot in the manager's {@link LightBuffer} (-1 when not stored) */
+    int bufferSlot = -1;
+    
+    /** Intensity and radius last drawn into the manager's light field */
+    float fieldIntensity;
+    float fieldRadius;
+    
     /**
      * Create a new light source
      * @param lightType Type of light source
@@ -98,6 +126,7 @@ public class LightSource extends Objects implements Light {
         this.fuelLevel = 1.0f;
         this.isLit = false;
         this.lightStartTime = 0;
+        this.clock = UNMANAGED_CLOCK;
         this.currentIntensity = 0.0f;
         this.isConsumed = false;
         this.isFlickering = false;
@@ -131,9 +160,10 @@ public class LightSource extends Objects implements Light {
         
         if (!isLit) {
             isLit = true;
-            lightStartTime = System.currentTimeMillis();
+            lightStartTime = clock.nowMillis();
             currentIntensity = lightType.getIntensity();
             updateLightColor();
+            notifyManager();
             
             System.out.println(lightType.getDisplayName() + " lit at position " + 
                               java.util.Arrays.toString(getCenter()));
@@ -156,6 +186,7 @@ public class LightSource extends Objects implements Light {
                 isConsumed = true;
                 fuelLevel = 0.0f;
             }
+            notifyManager();
             
             System.out.println(lightType.getDisplayName() + " extinguished");
         }
@@ -207,7 +238,7 @@ public class LightSource extends Objects implements Light {
      * @param deltaTime Time since last update
      */
     private void updateFlickering(float deltaTime) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nowMillis();
         
         // Different flickering patterns based on fuel level and light type
         if (fuelLevel < 0.2f) {
@@ -505,6 +536,7 @@ public class LightSource extends Objects implements Light {
     public void delete() {
         extinguish();
         isConsumed = true;
+        notifyManager();
     }
     
     @Override
@@ -538,8 +570,87 @@ public class LightSource extends Objects implements Light {
         return Math.round(fuelLevel * lightType.getMaxDuration() * 1000);
     }
     
+    // === Position ===
+    
+    @Override
+    public void setX(float x) {
+        super.setX(x);
+        notifyManager();
+    }
+    
+    @Override
+    public void setY(float y) {
+        super.setY(y);
+        notifyManager();
+    }
+    
+    @Override
+    public void setZ(float z) {
+        super.setZ(z);
+        notifyManager();
+    }
+    
+    @Override
+    public void setCenter(float[] coords) {
+        x = coords[0];
+        y = coords[1];
+        z = coords[2];
+        notifyManager();
+    }
+    
+    @Override
+    public void randomXYZ() {
+        super.randomXYZ();
+        notifyManager();
+    }
+    
+    @Override
+    public void xyGitter() {
+        super.xyGitter();
+        notifyManager();
+    }
+    
+    /**
+     * Attach this light to the manager that indexes it (null to detach)
+     */
+    void setManager(LightManager manager) {
+        this.manager = manager;
+    }
+    
+    LightManager getManager() {
+        return manager;
+    }
+    
+    /**
+     * Let the indexing manager know the light was lit, put out or moved
+     */
+    private void notifyManager() {
+        LightManager current = manager;
+        if (current != null) {
+            current.lightChanged(this);
+        }
+    }
+    
     // === Utility Methods ===
     
+    /**
+     * Move this light onto another game clock (done by {@link LightManager}
+     * when the light is added); flicker timing restarts on the new clock
+     * @param clock Game clock for flicker and burn timers
+     */
+    public void setClock(GameClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null");
+        }
+        if (clock != this.clock) {
+            this.clock = clock;
+            this.lastFlickerTime = clock.nowMillis();
+            if (isLit) {
+                this.lightStartTime = lastFlickerTime;
+            }
+        }
+    }
+    
     /**
      * Add fuel to this light source (if applicable)
      * @param amount Fuel amount (0.0 to 1.0)
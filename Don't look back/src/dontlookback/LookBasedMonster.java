@@ -6,8 +6,14 @@ package dontlookback;
  * Implements the core "Don't Look Back" mechanic where monsters:
  * - Only become active when looked at by the player
  * - Chase the player when seen
- * - Despawn after 5 seconds of not being observed
- * - Can regenerate in different locations
+ * - Despawn after 5 seconds of not being observed (a game clock timer,
+ *   started when the player looks away)
+ * - Can regenerate in different locations, lurking in the darkest of a
+ *   ring of candidate spots (with a {@link LightManager})
+ * - Walls and furniture between it and the player hide it and muffle its
+ *   sounds (with a {@link RaycastService})
+ * - Walks as a character body, stopped by walls and doors (with a
+ *   {@link PhysicsWorld})
  * 
  * This is the central monster type that drives the unique horror experience.
  * 
@@ -42,10 +48,24 @@ public class LookBasedMonster extends BasicMonster {
     /** Minimum distance monster must spawn from player */
     private static final float MIN_SPAWN_DISTANCE = 8.0f;
     
+    /** Half the width of the monster's box for line of sight */
+    private static final float BODY_HALF_WIDTH = 0.3f;
+    
+    /** Respawn candidates: directions around the player, and rings along each */
+    private static final int RESPAWN_DIRECTIONS = 12;
+    private static final int RESPAWN_RINGS = 3;
+    private static final int RESPAWN_CANDIDATES = RESPAWN_DIRECTIONS * RESPAWN_RINGS;
+    
     // === Monster State ===
     
-    /** Accumulated simulation time for testing */
-    private double simulationTime;
+    /** Source of game time for despawn and sound timers */
+    private final GameClock clock;
+    
+    /** Whether this monster advances its own clock (no shared clock given) */
+    private final boolean ownsClock;
+    
+    /** Fires DESPAWN_TIME after the monster was last seen */
+    private final TimingWheel.Timer despawnTimer;
     
     /** Time when monster was last seen by player (-1 if never seen) */
     private double lastSeenTime;
@@ -65,6 +85,37 @@ public class LookBasedMonster extends BasicMonster {
     /** Whether monster is currently visible to player */
     private boolean isBeingObserved;
     
+    /** Observation pass this monster is registered with, if any */
+    private ObservationSystem observation;
+    private int observationHandle = -1;
+    
+    /** Last answer from the observation pass */
+    private boolean seenByPlayer;
+    
+    /** Line-of-sight geometry this monster's box is part of, if any */
+    private RaycastService lineOfSight;
+    private int lineOfSightHandle = -1;
+    
+    /** Lighting for choosing dark respawn spots, if any, and the candidate scratch */
+    private LightManager lightManager;
+    private float[] respawnCandidates;
+    private float[] respawnLevels;
+    private java.util.BitSet respawnProtected;
+    
+    /** Walls the monster cannot move through, if any, and the swept resolver for them */
+    private SpatialHash collisionWalls;
+    private CollisionResolver collisionResolver;
+    private final float[] collisionBox = new float[6];
+    private final float[] collisionMove = new float[3];
+    
+    /** Physics world the monster walks in as a character body, if any */
+    private PhysicsWorld physics;
+    private int physicsBody = -1;
+    
+    /** Velocity handed to the body after this update's movement */
+    private float walkX;
+    private float walkZ;
+    
     /** Time since monster became active */
     private double activeTime;
     
@@ -120,15 +171,32 @@ public class LookBasedMonster extends BasicMonster {
     }
     
     /**
-     * Create a look-based monster
+     * Create a look-based monster on a shared game clock
+     * @param monsterType Type of monster
+     * @param spawnPosition Initial spawn position [x, y, z]
+     * @param clock Game clock, advanced by the game loop
+     */
+    public LookBasedMonster(MonsterType monsterType, float[] spawnPosition, GameClock clock) {
+        this(monsterType, spawnPosition, clock, false);
+    }
+    
+    /**
+     * Create a look-based monster with its own clock, advanced by the
+     * deltaTime of each behavior update
      * @param monsterType Type of monster
      * @param spawnPosition Initial spawn position [x, y, z]
      */
     public LookBasedMonster(MonsterType monsterType, float[] spawnPosition) {
+        this(monsterType, spawnPosition, GameClock.manual(), true);
+    }
+    
+    private LookBasedMonster(MonsterType monsterType, float[] spawnPosition, GameClock clock, boolean ownsClock) {
         super(spawnPosition[0], spawnPosition[1], spawnPosition[2]);
         
         this.monsterType = monsterType;
-        this.simulationTime = 0.0;
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.despawnTimer = clock.getTimers().newTimer(this::checkDespawnCondition);
         this.lastSeenTime = -1.0; // Never seen
         this.currentBehavior = MonsterBehavior.DORMANT;
         this.behaviorStartTime = getCurrentTime();
@@ -160,6 +228,15 @@ public class LookBasedMonster extends BasicMonster {
         this(MonsterType.values()[(int)(Math.random() * MonsterType.values().length)], spawnPosition);
     }
     
+    /**
+     * Create a random monster type on a shared game clock
+     * @param spawnPosition Spawn position
+     * @param clock Game clock, advanced by the game loop
+     */
+    public LookBasedMonster(float[] spawnPosition, GameClock clock) {
+        this(MonsterType.values()[(int)(Math.random() * MonsterType.values().length)], spawnPosition, clock);
+    }
+    
     /**
      * Configure monster properties based on type
      */
@@ -201,6 +278,117 @@ public class LookBasedMonster extends BasicMonster {
     
     // === Core Look-Based Mechanics ===
     
+    /**
+     * Register with an observation pass, which then decides whether the
+     * player sees this monster (see {@link #updateLookBasedBehavior(float[], double)})
+     * @param system Observation pass run once per frame by the game loop
+     */
+    public void observeWith(ObservationSystem system) {
+        stopObserving();
+        observation = system;
+        observationHandle = system.add(this, positionX(), positionY() + monsterType.getHeight() * 0.5f, 
+                                       positionZ(), monsterType.getHeight() * 0.5f, 
+                                       observed -> seenByPlayer = observed);
+    }
+    
+    /**
+     * Register with an observation pass that only counts this monster as
+     * seen when no wall or furniture blocks the line from the player's eye
+     * to its body or head. Its box joins the line-of-sight geometry.
+     * @param system Observation pass run once per frame by the game loop
+     * @param lineOfSight Room geometry (e.g. {@link EnhancedRoomGenerator#getLineOfSight()})
+     */
+    public void observeWith(ObservationSystem system, RaycastService lineOfSight) {
+        observeWith(system);
+        this.lineOfSight = lineOfSight;
+        float height = monsterType.getHeight();
+        lineOfSightHandle = lineOfSight.addDynamic(this, 
+            positionX() - BODY_HALF_WIDTH, positionY(), positionZ() - BODY_HALF_WIDTH,
+            positionX() + BODY_HALF_WIDTH, positionY() + height, positionZ() + BODY_HALF_WIDTH);
+        system.setOccluder(observationHandle, target -> 
+            isInLineOfSight(system.getEyeX(), system.getEyeY(), system.getEyeZ(), 0.5f) ||
+            isInLineOfSight(system.getEyeX(), system.getEyeY(), system.getEyeZ(), 0.9f));
+    }
+    
+    /**
+     * Leave the observation pass (and the line-of-sight geometry)
+     */
+    public void stopObserving() {
+        if (observation != null) {
+            observation.remove(observationHandle);
+            observation = null;
+            observationHandle = -1;
+            seenByPlayer = false;
+        }
+        if (lineOfSight != null) {
+            lineOfSight.removeDynamic(lineOfSightHandle);
+            lineOfSight = null;
+            lineOfSightHandle = -1;
+        }
+    }
+    
+    /**
+     * Keep the monster out of walls. Moves are swept against them, so even
+     * a chase step longer than a wall is thick stops at the wall (and
+     * slides along it) instead of passing through.
+     * @param walls Wall and furniture boxes (e.g. {@link EnhancedRoomGenerator#getCollisionWalls()}), or null
+     */
+    public void setCollisionWalls(SpatialHash walls) {
+        this.collisionWalls = walls;
+        if (walls != null && collisionResolver == null) {
+            collisionResolver = new CollisionResolver();
+        }
+    }
+    
+    /**
+     * Walk as a character body in a physics world instead: moves become a
+     * velocity that the world's fixed step carries out, stopped by walls
+     * and closed doors and pushing furniture aside
+     * @param world World stepped by the game loop, or null to leave it
+     */
+    public void setPhysicsWorld(PhysicsWorld world) {
+        if (physics != null) {
+            physics.remove(physicsBody);
+            physicsBody = -1;
+        }
+        physics = world;
+        if (world != null) {
+            physicsBody = world.addCharacter(this, positionX(), positionZ(), BODY_HALF_WIDTH, false);
+        }
+    }
+    
+    /**
+     * Respawn in dark spots rather than anywhere around the player
+     * @param lightManager Lighting to sample respawn candidates against, or null
+     */
+    public void setLightManager(LightManager lightManager) {
+        this.lightManager = lightManager;
+        if (lightManager != null && respawnCandidates == null) {
+            respawnCandidates = new float[RESPAWN_CANDIDATES * 3];
+            respawnLevels = new float[RESPAWN_CANDIDATES];
+            respawnProtected = new java.util.BitSet(RESPAWN_CANDIDATES);
+        }
+    }
+    
+    /**
+     * Check whether nothing blocks the line from a point to this monster
+     * @param heightFraction Point on the monster, 0 (feet) to 1 (top of the head)
+     */
+    private boolean isInLineOfSight(float fromX, float fromY, float fromZ, float heightFraction) {
+        return !lineOfSight.raycastAny(fromX, fromY, fromZ, positionX(), 
+                                       positionY() + monsterType.getHeight() * heightFraction, 
+                                       positionZ(), this);
+    }
+    
+    /**
+     * Update monster behavior using the observation pass's verdict
+     * @param playerPos Current player position [x, y, z]
+     * @param deltaTime Time since last update in seconds
+     */
+    public void updateLookBasedBehavior(float[] playerPos, double deltaTime) {
+        updateLookBasedBehavior(playerPos, seenByPlayer, deltaTime);
+    }
+    
     /**
      * Update monster behavior based on observation status
      * @param playerPos Current player position [x, y, z]
@@ -208,9 +396,6 @@ public class LookBasedMonster extends BasicMonster {
      * @param deltaTime Time since last update in seconds
      */
     public void updateLookBasedBehavior(float[] playerPos, boolean isObserved, double deltaTime) {
-        // Update simulation time for testing
-        simulationTime += deltaTime;
-        
         // Update player position
         System.arraycopy(playerPos, 0, playerPosition, 0, 3);
         
@@ -223,9 +408,13 @@ public class LookBasedMonster extends BasicMonster {
             activateMonster();
         }
         
-        // Update last seen time
+        // Update last seen time; an active monster nobody looks at counts
+        // down to its despawn
         if (isObserved) {
             lastSeenTime = getCurrentTime();
+            despawnTimer.cancel();
+        } else if (!despawnTimer.isPending()) {
+            armDespawnTimer();
         }
         
         // Update active time if monster is active
@@ -237,13 +426,36 @@ public class LookBasedMonster extends BasicMonster {
         updateBehavior(deltaTime);
         
         // Update movement
+        walkX = 0.0f;
+        walkZ = 0.0f;
         updateMovement(deltaTime);
+        if (physics != null) {
+            if (physics.getX(physicsBody) != positionX() || physics.getZ(physicsBody) != positionZ()) {
+                // Spawned, respawned or reset since the last step
+                physics.teleport(physicsBody, positionX(), positionZ());
+            }
+            physics.driveCharacter(physicsBody, walkX, walkZ);
+        }
         
         // Update audio effects
         updateAudioEffects();
         
-        // Check for despawn condition
-        checkDespawnCondition();
+        // Keep the observation bounds and line-of-sight box on the monster
+        if (observation != null) {
+            observation.setPosition(observationHandle, positionX(), 
+                                    positionY() + monsterType.getHeight() * 0.5f, positionZ());
+        }
+        if (lineOfSight != null) {
+            lineOfSight.moveDynamic(lineOfSightHandle, 
+                positionX() - BODY_HALF_WIDTH, positionY(), positionZ() - BODY_HALF_WIDTH,
+                positionX() + BODY_HALF_WIDTH, positionY() + monsterType.getHeight(), positionZ() + BODY_HALF_WIDTH);
+        }
+        
+        // A private clock moves with the updates (firing a due despawn);
+        // a shared one is advanced by the game loop
+        if (ownsClock && deltaTime > 0) {
+            clock.step(deltaTime);
+        }
     }
     
     /**
@@ -261,6 +473,19 @@ public class LookBasedMonster extends BasicMonster {
         
         // Play activation sound
         playMonsterSound("spotted");
+        armDespawnTimer();
+    }
+    
+    /**
+     * Schedule the despawn check for DESPAWN_TIME after the monster was last
+     * seen, if it is active (never seen counts as long gone)
+     */
+    private void armDespawnTimer() {
+        if (currentBehavior == MonsterBehavior.DORMANT || currentBehavior == MonsterBehavior.DESPAWNING) {
+            return;
+        }
+        double deadline = lastSeenTime < 0 ? getCurrentTime() : lastSeenTime + DESPAWN_TIME;
+        clock.getTimers().scheduleAt(despawnTimer, deadline);
     }
     
     /**
@@ -468,11 +693,30 @@ public class LookBasedMonster extends BasicMonster {
             
             // Move towards target
             float moveDistance = speed * (float)deltaTime;
-            setPosition(
-                positionX() + dx * moveDistance,
-                positionY() + dy * moveDistance,
-                positionZ() + dz * moveDistance
-            );
+            float moveX = dx * moveDistance;
+            float moveY = dy * moveDistance;
+            float moveZ = dz * moveDistance;
+            
+            if (physics != null) {
+                // The physics step moves the body across the floor
+                walkX = dx * speed;
+                walkZ = dz * speed;
+                moveX = 0.0f;
+                moveZ = 0.0f;
+            } else if (collisionWalls != null) {
+                // Sweep the body against the walls, sliding along any it meets
+                collisionBox[0] = positionX() - BODY_HALF_WIDTH;
+                collisionBox[1] = positionY();
+                collisionBox[2] = positionZ() - BODY_HALF_WIDTH;
+                collisionBox[3] = positionX() + BODY_HALF_WIDTH;
+                collisionBox[4] = positionY() + monsterType.getHeight();
+                collisionBox[5] = positionZ() + BODY_HALF_WIDTH;
+                collisionResolver.move(collisionBox, moveX, moveY, moveZ, collisionWalls, collisionMove);
+                moveX = collisionMove[0];
+                moveY = collisionMove[1];
+                moveZ = collisionMove[2];
+            }
+            setPosition(positionX() + moveX, positionY() + moveY, positionZ() + moveZ);
         }
     }
     
@@ -508,7 +752,7 @@ public class LookBasedMonster extends BasicMonster {
      */
     private void performAttack() {
         // Attack logic - for now just sound and message
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nowMillis();
         if (currentTime - lastSoundTime > 1000) { // Attack every second
             System.out.println("💀 " + monsterType.getDisplayName() + " attacks! 💀");
             playMonsterSound("attack_hit");
@@ -520,14 +764,12 @@ public class LookBasedMonster extends BasicMonster {
     }
     
     /**
-     * Check if monster should despawn
+     * Check if monster should despawn (despawn timer action)
      */
     private void checkDespawnCondition() {
-        double timeSinceLastSeen = getCurrentTime() - lastSeenTime;
-        
         if (currentBehavior != MonsterBehavior.DORMANT && 
             currentBehavior != MonsterBehavior.DESPAWNING &&
-            timeSinceLastSeen > DESPAWN_TIME) {
+            !isBeingObserved) {
             
             changeBehavior(MonsterBehavior.DESPAWNING);
         }
@@ -542,6 +784,7 @@ public class LookBasedMonster extends BasicMonster {
         currentBehavior = MonsterBehavior.DORMANT;
         lastSeenTime = -1.0;
         activeTime = 0.0;
+        despawnTimer.cancel();
         
         setVisible(false);
         setHostile(false);
@@ -553,7 +796,8 @@ public class LookBasedMonster extends BasicMonster {
     }
     
     /**
-     * Respawn monster in a new random location
+     * Respawn monster in a new random location (the darkest of a ring of
+     * candidates when it knows the lighting)
      */
     private void respawnInNewLocation() {
         // Choose new spawn location away from player
@@ -565,6 +809,12 @@ public class LookBasedMonster extends BasicMonster {
         float newY = playerPosition[1]; // Same Y level
         float newZ = playerPosition[2] + (float) Math.sin(angle) * distance;
         
+        if (lightManager != null) {
+            int darkest = sampleRespawnCandidates(angle);
+            newX = respawnCandidates[darkest * 3];
+            newZ = respawnCandidates[darkest * 3 + 2];
+        }
+        
         setPosition(newX, newY, newZ);
         
         // Update spawn location
@@ -573,11 +823,39 @@ public class LookBasedMonster extends BasicMonster {
         System.out.println("Monster respawned at: " + java.util.Arrays.toString(originalSpawnLocation));
     }
     
+    /**
+     * Classify rings of respawn spots around the player in one batch
+     * @param angle Direction of the first candidate
+     * @return Index of the darkest candidate, an unprotected one if any
+     */
+    private int sampleRespawnCandidates(float angle) {
+        float ringWidth = (MAX_SPAWN_DISTANCE - MIN_SPAWN_DISTANCE) / RESPAWN_RINGS;
+        for (int i = 0; i < RESPAWN_CANDIDATES; i++) {
+            double direction = angle + (i % RESPAWN_DIRECTIONS) * 2 * Math.PI / RESPAWN_DIRECTIONS;
+            float distance = MIN_SPAWN_DISTANCE + (i / RESPAWN_DIRECTIONS + (float) Math.random()) * ringWidth;
+            respawnCandidates[i * 3] = playerPosition[0] + (float) Math.cos(direction) * distance;
+            respawnCandidates[i * 3 + 1] = playerPosition[1];
+            respawnCandidates[i * 3 + 2] = playerPosition[2] + (float) Math.sin(direction) * distance;
+        }
+        lightManager.classifyPositions(respawnCandidates, RESPAWN_CANDIDATES, respawnLevels, respawnProtected);
+        
+        int darkest = 0;
+        for (int i = 1; i < RESPAWN_CANDIDATES; i++) {
+            boolean protectedSpot = respawnProtected.get(i);
+            boolean darkestProtected = respawnProtected.get(darkest);
+            if ((darkestProtected && !protectedSpot) ||
+                (protectedSpot == darkestProtected && respawnLevels[i] < respawnLevels[darkest])) {
+                darkest = i;
+            }
+        }
+        return darkest;
+    }
+    
     /**
      * Update audio effects based on monster state
      */
     private void updateAudioEffects() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nowMillis();
         float distanceToPlayer = calculateDistanceToPlayer();
         
         // Generate audio cues based on behavior and distance
@@ -610,8 +888,10 @@ public class LookBasedMonster extends BasicMonster {
      * @param soundType Type of sound to play
      */
     private void playMonsterSound(String soundType) {
-        // This would integrate with the audio system
-        String prefix = "♪ [" + monsterType.getDisplayName() + "] ";
+        // This would integrate with the audio system; walls in the way muffle the sound
+        boolean muffled = lineOfSight != null && !isInLineOfSight(playerPosition[0], playerPosition[1], 
+                                                                  playerPosition[2], 0.5f);
+        String prefix = (muffled ? "♪ (muffled) [" : "♪ [") + monsterType.getDisplayName() + "] ";
         
         switch (soundType) {
             case "spotted":
@@ -649,9 +929,7 @@ public class LookBasedMonster extends BasicMonster {
      * @return Current time
      */
     private double getCurrentTime() {
-        // Use simulation time if we're being tested (deltaTime updates accumulate)
-        // Otherwise use real-world time for actual gameplay
-        return simulationTime > 0 ? simulationTime : System.currentTimeMillis() / 1000.0;
+        return clock.now();
     }
     
     // === Monster Interface Implementation ===
@@ -763,6 +1041,7 @@ public class LookBasedMonster extends BasicMonster {
     public void reset() {
         currentBehavior = MonsterBehavior.DORMANT;
         lastSeenTime = -1.0;
+        despawnTimer.cancel();
         activeTime = 0.0;
         isBeingObserved = false;
         isDefeated = false;
@@ -0,0 +1,203 @@
+package dontlookback;
+
+/**
+ * Matrix Utilities for Don't Look Back
+ *
+ * Minimal 4x4 matrix helpers for the core-profile renderer, which no longer
+ * has the fixed-function matrix stack (glFrustum, glRotatef, glTranslatef).
+ * Matrices are plain float[16] arrays in column-major order so they can be
+ * handed straight to glUniformMatrix4fv without conversion.
+ *
+ * Features:
+ * - Projection builders matching glFrustum and glOrtho
+ * - In-place rotate/translate/scale with glRotatef-style post-multiplication
+ * - Direct model matrix construction for position + yaw + scale
+ * - No allocation: every method writes into a caller-provided array
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public final class Matrix4 {
+
+    /** Number of elements in a 4x4 matrix */
+    public static final int SIZE = 16;
+
+    private Matrix4() {
+        // Static utility class
+    }
+
+    // === Construction ===
+
+    /**
+     * Create a new identity matrix
+     * @return New column-major identity matrix
+     */
+    public static float[] create() {
+        float[] m = new float[SIZE];
+        identity(m);
+        return m;
+    }
+
+    /**
+     * Reset a matrix to identity
+     * @param m Matrix to reset
+     */
+    public static void identity(float[] m) {
+        for (int i = 0; i < SIZE; i++) {
+            m[i] = 0.0f;
+        }
+        m[0] = 1.0f;
+        m[5] = 1.0f;
+        m[10] = 1.0f;
+        m[15] = 1.0f;
+    }
+
+    /**
+     * Build a perspective projection equivalent to glFrustum
+     */
+    public static void frustum(float[] m, float left, float right, float bottom, float top,
+                               float near, float far) {
+        identity(m);
+        m[0] = 2.0f * near / (right - left);
+        m[5] = 2.0f * near / (top - bottom);
+        m[8] = (right + left) / (right - left);
+        m[9] = (top + bottom) / (top - bottom);
+        m[10] = -(far + near) / (far - near);
+        m[11] = -1.0f;
+        m[14] = -2.0f * far * near / (far - near);
+        m[15] = 0.0f;
+    }
+
+    /**
+     * Build an orthographic projection equivalent to glOrtho
+     */
+    public static void ortho(float[] m, float left, float right, float bottom, float top,
+                             float near, float far) {
+        identity(m);
+        m[0] = 2.0f / (right - left);
+        m[5] = 2.0f / (top - bottom);
+        m[10] = -2.0f / (far - near);
+        m[12] = -(right + left) / (right - left);
+        m[13] = -(top + bottom) / (top - bottom);
+        m[14] = -(far + near) / (far - near);
+    }
+
+    /**
+     * Build a model matrix: translate to (x, y, z), rotate around Y, then scale
+     * @param m Destination matrix
+     * @param yawDegrees Rotation around the vertical axis in degrees
+     */
+    public static void model(float[] m, float x, float y, float z, float yawDegrees,
+                             float scaleX, float scaleY, float scaleZ) {
+        double radians = Math.toRadians(yawDegrees);
+        float c = (float) Math.cos(radians);
+        float s = (float) Math.sin(radians);
+
+        m[0] = c * scaleX;   m[1] = 0.0f;    m[2] = -s * scaleX;  m[3] = 0.0f;
+        m[4] = 0.0f;         m[5] = scaleY;  m[6] = 0.0f;         m[7] = 0.0f;
+        m[8] = s * scaleZ;   m[9] = 0.0f;    m[10] = c * scaleZ;  m[11] = 0.0f;
+        m[12] = x;           m[13] = y;      m[14] = z;           m[15] = 1.0f;
+    }
+
+    // === In-place Transformations (post-multiply, like glRotatef) ===
+
+    /**
+     * Rotate around the X axis
+     * @param m Matrix to modify
+     * @param degrees Rotation angle in degrees
+     */
+    public static void rotateX(float[] m, float degrees) {
+        double radians = Math.toRadians(degrees);
+        float c = (float) Math.cos(radians);
+        float s = (float) Math.sin(radians);
+        for (int row = 0; row < 4; row++) {
+            float a = m[4 + row];
+            float b = m[8 + row];
+            m[4 + row] = c * a + s * b;
+            m[8 + row] = -s * a + c * b;
+        }
+    }
+
+    /**
+     * Rotate around the Y axis
+     * @param m Matrix to modify
+     * @param degrees Rotation angle in degrees
+     */
+    public static void rotateY(float[] m, float degrees) {
+        double radians = Math.toRadians(degrees);
+        float c = (float) Math.cos(radians);
+        float s = (float) Math.sin(radians);
+        for (int row = 0; row < 4; row++) {
+            float a = m[row];
+            float b = m[8 + row];
+            m[row] = c * a - s * b;
+            m[8 + row] = s * a + c * b;
+        }
+    }
+
+    /**
+     * Rotate around the Z axis
+     * @param m Matrix to modify
+     * @param degrees Rotation angle in degrees
+     */
+    public static void rotateZ(float[] m, float degrees) {
+        double radians = Math.toRadians(degrees);
+        float c = (float) Math.cos(radians);
+        float s = (float) Math.sin(radians);
+        for (int row = 0; row < 4; row++) {
+            float a = m[row];
+            float b = m[4 + row];
+            m[row] = c * a + s * b;
+            m[4 + row] = -s * a + c * b;
+        }
+    }
+
+    /**
+     * Apply a translation
+     * @param m Matrix to modify
+     */
+    public static void translate(float[] m, float x, float y, float z) {
+        for (int row = 0; row < 4; row++) {
+            m[12 + row] += m[row] * x + m[4 + row] * y + m[8 + row] * z;
+        }
+    }
+
+    /**
+     * Apply a non-uniform scale
+     * @param m Matrix to modify
+     */
+    public static void scale(float[] m, float x, float y, float z) {
+        for (int row = 0; row < 4; row++) {
+            m[row] *= x;
+            m[4 + row] *= y;
+            m[8 + row] *= z;
+        }
+    }
+
+    /**
+     * Multiply two matrices: out = a * b
+     * @param out Destination (must not alias a or b)
+     */
+    public static void multiply(float[] out, float[] a, float[] b) {
+        for (int col = 0; col < 4; col++) {
+            for (int row = 0; row < 4; row++) {
+                out[col * 4 + row] = a[row] * b[col * 4]
+                                   + a[4 + row] * b[col * 4 + 1]
+                                   + a[8 + row] * b[col * 4 + 2]
+                                   + a[12 + row] * b[col * 4 + 3];
+            }
+        }
+    }
+
+    /**
+     * Transform a point (w = 1) by a matrix
+     * @param m Transformation matrix
+     * @param point Point {x, y, z}
+     * @param out Destination {x, y, z, w}
+     */
+    public static void transformPoint(float[] m, float[] point, float[] out) {
+        for (int row = 0; row < 4; row++) {
+            out[row] = m[row] * point[0] + m[4 + row] * point[1] + m[8 + row] * point[2] + m[12 + row];
+        }
+    }
+}
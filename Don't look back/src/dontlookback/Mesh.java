@@ -0,0 +1,186 @@
+package dontlookback;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Retained-mode Mesh for Don't Look Back
+ *
+ * Owns one vertex array object with its vertex and index buffers. Geometry is
+ * uploaded once at construction and drawn with a single glDrawElements call,
+ * replacing the per-vertex glBegin/glEnd submission that is illegal in the
+ * OpenGL 3.3 core profile.
+ *
+ * Features:
+ * - VAO + VBO + EBO with an interleaved position/normal/color layout
+ * - Fixed attribute locations shared by every mesh shader
+ * - Explicit GPU resource release via {@link #delete()}
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class Mesh {
+
+    // === Vertex Layout ===
+
+    /** Attribute location of the vertex position (vec3) */
+    public static final int ATTRIB_POSITION = 0;
+
+    /** Attribute location of the vertex normal (vec3) */
+    public static final int ATTRIB_NORMAL = 1;
+
+    /** Attribute location of the vertex color (vec3) */
+    public static final int ATTRIB_COLOR = 2;
+
+    /** Floats per interleaved vertex: position(3) + normal(3) + color(3) */
+    public static final int FLOATS_PER_VERTEX = 9;
+
+    /** Byte stride of one interleaved vertex */
+    public static final int STRIDE_BYTES = FLOATS_PER_VERTEX * Float.BYTES;
+
+    // === GPU Handles ===
+
+    /** Vertex array object */
+    private int vao;
+
+    /** Vertex buffer object */
+    private int vbo;
+
+    /** Element (index) buffer object */
+    private int ebo;
+
+    /** Number of indices to draw */
+    private final int indexCount;
+
+    /** Number of vertices uploaded */
+    private final int vertexCount;
+
+    /**
+     * Upload interleaved geometry to the GPU
+     * @param vertices Interleaved vertex data (see {@link #FLOATS_PER_VERTEX})
+     * @param indices Triangle indices
+     */
+    public Mesh(float[] vertices, int[] indices) {
+        if (vertices.length % FLOATS_PER_VERTEX != 0) {
+            throw new IllegalArgumentException("Vertex data is not a whole number of vertices: " + vertices.length);
+        }
+        this.vertexCount = vertices.length / FLOATS_PER_VERTEX;
+        this.indexCount = indices.length;
+
+        createBuffers();
+        glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+        finishVertexArray();
+    }
+
+    /**
+     * Upload raw interleaved geometry (e.g. a memory-mapped mesh cache)
+     * @param vertexData Native-order vertex bytes, position to limit
+     * @param indexData Native-order 32-bit indices, position to limit
+     */
+    public Mesh(ByteBuffer vertexData, ByteBuffer indexData) {
+        if (vertexData.remaining() % STRIDE_BYTES != 0) {
+            throw new IllegalArgumentException("Vertex data is not a whole number of vertices: " +
+                                               vertexData.remaining() + " bytes");
+        }
+        this.vertexCount = vertexData.remaining() / STRIDE_BYTES;
+        this.indexCount = indexData.remaining() / Integer.BYTES;
+
+        createBuffers();
+        glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
+        finishVertexArray();
+    }
+
+    /**
+     * Create and bind the VAO with its vertex and index buffers
+     */
+    private void createBuffers() {
+        vao = glGenVertexArrays();
+        glBindVertexArray(vao);
+        vbo = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        ebo = glGenBuffers();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+    }
+
+    private void finishVertexArray() {
+        enableVertexLayout();
+
+        // The element buffer binding is VAO state, so only the array buffer is unbound
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Describe the interleaved vertex layout for the buffer bound to
+     * GL_ARRAY_BUFFER. Shared with VAOs that reuse this mesh's buffers.
+     */
+    static void enableVertexLayout() {
+        glEnableVertexAttribArray(ATTRIB_POSITION);
+        glVertexAttribPointer(ATTRIB_POSITION, 3, GL_FLOAT, false, STRIDE_BYTES, 0L);
+        glEnableVertexAttribArray(ATTRIB_NORMAL);
+        glVertexAttribPointer(ATTRIB_NORMAL, 3, GL_FLOAT, false, STRIDE_BYTES, 3L * Float.BYTES);
+        glEnableVertexAttribArray(ATTRIB_COLOR);
+        glVertexAttribPointer(ATTRIB_COLOR, 3, GL_FLOAT, false, STRIDE_BYTES, 6L * Float.BYTES);
+    }
+
+    // === Drawing ===
+
+    /**
+     * Draw the whole mesh with the currently bound shader program
+     */
+    public void draw() {
+        if (vao == 0) {
+            return;
+        }
+        glBindVertexArray(vao);
+        glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0L);
+        glBindVertexArray(0);
+    }
+
+    /**
+     * Release all GPU resources owned by this mesh
+     */
+    public void delete() {
+        if (vao == 0) {
+            return;
+        }
+        glDeleteBuffers(vbo);
+        glDeleteBuffers(ebo);
+        glDeleteVertexArrays(vao);
+        vao = 0;
+        vbo = 0;
+        ebo = 0;
+    }
+
+    // === Accessors ===
+
+    public int getVao() {
+        return vao;
+    }
+
+    public int getVbo() {
+        return vbo;
+    }
+
+    public int getEbo() {
+        return ebo;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public boolean isDeleted() {
+        return vao == 0;
+    }
+}
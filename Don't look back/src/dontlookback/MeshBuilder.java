@@ -0,0 +1,170 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Mesh Builder for Don't Look Back
+ *
+ * CPU-side accumulator for indexed triangle geometry. Shapes and the graphics
+ * system describe geometry once through this builder, then upload the result
+ * into a {@link Mesh} instead of re-sending vertices every frame.
+ *
+ * Features:
+ * - Interleaved vertex layout (position, normal, color) matching {@link Mesh}
+ * - Growable primitive arrays (no boxing, no per-vertex objects)
+ * - Face helper that derives winding and normal from two edge vectors
+ * - Usable in headless mode: building does not touch OpenGL
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class MeshBuilder {
+
+    // === Storage ===
+
+    /** Interleaved vertex data */
+    private float[] vertices;
+
+    /** Triangle indices */
+    private int[] indices;
+
+    /** Number of floats written to vertices */
+    private int vertexFloats = 0;
+
+    /** Number of indices written */
+    private int indexCount = 0;
+
+    /**
+     * Create a builder with a small default capacity
+     */
+    public MeshBuilder() {
+        this(24);
+    }
+
+    /**
+     * Create a builder sized for an expected vertex count
+     * @param expectedVertices Initial vertex capacity
+     */
+    public MeshBuilder(int expectedVertices) {
+        int capacity = Math.max(4, expectedVertices);
+        vertices = new float[capacity * Mesh.FLOATS_PER_VERTEX];
+        indices = new int[capacity * 3 / 2];
+    }
+
+    // === Geometry ===
+
+    /**
+     * Append a single vertex
+     * @return Index of the new vertex
+     */
+    public int addVertex(float px, float py, float pz, float nx, float ny, float nz,
+                         float r, float g, float b) {
+        ensureVertexCapacity(Mesh.FLOATS_PER_VERTEX);
+        int index = vertexFloats / Mesh.FLOATS_PER_VERTEX;
+        vertices[vertexFloats++] = px;
+        vertices[vertexFloats++] = py;
+        vertices[vertexFloats++] = pz;
+        vertices[vertexFloats++] = nx;
+        vertices[vertexFloats++] = ny;
+        vertices[vertexFloats++] = nz;
+        vertices[vertexFloats++] = r;
+        vertices[vertexFloats++] = g;
+        vertices[vertexFloats++] = b;
+        return index;
+    }
+
+    /**
+     * Append a triangle from three existing vertex indices
+     */
+    public void addTriangle(int a, int b, int c) {
+        ensureIndexCapacity(3);
+        indices[indexCount++] = a;
+        indices[indexCount++] = b;
+        indices[indexCount++] = c;
+    }
+
+    /**
+     * Append a flat-colored rectangular face.
+     *
+     * The face is centered at (cx, cy, cz) and spans the half-extent vectors
+     * u and v. Its normal is u x v and the triangles wind counter-clockwise
+     * when viewed from the side the normal points to, so back-face culling
+     * keeps the side the normal faces.
+     */
+    public void addFace(float cx, float cy, float cz,
+                        float ux, float uy, float uz,
+                        float vx, float vy, float vz,
+                        float r, float g, float b) {
+        float nx = uy * vz - uz * vy;
+        float ny = uz * vx - ux * vz;
+        float nz = ux * vy - uy * vx;
+        float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length > 0.0f) {
+            nx /= length;
+            ny /= length;
+            nz /= length;
+        }
+
+        int first = addVertex(cx - ux - vx, cy - uy - vy, cz - uz - vz, nx, ny, nz, r, g, b);
+        addVertex(cx + ux - vx, cy + uy - vy, cz + uz - vz, nx, ny, nz, r, g, b);
+        addVertex(cx + ux + vx, cy + uy + vy, cz + uz + vz, nx, ny, nz, r, g, b);
+        addVertex(cx - ux + vx, cy - uy + vy, cz - uz + vz, nx, ny, nz, r, g, b);
+
+        addTriangle(first, first + 1, first + 2);
+        addTriangle(first, first + 2, first + 3);
+    }
+
+    /**
+     * Remove all geometry while keeping allocated capacity
+     */
+    public void clear() {
+        vertexFloats = 0;
+        indexCount = 0;
+    }
+
+    // === Output ===
+
+    /**
+     * Upload the accumulated geometry to the GPU
+     * @return New mesh (requires a current OpenGL context)
+     */
+    public Mesh build() {
+        return new Mesh(getVertices(), getIndices());
+    }
+
+    /**
+     * Get a trimmed copy of the interleaved vertex data
+     */
+    public float[] getVertices() {
+        return Arrays.copyOf(vertices, vertexFloats);
+    }
+
+    /**
+     * Get a trimmed copy of the index data
+     */
+    public int[] getIndices() {
+        return Arrays.copyOf(indices, indexCount);
+    }
+
+    public int getVertexCount() {
+        return vertexFloats / Mesh.FLOATS_PER_VERTEX;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    // === Helper Methods ===
+
+    private void ensureVertexCapacity(int additionalFloats) {
+        if (vertexFloats + additionalFloats > vertices.length) {
+            vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, vertexFloats + additionalFloats));
+        }
+    }
+
+    private void ensureIndexCapacity(int additionalIndices) {
+        if (indexCount + additionalIndices > indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexCount + additionalIndices));
+        }
+    }
+}
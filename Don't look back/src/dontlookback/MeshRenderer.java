@@ -0,0 +1,473 @@
+package dontlookback;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+
+/**
+ * Mesh Renderer for Don't Look Back
+ *
+ * Core-profile replacement for the immediate-mode drawing that used to live
+ * in Graphics and Shapes. Shared meshes (cubes, rooms, overlay quad) are
+ * uploaded once on first use. Mesh draws are queued with a sort key and
+ * executed at the end of the frame in key order through a GL state cache.
+ *
+ * Features:
+ * - "mesh" programs from the ShaderLibrary with id-indexed uniform locations
+ * - Lazily created shared meshes for all Shapes primitives
+ * - Per-draw model matrix and color tint (used by single-color Cubes)
+ * - Sorted command queue: layer, shader, mesh, then depth
+ * - Instanced path: whole batches of cubes in one glDrawElementsInstanced
+ * - Full-screen overlay drawing for pause/menu dimming
+ * - Shared triple-buffered streaming buffer for per-frame dynamic data
+ * - Per-frame draw call and state change counters for performance monitoring
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class MeshRenderer {
+
+    // === Active Renderer ===
+
+    /** Renderer bound to the current OpenGL context (null when headless) */
+    private static MeshRenderer active;
+
+    /**
+     * Register the renderer used by Shapes and game objects
+     * @param renderer Renderer for the current context, or null to clear
+     */
+    public static void setActive(MeshRenderer renderer) {
+        active = renderer;
+    }
+
+    /**
+     * Get the renderer bound to the current context
+     * @return Active renderer, or null in headless mode
+     */
+    public static MeshRenderer getActive() {
+        return active;
+    }
+
+    // === Shader State ===
+
+    /** Uniform ids shared by the mesh programs */
+    private static final int U_PROJECTION = ShaderLibrary.uniformId("T_projection");
+    private static final int U_VIEW = ShaderLibrary.uniformId("T_view");
+    private static final int U_MODEL = ShaderLibrary.uniformId("T_model");
+    private static final int U_TINT = ShaderLibrary.uniformId("R_tint");
+    private static final int U_SHADE = ShaderLibrary.uniformId("R_shade");
+
+    /** Shader program used for all mesh draws (owned by the library) */
+    private final ShaderProgram program;
+
+    /** Shader program for instanced batches (owned by the library) */
+    private final ShaderProgram instancedProgram;
+
+    /** Shadowed GL state shared by every draw path */
+    private final GLStateCache stateCache = new GLStateCache();
+
+    /** Mesh draws of the current frame, executed in key order by endFrame */
+    private final RenderQueue queue = new RenderQueue(1024);
+
+    /** Queue view slots of the current frame */
+    private int worldView = -1;
+    private int overlayView = -1;
+
+    /** Whether the instanced program has this frame's camera matrices */
+    private boolean instancedCameraCurrent = false;
+
+    // === Scratch Matrices ===
+
+    /** Identity matrix for pre-transformed geometry */
+    private final float[] identity = Matrix4.create();
+
+    /** Reusable model matrix for positioned draws */
+    private final float[] model = Matrix4.create();
+
+    /** Reusable projection matrix for overlays */
+    private final float[] overlayProjection = Matrix4.create();
+
+    /** Camera matrices of the current frame */
+    private final float[] frameProjection = Matrix4.create();
+    private final float[] frameView = Matrix4.create();
+
+    // === Shared Meshes ===
+
+    private Mesh colorCube;
+    private Mesh unitCube;
+    private Mesh largeCube;
+    private Mesh triangle;
+    private Mesh rectangle;
+    private Mesh room;
+    private Mesh floorGrid;
+    private Mesh overlayQuad;
+
+    /** Meshes loaded from res/models, by name */
+    private final Map<String, Mesh> models = new HashMap<>();
+
+    /** Streaming batch shared by dynamic render lists */
+    private InstanceBatch cubeBatch;
+
+    // === Streaming ===
+
+    /** Bytes per frame region of the streaming buffer (32768 cube instances) */
+    private static final int STREAM_REGION_BYTES = 1024 * 1024;
+
+    /** Ring buffer for data rewritten every frame (instances, lights) */
+    private final StreamingBuffer streamingBuffer;
+
+    // === Statistics ===
+
+    /** Draw calls issued since the last beginFrame */
+    private int drawCalls = 0;
+
+    /** Instances drawn through batches since the last beginFrame */
+    private int instancesDrawn = 0;
+
+    /**
+     * Create the renderer for the current OpenGL context
+     * @param shaders Library providing the mesh programs
+     */
+    public MeshRenderer(ShaderLibrary shaders) {
+        program = shaders.get("mesh");
+        instancedProgram = shaders.get("mesh_instanced");
+
+        streamingBuffer = new StreamingBuffer(GL_ARRAY_BUFFER, STREAM_REGION_BYTES);
+
+        // Meshes game objects draw with are built here, on the render thread,
+        // so no accessor creates GL objects on whichever thread first asks
+        unitCube = buildMesh(24, Shapes::appendUnitCube);
+        room = buildMesh(24, Shapes::appendRoom);
+        cubeBatch = new InstanceBatch(unitCube, 256, true);
+    }
+
+    // === Frame Setup ===
+
+    /**
+     * Bind the mesh program and set the camera for the following draws
+     * @param projection Column-major projection matrix
+     * @param view Column-major view matrix
+     */
+    public void beginFrame(float[] projection, float[] view) {
+        drawCalls = 0;
+        instancesDrawn = 0;
+        System.arraycopy(projection, 0, frameProjection, 0, Matrix4.SIZE);
+        System.arraycopy(view, 0, frameView, 0, Matrix4.SIZE);
+        instancedCameraCurrent = false;
+        streamingBuffer.beginFrame();
+
+        // Code outside the renderer may have touched GL since the last frame
+        stateCache.invalidate();
+        stateCache.resetCounters();
+        queue.clear();
+        worldView = queue.addView(projection, view);
+        overlayView = -1;
+    }
+
+    /**
+     * Finish the frame: executes the queued draws in key order, then
+     * fences the streaming region written by this frame
+     */
+    public void endFrame() {
+        drawCalls += queue.flush(stateCache);
+        worldView = -1;
+        overlayView = -1;
+        streamingBuffer.endFrame();
+    }
+
+    // === Drawing ===
+
+    /**
+     * Draw a mesh with its own vertex colors and directional shading
+     * @param mesh Mesh to draw
+     * @param modelMatrix Column-major model matrix
+     */
+    public void draw(Mesh mesh, float[] modelMatrix) {
+        draw(mesh, modelMatrix, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * Draw a mesh with a color tint multiplied into its vertex colors
+     * @param shade Amount of directional shading (0 = unlit, 1 = fully shaded)
+     */
+    public void draw(Mesh mesh, float[] modelMatrix, float r, float g, float b, float a, float shade) {
+        if (worldView < 0) {
+            worldView = queue.addView(frameProjection, frameView);
+        }
+        // View-space distance of the model origin
+        float depth = -(frameView[2] * modelMatrix[12] + frameView[6] * modelMatrix[13] +
+                        frameView[10] * modelMatrix[14] + frameView[14]);
+        int layer = a < 1.0f ? RenderQueue.LAYER_TRANSPARENT : RenderQueue.LAYER_OPAQUE;
+        queue.submit(layer, program, mesh, worldView, depth, modelMatrix, r, g, b, a, shade);
+    }
+
+    /**
+     * Draw a mesh positioned, rotated around Y and scaled, with a color tint
+     */
+    public void drawAt(Mesh mesh, float x, float y, float z, float yawDegrees,
+                       float scaleX, float scaleY, float scaleZ, float r, float g, float b) {
+        Matrix4.model(model, x, y, z, yawDegrees, scaleX, scaleY, scaleZ);
+        draw(mesh, model, r, g, b, 1.0f, 1.0f);
+    }
+
+    /**
+     * Draw every instance in a batch with one instanced draw call
+     * @param batch Batch to upload (if changed) and draw
+     */
+    public void drawInstanced(InstanceBatch batch) {
+        if (batch.getInstanceCount() == 0) {
+            return;
+        }
+        useProgram(instancedProgram);
+        if (!instancedCameraCurrent) {
+            glUniformMatrix4fv(instancedProgram.getLocation(U_PROJECTION), false, frameProjection);
+            glUniformMatrix4fv(instancedProgram.getLocation(U_VIEW), false, frameView);
+            glUniform4f(instancedProgram.getLocation(U_TINT), 1.0f, 1.0f, 1.0f, 1.0f);
+            glUniform1f(instancedProgram.getLocation(U_SHADE), 1.0f);
+            instancedCameraCurrent = true;
+        }
+        if (batch.draw(streamingBuffer)) {
+            drawCalls++;
+            instancesDrawn += batch.getInstanceCount();
+        }
+        // Batches bind their own VAO and leave 0 bound
+        stateCache.setBoundVertexArray(0);
+    }
+
+    /**
+     * Get the streaming cube batch shared by dynamic render lists.
+     * Callers clear it, fill it and draw it within one frame.
+     */
+    public InstanceBatch getCubeBatch() {
+        return cubeBatch;
+    }
+
+    /**
+     * Create a static batch of unit cubes, owned and deleted by the caller
+     * @param expectedInstances Initial capacity
+     */
+    public InstanceBatch createCubeBatch(int expectedInstances) {
+        return new InstanceBatch(getUnitCube(), expectedInstances, false);
+    }
+
+    /**
+     * Draw a mesh whose vertices are already in world space
+     */
+    public void drawWorld(Mesh mesh) {
+        draw(mesh, identity);
+    }
+
+    /**
+     * Dim the whole viewport with a translucent quad, drawn after all world geometry
+     */
+    public void drawOverlay(float r, float g, float b, float a) {
+        if (overlayView < 0) {
+            Matrix4.ortho(overlayProjection, 0.0f, 1.0f, 0.0f, 1.0f, -1.0f, 1.0f);
+            overlayView = queue.addView(overlayProjection, identity);
+        }
+        queue.submit(RenderQueue.LAYER_OVERLAY, program, getOverlayQuad(), overlayView, 0.0f,
+                     identity, r, g, b, a, 0.0f);
+    }
+
+    // === Shared Meshes ===
+
+    /**
+     * Unit cube with the classic six face colors from Shapes
+     */
+    public Mesh getColorCube() {
+        if (colorCube == null) {
+            MeshBuilder builder = new MeshBuilder(24);
+            Shapes.appendColorCube(builder);
+            colorCube = builder.build();
+        }
+        return colorCube;
+    }
+
+    /**
+     * White unit cube, tinted per draw (used by Cube game objects)
+     */
+    public Mesh getUnitCube() {
+        return unitCube;
+    }
+
+    /**
+     * The large world-space test cube from Shapes.renderCube()
+     */
+    public Mesh getLargeCube() {
+        if (largeCube == null) {
+            MeshBuilder builder = new MeshBuilder(24);
+            Shapes.appendLargeCube(builder);
+            largeCube = builder.build();
+        }
+        return largeCube;
+    }
+
+    /**
+     * Unit triangle in the XY plane
+     */
+    public Mesh getTriangle() {
+        if (triangle == null) {
+            MeshBuilder builder = new MeshBuilder(3);
+            Shapes.appendTriangle(builder);
+            triangle = builder.build();
+        }
+        return triangle;
+    }
+
+    /**
+     * Unit green rectangle facing +Z
+     */
+    public Mesh getRectangle() {
+        if (rectangle == null) {
+            MeshBuilder builder = new MeshBuilder(4);
+            Shapes.appendRectangle(builder);
+            rectangle = builder.build();
+        }
+        return rectangle;
+    }
+
+    /**
+     * Unit room interior (floor, ceiling, four walls), scaled per draw
+     */
+    public Mesh getRoom() {
+        return room;
+    }
+
+    /**
+     * Build a mesh from a Shapes appender
+     */
+    private static Mesh buildMesh(int expectedVertices, Consumer<MeshBuilder> shape) {
+        MeshBuilder builder = new MeshBuilder(expectedVertices);
+        shape.accept(builder);
+        return builder.build();
+    }
+
+    /**
+     * Checkerboard test floor from Shapes.floorTest()
+     */
+    public Mesh getFloorGrid() {
+        if (floorGrid == null) {
+            MeshBuilder builder = new MeshBuilder(4 * 300 * 300);
+            Shapes.appendFloorGrid(builder);
+            floorGrid = builder.build();
+        }
+        return floorGrid;
+    }
+
+    /**
+     * Get a model from res/models (e.g. "monkey3"), loading it on first use
+     */
+    public Mesh getModel(String name) {
+        Mesh mesh = models.get(name);
+        if (mesh == null) {
+            mesh = Model.load(name).createMesh();
+            models.put(name, mesh);
+        }
+        return mesh;
+    }
+
+    /**
+     * Quad covering [0,1] x [0,1], used for screen overlays
+     */
+    private Mesh getOverlayQuad() {
+        if (overlayQuad == null) {
+            MeshBuilder builder = new MeshBuilder(4);
+            builder.addFace(0.5f, 0.5f, 0.0f, 0.5f, 0.0f, 0.0f, 0.0f, 0.5f, 0.0f, 1.0f, 1.0f, 1.0f);
+            overlayQuad = builder.build();
+        }
+        return overlayQuad;
+    }
+
+    // === Statistics and Cleanup ===
+
+    /**
+     * Bind a program only if it is not already bound
+     */
+    private void useProgram(ShaderProgram target) {
+        // Compare GL ids: a hot reload swaps the program behind the same object
+        stateCache.useProgram(target.getProgramId());
+    }
+
+    /**
+     * Get the number of draw calls issued since the last beginFrame
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the GL state cache (also used by Graphics for clear color and capabilities)
+     */
+    public GLStateCache getStateCache() {
+        return stateCache;
+    }
+
+    /**
+     * Get the command queue executed by endFrame
+     */
+    public RenderQueue getRenderQueue() {
+        return queue;
+    }
+
+    /**
+     * Get a one-line summary of the last frame's draw and state counters
+     */
+    public String getFrameStats() {
+        return String.format("Render: %d draws (%d queued, %d instanced), %d program binds, " +
+                             "%d VAO binds, %d state changes, %d redundant skipped",
+                             drawCalls, queue.getLastCommandCount(), instancesDrawn,
+                             stateCache.getProgramBinds(), stateCache.getVertexArrayBinds(),
+                             stateCache.getStateChanges(), stateCache.getRedundantSkipped());
+    }
+
+    /**
+     * Get the streaming buffer shared by instancing and light uploads
+     */
+    public StreamingBuffer getStreamingBuffer() {
+        return streamingBuffer;
+    }
+
+    /**
+     * Get the number of instances drawn through batches since the last beginFrame
+     */
+    public int getInstancesDrawn() {
+        return instancesDrawn;
+    }
+
+    /**
+     * Release all shared meshes and the streaming buffer (programs belong to the library)
+     */
+    public void cleanup() {
+        Mesh[] meshes = {colorCube, unitCube, largeCube, triangle, rectangle, room, floorGrid, overlayQuad};
+        for (Mesh mesh : meshes) {
+            if (mesh != null) {
+                mesh.delete();
+            }
+        }
+        colorCube = null;
+        unitCube = null;
+        largeCube = null;
+        triangle = null;
+        rectangle = null;
+        room = null;
+        floorGrid = null;
+        overlayQuad = null;
+        for (Mesh mesh : models.values()) {
+            mesh.delete();
+        }
+        models.clear();
+        if (cubeBatch != null) {
+            cubeBatch.delete();
+            cubeBatch = null;
+        }
+        queue.clear();
+        streamingBuffer.delete();
+        stateCache.invalidate();
+        if (active == this) {
+            active = null;
+        }
+    }
+}
@@ -1,15 +1,257 @@
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
 package dontlookback;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.lwjgl.BufferUtils;
+
 /**
+ * Model Loading for Don't Look Back
+ *
+ * Loads the OBJ models in res/models (monkey3.obj, plane3.obj) into the
+ * interleaved {@link Mesh} layout. The first load parses the OBJ with the
+ * streaming {@link ObjLoader} and writes a binary ".dlbmesh" next to the
+ * source; later loads memory-map that file and hand the mapped bytes straight
+ * to glBufferData, so loading costs page faults instead of parsing.
+ *
+ * Features:
+ * - Versioned binary cache with byte-order mark and source size/timestamp
+ * - Stale or foreign caches are rebuilt automatically
+ * - Classpath fallback (parse only) when res/models is not on disk
+ * - CPU side usable in headless mode; {@link #createMesh()} needs a context
  *
- * @author Carl
+ * .dlbmesh layout (native byte order): magic "DLBM", version, byte-order
+ * mark, floats per vertex, vertex count, index count, source size (long),
+ * source timestamp (long), then vertex floats and 32-bit indices.
+ *
+ * @author DLB Team
+ * @version 1.0
  */
 public class Model {
-    //monkey3.obj
-    //plane3.obj
+
+    // === Cache Format ===
+
+    /** Extension of the binary mesh cache */
+    public static final String CACHE_EXTENSION = ".dlbmesh";
+
+    /** "DLBM" */
+    private static final int CACHE_MAGIC = 0x444C424D;
+
+    /** Bump when the layout or the loader's output changes */
+    private static final int CACHE_VERSION = 1;
+
+    /** Reads back differently if the file was written with the other byte order */
+    private static final int BYTE_ORDER_MARK = 0x01020304;
+
+    /** Header size in bytes (keeps the vertex data 8-byte aligned) */
+    private static final int HEADER_BYTES = 40;
+
+    /** Classpath directory of the bundled models */
+    private static final String MODEL_ROOT = "/models/";
+
+    /** Parser shared by all loads (guarded by the class lock) */
+    private static final ObjLoader loader = new ObjLoader();
+
+    // === Model Data ===
+
+    private final String name;
+    private final ByteBuffer vertexData;
+    private final ByteBuffer indexData;
+    private final boolean fromCache;
+
+    private Model(String name, ByteBuffer vertexData, ByteBuffer indexData, boolean fromCache) {
+        this.name = name;
+        this.vertexData = vertexData;
+        this.indexData = indexData;
+        this.fromCache = fromCache;
+    }
+
+    // === Loading ===
+
+    /**
+     * Load a bundled model by name, e.g. "monkey3"
+     * @param name Model name without extension
+     * @return Loaded model
+     */
+    public static Model load(String name) {
+        Path[] candidates = {Paths.get("res", "models", name + ".obj"),
+                             Paths.get("..", "res", "models", name + ".obj")};
+        for (Path candidate : candidates) {
+            if (Files.isRegularFile(candidate)) {
+                return load(candidate);
+            }
+        }
+
+        // Packaged build: parse from the classpath, nowhere to write a cache
+        try (InputStream in = Model.class.getResourceAsStream(MODEL_ROOT + name + ".obj")) {
+            if (in == null) {
+                throw new IllegalArgumentException("Model not found: " + name);
+            }
+            return parse(name, ByteBuffer.wrap(in.readAllBytes()), 0L, 0L, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read model " + name, e);
+        }
+    }
+
+    /**
+     * Load an OBJ file, using (and refreshing) its .dlbmesh cache
+     * @param objFile Path of the .obj source
+     * @return Loaded model
+     */
+    public static Model load(Path objFile) {
+        String fileName = objFile.getFileName().toString();
+        String name = fileName.endsWith(".obj") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        Path cacheFile = objFile.resolveSibling(name + CACHE_EXTENSION);
+
+        try {
+            long sourceSize = Files.size(objFile);
+            long sourceTime = Files.getLastModifiedTime(objFile).toMillis();
+
+            Model cached = mapCache(name, cacheFile, sourceSize, sourceTime);
+            if (cached != null) {
+                return cached;
+            }
+            try (FileChannel channel = FileChannel.open(objFile, StandardOpenOption.READ)) {
+                MappedByteBuffer source = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+                return parse(name, source, sourceSize, sourceTime, cacheFile);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load model " + objFile, e);
+        }
+    }
+
+    /**
+     * Upload the model to the GPU
+     * @return New mesh (owned by the caller)
+     */
+    public Mesh createMesh() {
+        return new Mesh(vertexData.duplicate(), indexData.duplicate());
+    }
+
+    // === Accessors ===
+
+    public String getName() {
+        return name;
+    }
+
+    public int getVertexCount() {
+        return vertexData.remaining() / Mesh.STRIDE_BYTES;
+    }
+
+    public int getIndexCount() {
+        return indexData.remaining() / Integer.BYTES;
+    }
+
+    /**
+     * Whether the data came from a memory-mapped .dlbmesh file
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * Get a read-only view of the interleaved vertex bytes
+     */
+    public ByteBuffer getVertexData() {
+        return vertexData.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Get a read-only view of the index bytes
+     */
+    public ByteBuffer getIndexData() {
+        return indexData.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    // === Helper Methods ===
+
+    /**
+     * Memory-map a cache file if it is current
+     * @return Model backed by the mapping, or null if the cache is missing or stale
+     */
+    private static Model mapCache(String name, Path cacheFile, long sourceSize, long sourceTime) throws IOException {
+        if (!Files.isRegularFile(cacheFile) || Files.size(cacheFile) < HEADER_BYTES) {
+            return null;
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        mapped.order(ByteOrder.nativeOrder());
+
+        if (mapped.getInt(0) != CACHE_MAGIC || mapped.getInt(4) != CACHE_VERSION ||
+            mapped.getInt(8) != BYTE_ORDER_MARK || mapped.getInt(12) != Mesh.FLOATS_PER_VERTEX ||
+            mapped.getLong(24) != sourceSize || mapped.getLong(32) != sourceTime) {
+            return null;
+        }
+        long vertexBytes = (long) mapped.getInt(16) * Mesh.STRIDE_BYTES;
+        long indexBytes = (long) mapped.getInt(20) * Integer.BYTES;
+        if (HEADER_BYTES + vertexBytes + indexBytes != mapped.capacity()) {
+            return null;
+        }
+        int indexStart = HEADER_BYTES + (int) vertexBytes;
+        return new Model(name, slice(mapped, HEADER_BYTES, indexStart),
+                         slice(mapped, indexStart, mapped.capacity()), true);
+    }
+
+    /**
+     * Parse OBJ text, optionally writing the result as a cache file
+     */
+    private static Model parse(String name, ByteBuffer source, long sourceSize, long sourceTime, Path cacheFile) {
+        ByteBuffer file;
+        synchronized (Model.class) {
+            loader.parse(source);
+            int vertexBytes = loader.getVertexCount() * Mesh.STRIDE_BYTES;
+            int indexBytes = loader.getIndexCount() * Integer.BYTES;
+
+            // Build the cache image once; the model keeps views into it
+            file = BufferUtils.createByteBuffer(HEADER_BYTES + vertexBytes + indexBytes);
+            file.order(ByteOrder.nativeOrder());
+            file.putInt(CACHE_MAGIC).putInt(CACHE_VERSION).putInt(BYTE_ORDER_MARK).putInt(Mesh.FLOATS_PER_VERTEX);
+            file.putInt(loader.getVertexCount()).putInt(loader.getIndexCount());
+            file.putLong(sourceSize).putLong(sourceTime);
+            loader.writeVertices(file);
+            loader.writeIndices(file);
+            file.flip();
+        }
+
+        if (cacheFile != null) {
+            writeCache(cacheFile, file.duplicate());
+        }
+        int indexStart = HEADER_BYTES + (file.getInt(16) * Mesh.STRIDE_BYTES);
+        return new Model(name, slice(file, HEADER_BYTES, indexStart), slice(file, indexStart, file.limit()), false);
+    }
+
+    private static void writeCache(Path cacheFile, ByteBuffer image) {
+        Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE)) {
+                while (image.hasRemaining()) {
+                    channel.write(image);
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Mesh cache written: " + cacheFile.getFileName());
+        } catch (IOException e) {
+            // A read-only install still works, it just parses every time
+            System.err.println("Could not write mesh cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(to).position(from);
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
 }
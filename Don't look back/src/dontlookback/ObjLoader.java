@@ -0,0 +1,412 @@
+package dontlookback;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Streaming OBJ Loader for Don't Look Back
+ *
+ * Parses Wavefront OBJ text straight out of a ByteBuffer (usually a
+ * memory-mapped file) into the interleaved {@link Mesh} vertex layout. No
+ * String is created per line or token: numbers are decoded in place and all
+ * working storage is primitive arrays that are reused between loads.
+ *
+ * Features:
+ * - v / vn / f records; vt, o, g, s, mtllib and usemtl are skipped
+ * - Face formats v, v/vt, v//vn and v/vt/vn, including negative indices
+ * - Polygons triangulated as fans
+ * - Vertex deduplication on (position, normal) with an open-addressing
+ *   long-to-int hash table
+ * - Smooth per-position normals generated when the file has none
+ *
+ * Texture coordinates are not part of the mesh layout, so vertices that
+ * differ only in their UV are merged.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ObjLoader {
+
+    /** Color given to every loaded vertex (shading comes from the normals) */
+    private static final float DEFAULT_COLOR = 1.0f;
+
+    // === Source Attributes ===
+
+    private float[] positions = new float[3 * 1024];
+    private int positionCount = 0;
+
+    private float[] normals = new float[3 * 1024];
+    private int normalCount = 0;
+
+    // === Output ===
+
+    private float[] vertices = new float[Mesh.FLOATS_PER_VERTEX * 1024];
+    private int vertexCount = 0;
+
+    private int[] indices = new int[3 * 1024];
+    private int indexCount = 0;
+
+    // === Deduplication Table ===
+
+    /** Packed (position, normal) keys; EMPTY_KEY marks a free slot */
+    private long[] hashKeys = new long[2048];
+
+    /** Output vertex index for each key */
+    private int[] hashValues = new int[2048];
+
+    private static final long EMPTY_KEY = -1L;
+
+    // === Parse State ===
+
+    private ByteBuffer source;
+    private int cursor;
+    private int limit;
+
+    /** Vertex indices of the face being read */
+    private int[] faceVertices = new int[16];
+
+    /**
+     * Parse an OBJ file
+     * @param data OBJ text, read from position to limit (position is not changed)
+     */
+    public void parse(ByteBuffer data) {
+        reset();
+        source = data;
+        cursor = data.position();
+        limit = data.limit();
+
+        while (cursor < limit) {
+            skipBlanks();
+            if (cursor >= limit) {
+                break;
+            }
+            byte first = source.get(cursor);
+            byte second = cursor + 1 < limit ? source.get(cursor + 1) : 0;
+
+            if (first == 'v' && isBlank(second)) {
+                cursor++;
+                positions = ensure(positions, positionCount * 3 + 3);
+                for (int i = 0; i < 3; i++) {
+                    positions[positionCount * 3 + i] = parseFloat();
+                }
+                positionCount++;
+            } else if (first == 'v' && second == 'n') {
+                cursor += 2;
+                normals = ensure(normals, normalCount * 3 + 3);
+                for (int i = 0; i < 3; i++) {
+                    normals[normalCount * 3 + i] = parseFloat();
+                }
+                normalCount++;
+            } else if (first == 'f' && isBlank(second)) {
+                cursor++;
+                parseFace();
+            }
+            skipLine();
+        }
+
+        if (normalCount == 0) {
+            generateNormals();
+        }
+        source = null;
+    }
+
+    // === Results ===
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Get a trimmed copy of the interleaved vertices
+     */
+    public float[] getVertices() {
+        return Arrays.copyOf(vertices, vertexCount * Mesh.FLOATS_PER_VERTEX);
+    }
+
+    /**
+     * Get a trimmed copy of the triangle indices
+     */
+    public int[] getIndices() {
+        return Arrays.copyOf(indices, indexCount);
+    }
+
+    /**
+     * Write the interleaved vertices into a buffer at its position
+     */
+    public void writeVertices(ByteBuffer out) {
+        int floats = vertexCount * Mesh.FLOATS_PER_VERTEX;
+        for (int i = 0; i < floats; i++) {
+            out.putFloat(vertices[i]);
+        }
+    }
+
+    /**
+     * Write the triangle indices into a buffer at its position
+     */
+    public void writeIndices(ByteBuffer out) {
+        for (int i = 0; i < indexCount; i++) {
+            out.putInt(indices[i]);
+        }
+    }
+
+    // === Face Handling ===
+
+    private void parseFace() {
+        int corners = 0;
+        while (true) {
+            skipBlanks();
+            if (cursor >= limit || isLineEnd(source.get(cursor))) {
+                break;
+            }
+            int position = resolveIndex(parseInt(), positionCount);
+            int normal = -1;
+            if (cursor < limit && source.get(cursor) == '/') {
+                cursor++;
+                if (cursor < limit && source.get(cursor) != '/') {
+                    parseInt(); // Texture coordinate, not part of the mesh layout
+                }
+                if (cursor < limit && source.get(cursor) == '/') {
+                    cursor++;
+                    normal = resolveIndex(parseInt(), normalCount);
+                }
+            }
+            if (corners == faceVertices.length) {
+                faceVertices = Arrays.copyOf(faceVertices, corners * 2);
+            }
+            faceVertices[corners++] = vertexFor(position, normal);
+        }
+
+        // Fan triangulation keeps the winding of the polygon
+        for (int i = 2; i < corners; i++) {
+            indices = ensure(indices, indexCount + 3);
+            indices[indexCount++] = faceVertices[0];
+            indices[indexCount++] = faceVertices[i - 1];
+            indices[indexCount++] = faceVertices[i];
+        }
+    }
+
+    /**
+     * Find or create the output vertex for a (position, normal) pair
+     */
+    private int vertexFor(int position, int normal) {
+        if ((vertexCount + 1) * 2 > hashKeys.length) {
+            growHashTable();
+        }
+        long key = ((long) position << 32) | (normal + 1L);
+        int mask = hashKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (hashKeys[slot] != EMPTY_KEY) {
+            if (hashKeys[slot] == key) {
+                return hashValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int index = vertexCount++;
+        hashKeys[slot] = key;
+        hashValues[slot] = index;
+
+        vertices = ensure(vertices, vertexCount * Mesh.FLOATS_PER_VERTEX);
+
+        int o = index * Mesh.FLOATS_PER_VERTEX;
+        vertices[o] = positions[position * 3];
+        vertices[o + 1] = positions[position * 3 + 1];
+        vertices[o + 2] = positions[position * 3 + 2];
+        if (normal >= 0) {
+            vertices[o + 3] = normals[normal * 3];
+            vertices[o + 4] = normals[normal * 3 + 1];
+            vertices[o + 5] = normals[normal * 3 + 2];
+        } else {
+            vertices[o + 3] = 0.0f;
+            vertices[o + 4] = 0.0f;
+            vertices[o + 5] = 0.0f;
+        }
+        vertices[o + 6] = DEFAULT_COLOR;
+        vertices[o + 7] = DEFAULT_COLOR;
+        vertices[o + 8] = DEFAULT_COLOR;
+        return index;
+    }
+
+    /**
+     * Area-weighted smooth normals: accumulate face normals per vertex and normalize
+     */
+    private void generateNormals() {
+        int stride = Mesh.FLOATS_PER_VERTEX;
+        for (int t = 0; t < indexCount; t += 3) {
+            int a = indices[t] * stride;
+            int b = indices[t + 1] * stride;
+            int c = indices[t + 2] * stride;
+            float e1x = vertices[b] - vertices[a];
+            float e1y = vertices[b + 1] - vertices[a + 1];
+            float e1z = vertices[b + 2] - vertices[a + 2];
+            float e2x = vertices[c] - vertices[a];
+            float e2y = vertices[c + 1] - vertices[a + 1];
+            float e2z = vertices[c + 2] - vertices[a + 2];
+            float nx = e1y * e2z - e1z * e2y;
+            float ny = e1z * e2x - e1x * e2z;
+            float nz = e1x * e2y - e1y * e2x;
+            for (int corner = 0; corner < 3; corner++) {
+                int o = indices[t + corner] * stride;
+                vertices[o + 3] += nx;
+                vertices[o + 4] += ny;
+                vertices[o + 5] += nz;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            int o = v * stride;
+            float length = (float) Math.sqrt(vertices[o + 3] * vertices[o + 3] +
+                                             vertices[o + 4] * vertices[o + 4] +
+                                             vertices[o + 5] * vertices[o + 5]);
+            if (length > 0.0f) {
+                vertices[o + 3] /= length;
+                vertices[o + 4] /= length;
+                vertices[o + 5] /= length;
+            }
+        }
+    }
+
+    // === Tokenizing ===
+
+    private float parseFloat() {
+        skipBlanks();
+        boolean negative = false;
+        byte c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            cursor++;
+        }
+
+        double value = 0.0;
+        while (isDigit(peek())) {
+            value = value * 10.0 + (source.get(cursor++) - '0');
+        }
+        if (peek() == '.') {
+            cursor++;
+            double scale = 0.1;
+            while (isDigit(peek())) {
+                value += (source.get(cursor++) - '0') * scale;
+                scale *= 0.1;
+            }
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            cursor++;
+            boolean negativeExponent = peek() == '-';
+            if (peek() == '-' || peek() == '+') {
+                cursor++;
+            }
+            int exponent = 0;
+            while (isDigit(peek())) {
+                exponent = exponent * 10 + (source.get(cursor++) - '0');
+            }
+            value *= Math.pow(10.0, negativeExponent ? -exponent : exponent);
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    private int parseInt() {
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            cursor++;
+        }
+        if (!isDigit(peek())) {
+            throw new IllegalStateException("Malformed OBJ index at byte " + cursor);
+        }
+        int value = 0;
+        while (isDigit(peek())) {
+            value = value * 10 + (source.get(cursor++) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Convert a 1-based (or negative, relative) OBJ index into a 0-based one
+     */
+    private int resolveIndex(int objIndex, int count) {
+        int index = objIndex > 0 ? objIndex - 1 : count + objIndex;
+        if (index < 0 || index >= count) {
+            throw new IllegalStateException("OBJ index out of range: " + objIndex + " (" + count + " defined)");
+        }
+        return index;
+    }
+
+    private byte peek() {
+        return cursor < limit ? source.get(cursor) : 0;
+    }
+
+    private void skipBlanks() {
+        while (cursor < limit && isBlank(source.get(cursor)) && !isLineEnd(source.get(cursor))) {
+            cursor++;
+        }
+    }
+
+    private void skipLine() {
+        while (cursor < limit && source.get(cursor) != '\n') {
+            cursor++;
+        }
+        cursor++;
+    }
+
+    private static boolean isBlank(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isLineEnd(byte c) {
+        return c == '\n' || c == '\r' || c == '#';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // === Storage Helpers ===
+
+    private void reset() {
+        positionCount = 0;
+        normalCount = 0;
+        vertexCount = 0;
+        indexCount = 0;
+        Arrays.fill(hashKeys, EMPTY_KEY);
+    }
+
+    private void growHashTable() {
+        long[] oldKeys = hashKeys;
+        int[] oldValues = hashValues;
+        hashKeys = new long[oldKeys.length * 2];
+        hashValues = new int[oldKeys.length * 2];
+        Arrays.fill(hashKeys, EMPTY_KEY);
+        int mask = hashKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (hashKeys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashKeys[slot] = oldKeys[i];
+                hashValues[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** 64-bit finalizer (MurmurHash3 fmix64) folded to an int */
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static float[] ensure(float[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static int[] ensure(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
@@ -126,6 +126,33 @@ public abstract class Objects implements Entities {
         return color;
     }
 
+    /**
+     * Radius of a sphere around the center that contains the whole object,
+     * used for culling. Subclasses with a real size should override this.
+     */
+    public float getBoundingRadius() {
+        return 0.5f;
+    }
+
+    /**
+     * Add this object to an instanced batch of the shared unit cube mesh.
+     * Objects that cannot be drawn that way return false and are rendered
+     * individually through {@link #render()}.
+     */
+    public boolean appendInstance(InstanceBatch batch) {
+        return false;
+    }
+
+    /**
+     * Write this object's cube instance record (center x, y, z, width, yaw
+     * in radians, r, g, b; the {@link InstanceBatch} layout) into an array,
+     * so a render snapshot can draw it without touching the object.
+     * @return False if the object is not drawn as a cube instance
+     */
+    public boolean writeInstance(float[] out, int offset) {
+        return false;
+    }
+
     public abstract void render();
 
     public abstract void setColor();
@@ -0,0 +1,384 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Observation System for Don't Look Back
+ *
+ * Answers "is the player looking at it?" for every room, monster and item
+ * in one pass per frame. The camera is taken once; each entry is a bounding
+ * sphere in flat arrays, tested against the view cone with dot products and
+ * the precomputed cone cosine (no normalizing, no acos). Entries whose
+ * answer changed since the last pass are reported to their listener.
+ *
+ * Features:
+ * - Sphere-in-cone test with a distance limit; no square root for centers
+ *   that are inside the cone or clearly outside the range
+ * - Optional per-entry occluder (e.g. door portals for rooms) consulted only
+ *   for entries already inside the cone
+ * - Observed / unobserved transitions delivered after the pass, so listeners
+ *   may add, move or remove entries
+ * - Stable integer handles with a free list; no allocation per frame
+ * - Handles removed while transitions are delivered are reused only after
+ *   the delivery, so a new entry never receives a removed one's event
+ *
+ * Not thread-safe: register, move and update on the simulation thread.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ObservationSystem {
+
+    /**
+     * Told when its entry starts or stops being observed
+     */
+    public interface Listener {
+        void observationChanged(boolean observed);
+    }
+
+    /**
+     * Extra visibility test for entries inside the view cone
+     */
+    public interface Occluder {
+        boolean isVisible(Object target);
+    }
+
+    // === Entries (structure of arrays) ===
+
+    private float[] x;
+    private float[] y;
+    private float[] z;
+    private float[] radius;
+    private boolean[] alive;
+    private boolean[] observed;
+    private Object[] targets;
+    private Listener[] listeners;
+    private Occluder[] occluders;
+
+    /** Slots in use (including freed ones below) */
+    private int count = 0;
+
+    /** Freed slots for reuse */
+    private int[] free = new int[16];
+    private int freeCount = 0;
+
+    /** Slots removed during delivery, freed once it is over */
+    private int[] retired = new int[16];
+    private int retiredCount = 0;
+    private boolean delivering = false;
+
+    // === Camera ===
+
+    private float eyeX, eyeY, eyeZ;
+    private float forwardX, forwardY = 0.0f, forwardZ = 1.0f;
+    private float cosHalf = 0.5f;
+    private float sinHalf = (float) Math.sqrt(0.75);
+    private float maxDistance = Float.MAX_VALUE;
+
+    // === Transitions ===
+
+    private int[] changed = new int[16];
+    private int changedCount = 0;
+
+    private int lastObservedCount = 0;
+    private int lastTransitionCount = 0;
+
+    /**
+     * Create an empty system
+     * @param initialCapacity Entries before the arrays grow
+     */
+    public ObservationSystem(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        z = new float[capacity];
+        radius = new float[capacity];
+        alive = new boolean[capacity];
+        observed = new boolean[capacity];
+        targets = new Object[capacity];
+        listeners = new Listener[capacity];
+        occluders = new Occluder[capacity];
+    }
+
+    // === Entries ===
+
+    /**
+     * Register something that can be looked at; it starts unobserved
+     * @param target Object passed to the occluder (may be null without one)
+     * @param px Bounding sphere center X
+     * @param py Bounding sphere center Y
+     * @param pz Bounding sphere center Z
+     * @param r Bounding sphere radius (0 for a point)
+     * @param listener Told about observation changes, or null
+     * @return Handle for the entry
+     */
+    public int add(Object target, float px, float py, float pz, float r, Listener listener) {
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+        } else {
+            if (count == x.length) {
+                grow();
+            }
+            handle = count++;
+        }
+        x[handle] = px;
+        y[handle] = py;
+        z[handle] = pz;
+        radius[handle] = Math.max(0.0f, r);
+        alive[handle] = true;
+        observed[handle] = false;
+        targets[handle] = target;
+        listeners[handle] = listener;
+        occluders[handle] = null;
+        return handle;
+    }
+
+    /**
+     * Unregister an entry (no unobserved event is sent)
+     */
+    public void remove(int handle) {
+        checkHandle(handle);
+        alive[handle] = false;
+        observed[handle] = false;
+        targets[handle] = null;
+        listeners[handle] = null;
+        occluders[handle] = null;
+        if (delivering) {
+            if (retiredCount == retired.length) {
+                retired = Arrays.copyOf(retired, retiredCount * 2);
+            }
+            retired[retiredCount++] = handle;
+        } else {
+            freeSlot(handle);
+        }
+    }
+
+    private void freeSlot(int handle) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = handle;
+    }
+
+    /**
+     * Move an entry's bounding sphere
+     */
+    public void setPosition(int handle, float px, float py, float pz) {
+        checkHandle(handle);
+        x[handle] = px;
+        y[handle] = py;
+        z[handle] = pz;
+    }
+
+    /**
+     * Set the occluder an entry must also pass, or null for the cone alone
+     */
+    public void setOccluder(int handle, Occluder occluder) {
+        checkHandle(handle);
+        occluders[handle] = occluder;
+    }
+
+    public boolean isObserved(int handle) {
+        checkHandle(handle);
+        return observed[handle];
+    }
+
+    // === Camera ===
+
+    /**
+     * Set the camera for this frame
+     * @param eye Eye position [x, y, z]
+     * @param forward View direction (any length)
+     * @param halfAngle Half the view cone angle in radians
+     * @param maxDistance Furthest observable distance
+     */
+    public void setCamera(float[] eye, float[] forward, float halfAngle, float maxDistance) {
+        if (halfAngle <= 0 || halfAngle > Math.PI) {
+            throw new IllegalArgumentException("Half angle out of range: " + halfAngle);
+        }
+        eyeX = eye[0];
+        eyeY = eye[1];
+        eyeZ = eye[2];
+        float length = (float) Math.sqrt(forward[0] * forward[0] + forward[1] * forward[1] + forward[2] * forward[2]);
+        if (length > 0) {
+            forwardX = forward[0] / length;
+            forwardY = forward[1] / length;
+            forwardZ = forward[2] / length;
+        }
+        cosHalf = (float) Math.cos(halfAngle);
+        sinHalf = (float) Math.sin(halfAngle);
+        this.maxDistance = maxDistance;
+    }
+
+    public float getEyeX() {
+        return eyeX;
+    }
+
+    public float getEyeY() {
+        return eyeY;
+    }
+
+    public float getEyeZ() {
+        return eyeZ;
+    }
+
+    /**
+     * Check whether a point lies in the current view cone and range (no occlusion)
+     */
+    public boolean isInView(float px, float py, float pz) {
+        return sphereInCone(px - eyeX, py - eyeY, pz - eyeZ, 0.0f);
+    }
+
+    /**
+     * Check whether a point lies within range and inside a cone of another
+     * width around the current view direction (e.g. to stream content in early)
+     * @param cosHalfAngle Cosine of that cone's half angle
+     */
+    public boolean isInCone(float px, float py, float pz, float cosHalfAngle) {
+        float dx = px - eyeX;
+        float dy = py - eyeY;
+        float dz = pz - eyeZ;
+        float distanceSquared = dx * dx + dy * dy + dz * dz;
+        if (distanceSquared > maxDistance * maxDistance) {
+            return false;
+        }
+        float along = dx * forwardX + dy * forwardY + dz * forwardZ;
+        return pointInCone(along, distanceSquared, cosHalfAngle);
+    }
+
+    // === Observation Pass ===
+
+    /**
+     * Test every entry against the current camera and notify the listeners
+     * of entries whose observation changed
+     * @return Number of transitions
+     */
+    public int update() {
+        changedCount = 0;
+        int observedCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+            boolean seen = sphereInCone(x[i] - eyeX, y[i] - eyeY, z[i] - eyeZ, radius[i]);
+            if (seen && occluders[i] != null) {
+                seen = occluders[i].isVisible(targets[i]);
+            }
+            if (seen) {
+                observedCount++;
+            }
+            if (seen != observed[i]) {
+                observed[i] = seen;
+                if (changedCount == changed.length) {
+                    changed = Arrays.copyOf(changed, changedCount * 2);
+                }
+                changed[changedCount++] = i;
+            }
+        }
+        lastObservedCount = observedCount;
+        lastTransitionCount = changedCount;
+
+        // Deliver after the pass; skip entries removed by an earlier listener
+        // (their slots stay out of reach of add until the delivery is over)
+        delivering = true;
+        try {
+            for (int c = 0; c < changedCount; c++) {
+                int i = changed[c];
+                Listener listener = listeners[i];
+                if (alive[i] && listener != null) {
+                    listener.observationChanged(observed[i]);
+                }
+            }
+        } finally {
+            delivering = false;
+            for (int k = 0; k < retiredCount; k++) {
+                freeSlot(retired[k]);
+            }
+            retiredCount = 0;
+        }
+        return lastTransitionCount;
+    }
+
+    /**
+     * Sphere against the view cone and range, relative to the eye
+     */
+    private boolean sphereInCone(float dx, float dy, float dz, float r) {
+        float distanceSquared = dx * dx + dy * dy + dz * dz;
+        float range = maxDistance + r;
+        if (distanceSquared > range * range) {
+            return false;
+        }
+        if (distanceSquared <= r * r) {
+            // Eye inside the sphere
+            return true;
+        }
+        float along = dx * forwardX + dy * forwardY + dz * forwardZ;
+
+        if (pointInCone(along, distanceSquared, cosHalf)) {
+            return true;
+        }
+        if (r == 0.0f) {
+            return false;
+        }
+
+        // Distance from the center to the cone's surface
+        float perpendicular = (float) Math.sqrt(Math.max(0.0f, distanceSquared - along * along));
+        if (along * cosHalf + perpendicular * sinHalf < 0.0f) {
+            // Closest point of the cone is the apex, and the eye is outside the sphere
+            return false;
+        }
+        return perpendicular * cosHalf - along * sinHalf <= r;
+    }
+
+    /**
+     * Point in cone: along >= cos * |d|, compared squared to avoid the root
+     */
+    private static boolean pointInCone(float along, float distanceSquared, float cos) {
+        return cos >= 0.0f
+            ? along >= 0.0f && along * along >= cos * cos * distanceSquared
+            : along >= 0.0f || along * along <= cos * cos * distanceSquared;
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get the number of live entries
+     */
+    public int size() {
+        return count - freeCount - retiredCount;
+    }
+
+    /**
+     * Get the number of entries observed by the last pass
+     */
+    public int getObservedCount() {
+        return lastObservedCount;
+    }
+
+    /**
+     * Get the number of transitions found by the last pass
+     */
+    public int getTransitionCount() {
+        return lastTransitionCount;
+    }
+
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= count || !alive[handle]) {
+            throw new IllegalArgumentException("Unknown observation handle: " + handle);
+        }
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        observed = Arrays.copyOf(observed, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        listeners = Arrays.copyOf(listeners, capacity);
+        occluders = Arrays.copyOf(occluders, capacity);
+    }
+}
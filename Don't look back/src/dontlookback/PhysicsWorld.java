@@ -0,0 +1,507 @@
+package dontlookback;
+
+import org.jbox2d.callbacks.QueryCallback;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.BodyType;
+import org.jbox2d.dynamics.Fixture;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.World;
+import org.jbox2d.dynamics.joints.RevoluteJoint;
+import org.jbox2d.dynamics.joints.RevoluteJointDef;
+import java.util.Arrays;
+
+/**
+ * Physics World for Don't Look Back
+ *
+ * Top-down rigid body simulation on JBox2D. The game's X/Z floor plane is
+ * Box2D's X/Y plane (world Z becomes Box2D Y) with no gravity; heights are
+ * left to the game. Room walls are static bodies, furniture is pushable
+ * and sleeps when it comes to rest, doors swing on revolute joints, and
+ * the player and monsters are characters driven by a velocity.
+ *
+ * Features:
+ * - Fixed timestep through a {@link FixedTimestep} accumulator, so the
+ *   simulation runs the same at any frame rate
+ * - Resting bodies sleep and cost nothing until something touches them;
+ *   new furniture starts asleep
+ * - Box2D's dynamic tree broadphase for contacts and area queries, instead
+ *   of pairwise box loops
+ * - Dynamic characters are stopped by walls (Box2D sweeps them against
+ *   static bodies, so fast monsters cannot tunnel); kinematic ones follow
+ *   their velocity through everything and push props aside
+ * - After each step, moved furniture, players and monsters are written
+ *   back to their owners
+ * - Locked doors hold as static bodies
+ * - Stable int handles, as in {@link RaycastService}
+ *
+ * Not thread-safe; step and query it on the simulation thread.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class PhysicsWorld {
+
+    /** Simulation step (seconds) */
+    public static final double STEP = 1.0 / 60.0;
+
+    /** Most steps run to catch up after a slow frame */
+    public static final int MAX_STEPS_PER_FRAME = 5;
+
+    private static final int VELOCITY_ITERATIONS = 8;
+    private static final int POSITION_ITERATIONS = 3;
+
+    /** Floor friction, as damping: a shoved chair stops within a second or so */
+    private static final float PROP_DAMPING = 4.0f;
+
+    /** Door leaf thickness and hinge friction torque */
+    private static final float DOOR_THICKNESS = 0.05f;
+    private static final float DOOR_FRICTION = 2.0f;
+    private static final float DOOR_DENSITY = 10.0f;
+
+    private static final float CHARACTER_DENSITY = 80.0f;
+
+    // === Body kinds ===
+
+    private static final byte FREE = 0;
+    private static final byte STATIC = 1;
+    private static final byte PROP = 2;
+    private static final byte DOOR = 3;
+    private static final byte CHARACTER = 4;
+
+    private final World world;
+    private final Body ground;
+    private final FixedTimestep timestep = new FixedTimestep(STEP, MAX_STEPS_PER_FRAME);
+
+    // === Handles ===
+
+    private Body[] bodies = new Body[64];
+    private Object[] owners = new Object[64];
+    private byte[] kinds = new byte[64];
+    private RevoluteJoint[] joints = new RevoluteJoint[64];
+    private float[] driveX = new float[64];
+    private float[] driveZ = new float[64];
+    private int[] freeHandles = new int[16];
+    private int freeCount = 0;
+    private int handleLimit = 0;
+    private int count = 0;
+
+    // === Scratch ===
+
+    private final Vec2 vec = new Vec2();
+    private final AABB queryBox = new AABB();
+    private final QueryCallback queryCallback;
+    private int[] queryOut;
+    private int queryFound;
+    private long queryStamp = 0;
+    private long[] queryStamps = new long[64];
+
+    /**
+     * Create an empty world
+     */
+    public PhysicsWorld() {
+        world = new World(new Vec2(0.0f, 0.0f));
+        world.setAllowSleep(true);
+        ground = world.createBody(new BodyDef());
+        queryCallback = this::reportFixture;
+    }
+
+    // === Bodies ===
+
+    /**
+     * Add static geometry, e.g. a room's walls
+     * @param owner Whatever the geometry belongs to
+     * @param boxes Boxes {minX, minY, minZ, maxX, maxY, maxZ}, six floats each; only X and Z are used
+     * @param boxCount Number of boxes to take from the array
+     * @return Handle of the static body
+     */
+    public int addStatic(Object owner, float[] boxes, int boxCount) {
+        if (boxCount < 1 || boxCount * 6 > boxes.length) {
+            throw new IllegalArgumentException("Invalid box count: " + boxCount);
+        }
+        for (int i = 0; i < boxCount; i++) {
+            int o = i * 6;
+            if (!(boxes[o] < boxes[o + 3] && boxes[o + 2] < boxes[o + 5])) {
+                throw new IllegalArgumentException("Box " + i + " has no floor area");
+            }
+        }
+
+        BodyDef def = new BodyDef();
+        def.type = BodyType.STATIC;
+        Body body = world.createBody(def);
+        PolygonShape shape = new PolygonShape();
+        for (int i = 0; i < boxCount; i++) {
+            int o = i * 6;
+            float halfX = (boxes[o + 3] - boxes[o]) * 0.5f;
+            float halfZ = (boxes[o + 5] - boxes[o + 2]) * 0.5f;
+            vec.set(boxes[o] + halfX, boxes[o + 2] + halfZ);
+            shape.setAsBox(halfX, halfZ, vec, 0.0f);
+            body.createFixture(shape, 0.0f);
+        }
+        return register(body, owner, STATIC);
+    }
+
+    /**
+     * Add a pushable prop, e.g. a piece of furniture. It starts asleep.
+     * @param owner The prop; an {@link Objects} owner follows the body
+     * @param x Center X
+     * @param z Center Z
+     * @param halfWidth Half extent along X
+     * @param halfDepth Half extent along Z
+     * @param mass Mass in kilograms
+     * @return Handle of the prop
+     */
+    public int addProp(Object owner, float x, float z, float halfWidth, float halfDepth, float mass) {
+        if (!(halfWidth > 0.0f && halfDepth > 0.0f && mass > 0.0f)) {
+            throw new IllegalArgumentException("Props need a positive size and mass");
+        }
+        BodyDef def = new BodyDef();
+        def.type = BodyType.DYNAMIC;
+        def.position.set(x, z);
+        def.angle = owner instanceof Objects ? (float) Math.toRadians(((Objects) owner).getOrientation()) : 0.0f;
+        def.linearDamping = PROP_DAMPING;
+        def.angularDamping = PROP_DAMPING;
+        def.allowSleep = true;
+        def.awake = false;
+        Body body = world.createBody(def);
+
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(halfWidth, halfDepth);
+        FixtureDef fixture = new FixtureDef();
+        fixture.shape = shape;
+        fixture.density = mass / (4.0f * halfWidth * halfDepth);
+        fixture.friction = 0.3f;
+        body.createFixture(fixture);
+        return register(body, owner, PROP);
+    }
+
+    /**
+     * Add a door leaf on a hinge. The leaf starts closed, running from the
+     * hinge along the closed direction, and swings up to maxSwing either way.
+     * @param owner Whatever the door belongs to
+     * @param hingeX Hinge X
+     * @param hingeZ Hinge Z
+     * @param width Leaf length from the hinge
+     * @param closedAngle Direction of the closed leaf in the X/Z plane (radians, 0 = +X, PI/2 = +Z)
+     * @param maxSwing Largest opening angle either way (radians)
+     * @return Handle of the door
+     */
+    public int addDoor(Object owner, float hingeX, float hingeZ, float width, float closedAngle, float maxSwing) {
+        if (!(width > DOOR_THICKNESS && maxSwing >= 0.0f)) {
+            throw new IllegalArgumentException("Invalid door: width " + width + ", swing " + maxSwing);
+        }
+        float half = width * 0.5f;
+        float cos = (float) Math.cos(closedAngle);
+        float sin = (float) Math.sin(closedAngle);
+
+        BodyDef def = new BodyDef();
+        def.type = BodyType.DYNAMIC;
+        def.position.set(hingeX + cos * half, hingeZ + sin * half);
+        def.angle = closedAngle;
+        def.allowSleep = true;
+        Body leaf = world.createBody(def);
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(half, DOOR_THICKNESS * 0.5f);
+        leaf.createFixture(shape, DOOR_DENSITY);
+
+        RevoluteJointDef hinge = new RevoluteJointDef();
+        vec.set(hingeX, hingeZ);
+        hinge.initialize(ground, leaf, vec);
+        hinge.enableLimit = true;
+        hinge.lowerAngle = -maxSwing;
+        hinge.upperAngle = maxSwing;
+        // A motor held at zero speed acts as hinge friction
+        hinge.enableMotor = true;
+        hinge.motorSpeed = 0.0f;
+        hinge.maxMotorTorque = DOOR_FRICTION;
+
+        int handle = register(leaf, owner, DOOR);
+        joints[handle] = (RevoluteJoint) world.createJoint(hinge);
+        return handle;
+    }
+
+    /**
+     * Add a player or monster
+     * @param owner A {@link Player} or {@link BasicMonster} follows the body
+     * @param x Position X
+     * @param z Position Z
+     * @param radius Radius of the character's footprint
+     * @param kinematic true to move through walls and push props (no
+     *                  collision response); false to be stopped by walls
+     * @return Handle of the character
+     */
+    public int addCharacter(Object owner, float x, float z, float radius, boolean kinematic) {
+        if (!(radius > 0.0f)) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        }
+        BodyDef def = new BodyDef();
+        def.type = kinematic ? BodyType.KINEMATIC : BodyType.DYNAMIC;
+        def.position.set(x, z);
+        def.fixedRotation = true;
+        def.bullet = true;
+        Body body = world.createBody(def);
+
+        CircleShape shape = new CircleShape();
+        shape.m_radius = radius;
+        FixtureDef fixture = new FixtureDef();
+        fixture.shape = shape;
+        fixture.density = CHARACTER_DENSITY;
+        fixture.friction = 0.0f;
+        body.createFixture(fixture);
+        return register(body, owner, CHARACTER);
+    }
+
+    /**
+     * Set the velocity a character tries to move at from now on; contacts
+     * may slow or deflect it within a step
+     * @param vx Velocity along X (units per second)
+     * @param vz Velocity along Z
+     */
+    public void driveCharacter(int handle, float vx, float vz) {
+        check(handle, CHARACTER);
+        driveX[handle] = vx;
+        driveZ[handle] = vz;
+        if (vx != 0.0f || vz != 0.0f) {
+            bodies[handle].setAwake(true);
+        }
+    }
+
+    /**
+     * Move a body without simulating the way there (spawns, teleports)
+     */
+    public void teleport(int handle, float x, float z) {
+        check(handle, FREE);
+        Body body = bodies[handle];
+        vec.set(x, z);
+        body.setTransform(vec, body.getAngle());
+        body.setAwake(true);
+    }
+
+    /**
+     * Remove a body (and a door's hinge)
+     */
+    public void remove(int handle) {
+        check(handle, FREE);
+        // Destroying the body also destroys its joints
+        world.destroyBody(bodies[handle]);
+        bodies[handle] = null;
+        owners[handle] = null;
+        joints[handle] = null;
+        kinds[handle] = FREE;
+        driveX[handle] = 0.0f;
+        driveZ[handle] = 0.0f;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+        count--;
+    }
+
+    // === Simulation ===
+
+    /**
+     * Advance by a frame's elapsed time in whole fixed steps
+     * @param frameTime Time since the last call (seconds)
+     * @return Number of steps run
+     */
+    public int update(double frameTime) {
+        int steps = timestep.advance(frameTime);
+        for (int i = 0; i < steps; i++) {
+            step();
+        }
+        return steps;
+    }
+
+    /**
+     * Run one fixed step and write moved bodies back to their owners
+     */
+    public void step() {
+        for (int handle = 0; handle < handleLimit; handle++) {
+            if (kinds[handle] == CHARACTER && (driveX[handle] != 0.0f || driveZ[handle] != 0.0f ||
+                                               bodies[handle].isAwake())) {
+                vec.set(driveX[handle], driveZ[handle]);
+                bodies[handle].setLinearVelocity(vec);
+            }
+        }
+        world.step((float) STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        for (int handle = 0; handle < handleLimit; handle++) {
+            if ((kinds[handle] == PROP || kinds[handle] == CHARACTER) && bodies[handle].isAwake()) {
+                writeBack(handle);
+            }
+        }
+    }
+
+    private void writeBack(int handle) {
+        Body body = bodies[handle];
+        Vec2 position = body.getPosition();
+        Object owner = owners[handle];
+        if (owner instanceof Objects) {
+            Objects item = (Objects) owner;
+            item.setX(position.x);
+            item.setZ(position.y);
+            item.setOrientation((float) Math.toDegrees(body.getAngle()));
+        } else if (owner instanceof Player) {
+            Player player = (Player) owner;
+            player.setPosition(position.x, player.positionY(), position.y);
+        } else if (owner instanceof BasicMonster) {
+            BasicMonster monster = (BasicMonster) owner;
+            monster.setPosition(position.x, monster.positionY(), position.y);
+        }
+    }
+
+    // === Queries ===
+
+    /**
+     * Find the bodies whose shapes' bounds overlap a floor rectangle,
+     * through Box2D's broadphase
+     * @param out Receives their handles, as many as fit
+     * @return Number of bodies found (may exceed out.length)
+     */
+    public int queryArea(float minX, float minZ, float maxX, float maxZ, int[] out) {
+        queryBox.lowerBound.set(minX, minZ);
+        queryBox.upperBound.set(maxX, maxZ);
+        queryOut = out;
+        queryFound = 0;
+        queryStamp++;
+        world.queryAABB(queryCallback, queryBox);
+        queryOut = null;
+        return queryFound;
+    }
+
+    private boolean reportFixture(Fixture fixture) {
+        Object data = fixture.getBody().getUserData();
+        if (data instanceof Integer) {
+            int handle = (Integer) data;
+            // A body with several fixtures is reported once
+            if (queryStamps[handle] != queryStamp) {
+                queryStamps[handle] = queryStamp;
+                if (queryFound < queryOut.length) {
+                    queryOut[queryFound] = handle;
+                }
+                queryFound++;
+            }
+        }
+        return true;
+    }
+
+    public float getX(int handle) {
+        check(handle, FREE);
+        return bodies[handle].getPosition().x;
+    }
+
+    public float getZ(int handle) {
+        check(handle, FREE);
+        return bodies[handle].getPosition().y;
+    }
+
+    /**
+     * Rotation of a body in the X/Z plane (radians)
+     */
+    public float getAngle(int handle) {
+        check(handle, FREE);
+        return bodies[handle].getAngle();
+    }
+
+    /**
+     * How far a door has swung from closed (radians, signed)
+     */
+    public float getDoorAngle(int handle) {
+        check(handle, DOOR);
+        return joints[handle].getJointAngle();
+    }
+
+    /**
+     * Hold a door where it is (closed, normally), or let it swing again.
+     * A held door turns into a static body, so no push can move it.
+     */
+    public void setDoorLocked(int handle, boolean locked) {
+        check(handle, DOOR);
+        Body leaf = bodies[handle];
+        if (locked) {
+            leaf.setType(BodyType.STATIC);
+        } else {
+            leaf.setType(BodyType.DYNAMIC);
+            leaf.setAwake(true);
+        }
+    }
+    
+    public boolean isDoorLocked(int handle) {
+        check(handle, DOOR);
+        return bodies[handle].getType() == BodyType.STATIC;
+    }
+
+    public boolean isAwake(int handle) {
+        check(handle, FREE);
+        return bodies[handle].isAwake();
+    }
+
+    public Object getOwner(int handle) {
+        check(handle, FREE);
+        return owners[handle];
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < handleLimit && kinds[handle] != FREE;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Number of bodies that are awake (simulated) right now
+     */
+    public int getAwakeCount() {
+        int awake = 0;
+        for (int handle = 0; handle < handleLimit; handle++) {
+            if (kinds[handle] != FREE && kinds[handle] != STATIC && bodies[handle].isAwake()) {
+                awake++;
+            }
+        }
+        return awake;
+    }
+
+    public FixedTimestep getTimestep() {
+        return timestep;
+    }
+
+    // === Helper Methods ===
+
+    private int register(Body body, Object owner, byte kind) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (handleLimit == bodies.length) {
+                int capacity = handleLimit * 2;
+                bodies = Arrays.copyOf(bodies, capacity);
+                owners = Arrays.copyOf(owners, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                joints = Arrays.copyOf(joints, capacity);
+                driveX = Arrays.copyOf(driveX, capacity);
+                driveZ = Arrays.copyOf(driveZ, capacity);
+                queryStamps = Arrays.copyOf(queryStamps, capacity);
+            }
+            handle = handleLimit++;
+        }
+        body.setUserData(handle);
+        bodies[handle] = body;
+        owners[handle] = owner;
+        kinds[handle] = kind;
+        count++;
+        return handle;
+    }
+
+    /**
+     * @param kind Kind the handle must be, or FREE for any live body
+     */
+    private void check(int handle, byte kind) {
+        if (!contains(handle) || (kind != FREE && kinds[handle] != kind)) {
+            throw new IllegalArgumentException("Invalid physics handle: " + handle);
+        }
+    }
+}
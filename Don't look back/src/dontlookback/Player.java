@@ -76,6 +76,11 @@ public class Player implements Human {
     /** Input manager for controller support */
     private InputManager inputManager;
     
+    /** Swept collision for safe movement, with its scratch arrays */
+    private final CollisionResolver collisionResolver = new CollisionResolver();
+    private final float[] collisionBox = new float[6];
+    private final float[] collisionMove = new float[3];
+    
     // === Constructor ===
     
     /**
@@ -525,89 +530,112 @@ public class Player implements Human {
     // === Collision-Aware Movement ===
     
     /**
-     * Attempt to move left with collision detection
+     * Attempt to move left with collision detection; stops at the first
+     * obstacle in the way instead of refusing the whole step
      * @param obstacles Array of obstacle bounding boxes to check against
      * @return true if movement succeeded, false if blocked by collision
      */
     public boolean moveLeftSafe(float[][] obstacles) {
-        float newX = posX - speed;
-        float[] safePos = CollisionDetector.getSafeMovementPosition(this, newX, posY, posZ, obstacles);
-        
-        if (safePos == null) {
-            // Movement is safe
-            posX = newX;
+        if (moveSafe(-speed, 0, obstacles)) {
             System.out.println("moving left to (" + posX + ", " + posY + ", " + posZ + ")");
             return true;
         } else {
-            // Collision detected, movement blocked
+            // Collision detected, movement stopped at the obstacle
             System.out.println("movement left blocked by collision");
             return false;
         }
     }
     
     /**
-     * Attempt to move right with collision detection
+     * Attempt to move right with collision detection; stops at the first
+     * obstacle in the way instead of refusing the whole step
      * @param obstacles Array of obstacle bounding boxes to check against
      * @return true if movement succeeded, false if blocked by collision
      */
     public boolean moveRightSafe(float[][] obstacles) {
-        float newX = posX + speed;
-        float[] safePos = CollisionDetector.getSafeMovementPosition(this, newX, posY, posZ, obstacles);
-        
-        if (safePos == null) {
-            // Movement is safe
-            posX = newX;
+        if (moveSafe(speed, 0, obstacles)) {
             System.out.println("moving right to (" + posX + ", " + posY + ", " + posZ + ")");
             return true;
         } else {
-            // Collision detected, movement blocked
+            // Collision detected, movement stopped at the obstacle
             System.out.println("movement right blocked by collision");
             return false;
         }
     }
     
     /**
-     * Attempt to move forward with collision detection
+     * Attempt to move forward with collision detection; stops at the first
+     * obstacle in the way instead of refusing the whole step
      * @param obstacles Array of obstacle bounding boxes to check against
      * @return true if movement succeeded, false if blocked by collision
      */
     public boolean moveForwardSafe(float[][] obstacles) {
-        float newZ = posZ - speed;
-        float[] safePos = CollisionDetector.getSafeMovementPosition(this, posX, posY, newZ, obstacles);
-        
-        if (safePos == null) {
-            // Movement is safe
-            posZ = newZ;
+        if (moveSafe(0, -speed, obstacles)) {
             System.out.println("moving forward to (" + posX + ", " + posY + ", " + posZ + ")");
             return true;
         } else {
-            // Collision detected, movement blocked
+            // Collision detected, movement stopped at the obstacle
             System.out.println("movement forward blocked by collision");
             return false;
         }
     }
     
     /**
-     * Attempt to move backward with collision detection
+     * Attempt to move backward with collision detection; stops at the first
+     * obstacle in the way instead of refusing the whole step
      * @param obstacles Array of obstacle bounding boxes to check against
      * @return true if movement succeeded, false if blocked by collision
      */
     public boolean moveBackSafe(float[][] obstacles) {
-        float newZ = posZ + speed;
-        float[] safePos = CollisionDetector.getSafeMovementPosition(this, posX, posY, newZ, obstacles);
-        
-        if (safePos == null) {
-            // Movement is safe
-            posZ = newZ;
+        if (moveSafe(0, speed, obstacles)) {
             System.out.println("moving backward to (" + posX + ", " + posY + ", " + posZ + ")");
             return true;
         } else {
-            // Collision detected, movement blocked
+            // Collision detected, movement stopped at the obstacle
             System.out.println("movement backward blocked by collision");
             return false;
         }
     }
     
+    /**
+     * Move by a horizontal displacement, sliding along any walls in the
+     * way (see {@link CollisionResolver})
+     * @param moveX Displacement along X
+     * @param moveZ Displacement along Z
+     * @param obstacles Array of obstacle bounding boxes to check against
+     * @return true if the full displacement was applied, false if an obstacle cut it short
+     */
+    public boolean moveSafe(float moveX, float moveZ, float[][] obstacles) {
+        CollisionDetector.getPlayerBoundingBox(this, collisionBox);
+        boolean contact = collisionResolver.move(collisionBox, moveX, 0.0f, moveZ, obstacles, collisionMove);
+        applyCollisionMove();
+        return !contact;
+    }
+    
+    /**
+     * Move by a horizontal displacement through a broadphase of obstacles,
+     * sliding along any walls in the way
+     * @param moveX Displacement along X
+     * @param moveZ Displacement along Z
+     * @param obstacles Broadphase of obstacle bounding boxes
+     * @return true if the full displacement was applied, false if an obstacle cut it short
+     */
+    public boolean moveSafe(float moveX, float moveZ, SpatialHash obstacles) {
+        CollisionDetector.getPlayerBoundingBox(this, collisionBox);
+        boolean contact = collisionResolver.move(collisionBox, moveX, 0.0f, moveZ, obstacles, collisionMove);
+        applyCollisionMove();
+        return !contact;
+    }
+    
+    private void applyCollisionMove() {
+        float oldX = posX;
+        float oldZ = posZ;
+        posX += collisionMove[0];
+        posY += collisionMove[1];
+        posZ += collisionMove[2];
+        trackMovement(oldX, posX, oldZ, posZ);
+    }
+    
     /**
      * Get the player's bounding box for collision detection
      * @return Bounding box {minX, minY, minZ, maxX, maxY, maxZ}
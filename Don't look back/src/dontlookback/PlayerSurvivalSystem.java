@@ -10,6 +10,8 @@ package dontlookback;
  * - Fear: Accumulated terror that affects all other stats
  * 
  * These systems work together to create mounting tension and challenge.
+ * Status effects expire through timers on the game clock rather than
+ * being counted down every update.
  * 
  * @author DLB Team
  * @version 1.0
@@ -188,12 +190,36 @@ public class PlayerSurvivalSystem {
     // === Status Effect Management ===
     
     private final java.util.Map<StatusEffect, Double> activeEffects;
-    private final java.util.Map<StatusEffect, Double> effectDurations;
+    private final java.util.Map<StatusEffect, TimingWheel.Timer> effectTimers;
+    
+    // === Timing ===
+    
+    /** Source of game time for effect durations */
+    private final GameClock clock;
+    
+    /** Whether this system advances its own clock (no shared clock given) */
+    private final boolean ownsClock;
     
     /**
-     * Initialize survival system with full stats
+     * Initialize survival system with full stats and its own clock,
+     * advanced by the deltaTime of each update
      */
     public PlayerSurvivalSystem() {
+        this(GameClock.manual(), true);
+    }
+    
+    /**
+     * Initialize survival system with full stats on a shared game clock
+     * @param clock Game clock, advanced by the game loop
+     */
+    public PlayerSurvivalSystem(GameClock clock) {
+        this(clock, false);
+    }
+    
+    private PlayerSurvivalSystem(GameClock clock, boolean ownsClock) {
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        
         // Start with full stats
         this.currentHealth = MAX_HEALTH;
         this.currentSanity = MAX_SANITY;
@@ -211,14 +237,14 @@ public class PlayerSurvivalSystem {
         
         // Initialize activity tracking
         this.currentActivity = PlayerActivity.IDLE;
-        this.lastActivityTime = System.currentTimeMillis();
+        this.lastActivityTime = clock.nowMillis();
         this.timeInCurrentActivity = 0.0;
         this.totalDarknessTime = 0.0;
         this.totalFearTime = 0.0;
         
         // Initialize effects
         this.activeEffects = new java.util.HashMap<>();
-        this.effectDurations = new java.util.HashMap<>();
+        this.effectTimers = new java.util.EnumMap<>(StatusEffect.class);
         
         System.out.println("Player Survival System initialized - all stats at maximum");
     }
@@ -256,11 +282,14 @@ public class PlayerSurvivalSystem {
         // Update derived states
         updateDerivedStates();
         
-        // Process status effect durations
-        updateStatusEffectDurations(deltaTime);
-        
         // Check for automatic events
         checkAutomaticEvents(deltaTime);
+        
+        // A private clock moves with the updates (expiring status effects);
+        // a shared one is advanced by the game loop
+        if (ownsClock && deltaTime > 0) {
+            clock.step(deltaTime);
+        }
     }
     
     /**
@@ -404,25 +433,11 @@ public class PlayerSurvivalSystem {
     }
     
     /**
-     * Update status effect durations
+     * End a status effect whose duration ran out (effect timer action)
      */
-    private void updateStatusEffectDurations(double deltaTime) {
-        java.util.Iterator<java.util.Map.Entry<StatusEffect, Double>> iterator = 
-            effectDurations.entrySet().iterator();
-        
-        while (iterator.hasNext()) {
-            java.util.Map.Entry<StatusEffect, Double> entry = iterator.next();
-            StatusEffect effect = entry.getKey();
-            double remainingTime = entry.getValue() - deltaTime;
-            
-            if (remainingTime <= 0) {
-                // Effect expired
-                iterator.remove();
-                activeEffects.remove(effect);
-                System.out.println("Status effect expired: " + effect);
-            } else {
-                entry.setValue(remainingTime);
-            }
+    private void expireStatusEffect(StatusEffect effect) {
+        if (activeEffects.remove(effect) != null) {
+            System.out.println("Status effect expired: " + effect);
         }
     }
     
@@ -570,7 +585,9 @@ public class PlayerSurvivalSystem {
      */
     public void addStatusEffect(StatusEffect effect, double duration) {
         activeEffects.put(effect, duration);
-        effectDurations.put(effect, duration);
+        TimingWheel.Timer timer = effectTimers.computeIfAbsent(effect, 
+            e -> clock.getTimers().newTimer(() -> expireStatusEffect(e)));
+        clock.getTimers().scheduleAt(timer, clock.now() + duration);
         System.out.println("Status effect added: " + effect + " (" + duration + "s)");
     }
     
@@ -580,7 +597,7 @@ public class PlayerSurvivalSystem {
      */
     public void removeStatusEffect(StatusEffect effect) {
         if (activeEffects.remove(effect) != null) {
-            effectDurations.remove(effect);
+            effectTimers.get(effect).cancel();
             System.out.println("Status effect removed: " + effect);
         }
     }
@@ -609,6 +626,16 @@ public class PlayerSurvivalSystem {
         }
     }
     
+    /**
+     * Set whether the player stands in darkness from the cached light field,
+     * as the grue sees it; darkness drains sanity on every update
+     * @param lights Lighting of the player's surroundings
+     * @param position Player position [x, y, z]
+     */
+    public void updateDarkness(LightManager lights, float[] position) {
+        setInDarkness(!lights.isPositionProtectedCached(position));
+    }
+    
     public void setBeingChased(boolean beingChased) {
         if (this.isBeingChased != beingChased) {
             this.isBeingChased = beingChased;
@@ -629,7 +656,7 @@ public class PlayerSurvivalSystem {
         if (this.currentActivity != activity) {
             this.currentActivity = activity;
             this.timeInCurrentActivity = 0.0;
-            this.lastActivityTime = System.currentTimeMillis();
+            this.lastActivityTime = clock.nowMillis();
         }
     }
     
@@ -710,9 +737,10 @@ public class PlayerSurvivalSystem {
         
         if (!activeEffects.isEmpty()) {
             sb.append("\nActive Effects:\n");
-            for (java.util.Map.Entry<StatusEffect, Double> entry : effectDurations.entrySet()) {
-                sb.append("  ").append(entry.getKey()).append(" (")
-                  .append(String.format("%.1f", entry.getValue())).append("s)\n");
+            for (StatusEffect effect : activeEffects.keySet()) {
+                double remaining = effectTimers.get(effect).getDeadline() - clock.now();
+                sb.append("  ").append(effect).append(" (")
+                  .append(String.format("%.1f", Math.max(0.0, remaining))).append("s)\n");
             }
         }
         
@@ -746,7 +774,9 @@ public class PlayerSurvivalSystem {
         totalFearTime = 0.0;
         
         activeEffects.clear();
-        effectDurations.clear();
+        for (TimingWheel.Timer timer : effectTimers.values()) {
+            timer.cancel();
+        }
         
         System.out.println("Player survival stats reset to maximum");
     }
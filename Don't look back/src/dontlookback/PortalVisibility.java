@@ -0,0 +1,273 @@
+package dontlookback;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import dontlookback.EnhancedRoomGenerator.EnhancedRoom;
+
+/**
+ * Door-Portal Visibility for Don't Look Back
+ *
+ * Decides which generated rooms the player can actually see. Starting in the
+ * room the player stands in, the horizontal view wedge is clipped against
+ * every open doorway and the narrowed wedge is carried into the room behind
+ * it, recursively. Walls and closed doors block sight, so rooms behind them
+ * count as unobserved and are free to regenerate.
+ *
+ * Features:
+ * - Works on the room grid in the X/Z plane (rooms share walls, doors sit on them)
+ * - A doorway is open if either room's door through that wall is open
+ * - Standing in a doorway passes the whole wedge through it
+ * - Depth and distance limits, and no room revisited along one portal chain
+ * - No allocation per update apart from map/set growth; the room index is
+ *   only rebuilt after {@link #roomsChanged()}
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class PortalVisibility {
+
+    /** Deepest portal chain followed from the player's room */
+    public static final int MAX_PORTAL_DEPTH = 8;
+
+    /** How close to a doorway line the player must be to count as standing in it */
+    private static final float DOORWAY_EPSILON = 0.05f;
+
+    /** Wall directions: +Z, -Z, +X, -X (same order as door generation) */
+    private static final int[] STEP_X = {0, 0, 1, -1};
+    private static final int[] STEP_Z = {1, -1, 0, 0};
+
+    // === Configuration ===
+
+    private final float cellSize;
+    private final float maxDistance;
+
+    // === Per-Update State ===
+
+    /** Active rooms by grid cell, rebuilt when the rooms or the player's height change */
+    private final Map<Long, EnhancedRoom> roomsByCell = new HashMap<>();
+    private boolean roomsChanged = true;
+    private float indexedEyeY = Float.NaN;
+
+    /** Rooms reached by the last update */
+    private final Set<EnhancedRoom> visibleRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Rooms on the portal chain currently being followed */
+    private final Set<EnhancedRoom> chain = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private float eyeX, eyeZ;
+    private EnhancedRoom startRoom;
+    private int portalsTested;
+    private int portalsPassed;
+
+    /**
+     * Create a visibility pass for a room grid
+     * @param cellSize Distance between neighbouring room centers
+     * @param maxDistance Doorways further than this from the player are not followed
+     */
+    public PortalVisibility(float cellSize, float maxDistance) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.maxDistance = maxDistance;
+    }
+
+    // === Visibility ===
+
+    /**
+     * Find the rooms visible from a position
+     * @param rooms Active rooms (indexed again only after {@link #roomsChanged()})
+     * @param eye Player position [x, y, z]
+     * @param viewDirection Player view direction [x, y, z]
+     * @param halfAngle Half of the horizontal field of view in radians (below 90 degrees)
+     * @return The player's room, or null if the player is not inside any room
+     */
+    public EnhancedRoom update(Collection<EnhancedRoom> rooms, float[] eye, float[] viewDirection, float halfAngle) {
+        visibleRooms.clear();
+        chain.clear();
+        portalsTested = 0;
+        portalsPassed = 0;
+        eyeX = eye[0];
+        eyeZ = eye[2];
+
+        // Index rooms by cell; if two share a cell keep the one nearest the player's height
+        if (roomsChanged || eye[1] != indexedEyeY) {
+            roomsByCell.clear();
+            for (EnhancedRoom room : rooms) {
+                float[] center = room.getPosition();
+                Long key = cellKey(cellOf(center[0]), cellOf(center[2]));
+                EnhancedRoom other = roomsByCell.get(key);
+                if (other == null || Math.abs(center[1] - eye[1]) < Math.abs(other.getPosition()[1] - eye[1])) {
+                    roomsByCell.put(key, room);
+                }
+            }
+            roomsChanged = false;
+            indexedEyeY = eye[1];
+        }
+
+        int cellX = cellOf(eyeX);
+        int cellZ = cellOf(eyeZ);
+        startRoom = roomsByCell.get(cellKey(cellX, cellZ));
+        if (startRoom == null) {
+            return null;
+        }
+
+        float dx = viewDirection[0];
+        float dz = viewDirection[2];
+        float length = (float) Math.sqrt(dx * dx + dz * dz);
+        if (length < 1e-6f) {
+            // Looking straight up or down: only the room itself is in view
+            visibleRooms.add(startRoom);
+            return startRoom;
+        }
+        dx /= length;
+        dz /= length;
+
+        float cos = (float) Math.cos(halfAngle);
+        float sin = (float) Math.sin(halfAngle);
+        visit(startRoom, cellX, cellZ,
+              dx * cos + dz * sin, -dx * sin + dz * cos,
+              dx * cos - dz * sin, dx * sin + dz * cos, 0);
+        return startRoom;
+    }
+
+    /**
+     * Walk into a room with the wedge between directions right (rx, rz) and left (lx, lz)
+     */
+    private void visit(EnhancedRoom room, int cellX, int cellZ, float rx, float rz, float lx, float lz, int depth) {
+        visibleRooms.add(room);
+        if (depth == MAX_PORTAL_DEPTH) {
+            return;
+        }
+        chain.add(room);
+
+        float[] center = room.getPosition();
+        float half = cellSize * 0.5f;
+        float doorHalf = EnhancedRoomGenerator.Door.DOOR_WIDTH * 0.5f;
+
+        for (int i = 0; i < 4; i++) {
+            EnhancedRoom next = roomsByCell.get(cellKey(cellX + STEP_X[i], cellZ + STEP_Z[i]));
+            if (next == null || chain.contains(next)) {
+                continue;
+            }
+            float[] nextCenter = next.getPosition();
+            if (!room.hasOpenDoorToward(nextCenter[0], nextCenter[2]) &&
+                !next.hasOpenDoorToward(center[0], center[2])) {
+                continue;
+            }
+            portalsTested++;
+
+            // Doorway segment on the shared wall, relative to the eye
+            float mx = center[0] + STEP_X[i] * half - eyeX;
+            float mz = center[2] + STEP_Z[i] * half - eyeZ;
+            if (mx * mx + mz * mz > maxDistance * maxDistance) {
+                continue;
+            }
+            float ax = mx - STEP_Z[i] * doorHalf;
+            float az = mz + STEP_X[i] * doorHalf;
+            float bx = mx + STEP_Z[i] * doorHalf;
+            float bz = mz - STEP_X[i] * doorHalf;
+
+            // Signed distance of the eye in front of the doorway line, along the walk direction
+            float ahead = mx * STEP_X[i] + mz * STEP_Z[i];
+            if (Math.abs(ahead) <= DOORWAY_EPSILON) {
+                // Standing in the doorway (or edge-on to it)
+                float along = mx * STEP_Z[i] - mz * STEP_X[i];
+                if (Math.abs(along) <= doorHalf) {
+                    portalsPassed++;
+                    visit(next, cellX + STEP_X[i], cellZ + STEP_Z[i], rx, rz, lx, lz, depth + 1);
+                }
+                continue;
+            }
+            if (ahead < 0) {
+                // Doorway is behind the player relative to this walk
+                continue;
+            }
+
+            // Order the doorway edges so a is the right edge and b the left
+            if (cross(ax, az, bx, bz) < 0) {
+                float tx = ax, tz = az;
+                ax = bx; az = bz;
+                bx = tx; bz = tz;
+            }
+
+            // Intersect the two angular ranges (both narrower than 180 degrees)
+            float nrx = rx, nrz = rz, nlx = lx, nlz = lz;
+            if (cross(rx, rz, ax, az) > 0) {
+                nrx = ax; nrz = az;
+            }
+            if (cross(bx, bz, lx, lz) > 0) {
+                nlx = bx; nlz = bz;
+            }
+            if (cross(nrx, nrz, nlx, nlz) <= 0 ||
+                !inside(rx, rz, lx, lz, nrx, nrz) || !inside(ax, az, bx, bz, nrx, nrz) ||
+                !inside(rx, rz, lx, lz, nlx, nlz) || !inside(ax, az, bx, bz, nlx, nlz)) {
+                continue;
+            }
+            portalsPassed++;
+            visit(next, cellX + STEP_X[i], cellZ + STEP_Z[i], nrx, nrz, nlx, nlz, depth + 1);
+        }
+
+        chain.remove(room);
+    }
+
+    /**
+     * Note that rooms were added or removed, so the next update indexes them again
+     */
+    public void roomsChanged() {
+        roomsChanged = true;
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get the rooms reached by the last update (live view, do not modify)
+     */
+    public Set<EnhancedRoom> getVisibleRooms() {
+        return visibleRooms;
+    }
+
+    public boolean isVisible(EnhancedRoom room) {
+        return visibleRooms.contains(room);
+    }
+
+    /**
+     * Get the room the player was in at the last update, or null
+     */
+    public EnhancedRoom getStartRoom() {
+        return startRoom;
+    }
+
+    public int getPortalsTested() {
+        return portalsTested;
+    }
+
+    public int getPortalsPassed() {
+        return portalsPassed;
+    }
+
+    // === Helper Methods ===
+
+    private int cellOf(float coordinate) {
+        return Math.round(coordinate / cellSize);
+    }
+
+    private static Long cellKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /** Z component of the 2D cross product; positive when b is counter-clockwise of a */
+    private static float cross(float ax, float az, float bx, float bz) {
+        return ax * bz - az * bx;
+    }
+
+    /** Whether direction v lies in the wedge from right edge r to left edge l */
+    private static boolean inside(float rx, float rz, float lx, float lz, float vx, float vz) {
+        return cross(rx, rz, vx, vz) >= -1e-6f && cross(vx, vz, lx, lz) >= -1e-6f;
+    }
+}
@@ -0,0 +1,106 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Radix Sort for Don't Look Back
+ *
+ * Least-significant-digit radix sort of 64-bit keys, treated as unsigned.
+ * Sorts an index permutation rather than moving the keys, so callers keep
+ * their payload arrays where they are. Used to order render commands by
+ * sort key every frame.
+ *
+ * Features:
+ * - Eight 8-bit passes, all histograms built in one sweep over the keys
+ * - Passes where every key has the same digit are skipped
+ * - Stable: equal keys keep their submission order
+ * - No allocation once the buffers have grown to the largest count seen
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class RadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+    /** Per-pass digit counts, pass-major */
+    private final int[] histogram = new int[PASSES * BUCKETS];
+
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+
+    /** Passes that actually moved data in the last sort */
+    private int lastPasses = 0;
+
+    /**
+     * Sort the first count keys
+     * @param keys Keys to order (not modified)
+     * @param count Number of keys
+     * @return Indices into keys in ascending unsigned key order; valid until the next sort
+     */
+    public int[] sort(long[] keys, int count) {
+        if (order.length < count) {
+            int capacity = Math.max(count, order.length * 2);
+            order = new int[capacity];
+            scratch = new int[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        lastPasses = 0;
+        if (count < 2) {
+            return order;
+        }
+
+        Arrays.fill(histogram, 0);
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < PASSES; pass++) {
+                histogram[pass * BUCKETS + (int) ((key >>> (pass * RADIX_BITS)) & (BUCKETS - 1))]++;
+            }
+        }
+
+        int[] source = order;
+        int[] target = scratch;
+        for (int pass = 0; pass < PASSES; pass++) {
+            int base = pass * BUCKETS;
+            int shift = pass * RADIX_BITS;
+
+            // Every key shares this digit: the pass would not move anything
+            if (histogram[base + (int) ((keys[0] >>> shift) & (BUCKETS - 1))] == count) {
+                continue;
+            }
+
+            // Turn counts into start offsets
+            int offset = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int n = histogram[base + b];
+                histogram[base + b] = offset;
+                offset += n;
+            }
+            for (int i = 0; i < count; i++) {
+                int index = source[i];
+                int digit = (int) ((keys[index] >>> shift) & (BUCKETS - 1));
+                target[histogram[base + digit]++] = index;
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+            lastPasses++;
+        }
+
+        // Keep the result in the array we hand out
+        order = source;
+        scratch = target;
+        return order;
+    }
+
+    /**
+     * Get the number of passes the last sort needed (0 to 8)
+     */
+    public int getLastPasses() {
+        return lastPasses;
+    }
+}
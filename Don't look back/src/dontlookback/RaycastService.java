@@ -0,0 +1,379 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Raycast Service for Don't Look Back
+ *
+ * Line-of-sight queries against the solid parts of the world: room walls,
+ * furniture and moving entities, all as axis-aligned boxes. Monster
+ * activation asks whether the player can actually see a monster, grue
+ * spawning looks for spots the player cannot see, and audio cues ask
+ * whether a wall is in the way.
+ *
+ * Features:
+ * - Static geometry in one small {@link BoundingVolumeHierarchy} per room,
+ *   built once; a top-level tree over the rooms' bounds finds the rooms a
+ *   ray crosses, so adding or removing a room never rebuilds the others
+ * - Moving entities in a separate {@link DynamicAABBTree}; small moves stay
+ *   inside their fat boxes and leave the tree alone
+ * - Closest hit ({@link #raycast}), any hit along a segment
+ *   ({@link #raycastAny}, stops at the first box) and batches of segments
+ *   ({@link #raycastMany})
+ * - Nearest boxes are walked first and every hit shortens the search
+ * - No allocation per query
+ *
+ * Not thread-safe: queries share scratch state, so keep them on the
+ * simulation thread.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class RaycastService {
+
+    /**
+     * Closest hit of a {@link #raycast}; reused by the caller between queries
+     */
+    public static final class Hit {
+        private float distance;
+        private float x, y, z;
+        private float normalX, normalY, normalZ;
+        private Object target;
+        private boolean dynamic;
+
+        /** Distance from the ray origin */
+        public float getDistance() { return distance; }
+
+        public float getX() { return x; }
+        public float getY() { return y; }
+        public float getZ() { return z; }
+
+        /** Face normal of the box hit (zero if the ray started inside it) */
+        public float getNormalX() { return normalX; }
+        public float getNormalY() { return normalY; }
+        public float getNormalZ() { return normalZ; }
+
+        /** Owner of the static geometry or the moving entity hit */
+        public Object getTarget() { return target; }
+
+        /** Whether a moving entity was hit rather than static geometry */
+        public boolean isDynamic() { return dynamic; }
+    }
+
+    /**
+     * One room's static boxes
+     */
+    private static final class StaticGeometry {
+        final Object owner;
+        final BoundingVolumeHierarchy<Object> boxes = new BoundingVolumeHierarchy<>();
+
+        StaticGeometry(Object owner) {
+            this.owner = owner;
+        }
+    }
+
+    // === Geometry ===
+
+    /** Rooms' overall bounds; the proxy id is the static handle */
+    private final BoundingVolumeHierarchy<StaticGeometry> statics = new BoundingVolumeHierarchy<>();
+
+    /** How far moving entities' fat boxes reach beyond their real ones */
+    private static final float DYNAMIC_MARGIN = 0.1f;
+
+    /** Moving entities; the proxy id is the dynamic handle */
+    private final DynamicAABBTree dynamics = new DynamicAABBTree(DYNAMIC_MARGIN);
+
+    private int staticBoxCount = 0;
+    private int[] staticBoxCounts = new int[16];
+
+    // === Query State ===
+
+    private float rayX, rayY, rayZ;
+    private float dirX, dirY, dirZ;
+    private boolean anyHit;
+    private Object ignore;
+
+    private float bestDistance;
+    private boolean hasBest;
+    private final float[] bestBounds = new float[6];
+    private Object bestTarget;
+    private boolean bestDynamic;
+
+    private final BoundingVolumeHierarchy.RayVisitor<Object> staticBoxVisitor = this::visitStaticBox;
+    private final BoundingVolumeHierarchy.RayVisitor<StaticGeometry> roomVisitor = this::visitRoom;
+    private final DynamicAABBTree.RayVisitor dynamicVisitor = this::visitDynamic;
+
+    /** The room being walked by {@link #roomVisitor} */
+    private StaticGeometry currentRoom;
+
+    private long rayCount = 0;
+
+    // === Static Geometry ===
+
+    /**
+     * Add a room's walls and furniture
+     * @param owner Reported as the hit target (e.g. the room)
+     * @param boxes minX, minY, minZ, maxX, maxY, maxZ per box
+     * @param boxCount Number of boxes (at least one)
+     * @return Handle for {@link #removeStatic}
+     */
+    public int addStatic(Object owner, float[] boxes, int boxCount) {
+        if (owner == null) {
+            throw new IllegalArgumentException("Static geometry needs an owner");
+        }
+        if (boxCount < 1 || boxes.length < boxCount * 6) {
+            throw new IllegalArgumentException("Invalid box count: " + boxCount);
+        }
+        StaticGeometry geometry = new StaticGeometry(owner);
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        for (int i = 0; i < boxCount; i++) {
+            int o = i * 6;
+            geometry.boxes.add(owner, boxes[o], boxes[o + 1], boxes[o + 2],
+                               boxes[o + 3], boxes[o + 4], boxes[o + 5]);
+            minX = Math.min(minX, boxes[o]);
+            minY = Math.min(minY, boxes[o + 1]);
+            minZ = Math.min(minZ, boxes[o + 2]);
+            maxX = Math.max(maxX, boxes[o + 3]);
+            maxY = Math.max(maxY, boxes[o + 4]);
+            maxZ = Math.max(maxZ, boxes[o + 5]);
+        }
+        geometry.boxes.rebuild();
+
+        int handle = statics.add(geometry, minX, minY, minZ, maxX, maxY, maxZ);
+        if (handle >= staticBoxCounts.length) {
+            staticBoxCounts = Arrays.copyOf(staticBoxCounts, Math.max(handle + 1, staticBoxCounts.length * 2));
+        }
+        staticBoxCounts[handle] = boxCount;
+        staticBoxCount += boxCount;
+        return handle;
+    }
+
+    /**
+     * Remove a room's geometry
+     * @param handle Handle from {@link #addStatic}
+     */
+    public void removeStatic(int handle) {
+        statics.remove(handle);
+        staticBoxCount -= staticBoxCounts[handle];
+        staticBoxCounts[handle] = 0;
+    }
+
+    // === Moving Entities ===
+
+    /**
+     * Add a moving entity's box
+     * @param target Reported as the hit target, and matched by the ignore argument of queries
+     * @return Handle for {@link #moveDynamic} and {@link #removeDynamic}
+     */
+    public int addDynamic(Object target, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return dynamics.createProxy(target, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Move an entity's box
+     */
+    public void moveDynamic(int handle, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        dynamics.moveProxy(handle, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public void removeDynamic(int handle) {
+        dynamics.destroyProxy(handle);
+    }
+
+    // === Queries ===
+
+    /**
+     * Find the closest box along a ray
+     * @param ox Origin X
+     * @param oy Origin Y
+     * @param oz Origin Z
+     * @param dx Direction X (any length)
+     * @param dy Direction Y
+     * @param dz Direction Z
+     * @param maxDistance Furthest distance to look
+     * @param hit Receives the closest hit (untouched if there is none)
+     * @return true if something was hit
+     */
+    public boolean raycast(float ox, float oy, float oz, float dx, float dy, float dz,
+                           float maxDistance, Hit hit) {
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length == 0.0f || !(maxDistance >= 0.0f)) {
+            return false;
+        }
+        if (!cast(ox, oy, oz, dx / length, dy / length, dz / length, maxDistance, false, null)) {
+            return false;
+        }
+        fillHit(hit);
+        return true;
+    }
+
+    /**
+     * Check whether anything blocks the segment between two points
+     * @param ignore Moving entity not to count (e.g. the one being looked at), or null
+     * @return true if the segment is blocked
+     */
+    public boolean raycastAny(float fromX, float fromY, float fromZ, float toX, float toY, float toZ,
+                              Object ignore) {
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        float dz = toZ - fromZ;
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length == 0.0f) {
+            return false;
+        }
+        return cast(fromX, fromY, fromZ, dx / length, dy / length, dz / length, length, true, ignore);
+    }
+
+    /**
+     * Cast a batch of segments
+     * @param segments fromX, fromY, fromZ, toX, toY, toZ per segment
+     * @param count Number of segments
+     * @param outFraction Receives, per segment, how far along it the closest
+     *                    hit lies (0 to 1), or 1 if it is clear
+     * @return Number of segments that hit something
+     */
+    public int raycastMany(float[] segments, int count, float[] outFraction) {
+        if (segments.length < count * 6 || outFraction.length < count) {
+            throw new IllegalArgumentException("Arrays too short for " + count + " segments");
+        }
+        int blocked = 0;
+        for (int i = 0; i < count; i++) {
+            int o = i * 6;
+            float dx = segments[o + 3] - segments[o];
+            float dy = segments[o + 4] - segments[o + 1];
+            float dz = segments[o + 5] - segments[o + 2];
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            outFraction[i] = 1.0f;
+            if (length > 0.0f && cast(segments[o], segments[o + 1], segments[o + 2],
+                                      dx / length, dy / length, dz / length, length, false, null)) {
+                outFraction[i] = bestDistance / length;
+                blocked++;
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Run one query over both trees
+     * @return true if anything was hit within the distance
+     */
+    private boolean cast(float ox, float oy, float oz, float dx, float dy, float dz,
+                         float maxDistance, boolean any, Object ignoreTarget) {
+        rayCount++;
+        rayX = ox;
+        rayY = oy;
+        rayZ = oz;
+        dirX = dx;
+        dirY = dy;
+        dirZ = dz;
+        anyHit = any;
+        ignore = ignoreTarget;
+        bestDistance = maxDistance;
+        hasBest = false;
+        bestTarget = null;
+
+        statics.raycast(ox, oy, oz, dx, dy, dz, maxDistance, roomVisitor);
+        if (!(any && hasBest)) {
+            dynamics.raycast(ox, oy, oz, dx, dy, dz, bestDistance, dynamicVisitor);
+        }
+        ignore = null;
+        return hasBest;
+    }
+
+    private float visitRoom(StaticGeometry room, int id, float distance) {
+        currentRoom = room;
+        room.boxes.raycast(rayX, rayY, rayZ, dirX, dirY, dirZ, bestDistance, staticBoxVisitor);
+        return anyHit && hasBest ? -1.0f : bestDistance;
+    }
+
+    private float visitStaticBox(Object owner, int id, float distance) {
+        if (!hasBest || distance < bestDistance) {
+            currentRoom.boxes.getBounds(id, bestBounds);
+        }
+        return record(owner, false, distance);
+    }
+
+    private float visitDynamic(int id, float distance) {
+        Object target = dynamics.getUserData(id);
+        if (target == ignore) {
+            return bestDistance;
+        }
+        if (!hasBest || distance < bestDistance) {
+            dynamics.getBounds(id, bestBounds);
+        }
+        return record(target, true, distance);
+    }
+
+    private float record(Object target, boolean dynamic, float distance) {
+        if (!hasBest || distance < bestDistance) {
+            bestDistance = distance;
+            hasBest = true;
+            bestTarget = target;
+            bestDynamic = dynamic;
+        }
+        return anyHit ? -1.0f : bestDistance;
+    }
+
+    /**
+     * Fill in the hit point and the normal of the face the ray entered through
+     */
+    private void fillHit(Hit hit) {
+        hit.distance = bestDistance;
+        hit.x = rayX + dirX * bestDistance;
+        hit.y = rayY + dirY * bestDistance;
+        hit.z = rayZ + dirZ * bestDistance;
+        hit.target = bestTarget;
+        hit.dynamic = bestDynamic;
+        hit.normalX = 0.0f;
+        hit.normalY = 0.0f;
+        hit.normalZ = 0.0f;
+        if (bestDistance <= 0.0f) {
+            return;
+        }
+        // The entry face is on the axis whose slab is entered last
+        float nearX = slabEntry(bestBounds[0], bestBounds[3], rayX, dirX);
+        float nearY = slabEntry(bestBounds[1], bestBounds[4], rayY, dirY);
+        float nearZ = slabEntry(bestBounds[2], bestBounds[5], rayZ, dirZ);
+        if (nearX >= nearY && nearX >= nearZ) {
+            hit.normalX = dirX > 0 ? -1.0f : 1.0f;
+        } else if (nearY >= nearZ) {
+            hit.normalY = dirY > 0 ? -1.0f : 1.0f;
+        } else {
+            hit.normalZ = dirZ > 0 ? -1.0f : 1.0f;
+        }
+    }
+
+    private static float slabEntry(float min, float max, float origin, float direction) {
+        if (direction == 0.0f) {
+            return -Float.MAX_VALUE;
+        }
+        float t1 = (min - origin) / direction;
+        float t2 = (max - origin) / direction;
+        return Math.min(t1, t2);
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get the number of rooms (static geometry sets)
+     */
+    public int getStaticCount() {
+        return statics.size();
+    }
+
+    public int getStaticBoxCount() {
+        return staticBoxCount;
+    }
+
+    public int getDynamicCount() {
+        return dynamics.size();
+    }
+
+    /**
+     * Get the number of rays cast since creation
+     */
+    public long getRayCount() {
+        return rayCount;
+    }
+}
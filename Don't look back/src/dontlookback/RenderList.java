@@ -44,9 +44,33 @@ public class RenderList {
         renderList = temp;
     }
 
+    /**
+     * Render all entries. Cubes sharing the unit cube mesh are gathered into
+     * one instanced draw; anything else is rendered individually.
+     */
     public void render() {
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer == null) {
+            for (Objects o : renderList) {
+                o.render();
+            }
+            return;
+        }
+        InstanceBatch batch = renderer.getCubeBatch();
+        batch.clear();
+        appendInstances(batch);
+        renderer.drawInstanced(batch);
+    }
+
+    /**
+     * Add every instanceable entry to a batch and render the rest directly.
+     * Lets callers merge several lists into a single instanced draw.
+     */
+    public void appendInstances(InstanceBatch batch) {
         for (Objects o : renderList) {
-            o.render();
+            if (!o.appendInstance(batch)) {
+                o.render();
+            }
         }
     }
 
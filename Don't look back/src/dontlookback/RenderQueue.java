@@ -0,0 +1,364 @@
+package dontlookback;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+
+/**
+ * Render Command Queue for Don't Look Back
+ *
+ * Collects the frame's mesh draws instead of issuing them immediately. Each
+ * command gets a 64-bit sort key; at the end of the frame the commands are
+ * radix-sorted and executed through a {@link GLStateCache}, so draws sharing
+ * a layer, shader and mesh run back to back with no redundant binds.
+ *
+ * Features:
+ * - Key layout (high to low): layer 4 bits, shader 12 bits, material 16 bits,
+ *   depth 24 bits, 8 spare bits
+ * - Opaque draws sorted front to back, transparent draws back to front
+ * - Per-frame arena of flat arrays, reused across frames
+ * - Shader and material ids numbered per frame, so they stay small and
+ *   deleted meshes and programs are not held past the frame they drew in
+ * - Several cameras per frame (e.g. world and screen overlay) as view slots
+ * - Counters for commands, draws and sort passes
+ *
+ * Layer state: opaque = depth test + depth writes, transparent = depth test
+ * + alpha blending without depth writes, overlay = alpha blending only.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class RenderQueue {
+
+    // === Layers ===
+
+    public static final int LAYER_OPAQUE = 0;
+    public static final int LAYER_TRANSPARENT = 1;
+    public static final int LAYER_OVERLAY = 2;
+
+    // === Key Layout ===
+
+    public static final int LAYER_SHIFT = 60;
+    public static final int SHADER_SHIFT = 48;
+    public static final int MATERIAL_SHIFT = 32;
+    public static final int DEPTH_SHIFT = 8;
+
+    private static final long SHADER_MASK = 0xFFFL;
+    private static final long MATERIAL_MASK = 0xFFFFL;
+    private static final int DEPTH_MAX = 0xFFFFFF;
+
+    /** Floats per command: rgba tint and shade */
+    private static final int PARAMS_PER_COMMAND = 5;
+
+    /** Uniform ids shared with the mesh programs */
+    private static final int U_PROJECTION = ShaderLibrary.uniformId("T_projection");
+    private static final int U_VIEW = ShaderLibrary.uniformId("T_view");
+    private static final int U_MODEL = ShaderLibrary.uniformId("T_model");
+    private static final int U_TINT = ShaderLibrary.uniformId("R_tint");
+    private static final int U_SHADE = ShaderLibrary.uniformId("R_shade");
+
+    // === Id Registries (rebuilt every frame) ===
+
+    private final Map<ShaderProgram, Integer> shaderIds = new IdentityHashMap<>();
+    private ShaderProgram[] shaders = new ShaderProgram[8];
+    private final Map<Mesh, Integer> materialIds = new IdentityHashMap<>();
+
+    // === Frame Arena ===
+
+    private int count = 0;
+    private long[] keys;
+    private Mesh[] meshes;
+    private int[] shaderOf;
+    private int[] viewOf;
+    private float[] models;
+    private float[] params;
+
+    /** Camera slots: projection then view, 32 floats each */
+    private float[] views = new float[Matrix4.SIZE * 2 * 4];
+    private int viewCount = 0;
+
+    /** Depth mapped to the full key range */
+    private float depthRange = 100.0f;
+
+    // === Execution ===
+
+    private final RadixSort sorter = new RadixSort();
+    private int[] sorted;
+    private final float[] scratchMatrix = Matrix4.create();
+    private int[] uploadedView = new int[8];
+
+    // === Statistics ===
+
+    private int lastCommands = 0;
+    private int lastDraws = 0;
+
+    /**
+     * Create a queue
+     * @param initialCapacity Commands per frame before the arena grows
+     */
+    public RenderQueue(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        keys = new long[capacity];
+        meshes = new Mesh[capacity];
+        shaderOf = new int[capacity];
+        viewOf = new int[capacity];
+        models = new float[capacity * Matrix4.SIZE];
+        params = new float[capacity * PARAMS_PER_COMMAND];
+    }
+
+    // === Keys ===
+
+    /**
+     * Build a sort key
+     * @param layer Layer (0-15), most significant
+     * @param shader Shader id (12 bits)
+     * @param material Material id (16 bits)
+     * @param depth Normalized view depth, 0 = near, 1 = far
+     * @return Key that orders draws for minimal state changes
+     */
+    public static long makeKey(int layer, int shader, int material, float depth) {
+        float clamped = depth < 0.0f ? 0.0f : Math.min(depth, 1.0f);
+        long quantized = (long) (clamped * DEPTH_MAX);
+        if (layer != LAYER_OPAQUE) {
+            // Blended layers draw back to front
+            quantized = DEPTH_MAX - quantized;
+        }
+        return ((long) (layer & 0xF) << LAYER_SHIFT) |
+               ((shader & SHADER_MASK) << SHADER_SHIFT) |
+               ((material & MATERIAL_MASK) << MATERIAL_SHIFT) |
+               (quantized << DEPTH_SHIFT);
+    }
+
+    /**
+     * Get the small id used for a shader in sort keys (valid until the
+     * queue is flushed or cleared)
+     */
+    public int shaderId(ShaderProgram program) {
+        Integer id = shaderIds.get(program);
+        if (id == null) {
+            id = shaderIds.size();
+            shaderIds.put(program, id);
+            if (id == shaders.length) {
+                shaders = Arrays.copyOf(shaders, id * 2);
+                uploadedView = Arrays.copyOf(uploadedView, id * 2);
+            }
+            shaders[id] = program;
+        }
+        return id;
+    }
+
+    /**
+     * Get the small id used for a mesh in sort keys (valid until the
+     * queue is flushed or cleared)
+     */
+    public int materialId(Mesh mesh) {
+        Integer id = materialIds.get(mesh);
+        if (id == null) {
+            id = materialIds.size();
+            materialIds.put(mesh, id);
+        }
+        return id;
+    }
+
+    // === Submission ===
+
+    /**
+     * Add a camera for the following commands
+     * @return View slot to pass to {@link #submit}
+     */
+    public int addView(float[] projection, float[] view) {
+        int offset = viewCount * Matrix4.SIZE * 2;
+        if (offset + Matrix4.SIZE * 2 > views.length) {
+            views = Arrays.copyOf(views, views.length * 2);
+        }
+        System.arraycopy(projection, 0, views, offset, Matrix4.SIZE);
+        System.arraycopy(view, 0, views, offset + Matrix4.SIZE, Matrix4.SIZE);
+        return viewCount++;
+    }
+
+    /**
+     * Queue a mesh draw
+     * @param layer LAYER_OPAQUE, LAYER_TRANSPARENT or LAYER_OVERLAY
+     * @param program Mesh program to draw with
+     * @param mesh Mesh to draw
+     * @param view View slot from {@link #addView}
+     * @param depth View-space distance, used for ordering within the layer
+     * @param modelMatrix Column-major model matrix (copied)
+     * @param shade Amount of directional shading
+     */
+    public void submit(int layer, ShaderProgram program, Mesh mesh, int view, float depth,
+                       float[] modelMatrix, float r, float g, float b, float a, float shade) {
+        if (view < 0 || view >= viewCount) {
+            throw new IllegalArgumentException("Unknown view slot: " + view);
+        }
+        if (count == keys.length) {
+            grow();
+        }
+        int shader = shaderId(program);
+        keys[count] = makeKey(layer, shader, materialId(mesh), depth / depthRange);
+        meshes[count] = mesh;
+        shaderOf[count] = shader;
+        viewOf[count] = view;
+        System.arraycopy(modelMatrix, 0, models, count * Matrix4.SIZE, Matrix4.SIZE);
+        int p = count * PARAMS_PER_COMMAND;
+        params[p] = r;
+        params[p + 1] = g;
+        params[p + 2] = b;
+        params[p + 3] = a;
+        params[p + 4] = shade;
+        count++;
+    }
+
+    // === Execution ===
+
+    /**
+     * Sort the queued commands by key
+     */
+    public void sort() {
+        sorted = sorter.sort(keys, count);
+    }
+
+    /**
+     * Sort, execute and clear the queue
+     * @param state State cache of the current context
+     * @return Number of draw calls issued
+     */
+    public int flush(GLStateCache state) {
+        sort();
+        Arrays.fill(uploadedView, -1);
+
+        int draws = 0;
+        int currentLayer = -1;
+        for (int i = 0; i < count; i++) {
+            int c = sorted[i];
+            Mesh mesh = meshes[c];
+            if (mesh.isDeleted()) {
+                continue;
+            }
+            int layer = (int) (keys[c] >>> LAYER_SHIFT);
+            if (layer != currentLayer) {
+                applyLayer(state, layer);
+                currentLayer = layer;
+            }
+
+            int shader = shaderOf[c];
+            ShaderProgram program = shaders[shader];
+            state.useProgram(program.getProgramId());
+            if (uploadedView[shader] != viewOf[c]) {
+                int offset = viewOf[c] * Matrix4.SIZE * 2;
+                System.arraycopy(views, offset, scratchMatrix, 0, Matrix4.SIZE);
+                glUniformMatrix4fv(program.getLocation(U_PROJECTION), false, scratchMatrix);
+                System.arraycopy(views, offset + Matrix4.SIZE, scratchMatrix, 0, Matrix4.SIZE);
+                glUniformMatrix4fv(program.getLocation(U_VIEW), false, scratchMatrix);
+                uploadedView[shader] = viewOf[c];
+            }
+
+            System.arraycopy(models, c * Matrix4.SIZE, scratchMatrix, 0, Matrix4.SIZE);
+            glUniformMatrix4fv(program.getLocation(U_MODEL), false, scratchMatrix);
+            int p = c * PARAMS_PER_COMMAND;
+            glUniform4f(program.getLocation(U_TINT), params[p], params[p + 1], params[p + 2], params[p + 3]);
+            glUniform1f(program.getLocation(U_SHADE), params[p + 4]);
+
+            state.bindVertexArray(mesh.getVao());
+            glDrawElements(GL_TRIANGLES, mesh.getIndexCount(), GL_UNSIGNED_INT, 0L);
+            draws++;
+        }
+
+        // Leave the defaults everything else expects
+        if (count > 0) {
+            state.bindVertexArray(0);
+            applyLayer(state, LAYER_OPAQUE);
+        }
+        lastCommands = count;
+        lastDraws = draws;
+        clear();
+        return draws;
+    }
+
+    /**
+     * Drop all queued commands, cameras and ids without drawing
+     */
+    public void clear() {
+        Arrays.fill(meshes, 0, count, null);
+        Arrays.fill(shaders, 0, shaderIds.size(), null);
+        shaderIds.clear();
+        materialIds.clear();
+        count = 0;
+        viewCount = 0;
+    }
+
+    private static void applyLayer(GLStateCache state, int layer) {
+        switch (layer) {
+            case LAYER_OPAQUE:
+                state.enable(GL_DEPTH_TEST);
+                state.depthMask(true);
+                state.disable(GL_BLEND);
+                break;
+            case LAYER_TRANSPARENT:
+                state.enable(GL_DEPTH_TEST);
+                state.depthMask(false);
+                state.enable(GL_BLEND);
+                state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+                break;
+            default:
+                state.disable(GL_DEPTH_TEST);
+                state.enable(GL_BLEND);
+                state.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+                break;
+        }
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        meshes = Arrays.copyOf(meshes, capacity);
+        shaderOf = Arrays.copyOf(shaderOf, capacity);
+        viewOf = Arrays.copyOf(viewOf, capacity);
+        models = Arrays.copyOf(models, capacity * Matrix4.SIZE);
+        params = Arrays.copyOf(params, capacity * PARAMS_PER_COMMAND);
+    }
+
+    // === Accessors ===
+
+    /**
+     * Set the view distance that maps to the far end of the depth bits
+     */
+    public void setDepthRange(float depthRange) {
+        if (depthRange <= 0) {
+            throw new IllegalArgumentException("Depth range must be positive: " + depthRange);
+        }
+        this.depthRange = depthRange;
+    }
+
+    /**
+     * Get the number of commands queued so far this frame
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the key of the i-th command in sorted order (after {@link #sort()})
+     */
+    public long getSortedKey(int i) {
+        return keys[sorted[i]];
+    }
+
+    public int getLastCommandCount() {
+        return lastCommands;
+    }
+
+    public int getLastDrawCount() {
+        return lastDraws;
+    }
+
+    /**
+     * Get the number of radix passes the last sort needed
+     */
+    public int getLastSortPasses() {
+        return sorter.getLastPasses();
+    }
+}
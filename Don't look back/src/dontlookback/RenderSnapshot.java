@@ -0,0 +1,336 @@
+package dontlookback;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Render Snapshot for Don't Look Back
+ *
+ * Everything the render thread needs from one simulation frame. The
+ * simulation fills a snapshot and publishes it through a
+ * {@link TripleBuffer}; after that the renderer only reads it, and the
+ * simulation does not touch it again until it comes back round as a
+ * write slot. Arrays are reused between frames, so filling allocates
+ * nothing once they have grown.
+ *
+ * Features:
+ * - Game state, camera position and rotation for this and the previous
+ *   simulation step, for interpolation on the render side
+ * - Copied instance records of the world objects (center, width, yaw,
+ *   color and bounding radius), with each one's transform one step
+ *   earlier for interpolation
+ * - Copied boxes of the rooms to draw, with their contents as instances
+ * - Verbatim copy of the light manager's {@link LightBuffer}, and of the
+ *   one before the latest step so light positions interpolate too
+ * - Simulation frame number and time for diagnostics
+ * - Window close request from the simulation
+ *
+ * A snapshot holds no references to simulation objects: the renderer draws
+ * only from the arrays copied here while the simulation keeps moving.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class RenderSnapshot {
+
+    // === Frame Info ===
+
+    private long frame;
+    private double simulationTime;
+    private GameState state = GameState.LOADING;
+    private boolean closeRequested;
+
+    /** Wall time (System.nanoTime) at which this state became current */
+    private long stateNanos;
+
+    /** Simulation step length (seconds) */
+    private double step;
+
+    // === Camera ===
+
+    private final float[] cameraPosition = new float[3];
+    private final float[] cameraRotation = new float[3];
+
+    /** Position and rotation one step earlier */
+    private final float[] previousCamera = new float[6];
+
+    // === World ===
+
+    /** Floats per instance record: center x, y, z, width, yaw (radians), r, g, b */
+    public static final int INSTANCE_FLOATS = InstanceBatch.FLOATS_PER_INSTANCE;
+
+    /** Floats per room record: center x, y (floor), z, width (X), length (Z), height (Y) */
+    public static final int ROOM_FLOATS = 6;
+
+    private float[] instances = new float[64 * INSTANCE_FLOATS];
+    private float[] previousInstances = new float[64 * INSTANCE_FLOATS];
+    private float[] instanceRadii = new float[64];
+    private int instanceCount;
+    private boolean hasWorld;
+
+    /** The world list's records (rooms' contents follow them) */
+    private int worldStart;
+    private int worldCount;
+
+    private float[] rooms = new float[16 * ROOM_FLOATS];
+    private int roomCount;
+    private boolean hasRooms;
+
+    private LightBuffer lightBuffer;
+    private boolean hasLightBuffer;
+    private LightBuffer previousLightBuffer;
+    private boolean hasPreviousLights;
+
+    // === Filling (simulation thread) ===
+
+    /**
+     * Start a new frame, clearing the world lists
+     */
+    public void begin(long frame, double simulationTime, GameState state) {
+        this.frame = frame;
+        this.simulationTime = simulationTime;
+        this.state = state;
+        this.closeRequested = false;
+        instanceCount = 0;
+        hasWorld = false;
+        worldStart = 0;
+        worldCount = 0;
+        roomCount = 0;
+        hasRooms = false;
+        hasLightBuffer = false;
+        hasPreviousLights = false;
+    }
+
+    /**
+     * Record when this state became current and the step length, for interpolation
+     */
+    public void setTiming(long stateNanos, double step) {
+        this.stateNanos = stateNanos;
+        this.step = step;
+    }
+
+    /**
+     * Set the camera of the previous step ([x, y, z, rotX, rotY, rotZ])
+     */
+    public void setPreviousCamera(float[] camera) {
+        System.arraycopy(camera, 0, previousCamera, 0, 6);
+    }
+
+    public void setCamera(float x, float y, float z, float rotX, float rotY, float rotZ) {
+        cameraPosition[0] = x;
+        cameraPosition[1] = y;
+        cameraPosition[2] = z;
+        cameraRotation[0] = rotX;
+        cameraRotation[1] = rotY;
+        cameraRotation[2] = rotZ;
+    }
+
+    /**
+     * Copy the instance records of a world render list
+     * @param world Render list, or null before gameplay starts
+     */
+    public void setWorld(RenderList world) {
+        if (world == null) {
+            return;
+        }
+        hasWorld = true;
+        worldStart = instanceCount;
+        addInstances(world);
+        worldCount = instanceCount - worldStart;
+    }
+
+    /**
+     * Copy the light manager's packed light data into this snapshot
+     */
+    public void setLightBuffer(LightManager lightManager) {
+        int capacity = lightManager.getLightBufferCapacity();
+        if (lightBuffer == null || lightBuffer.getCapacity() != capacity) {
+            lightBuffer = new LightBuffer(capacity);
+        }
+        lightManager.copyLightBuffer(lightBuffer);
+        hasLightBuffer = true;
+    }
+
+    /**
+     * Take the world transforms and lights from a snapshot filled before
+     * the latest step, so the renderer can blend from them into this one.
+     * Records stay still if the world's size changed in between.
+     * @param previous Snapshot filled from the same world and light manager
+     */
+    public void setPreviousStep(RenderSnapshot previous) {
+        if (hasWorld && previous.hasWorld && previous.worldCount == worldCount) {
+            System.arraycopy(previous.instances, previous.worldStart * INSTANCE_FLOATS,
+                             previousInstances, worldStart * INSTANCE_FLOATS, worldCount * INSTANCE_FLOATS);
+        }
+        if (hasLightBuffer && previous.hasLightBuffer) {
+            if (previousLightBuffer == null || previousLightBuffer.getCapacity() != lightBuffer.getCapacity()) {
+                previousLightBuffer = new LightBuffer(lightBuffer.getCapacity());
+            }
+            previousLightBuffer.copyFrom(previous.lightBuffer);
+            hasPreviousLights = true;
+        }
+    }
+
+    /**
+     * Copy the boxes and contents of the rooms to draw: those visible
+     * through doors that are active and furnished
+     * @param visibleRooms Rooms seen from the player's room
+     */
+    public void setRooms(Collection<? extends Room> visibleRooms) {
+        hasRooms = true;
+        for (Room room : visibleRooms) {
+            if (!room.isActive() || room.isEmpty()) {
+                continue;
+            }
+            if ((roomCount + 1) * ROOM_FLOATS > rooms.length) {
+                rooms = Arrays.copyOf(rooms, rooms.length * 2);
+            }
+            room.writeBox(rooms, roomCount * ROOM_FLOATS);
+            roomCount++;
+            addInstances(room.getRoomContents());
+        }
+    }
+
+    public void requestClose() {
+        closeRequested = true;
+    }
+
+    // === Reading (render thread) ===
+
+    public long getFrame() { return frame; }
+    public double getSimulationTime() { return simulationTime; }
+    public GameState getState() { return state; }
+    public boolean isCloseRequested() { return closeRequested; }
+
+    public float getCameraX() { return cameraPosition[0]; }
+    public float getCameraY() { return cameraPosition[1]; }
+    public float getCameraZ() { return cameraPosition[2]; }
+    public float getRotX() { return cameraRotation[0]; }
+    public float getRotY() { return cameraRotation[1]; }
+    public float getRotZ() { return cameraRotation[2]; }
+
+    /**
+     * Get the interpolation factor for a render at the given wall time:
+     * the renderer shows the world one step behind, blending the previous
+     * state into this one as the step elapses
+     * @param nowNanos Current System.nanoTime()
+     * @return 0 (previous state) to 1 (this state)
+     */
+    public float getAlpha(long nowNanos) {
+        if (step <= 0.0) {
+            return 1.0f;
+        }
+        double alpha = (nowNanos - stateNanos) / (step * 1_000_000_000.0);
+        return (float) Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    /**
+     * Blend the previous and current camera
+     * @param alpha Factor from {@link #getAlpha(long)}
+     * @param out Receives [x, y, z, rotX, rotY, rotZ]
+     */
+    public void interpolateCamera(float alpha, float[] out) {
+        for (int i = 0; i < 3; i++) {
+            out[i] = previousCamera[i] + (cameraPosition[i] - previousCamera[i]) * alpha;
+            out[i + 3] = previousCamera[i + 3] + (cameraRotation[i] - previousCamera[i + 3]) * alpha;
+        }
+    }
+
+    /**
+     * Whether a world render list contributed instances to this frame
+     */
+    public boolean hasWorld() { return hasWorld; }
+
+    public int getInstanceCount() { return instanceCount; }
+
+    /**
+     * Get the instance records, {@link #INSTANCE_FLOATS} per instance (live view, do not modify)
+     */
+    public float[] getInstanceData() { return instances; }
+
+    /**
+     * Get the instance records one step earlier, same layout (live view, do not modify)
+     */
+    public float[] getPreviousInstanceData() { return previousInstances; }
+
+    /**
+     * Blend an instance's previous and current transform
+     * @param index Instance record
+     * @param alpha Factor from {@link #getAlpha(long)}
+     * @param out Receives [x, y, z, yaw]; yaw turns the short way round
+     */
+    public void interpolateInstance(int index, float alpha, float[] out) {
+        int o = index * INSTANCE_FLOATS;
+        for (int i = 0; i < 3; i++) {
+            out[i] = previousInstances[o + i] + (instances[o + i] - previousInstances[o + i]) * alpha;
+        }
+        float turn = instances[o + 4] - previousInstances[o + 4];
+        if (turn > Math.PI) {
+            turn -= (float) (2.0 * Math.PI);
+        } else if (turn < -Math.PI) {
+            turn += (float) (2.0 * Math.PI);
+        }
+        out[3] = previousInstances[o + 4] + turn * alpha;
+    }
+
+    /**
+     * Get each instance's bounding radius (live view, do not modify)
+     */
+    public float[] getInstanceRadii() { return instanceRadii; }
+
+    /**
+     * Get this frame's copy of the light buffer, or null without a light manager
+     */
+    public LightBuffer getLightBuffer() { return hasLightBuffer ? lightBuffer : null; }
+
+    /**
+     * Blend the lights' positions from the previous step into this one's
+     * @param alpha Factor from {@link #getAlpha(long)}
+     * @param out Receives the lights (same capacity as {@link #getLightBuffer()})
+     * @return out, or null without a light buffer
+     */
+    public LightBuffer interpolateLights(float alpha, LightBuffer out) {
+        if (!hasLightBuffer) {
+            return null;
+        }
+        out.copyFrom(lightBuffer);
+        if (hasPreviousLights) {
+            out.interpolatePositions(previousLightBuffer, alpha);
+        }
+        return out;
+    }
+
+    /**
+     * Whether a room generator contributed rooms to this frame
+     */
+    public boolean hasRooms() { return hasRooms; }
+
+    public int getRoomCount() { return roomCount; }
+
+    /**
+     * Get the room records, {@link #ROOM_FLOATS} per room (live view, do not modify)
+     */
+    public float[] getRoomData() { return rooms; }
+
+    // === Helper Methods ===
+
+    /**
+     * Append the instance record of every cube in a render list
+     */
+    private void addInstances(RenderList list) {
+        for (Objects object : list.renderList) {
+            if (instanceCount == instanceRadii.length) {
+                instances = Arrays.copyOf(instances, instances.length * 2);
+                previousInstances = Arrays.copyOf(previousInstances, previousInstances.length * 2);
+                instanceRadii = Arrays.copyOf(instanceRadii, instanceRadii.length * 2);
+            }
+            int o = instanceCount * INSTANCE_FLOATS;
+            if (object.writeInstance(instances, o)) {
+                // Still until a previous step says otherwise
+                System.arraycopy(instances, o, previousInstances, o, INSTANCE_FLOATS);
+                instanceRadii[instanceCount] = object.getBoundingRadius();
+                instanceCount++;
+            }
+        }
+    }
+}
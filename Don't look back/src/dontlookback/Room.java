@@ -1,6 +1,7 @@
 package dontlookback;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -208,6 +209,7 @@ public class Room {
         
         furniture.clear();
         monsters.clear();
+        roomContents.delete(); // Free the cached instance buffer
         roomContents = new StaticList();
         isEmpty = true;
     }
@@ -275,10 +277,24 @@ public class Room {
     public RoomType getType() { return type; }
     public float[] getCenter() { return center.clone(); }
     public float[] getDimensions() { return dimensions.clone(); }
+    
+    /**
+     * Write the room's box without allocating: center x, y (floor), z,
+     * then width (X), length (Z) and height (Y)
+     */
+    public void writeBox(float[] out, int offset) {
+        out[offset] = center[0];
+        out[offset + 1] = center[1];
+        out[offset + 2] = center[2];
+        out[offset + 3] = dimensions[0];
+        out[offset + 4] = dimensions[1];
+        out[offset + 5] = dimensions[2];
+    }
     public boolean isActive() { return isActive; }
     public boolean isEmpty() { return isEmpty; }
     public long getLastViewedTime() { return lastViewedTime; }
     public StaticList getRoomContents() { return roomContents; }
+    public List<Objects> getFurniture() { return Collections.unmodifiableList(furniture); }
     
     // State management
     public void setActive(boolean active) { this.isActive = active; }
@@ -19,6 +19,10 @@ public class RoomGenerator {
     private float viewDistance;
     private float viewAngle;
     
+    // View cone, set once per update (cosine test instead of acos per room)
+    private final ObservationSystem view = new ObservationSystem(0);
+    private final float[] flatLook = new float[3];
+    
     // Generation parameters
     private final float ROOM_SPACING = 25f; // Distance between room centers
     private final long DECONSTRUCT_TIME = 5000; // 5 seconds in milliseconds
@@ -39,6 +43,12 @@ public class RoomGenerator {
     public void update(float[] playerPos, float[] lookDir) {
         updatePlayerState(playerPos, lookDir);
         
+        // Horizontal view cone for this frame
+        flatLook[0] = playerLookDirection[0];
+        flatLook[2] = playerLookDirection[2];
+        float halfAngle = (float) Math.toRadians(Math.max(0.01f, Math.min(viewAngle / 2f, 180f)));
+        view.setCamera(playerPosition, flatLook, halfAngle, viewDistance);
+        
         // Generate new rooms if needed
         generateRoomsInView();
         
@@ -98,29 +108,10 @@ public class RoomGenerator {
     
     /**
      * Checks if a position is within the player's field of view
+     * (horizontal only: heights are ignored)
      */
     private boolean isPositionInView(float[] position) {
-        // Calculate distance from player
-        float dx = position[0] - playerPosition[0];
-        float dz = position[2] - playerPosition[2];
-        float distance = (float) Math.sqrt(dx * dx + dz * dz);
-        
-        if (distance > viewDistance) {
-            return false; // Too far away
-        }
-        
-        // Calculate angle between look direction and position
-        float[] toPosition = {dx, 0, dz};
-        float dotProduct = playerLookDirection[0] * toPosition[0] + 
-                          playerLookDirection[2] * toPosition[2];
-        float angle = (float) Math.acos(dotProduct / (distance * 
-                     Math.sqrt(playerLookDirection[0] * playerLookDirection[0] + 
-                              playerLookDirection[2] * playerLookDirection[2])));
-        
-        // Convert to degrees
-        angle = (float) Math.toDegrees(angle);
-        
-        return angle <= (viewAngle / 2f); // Within field of view
+        return view.isInView(position[0], playerPosition[1], position[2]);
     }
     
     /**
@@ -0,0 +1,413 @@
+package dontlookback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scene Culling for Don't Look Back
+ *
+ * Keeps a {@link BoundingVolumeHierarchy} over every tracked game object and
+ * room and, each frame, produces the subset that intersects the camera
+ * frustum. Only that subset is handed to the renderer.
+ *
+ * Features:
+ * - Objects use a bounding sphere (center + {@link Objects#getBoundingRadius()})
+ * - Rooms use their box: width on X, height on Y (from the floor), length on Z
+ * - Per-frame bounds refresh refits only objects that actually moved
+ * - Visible cubes are drawn as one instanced batch, like RenderList
+ * - Rooms can additionally be limited to a door-portal visible set
+ * - A {@link RenderSnapshot}'s copied instances and rooms are culled and
+ *   drawn record by record, without touching simulation objects
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class SceneCuller {
+
+    /** Hierarchy over Objects and Room items */
+    private final BoundingVolumeHierarchy<Object> hierarchy = new BoundingVolumeHierarchy<>();
+
+    // === Tracked Items ===
+
+    /** Proxy id of each tracked item */
+    private final Map<Object, Integer> proxies = new IdentityHashMap<>();
+
+    /** Objects whose bounds are refreshed every frame, with their proxy ids */
+    private Objects[] movingObjects = new Objects[64];
+    private int[] movingProxies = new int[64];
+    private int movingCount = 0;
+
+    /** Rooms currently tracked, for syncing with a room generator */
+    private final List<Room> trackedRooms = new ArrayList<>();
+
+    /** Rooms allowed through {@link #cull}, or null to keep every room in the frustum */
+    private Set<? extends Room> roomFilter;
+
+    // === Snapshot Records ===
+
+    /** Leaf item standing for one record of the synced snapshot */
+    private static final class Record {
+        final boolean room;
+        final int index;
+        int proxy;
+
+        Record(boolean room, int index) {
+            this.room = room;
+            this.index = index;
+        }
+    }
+
+    /** Snapshot whose records are tracked, and one leaf per instance and room record */
+    private RenderSnapshot snapshot;
+    private final List<Record> instanceRecords = new ArrayList<>();
+    private final List<Record> roomRecords = new ArrayList<>();
+
+    // === Frame Results ===
+
+    private final List<Object> visible = new ArrayList<>();
+    private final List<Objects> visibleObjects = new ArrayList<>();
+    private final List<Room> visibleRooms = new ArrayList<>();
+    private int[] visibleInstanceRecords = new int[64];
+    private int visibleInstanceCount;
+    private int[] visibleRoomRecords = new int[16];
+    private int visibleRoomCount;
+
+    /** Interpolated [x, y, z, yaw] of the instance being drawn */
+    private final float[] transform = new float[4];
+
+    // === Tracking ===
+
+    /**
+     * Start culling a game object
+     */
+    public void track(Objects object) {
+        if (proxies.containsKey(object)) {
+            return;
+        }
+        float r = object.getBoundingRadius();
+        int proxy = hierarchy.add(object, object.getX() - r, object.getY() - r, object.getZ() - r,
+                                  object.getX() + r, object.getY() + r, object.getZ() + r);
+        proxies.put(object, proxy);
+
+        if (movingCount == movingObjects.length) {
+            movingObjects = Arrays.copyOf(movingObjects, movingCount * 2);
+            movingProxies = Arrays.copyOf(movingProxies, movingCount * 2);
+        }
+        movingObjects[movingCount] = object;
+        movingProxies[movingCount] = proxy;
+        movingCount++;
+    }
+
+    /**
+     * Start culling every object in a render list
+     */
+    public void track(RenderList list) {
+        for (Objects object : list.renderList) {
+            track(object);
+        }
+    }
+
+    /**
+     * Start culling a room (rooms do not move, so they are never refit)
+     */
+    public void track(Room room) {
+        if (proxies.containsKey(room)) {
+            return;
+        }
+        float[] c = room.getCenter();
+        float[] d = room.getDimensions();
+        int proxy = hierarchy.add(room, c[0] - d[0] * 0.5f, c[1], c[2] - d[1] * 0.5f,
+                                  c[0] + d[0] * 0.5f, c[1] + d[2], c[2] + d[1] * 0.5f);
+        proxies.put(room, proxy);
+        trackedRooms.add(room);
+    }
+
+    /**
+     * Match the tracked rooms to a generator's active rooms and only draw
+     * the ones visible through open doors
+     * @param activeRooms Rooms that currently exist
+     * @param visibleRooms Rooms seen from the player's room, or null for no filtering
+     */
+    public void syncRooms(Collection<? extends Room> activeRooms, Set<? extends Room> visibleRooms) {
+        for (int i = trackedRooms.size() - 1; i >= 0; i--) {
+            Room room = trackedRooms.get(i);
+            if (!activeRooms.contains(room)) {
+                untrack(room);
+            }
+        }
+        for (Room room : activeRooms) {
+            track(room);
+        }
+        roomFilter = visibleRooms;
+    }
+
+    /**
+     * Track the records of a snapshot in place of the previous one's: record
+     * i keeps its leaf from frame to frame and is refit to the new bounds
+     * @param snapshot Snapshot drawn this frame (read until the next sync)
+     */
+    public void syncSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot;
+
+        // Instance bounds cover the whole step, as drawn positions are interpolated
+        float[] instances = snapshot.getInstanceData();
+        float[] previous = snapshot.getPreviousInstanceData();
+        float[] radii = snapshot.getInstanceRadii();
+        int count = snapshot.getInstanceCount();
+        for (int i = 0; i < count; i++) {
+            int o = i * RenderSnapshot.INSTANCE_FLOATS;
+            float r = radii[i];
+            syncRecord(instanceRecords, false, i,
+                       Math.min(instances[o], previous[o]) - r,
+                       Math.min(instances[o + 1], previous[o + 1]) - r,
+                       Math.min(instances[o + 2], previous[o + 2]) - r,
+                       Math.max(instances[o], previous[o]) + r,
+                       Math.max(instances[o + 1], previous[o + 1]) + r,
+                       Math.max(instances[o + 2], previous[o + 2]) + r);
+        }
+        dropRecords(instanceRecords, count);
+
+        float[] rooms = snapshot.getRoomData();
+        count = snapshot.getRoomCount();
+        for (int i = 0; i < count; i++) {
+            int o = i * RenderSnapshot.ROOM_FLOATS;
+            float halfWidth = rooms[o + 3] * 0.5f;
+            float halfLength = rooms[o + 4] * 0.5f;
+            syncRecord(roomRecords, true, i, rooms[o] - halfWidth, rooms[o + 1], rooms[o + 2] - halfLength,
+                       rooms[o] + halfWidth, rooms[o + 1] + rooms[o + 5], rooms[o + 2] + halfLength);
+        }
+        dropRecords(roomRecords, count);
+    }
+
+    /**
+     * Stop culling an object or room
+     */
+    public void untrack(Object item) {
+        Integer proxy = proxies.remove(item);
+        if (proxy == null) {
+            return;
+        }
+        hierarchy.remove(proxy);
+        if (item instanceof Room) {
+            trackedRooms.remove(item);
+            return;
+        }
+        for (int i = 0; i < movingCount; i++) {
+            if (movingObjects[i] == item) {
+                movingCount--;
+                movingObjects[i] = movingObjects[movingCount];
+                movingProxies[i] = movingProxies[movingCount];
+                movingObjects[movingCount] = null;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Stop culling everything
+     */
+    public void clear() {
+        hierarchy.clear();
+        proxies.clear();
+        trackedRooms.clear();
+        roomFilter = null;
+        Arrays.fill(movingObjects, 0, movingCount, null);
+        movingCount = 0;
+        snapshot = null;
+        instanceRecords.clear();
+        roomRecords.clear();
+        visibleInstanceCount = 0;
+        visibleRoomCount = 0;
+    }
+
+    // === Per-Frame Work ===
+
+    /**
+     * Push current object positions into the hierarchy (refit, no rebuild)
+     */
+    public void updateBounds() {
+        for (int i = 0; i < movingCount; i++) {
+            Objects o = movingObjects[i];
+            float r = o.getBoundingRadius();
+            hierarchy.update(movingProxies[i], o.getX() - r, o.getY() - r, o.getZ() - r,
+                             o.getX() + r, o.getY() + r, o.getZ() + r);
+        }
+    }
+
+    /**
+     * Collect the tracked items that touch the frustum
+     * @return Number of visible items
+     */
+    public int cull(Frustum frustum) {
+        visible.clear();
+        visibleObjects.clear();
+        visibleRooms.clear();
+        visibleInstanceCount = 0;
+        visibleRoomCount = 0;
+        hierarchy.cull(frustum, visible);
+        for (Object item : visible) {
+            if (item instanceof Record) {
+                Record record = (Record) item;
+                if (record.room) {
+                    visibleRoomRecords = push(visibleRoomRecords, visibleRoomCount++, record.index);
+                } else {
+                    visibleInstanceRecords = push(visibleInstanceRecords, visibleInstanceCount++, record.index);
+                }
+            } else if (item instanceof Room) {
+                if (roomFilter == null || roomFilter.contains(item)) {
+                    visibleRooms.add((Room) item);
+                }
+            } else {
+                visibleObjects.add((Objects) item);
+            }
+        }
+        return visible.size();
+    }
+
+    /**
+     * Draw the survivors of the last cull with snapshot instances at their
+     * current transforms
+     */
+    public void render() {
+        render(1.0f);
+    }
+
+    /**
+     * Draw the survivors of the last cull: rooms, then objects with cubes
+     * batched (snapshot records are drawn from the snapshot's copies, moved
+     * between their previous and current transforms)
+     * @param alpha Interpolation factor from {@link RenderSnapshot#getAlpha(long)}
+     */
+    public void render(float alpha) {
+        for (Room room : visibleRooms) {
+            room.render();
+        }
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer == null) {
+            for (Objects o : visibleObjects) {
+                o.render();
+            }
+            return;
+        }
+        if (visibleRoomCount > 0) {
+            float[] rooms = snapshot.getRoomData();
+            for (int i = 0; i < visibleRoomCount; i++) {
+                int o = visibleRoomRecords[i] * RenderSnapshot.ROOM_FLOATS;
+                renderer.drawAt(renderer.getRoom(), rooms[o], rooms[o + 1], rooms[o + 2], 0.0f,
+                                rooms[o + 3], rooms[o + 5], rooms[o + 4], 1.0f, 1.0f, 1.0f);
+            }
+        }
+        InstanceBatch batch = renderer.getCubeBatch();
+        batch.clear();
+        for (Objects o : visibleObjects) {
+            if (!o.appendInstance(batch)) {
+                o.render();
+            }
+        }
+        if (visibleInstanceCount > 0) {
+            float[] instances = snapshot.getInstanceData();
+            for (int i = 0; i < visibleInstanceCount; i++) {
+                int index = visibleInstanceRecords[i];
+                int o = index * RenderSnapshot.INSTANCE_FLOATS;
+                snapshot.interpolateInstance(index, alpha, transform);
+                batch.add(transform[0], transform[1], transform[2], instances[o + 3], transform[3],
+                          instances[o + 5], instances[o + 6], instances[o + 7]);
+            }
+        }
+        renderer.drawInstanced(batch);
+    }
+
+    // === Accessors ===
+
+    public List<Objects> getVisibleObjects() {
+        return visibleObjects;
+    }
+
+    public List<Room> getVisibleRooms() {
+        return visibleRooms;
+    }
+
+    /**
+     * Get the number of snapshot instance records that survived the last cull
+     */
+    public int getVisibleInstanceCount() {
+        return visibleInstanceCount;
+    }
+
+    /**
+     * Get the snapshot index of the i-th visible instance record
+     */
+    public int getVisibleInstance(int i) {
+        return visibleInstanceRecords[i];
+    }
+
+    /**
+     * Get the number of snapshot room records that survived the last cull
+     */
+    public int getVisibleRoomCount() {
+        return visibleRoomCount;
+    }
+
+    /**
+     * Get the snapshot index of the i-th visible room record
+     */
+    public int getVisibleRoom(int i) {
+        return visibleRoomRecords[i];
+    }
+
+    public int getTrackedCount() {
+        return hierarchy.size();
+    }
+
+    public BoundingVolumeHierarchy<Object> getHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Get a one-line summary for debug output
+     */
+    public String getStatusReport() {
+        return String.format("Culling: %d/%d visible (%d objects, %d rooms), %d rebuilds, %d refits",
+                             visible.size(), hierarchy.size(), visibleObjects.size() + visibleInstanceCount,
+                             visibleRooms.size() + visibleRoomCount,
+                             hierarchy.getRebuildCount(), hierarchy.getRefitCount());
+    }
+
+    // === Helper Methods ===
+
+    /**
+     * Refit record i to new bounds, adding its leaf the first time
+     */
+    private void syncRecord(List<Record> records, boolean room, int i, float minX, float minY, float minZ,
+                            float maxX, float maxY, float maxZ) {
+        if (i < records.size()) {
+            hierarchy.update(records.get(i).proxy, minX, minY, minZ, maxX, maxY, maxZ);
+            return;
+        }
+        Record record = new Record(room, i);
+        record.proxy = hierarchy.add(record, minX, minY, minZ, maxX, maxY, maxZ);
+        records.add(record);
+    }
+
+    /**
+     * Remove the leaves of records beyond the snapshot's count
+     */
+    private void dropRecords(List<Record> records, int count) {
+        for (int i = records.size() - 1; i >= count; i--) {
+            hierarchy.remove(records.remove(i).proxy);
+        }
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, index * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+}
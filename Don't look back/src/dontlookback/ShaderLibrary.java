@@ -0,0 +1,557 @@
+package dontlookback;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.*;
+
+/**
+ * Shader Library for Don't Look Back
+ *
+ * Loads, links and owns every GLSL program in res/shaders. Sources may pull
+ * in shared code with {@code #include "lighting.glh"} lines, which are
+ * resolved recursively before compilation.
+ *
+ * Features:
+ * - Include resolution with cycle detection and per-program dependency sets
+ * - Global uniform id registry; programs cache locations in int tables
+ * - On-disk program binary cache keyed by a hash of the resolved sources and
+ *   the GL driver, so a warm start skips compilation entirely
+ * - Development hot reload: watches the shader directory and relinks
+ *   affected programs in place, keeping the old program if the edit fails
+ *
+ * Development mode is enabled with {@code -Ddlb.dev=true}; sources are then
+ * read from the res/shaders directory on disk (or {@code -Ddlb.shaderDir}).
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ShaderLibrary {
+
+    // === Uniform Registry ===
+
+    /** Uniform names indexed by id */
+    private static final List<String> uniformNames = new ArrayList<>();
+
+    /** Uniform ids by name */
+    private static final Map<String, Integer> uniformIds = new HashMap<>();
+
+    /**
+     * Get the id of a uniform name, registering it on first use.
+     * Ids are shared by all programs; resolve once and keep the int.
+     * @param name GLSL uniform name
+     * @return Dense uniform id
+     */
+    public static synchronized int uniformId(String name) {
+        Integer id = uniformIds.get(name);
+        if (id == null) {
+            id = uniformNames.size();
+            uniformNames.add(name);
+            uniformIds.put(name, id);
+        }
+        return id;
+    }
+
+    static synchronized int getUniformCount() {
+        return uniformNames.size();
+    }
+
+    static synchronized String getUniformName(int id) {
+        return uniformNames.get(id);
+    }
+
+    // === Configuration ===
+
+    /** Built-in programs: name, vertex file, fragment file */
+    private static final String[][] DEFAULT_PROGRAMS = {
+        {"mesh", "mesh.vs", "mesh.fs"},
+        {"mesh_instanced", "mesh_instanced.vs", "mesh.fs"},
+        {"forward-ambient", "forward-ambient.vs", "forward-ambient.fs"},
+        {"forward-directional", "forward-directional.vs", "forward-directional.fs"},
+        {"forward-point", "forward-point.vs", "forward-point.fs"},
+        {"forward-spot", "forward-spot.vs", "forward-spot.fs"}
+    };
+
+    /** Include directive: #include "file" */
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("^\\s*#include\\s+\"([^\"]+)\"\\s*$");
+
+    /** Binary cache file header ("DLBS") and format version */
+    private static final int CACHE_MAGIC = 0x444C4253;
+    private static final int CACHE_VERSION = 1;
+
+    /** Default binary cache location */
+    private static final String DEFAULT_CACHE_DIR = System.getProperty("user.home") + File.separator +
+                                                    ".dontlookback" + File.separator + "shadercache";
+
+    // === Program Registry ===
+
+    /**
+     * A named program definition and its current state
+     */
+    private static class ProgramEntry {
+        final String name;
+        final String vertexFile;
+        final String fragmentFile;
+        ShaderProgram program;
+        Set<String> dependencies = new LinkedHashSet<>();
+
+        ProgramEntry(String name, String vertexFile, String fragmentFile) {
+            this.name = name;
+            this.vertexFile = vertexFile;
+            this.fragmentFile = fragmentFile;
+        }
+    }
+
+    /** Programs by name */
+    private final Map<String, ProgramEntry> programs = new LinkedHashMap<>();
+
+    /** Shader directory on disk, or null to read from the classpath */
+    private final Path sourceDirectory;
+
+    /** Binary cache directory, or null to disable the cache */
+    private final Path cacheDirectory;
+
+    /** Whether program binaries are supported (resolved on first build) */
+    private Boolean binarySupported;
+
+    /** Driver identity mixed into cache keys */
+    private String driverKey;
+
+    // === Hot Reload ===
+
+    private WatchService watcher;
+    private Thread watchThread;
+
+    /** File names changed on disk since the last poll (written by the watch thread) */
+    private final Set<String> changedFiles = ConcurrentHashMap.newKeySet();
+
+    // === Statistics ===
+
+    private int compiledCount = 0;
+    private int cacheHitCount = 0;
+    private int reloadCount = 0;
+
+    /**
+     * Create the library with default settings: classpath sources and the
+     * user cache directory, or on-disk sources with hot reload in dev mode
+     */
+    public ShaderLibrary() {
+        this(Boolean.getBoolean("dlb.dev") ? findSourceDirectory() : null,
+             Paths.get(DEFAULT_CACHE_DIR),
+             Boolean.getBoolean("dlb.dev"));
+    }
+
+    /**
+     * Create a library with explicit locations
+     * @param sourceDirectory Directory with shader sources, or null for the classpath
+     * @param cacheDirectory Directory for program binaries, or null to disable caching
+     * @param watch Whether to watch sourceDirectory for changes
+     */
+    public ShaderLibrary(Path sourceDirectory, Path cacheDirectory, boolean watch) {
+        this.sourceDirectory = sourceDirectory;
+        this.cacheDirectory = cacheDirectory;
+        for (String[] definition : DEFAULT_PROGRAMS) {
+            define(definition[0], definition[1], definition[2]);
+        }
+        if (watch && sourceDirectory != null) {
+            startWatching();
+        }
+    }
+
+    /**
+     * Register a program definition (replaces an unloaded definition of the same name)
+     */
+    public void define(String name, String vertexFile, String fragmentFile) {
+        ProgramEntry existing = programs.get(name);
+        if (existing != null && existing.program != null) {
+            throw new IllegalStateException("Program already loaded: " + name);
+        }
+        programs.put(name, new ProgramEntry(name, vertexFile, fragmentFile));
+    }
+
+    // === Program Access ===
+
+    /**
+     * Get a program, building it on first request
+     * @param name Program name
+     * @return Linked program
+     * @throws IllegalArgumentException if no such program is defined
+     * @throws RuntimeException if compilation or linking fails
+     */
+    public ShaderProgram get(String name) {
+        ProgramEntry entry = programs.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown shader program: " + name);
+        }
+        if (entry.program == null) {
+            entry.program = new ShaderProgram(name, build(entry, true));
+        }
+        return entry.program;
+    }
+
+    /**
+     * Build every defined program, logging (not throwing) failures
+     * @return Number of programs available
+     */
+    public int loadAll() {
+        int loaded = 0;
+        for (String name : programs.keySet()) {
+            try {
+                get(name);
+                loaded++;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Shader program '" + name + "' unavailable: " + e.getMessage());
+            }
+        }
+        System.out.println("🎨 Shader library: " + loaded + "/" + programs.size() + " programs (" +
+                           cacheHitCount + " from binary cache, " + compiledCount + " compiled)");
+        return loaded;
+    }
+
+    /**
+     * Relink programs whose sources changed on disk. Call once per frame
+     * on the render thread; does nothing unless hot reload is active.
+     * @return Number of programs reloaded
+     */
+    public int pollReloads() {
+        if (changedFiles.isEmpty()) {
+            return 0;
+        }
+        Set<String> changed = new LinkedHashSet<>(changedFiles);
+        changedFiles.removeAll(changed);
+
+        int reloaded = 0;
+        for (ProgramEntry entry : programs.values()) {
+            if (entry.program == null || Collections.disjoint(entry.dependencies, changed)) {
+                continue;
+            }
+            try {
+                entry.program.replaceProgram(build(entry, false));
+                reloaded++;
+                reloadCount++;
+                System.out.println("🔄 Reloaded shader program '" + entry.name + "'");
+            } catch (RuntimeException e) {
+                // Keep the last working program so the game keeps rendering
+                System.err.println("❌ Shader reload failed for '" + entry.name + "': " + e.getMessage());
+            }
+        }
+        return reloaded;
+    }
+
+    // === Source Handling ===
+
+    /**
+     * Read a shader file and expand its #include directives recursively
+     * @param fileName File inside the shader directory
+     * @param dependencies Receives every file the result depends on
+     * @return Fully expanded source
+     */
+    public String resolveIncludes(String fileName, Set<String> dependencies) {
+        StringBuilder out = new StringBuilder();
+        expand(fileName, dependencies, new LinkedHashSet<>(), out);
+        return out.toString();
+    }
+
+    private void expand(String fileName, Set<String> dependencies, Set<String> includeStack, StringBuilder out) {
+        if (!includeStack.add(fileName)) {
+            throw new IllegalStateException("Circular shader include: " + includeStack + " -> " + fileName);
+        }
+        dependencies.add(fileName);
+
+        for (String line : readFile(fileName).split("\r?\n")) {
+            Matcher include = INCLUDE_PATTERN.matcher(line);
+            if (include.matches()) {
+                expand(include.group(1), dependencies, includeStack, out);
+            } else {
+                out.append(line).append('\n');
+            }
+        }
+        includeStack.remove(fileName);
+    }
+
+    private String readFile(String fileName) {
+        if (sourceDirectory == null) {
+            return ShaderProgram.readSource(fileName);
+        }
+        try {
+            return new String(Files.readAllBytes(sourceDirectory.resolve(fileName)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Shader not found: " + sourceDirectory.resolve(fileName), e);
+        }
+    }
+
+    /**
+     * Hash the resolved sources together with the driver identity
+     */
+    static String hashSources(String driver, String vertexSource, String fragmentSource) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(driver.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(vertexSource.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fragmentSource.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    // === Building ===
+
+    /**
+     * Produce a linked GL program for an entry, from the binary cache if possible
+     */
+    private int build(ProgramEntry entry, boolean allowCache) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        String vertexSource = resolveIncludes(entry.vertexFile, dependencies);
+        String fragmentSource = resolveIncludes(entry.fragmentFile, dependencies);
+        entry.dependencies = dependencies;
+
+        boolean useBinaries = cacheDirectory != null && isBinarySupported();
+        Path cacheFile = null;
+        if (useBinaries) {
+            String hash = hashSources(driverKey, vertexSource, fragmentSource);
+            cacheFile = cacheDirectory.resolve(entry.name + "-" + hash.substring(0, 16) + ".bin");
+            if (allowCache) {
+                int cached = loadBinary(cacheFile);
+                if (cached != 0) {
+                    cacheHitCount++;
+                    return cached;
+                }
+            }
+        }
+
+        int programId = ShaderProgram.link(entry.name, vertexSource, fragmentSource, useBinaries);
+        compiledCount++;
+        if (useBinaries) {
+            saveBinary(programId, entry.name, cacheFile);
+        }
+        return programId;
+    }
+
+    private boolean isBinarySupported() {
+        if (binarySupported == null) {
+            GLCapabilities caps = GL.getCapabilities();
+            boolean supported = caps != null && (caps.OpenGL41 || caps.GL_ARB_get_program_binary)
+                                && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+            binarySupported = supported;
+            driverKey = glGetString(GL_VENDOR) + "|" + glGetString(GL_RENDERER) + "|" + glGetString(GL_VERSION);
+        }
+        return binarySupported;
+    }
+
+    /**
+     * Create a program from a cached binary
+     * @return Program object, or 0 if there is no usable cache entry
+     */
+    private int loadBinary(Path cacheFile) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return 0;
+        }
+        try (InputStream fileIn = Files.newInputStream(cacheFile);
+             DataInputStream in = new DataInputStream(fileIn)) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) {
+                return 0;
+            }
+            int format = in.readInt();
+            int length = in.readInt();
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+
+            ByteBuffer binary = BufferUtils.createByteBuffer(length);
+            binary.put(bytes).flip();
+
+            int programId = glCreateProgram();
+            glProgramBinary(programId, format, binary);
+            if (glGetProgrami(programId, GL_LINK_STATUS) == 0) {
+                // Driver update or corrupt file: fall back to compiling
+                glDeleteProgram(programId);
+                Files.deleteIfExists(cacheFile);
+                return 0;
+            }
+            return programId;
+        } catch (IOException e) {
+            System.err.println("Shader cache read failed for " + cacheFile.getFileName() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Store a linked program's binary, replacing older entries for the same program
+     */
+    private void saveBinary(int programId, String name, Path cacheFile) {
+        int length = glGetProgrami(programId, GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer binary = BufferUtils.createByteBuffer(length);
+        int[] written = new int[1];
+        int[] format = new int[1];
+        glGetProgramBinary(programId, written, format, binary);
+        byte[] bytes = new byte[written[0]];
+        binary.get(bytes);
+
+        try {
+            Files.createDirectories(cacheDirectory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(cacheDirectory, name + "-*.bin")) {
+                for (Path old : stale) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            try (OutputStream fileOut = Files.newOutputStream(cacheFile);
+                 DataOutputStream out = new DataOutputStream(fileOut)) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeInt(format[0]);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            System.err.println("Shader cache write failed for " + name + ": " + e.getMessage());
+        }
+    }
+
+    // === Hot Reload ===
+
+    private static Path findSourceDirectory() {
+        String configured = System.getProperty("dlb.shaderDir");
+        Path[] candidates = configured != null
+            ? new Path[]{Paths.get(configured)}
+            : new Path[]{Paths.get("res", "shaders"), Paths.get("..", "res", "shaders")};
+        for (Path candidate : candidates) {
+            if (Files.isDirectory(candidate)) {
+                return candidate.toAbsolutePath().normalize();
+            }
+        }
+        System.out.println("Shader source directory not found; hot reload disabled");
+        return null;
+    }
+
+    private void startWatching() {
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            sourceDirectory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY,
+                                     StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            System.err.println("Shader hot reload unavailable: " + e.getMessage());
+            watcher = null;
+            return;
+        }
+
+        watchThread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey key = watcher.take();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                            changedFiles.add(((Path) event.context()).getFileName().toString());
+                        }
+                    }
+                    key.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Library shut down
+            }
+        }, "ShaderWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        System.out.println("🔄 Watching " + sourceDirectory + " for shader changes");
+    }
+
+    /**
+     * Record a changed file as if the watcher had seen it (used by tools and tests)
+     */
+    public void notifyFileChanged(String fileName) {
+        changedFiles.add(fileName);
+    }
+
+    // === Statistics and Cleanup ===
+
+    /**
+     * Get the files a loaded program was built from (empty if not loaded)
+     */
+    public Set<String> getDependencies(String name) {
+        ProgramEntry entry = programs.get(name);
+        return entry == null ? Set.of() : Collections.unmodifiableSet(entry.dependencies);
+    }
+
+    public boolean isWatching() {
+        return watcher != null;
+    }
+
+    public int getCompiledCount() {
+        return compiledCount;
+    }
+
+    public int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Stop watching and delete every loaded program
+     */
+    public void cleanup() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // Ignore errors on shutdown
+            }
+            watcher = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        for (ProgramEntry entry : programs.values()) {
+            if (entry.program != null) {
+                entry.program.delete();
+                entry.program = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package dontlookback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.*;
+
+/**
+ * Shader Program for Don't Look Back
+ *
+ * A linked GLSL program plus its uniform location table. Programs are
+ * normally created and owned by {@link ShaderLibrary}, which may swap the
+ * underlying GL program on hot reload; holders of a ShaderProgram keep a
+ * valid reference across reloads.
+ *
+ * Features:
+ * - Compile and link error reporting with the driver info log
+ * - Uniform locations cached in an int table indexed by
+ *   {@link ShaderLibrary#uniformId} (no string lookups per draw)
+ * - Classpath loading of "name.vs" / "name.fs" pairs from res/shaders
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class ShaderProgram {
+
+    /** Classpath directory holding shader sources */
+    private static final String SHADER_ROOT = "/shaders/";
+
+    /** Linked program object */
+    private int program;
+
+    /** Name used in log and error messages */
+    private final String name;
+
+    /** Uniform locations indexed by uniform id, resolved on first use */
+    private int[] uniformLocations = new int[0];
+
+    /**
+     * Compile and link a program from source strings
+     * @param name Program name for diagnostics
+     * @param vertexSource GLSL vertex shader source
+     * @param fragmentSource GLSL fragment shader source
+     */
+    public ShaderProgram(String name, String vertexSource, String fragmentSource) {
+        this(name, link(name, vertexSource, fragmentSource, false));
+    }
+
+    /**
+     * Wrap an already linked program object
+     * @param name Program name for diagnostics
+     * @param programId Linked program object
+     */
+    ShaderProgram(String name, int programId) {
+        this.name = name;
+        this.program = programId;
+    }
+
+    /**
+     * Load "name.vs" and "name.fs" from res/shaders and link them
+     * (no include resolution; use {@link ShaderLibrary} for that)
+     * @param name Base name of the shader pair
+     * @return Linked shader program
+     */
+    public static ShaderProgram load(String name) {
+        return new ShaderProgram(name, readSource(name + ".vs"), readSource(name + ".fs"));
+    }
+
+    /**
+     * Read a shader source file from the classpath
+     * @param fileName File name inside res/shaders
+     * @return Shader source text
+     */
+    public static String readSource(String fileName) {
+        try (InputStream in = ShaderProgram.class.getResourceAsStream(SHADER_ROOT + fileName)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Shader not found: " + SHADER_ROOT + fileName);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read shader " + fileName, e);
+        }
+    }
+
+    // === Program Use ===
+
+    /**
+     * Make this program current
+     */
+    public void bind() {
+        glUseProgram(program);
+    }
+
+    /**
+     * Get a cached uniform location
+     * @param uniformId Id from {@link ShaderLibrary#uniformId}
+     * @return Location, or -1 if the uniform is inactive in this program
+     */
+    public int getLocation(int uniformId) {
+        if (uniformId >= uniformLocations.length) {
+            resolveUniforms();
+        }
+        return uniformLocations[uniformId];
+    }
+
+    /**
+     * Look up a uniform location by name (slow path; prefer {@link #getLocation})
+     * @param uniform Uniform name
+     * @return Location, or -1 if the uniform is inactive
+     */
+    public int getUniformLocation(String uniform) {
+        return glGetUniformLocation(program, uniform);
+    }
+
+    /**
+     * Release the program object
+     */
+    public void delete() {
+        if (program != 0) {
+            glDeleteProgram(program);
+            program = 0;
+        }
+        uniformLocations = new int[0];
+    }
+
+    public int getProgramId() {
+        return program;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // === Library Support ===
+
+    /**
+     * Swap in a newly linked program (hot reload); the old one is deleted
+     * and uniform locations are resolved again on next use
+     */
+    void replaceProgram(int programId) {
+        if (program != 0) {
+            glDeleteProgram(program);
+        }
+        program = programId;
+        uniformLocations = new int[0];
+    }
+
+    /**
+     * Compile both stages and link them into a new program object
+     * @param retrievable Request a retrievable binary (for the binary cache)
+     * @return Linked program object
+     */
+    static int link(String name, String vertexSource, String fragmentSource, boolean retrievable) {
+        int vertexShader = compile(GL_VERTEX_SHADER, vertexSource, name + " (vertex)");
+        int fragmentShader;
+        try {
+            fragmentShader = compile(GL_FRAGMENT_SHADER, fragmentSource, name + " (fragment)");
+        } catch (RuntimeException e) {
+            glDeleteShader(vertexShader);
+            throw e;
+        }
+
+        int programId = glCreateProgram();
+        if (retrievable) {
+            glProgramParameteri(programId, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+        }
+        glAttachShader(programId, vertexShader);
+        glAttachShader(programId, fragmentShader);
+        glLinkProgram(programId);
+
+        // Shaders are no longer needed once linked into the program
+        glDetachShader(programId, vertexShader);
+        glDetachShader(programId, fragmentShader);
+        glDeleteShader(vertexShader);
+        glDeleteShader(fragmentShader);
+
+        if (glGetProgrami(programId, GL_LINK_STATUS) == 0) {
+            String log = glGetProgramInfoLog(programId);
+            glDeleteProgram(programId);
+            throw new RuntimeException("Failed to link shader program '" + name + "': " + log);
+        }
+        return programId;
+    }
+
+    // === Helper Methods ===
+
+    private void resolveUniforms() {
+        int count = ShaderLibrary.getUniformCount();
+        int[] resolved = new int[count];
+        System.arraycopy(uniformLocations, 0, resolved, 0, uniformLocations.length);
+        for (int id = uniformLocations.length; id < count; id++) {
+            resolved[id] = program == 0 ? -1 : glGetUniformLocation(program, ShaderLibrary.getUniformName(id));
+        }
+        uniformLocations = resolved;
+    }
+
+    private static int compile(int type, String source, String label) {
+        int shader = glCreateShader(type);
+        glShaderSource(shader, source);
+        glCompileShader(shader);
+        if (glGetShaderi(shader, GL_COMPILE_STATUS) == 0) {
+            String log = glGetShaderInfoLog(shader);
+            glDeleteShader(shader);
+            throw new RuntimeException("Failed to compile shader " + label + ": " + log);
+        }
+        return shader;
+    }
+}
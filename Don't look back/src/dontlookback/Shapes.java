@@ -1,225 +1,91 @@
 package dontlookback;
 
-import static org.lwjgl.opengl.GL11.GL_QUADS;
-import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
-import static org.lwjgl.opengl.GL11.glBegin;
-import static org.lwjgl.opengl.GL11.glColor3f;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glNormal3f;
-import static org.lwjgl.opengl.GL11.glVertex3f;
-
+/**
+ * Shape Primitives for Don't Look Back
+ *
+ * Static drawing helpers for test geometry (cubes, rooms, floor grid).
+ * Each shape is described once through a {@link MeshBuilder}, uploaded by the
+ * active {@link MeshRenderer} on first use, and drawn afterwards with a single
+ * glDrawElements call. Calls are silently skipped when no renderer is active
+ * (headless mode).
+ */
 public class Shapes{
 
-    public static void renderCube() {
-
-        glBegin(GL_QUADS); //this is the big color cube
-
-        glColor3f(1.0f, 1.0f, 0.0f); //side 1, color:
-        glVertex3f(45.0f, 30.0f, 15.0f);
-        glVertex3f(15.0f, 30.0f, 15.0f);
-        glVertex3f(15.0f, 30.0f, 45.0f);
-        glVertex3f(45.0f, 30.0f, 45.0f);
-
-        glColor3f(1.0f, 0.5f, 0.0f); //side 2, color:
-        glVertex3f(45.0f, 0.0f, 45.0f);
-        glVertex3f(15.0f, 0.0f, 45.0f);
-        glVertex3f(15.0f, 0.0f, 15.0f);
-        glVertex3f(45.0f, 0.0f, 15.0f);
-
-        glColor3f(1.5f, 0.0f, 0.0f); //side 3, color:
-        glVertex3f(45.0f, 30.0f, 45.0f);
-        glVertex3f(15.0f, 30.0f, 45.0f);
-        glVertex3f(15.0f, 0.0f, 45.0f);
-        glVertex3f(45.0f, 0.0f, 45.0f);
-
-        glColor3f(0.5f, 0.5f, 0.5f); //side 4, color:
-        glVertex3f(45.0f, 0.0f, 15.0f);
-        glVertex3f(15.0f, 0.0f, 15.0f);
-        glVertex3f(15.0f, 30.0f, 15.0f);
-        glVertex3f(45.0f, 30.0f, 15.0f);
-
-        glColor3f(0.0f, 0.0f, 1.0f); //side 5, color:
-        glVertex3f(15.0f, 30.0f, 45.0f);
-        glVertex3f(15.0f, 30.0f, 15.0f);
-        glVertex3f(15.0f, 0.0f, 15.0f);
-        glVertex3f(15.0f, 0.0f, 45.0f);
-
-        glColor3f(1.0f, 0.0f, 1.0f); //side 6, color:
-        glVertex3f(45.0f, 30.0f, 15.0f);
-        glVertex3f(45.0f, 30.0f, 45.0f);
-        glVertex3f(45.0f, 0.0f, 45.0f);
-        glVertex3f(45.0f, 0.0f, 15.0f);
-
-        glEnd();
+    /** Face order used by the box helpers: top, front, right, left, bottom, back */
+    private static final float[][] CLASSIC_FACE_COLORS = {
+        {1.0f, 0.0f, 0.0f}, // top
+        {0.0f, 1.0f, 0.0f}, // front
+        {0.0f, 0.0f, 1.0f}, // right
+        {0.0f, 0.0f, 0.5f}, // left
+        {0.5f, 0.0f, 0.0f}, // bottom
+        {0.0f, 0.5f, 0.0f}  // back
+    };
+
+    private static final float[][] WHITE_FACE_COLORS = {
+        {1.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 1.0f},
+        {1.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 1.0f}
+    };
+
+    private static final float[][] LARGE_CUBE_FACE_COLORS = {
+        {1.0f, 1.0f, 0.0f}, // top (y = 30)
+        {1.0f, 0.0f, 0.0f}, // front (z = 45)
+        {1.0f, 0.0f, 1.0f}, // right (x = 45)
+        {0.0f, 0.0f, 1.0f}, // left (x = 15)
+        {1.0f, 0.5f, 0.0f}, // bottom (y = 0)
+        {0.5f, 0.5f, 0.5f}  // back (z = 15)
+    };
+
+    // === Drawing ===
+
+    public static void renderCube() { //this is the big color cube
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawWorld(renderer.getLargeCube());
+        }
     }
 
     public static void renderCube(float[] center) {
-        //lets default this to length, width, height, of 5
-        glBegin(GL_QUADS); //this is the color cube
-
-        // top
-        glColor3f(1.0f, 0.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f, center[1] + 1.0f, center[2] + 0.0f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + -0.5f);
-
-        // front
-        glColor3f(0.0f, 1.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f, center[1] + 0.0f, center[2] + 1.0f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + 0.5f);
-
-        // right
-        glColor3f(0.0f, 0.0f, 1.0f);
-        glNormal3f(center[0] + 1.0f, center[1] + 0.0f, center[2] + 0.0f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + -0.5f);
-
-        // left
-        glColor3f(0.0f, 0.0f, 0.5f);
-        glNormal3f(center[0] + -1.0f, center[1] + 0.0f, center[2] + 0.0f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + -0.5f);
-
-        // bottom
-        glColor3f(0.5f, 0.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f, center[1] + -1.0f, center[2] + 0.0f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + 0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + -0.5f);
-
-        // back
-        glColor3f(0.0f, 0.5f, 0.0f);
-        glNormal3f(center[0] + 0.0f, center[1] + 0.0f, center[2] + -1.0f);
-        glVertex3f(center[0] + 0.5f, center[1] + 0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + 0.5f, center[1] + -0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + -0.5f, center[2] + -0.5f);
-        glVertex3f(center[0] + -0.5f, center[1] + 0.5f, center[2] + -0.5f);
-
-        glEnd();
+        renderCube(center, 1.0f);
     }
 
     public static void renderCube(float[] center, float size) {
-
-        glBegin(GL_QUADS); //this is the color cube
-
-        // top
-        glColor3f(1.0f, 0.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f * size, center[1] + 1.0f * size, center[2] + 0.0f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-
-        // front
-        glColor3f(0.0f, 1.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f * size, center[1] + 0.0f * size, center[2] + 1.0f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-
-        // right
-        glColor3f(0.0f, 0.0f, 1.0f);
-        glNormal3f(center[0] + 1.0f * size, center[1] + 0.0f * size, center[2] + 0.0f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-
-        // left
-        glColor3f(0.0f, 0.0f, 0.5f);
-        glNormal3f(center[0] + -1.0f * size, center[1] + 0.0f * size, center[2] + 0.0f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-
-        // bottom
-        glColor3f(0.5f, 0.0f, 0.0f);
-        glNormal3f(center[0] + 0.0f * size, center[1] + -1.0f * size, center[2] + 0.0f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + 0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-
-        // back
-        glColor3f(0.0f, 0.5f, 0.0f);
-        glNormal3f(center[0] + 0.0f * size, center[1] + 0.0f * size, center[2] + -1.0f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + 0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + -0.5f * size, center[2] + -0.5f * size);
-        glVertex3f(center[0] + -0.5f * size, center[1] + 0.5f * size, center[2] + -0.5f * size);
-
-        glEnd();
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawAt(renderer.getColorCube(), center[0], center[1], center[2], 0.0f,
+                            size, size, size, 1.0f, 1.0f, 1.0f);
+        }
     }
 
     public static void renderTriangle() {
-        glBegin(GL_TRIANGLES);                      // Drawing Using Triangles
-        glVertex3f(0.0f, 1.0f, 0.0f);              // Top
-        glVertex3f(-1.0f, -1.0f, 0.0f);              // Bottom Left
-        glVertex3f(1.0f, -1.0f, 0.0f);              // Bottom Right
-        glEnd();
+        renderTriangle(new float[]{0.0f, 0.0f, 0.0f}, 1.0f);
     }
 
     public static void renderTriangle(float[] center) {
-        glBegin(GL_TRIANGLES);                      // Drawing Using Triangles
-        glVertex3f(center[0] + 0.0f, center[1] + 1.0f, center[2] + 0.0f);              // Top
-        glVertex3f(center[0] + -1.0f, center[1] + -1.0f, center[2] + 0.0f);              // Bottom Left
-        glVertex3f(center[0] + 1.0f, center[1] + -1.0f, center[2] + 0.0f);              // Bottom Right
-        glEnd();
+        renderTriangle(center, 1.0f);
     } // we should add a version with rotation but lets do that after rectangles are well constructed.
 
     public static void renderTriangle(float[] center, float size) {
-        glBegin(GL_TRIANGLES);                      // Drawing Using Triangles
-        glVertex3f(center[0] + 0.0f * size, center[1] + 1.0f * size, center[2] + 0.0f * size);              // Top
-        glVertex3f(center[0] + -1.0f * size, center[1] + -1.0f * size, center[2] + 0.0f * size);              // Bottom Left
-        glVertex3f(center[0] + 1.0f * size, center[1] + -1.0f * size, center[2] + 0.0f * size);              // Bottom Right
-        glEnd();
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawAt(renderer.getTriangle(), center[0], center[1], center[2], 0.0f,
+                            size, size, size, 1.0f, 1.0f, 1.0f);
+        }
     }
 
     public static void renderRectangle() {
-
-        glBegin(GL_QUADS); //this is the color cube
-        glColor3f(0.0f, 1.0f, 0.0f);
-        glNormal3f(0.0f, 0.0f, 1.0f);
-        glVertex3f(0.5f, -0.5f, 0.5f);
-        glVertex3f(0.5f, 0.5f, 0.5f);
-        glVertex3f(-0.5f, 0.5f, 0.5f);
-        glVertex3f(-0.5f, -0.5f, 0.5f);
-        glEnd();
+        renderRectangle(new float[]{0.0f, 0.0f, 0.0f});
     }
 
     public static void renderRectangle(float[] position) { //A good way to tackle the rotation is to add it in as a fourth value, and even fifth for some things, XYZ center, XYZ rotation. = POSITION
-
-        glBegin(GL_QUADS);
-        glColor3f(0.0f, 1.0f, 0.0f);
-        glNormal3f(position[0] + 0.0f, position[1] + 0.0f, position[2] + 1.0f);
-        glVertex3f(position[0] + 0.5f, position[1] + -0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + 0.5f, position[1] + 0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + -0.5f, position[1] + 0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + -0.5f, position[1] + -0.5f, position[2] + 0.5f);
-        glEnd();
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawAt(renderer.getRectangle(), position[0], position[1], position[2], 0.0f,
+                            1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f);
+        }
     }
 
     public static void renderRectangle(float[] position, float[] dimensions) {  //second value is iffy here, should rectangles be a constant height? like wall height? a constant length??? hmm
-        glBegin(GL_QUADS);
-        glColor3f(0.0f, 1.0f, 0.0f); //can't scale until i decide how we determine length width
-        glNormal3f(position[0] + 0.0f, position[1] + 0.0f, position[2] + 1.0f);
-        glVertex3f(position[0] + 0.5f, position[1] + -0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + 0.5f, position[1] + 0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + -0.5f, position[1] + 0.5f, position[2] + 0.5f);
-        glVertex3f(position[0] + -0.5f, position[1] + -0.5f, position[2] + 0.5f);
-        glEnd();
+        renderRectangle(position); //can't scale until i decide how we determine length width
     }
 
     public static void renderQuadrilateral() {
@@ -236,7 +102,7 @@ public class Shapes{
 
     //should walls have depth? 
     public static void renderWall() {
-        //can we only have glBegin only happen ONCE before all the methods? and the end after? 
+
     }
 
     public static void renderWall(float[] center) {
@@ -262,62 +128,12 @@ public class Shapes{
     }
 
     public static void renderRoom(float[] center, float[] dimensions) {
-        // Render room as walls, floor, and ceiling
-        float halfWidth = dimensions[0] / 2f;
-        float halfLength = dimensions[1] / 2f;
-        float height = dimensions[2];
-        
-        glBegin(GL_QUADS);
-        
-        // Floor (gray)
-        glColor3f(0.3f, 0.3f, 0.3f);
-        glNormal3f(0.0f, 1.0f, 0.0f);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] + halfLength);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] + halfLength);
-        
-        // Ceiling (darker gray)
-        glColor3f(0.2f, 0.2f, 0.2f);
-        glNormal3f(0.0f, -1.0f, 0.0f);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] - halfLength);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] - halfLength);
-        
-        // Front wall (light brown)
-        glColor3f(0.5f, 0.4f, 0.3f);
-        glNormal3f(0.0f, 0.0f, -1.0f);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] - halfLength);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] - halfLength);
-        
-        // Back wall (light brown)
-        glColor3f(0.5f, 0.4f, 0.3f);
-        glNormal3f(0.0f, 0.0f, 1.0f);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] + halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] + halfLength);
-        
-        // Left wall (light brown)
-        glColor3f(0.5f, 0.4f, 0.3f);
-        glNormal3f(-1.0f, 0.0f, 0.0f);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] + halfLength);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] - halfWidth, center[1] + height, center[2] - halfLength);
-        glVertex3f(center[0] - halfWidth, center[1], center[2] - halfLength);
-        
-        // Right wall (light brown)
-        glColor3f(0.5f, 0.4f, 0.3f);
-        glNormal3f(1.0f, 0.0f, 0.0f);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] - halfLength);
-        glVertex3f(center[0] + halfWidth, center[1] + height, center[2] + halfLength);
-        glVertex3f(center[0] + halfWidth, center[1], center[2] + halfLength);
-        
-        glEnd();
+        // One shared unit room mesh: width on X, height on Y, length on Z
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawAt(renderer.getRoom(), center[0], center[1], center[2], 0.0f,
+                            dimensions[0], dimensions[2], dimensions[1], 1.0f, 1.0f, 1.0f);
+        }
     }
 
     //below is a test method for rooms with preset dimensions. such as hallway, narrow room, living room, idk room. but preseting and using those is probably better than setting manual dimensions each time.
@@ -352,29 +168,95 @@ public class Shapes{
     }
 
     public static void floorTest() {
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer != null) {
+            renderer.drawWorld(renderer.getFloorGrid());
+        }
+    }
+
+    // === Geometry ===
+
+    /**
+     * Append a unit cube (centered at the origin) with the classic face colors
+     */
+    public static void appendColorCube(MeshBuilder builder) {
+        appendBox(builder, 0.0f, 0.0f, 0.0f, 0.5f, 0.5f, 0.5f, CLASSIC_FACE_COLORS);
+    }
+
+    /**
+     * Append a white unit cube (centered at the origin) for tinted drawing
+     */
+    public static void appendUnitCube(MeshBuilder builder) {
+        appendBox(builder, 0.0f, 0.0f, 0.0f, 0.5f, 0.5f, 0.5f, WHITE_FACE_COLORS);
+    }
+
+    /**
+     * Append the big world-space test cube spanning 15..45 on X/Z and 0..30 on Y
+     */
+    public static void appendLargeCube(MeshBuilder builder) {
+        appendBox(builder, 30.0f, 15.0f, 30.0f, 15.0f, 15.0f, 15.0f, LARGE_CUBE_FACE_COLORS);
+    }
+
+    /**
+     * Append a white triangle with vertices (0,1), (-1,-1), (1,-1) facing +Z
+     */
+    public static void appendTriangle(MeshBuilder builder) {
+        int top = builder.addVertex(0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 1.0f, 1.0f);
+        builder.addVertex(-1.0f, -1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 1.0f, 1.0f);
+        builder.addVertex(1.0f, -1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 1.0f, 1.0f);
+        builder.addTriangle(top, top + 1, top + 2);
+    }
+
+    /**
+     * Append a green unit rectangle at z = 0.5 facing +Z
+     */
+    public static void appendRectangle(MeshBuilder builder) {
+        builder.addFace(0.0f, 0.0f, 0.5f, 0.5f, 0.0f, 0.0f, 0.0f, 0.5f, 0.0f, 0.0f, 1.0f, 0.0f);
+    }
+
+    /**
+     * Append a unit room interior: X and Z span -0.5..0.5, Y spans 0..1.
+     * All faces point inwards so they survive back-face culling from inside.
+     */
+    public static void appendRoom(MeshBuilder builder) {
+        // Floor (gray) and ceiling (darker gray)
+        builder.addFace(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.5f, 0.5f, 0.0f, 0.0f, 0.3f, 0.3f, 0.3f);
+        builder.addFace(0.0f, 1.0f, 0.0f, 0.5f, 0.0f, 0.0f, 0.0f, 0.0f, 0.5f, 0.2f, 0.2f, 0.2f);
+
+        // Walls (light brown)
+        builder.addFace(0.0f, 0.5f, -0.5f, 0.5f, 0.0f, 0.0f, 0.0f, 0.5f, 0.0f, 0.5f, 0.4f, 0.3f);
+        builder.addFace(0.0f, 0.5f, 0.5f, 0.0f, 0.5f, 0.0f, 0.5f, 0.0f, 0.0f, 0.5f, 0.4f, 0.3f);
+        builder.addFace(-0.5f, 0.5f, 0.0f, 0.0f, 0.5f, 0.0f, 0.0f, 0.0f, 0.5f, 0.5f, 0.4f, 0.3f);
+        builder.addFace(0.5f, 0.5f, 0.0f, 0.0f, 0.0f, 0.5f, 0.0f, 0.5f, 0.0f, 0.5f, 0.4f, 0.3f);
+    }
+
+    /**
+     * Append the 300 x 300 black and white checkerboard used by floorTest()
+     */
+    public static void appendFloorGrid(MeshBuilder builder) {
         int GridSizeX = 150;
         int GridSizeZ = 150;
 
-        glBegin(GL_QUADS);
         for (int x = -150; x < GridSizeX; ++x) {
             for (int z = -150; z < GridSizeZ; ++z) {
-                if ((x + z) % 2 == 0) //modulo 2
-                {
-                    glColor3f(1.0f, 1.0f, 1.0f); //white
-                } else {
-                    glColor3f(0.0f, 0.0f, 0.0f); //black
-                }  //imagine a square, to avoid culling go clockwise
-                glVertex3f(x, 0, z); //bottom left
-                glVertex3f(x, 0, (z + 1)); //top left
-                glVertex3f((x + 1), 0, (z + 1)); //top right
-                glVertex3f((x + 1), 0, z); //bottom right
-
+                float shade = ((x + z) % 2 == 0) ? 1.0f : 0.0f; //modulo 2, white or black
+                builder.addFace(x + 0.5f, 0.0f, z + 0.5f, 0.0f, 0.0f, 0.5f, 0.5f, 0.0f, 0.0f, shade, shade, shade);
             }
         }
+    }
 
-        glEnd();
-
-        glColor3f(1, 1, 1);
+    /**
+     * Append an axis-aligned box with one color per face
+     * @param colors Face colors in the order top, front, right, left, bottom, back
+     */
+    private static void appendBox(MeshBuilder builder, float cx, float cy, float cz,
+                                  float hx, float hy, float hz, float[][] colors) {
+        builder.addFace(cx, cy + hy, cz, 0.0f, 0.0f, hz, hx, 0.0f, 0.0f, colors[0][0], colors[0][1], colors[0][2]);
+        builder.addFace(cx, cy, cz + hz, hx, 0.0f, 0.0f, 0.0f, hy, 0.0f, colors[1][0], colors[1][1], colors[1][2]);
+        builder.addFace(cx + hx, cy, cz, 0.0f, hy, 0.0f, 0.0f, 0.0f, hz, colors[2][0], colors[2][1], colors[2][2]);
+        builder.addFace(cx - hx, cy, cz, 0.0f, 0.0f, hz, 0.0f, hy, 0.0f, colors[3][0], colors[3][1], colors[3][2]);
+        builder.addFace(cx, cy - hy, cz, hx, 0.0f, 0.0f, 0.0f, 0.0f, hz, colors[4][0], colors[4][1], colors[4][2]);
+        builder.addFace(cx, cy, cz - hz, 0.0f, hy, 0.0f, hx, 0.0f, 0.0f, colors[5][0], colors[5][1], colors[5][2]);
     }
 
 }
@@ -0,0 +1,501 @@
+package dontlookback;
+
+import java.util.Arrays;
+
+/**
+ * Spatial Hash Broadphase for Don't Look Back
+ *
+ * Uniform grid over the X/Z plane that finds the boxes near a query without
+ * looking at the rest of the world. Each box is listed in every cell it
+ * touches; a query visits only the cells it covers, so its cost depends on
+ * how crowded the area is, not on how many boxes exist. Candidates are
+ * checked against the query's box or sphere before the visitor sees them,
+ * leaving the caller's narrowphase with real overlaps only.
+ *
+ * Features:
+ * - Cells keyed by packed (x, z) cell coordinates in an open-addressing
+ *   table (no boxing, no per-cell objects)
+ * - Insert, move and remove; a move that stays in the same cells only
+ *   updates the bounds
+ * - Box and radius queries with a visitor that can stop early
+ * - Each box is reported once per query, however many cells it spans
+ * - Bounds kept in parallel arrays, entries and proxies reused from free lists
+ *
+ * Height (Y) is not hashed, since the world is laid out on a floor plan,
+ * but it is part of the overlap tests. Boxes far larger than a cell are
+ * listed in many cells. Not thread-safe, and a visitor must not query the
+ * same hash or change it.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class SpatialHash {
+
+    /**
+     * Told about each box a query overlaps
+     */
+    public interface Visitor {
+        /**
+         * @param proxy Handle of the box
+         * @return true to go on, false to stop the query
+         */
+        boolean visit(int proxy);
+    }
+
+    private static final int EMPTY = -1;
+    private static final int NULL_ENTRY = -1;
+
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    // === Proxies (structure of arrays) ===
+
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] minZ = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private float[] maxZ = new float[64];
+    private Object[] userData = new Object[64];
+
+    /** Cell range each proxy is listed in */
+    private int[] cellMinX = new int[64];
+    private int[] cellMinZ = new int[64];
+    private int[] cellMaxX = new int[64];
+    private int[] cellMaxZ = new int[64];
+
+    private boolean[] alive = new boolean[64];
+
+    /** Query number that last reported each proxy */
+    private int[] stamp = new int[64];
+
+    private int[] freeProxies = new int[16];
+    private int freeProxyCount = 0;
+    private int proxyLimit = 0;
+    private int proxyCount = 0;
+
+    // === Cell Table (open addressing, linear probing) ===
+
+    private long[] keys = new long[256];
+
+    /** First entry of each cell's list, EMPTY for unused slots */
+    private int[] heads = new int[256];
+    private int cellCount = 0;
+
+    // === Cell Entries (singly linked lists) ===
+
+    private int[] entryProxy = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryLimit = 0;
+    private int freeEntry = NULL_ENTRY;
+
+    // === Statistics ===
+
+    private int queryStamp = 0;
+    private int candidatesTested = 0;
+
+    /**
+     * Create an empty hash
+     * @param cellSize Edge length of a grid cell; about the size of a typical box works best
+     */
+    public SpatialHash(float cellSize) {
+        if (!(cellSize > 0.0f)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0f / cellSize;
+        Arrays.fill(heads, EMPTY);
+    }
+
+    // === Boxes ===
+
+    /**
+     * Add a box
+     * @param data Anything the caller wants back from {@link #getUserData} (may be null)
+     * @return Proxy handle for the box
+     */
+    public int insert(Object data, float x0, float y0, float z0, float x1, float y1, float z1) {
+        checkBox(x0, y0, z0, x1, y1, z1);
+        int proxy;
+        if (freeProxyCount > 0) {
+            proxy = freeProxies[--freeProxyCount];
+        } else {
+            if (proxyLimit == alive.length) {
+                growProxies();
+            }
+            proxy = proxyLimit++;
+        }
+        alive[proxy] = true;
+        userData[proxy] = data;
+        setBounds(proxy, x0, y0, z0, x1, y1, z1);
+        cellMinX[proxy] = cellOf(x0);
+        cellMinZ[proxy] = cellOf(z0);
+        cellMaxX[proxy] = cellOf(x1);
+        cellMaxZ[proxy] = cellOf(z1);
+        addToCells(proxy);
+        proxyCount++;
+        return proxy;
+    }
+
+    /**
+     * Move a box; only re-lists it if it now touches different cells
+     */
+    public void move(int proxy, float x0, float y0, float z0, float x1, float y1, float z1) {
+        checkProxy(proxy);
+        checkBox(x0, y0, z0, x1, y1, z1);
+        setBounds(proxy, x0, y0, z0, x1, y1, z1);
+        int newMinX = cellOf(x0);
+        int newMinZ = cellOf(z0);
+        int newMaxX = cellOf(x1);
+        int newMaxZ = cellOf(z1);
+        if (newMinX == cellMinX[proxy] && newMinZ == cellMinZ[proxy] &&
+            newMaxX == cellMaxX[proxy] && newMaxZ == cellMaxZ[proxy]) {
+            return;
+        }
+        removeFromCells(proxy);
+        cellMinX[proxy] = newMinX;
+        cellMinZ[proxy] = newMinZ;
+        cellMaxX[proxy] = newMaxX;
+        cellMaxZ[proxy] = newMaxZ;
+        addToCells(proxy);
+    }
+
+    /**
+     * Remove a box; its handle may be handed out again
+     */
+    public void remove(int proxy) {
+        checkProxy(proxy);
+        removeFromCells(proxy);
+        alive[proxy] = false;
+        userData[proxy] = null;
+        if (freeProxyCount == freeProxies.length) {
+            freeProxies = Arrays.copyOf(freeProxies, freeProxyCount * 2);
+        }
+        freeProxies[freeProxyCount++] = proxy;
+        proxyCount--;
+    }
+
+    /**
+     * Remove every box
+     */
+    public void clear() {
+        Arrays.fill(alive, 0, proxyLimit, false);
+        Arrays.fill(userData, 0, proxyLimit, null);
+        proxyLimit = 0;
+        proxyCount = 0;
+        freeProxyCount = 0;
+        Arrays.fill(heads, EMPTY);
+        cellCount = 0;
+        entryLimit = 0;
+        freeEntry = NULL_ENTRY;
+    }
+
+    // === Queries ===
+
+    /**
+     * Visit every box overlapping a box (touching counts)
+     * @return false if the visitor stopped the query
+     */
+    public boolean queryAABB(float x0, float y0, float z0, float x1, float y1, float z1, Visitor visitor) {
+        int stampValue = nextStamp();
+        int fromX = cellOf(x0), toX = cellOf(x1);
+        int fromZ = cellOf(z0), toZ = cellOf(z1);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cz = fromZ; cz <= toZ; cz++) {
+                int slot = find(packCell(cx, cz));
+                if (slot < 0) {
+                    continue;
+                }
+                for (int e = heads[slot]; e != NULL_ENTRY; e = entryNext[e]) {
+                    int p = entryProxy[e];
+                    if (stamp[p] == stampValue) {
+                        continue;
+                    }
+                    stamp[p] = stampValue;
+                    candidatesTested++;
+                    if (maxX[p] < x0 || minX[p] > x1 || maxY[p] < y0 || minY[p] > y1 ||
+                        maxZ[p] < z0 || minZ[p] > z1) {
+                        continue;
+                    }
+                    if (!visitor.visit(p)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit every box within a distance of a point
+     * @return false if the visitor stopped the query
+     */
+    public boolean queryRadius(float x, float y, float z, float radius, Visitor visitor) {
+        int stampValue = nextStamp();
+        float radiusSquared = radius * radius;
+        int fromX = cellOf(x - radius), toX = cellOf(x + radius);
+        int fromZ = cellOf(z - radius), toZ = cellOf(z + radius);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cz = fromZ; cz <= toZ; cz++) {
+                int slot = find(packCell(cx, cz));
+                if (slot < 0) {
+                    continue;
+                }
+                for (int e = heads[slot]; e != NULL_ENTRY; e = entryNext[e]) {
+                    int p = entryProxy[e];
+                    if (stamp[p] == stampValue) {
+                        continue;
+                    }
+                    stamp[p] = stampValue;
+                    candidatesTested++;
+                    // Distance from the point to the closest point of the box
+                    float dx = Math.max(0.0f, Math.max(minX[p] - x, x - maxX[p]));
+                    float dy = Math.max(0.0f, Math.max(minY[p] - y, y - maxY[p]));
+                    float dz = Math.max(0.0f, Math.max(minZ[p] - z, z - maxZ[p]));
+                    if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+                        continue;
+                    }
+                    if (!visitor.visit(p)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // === Accessors ===
+
+    public Object getUserData(int proxy) {
+        checkProxy(proxy);
+        return userData[proxy];
+    }
+
+    /**
+     * Copy a box's bounds
+     * @param out Receives minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void getBounds(int proxy, float[] out) {
+        checkProxy(proxy);
+        out[0] = minX[proxy];
+        out[1] = minY[proxy];
+        out[2] = minZ[proxy];
+        out[3] = maxX[proxy];
+        out[4] = maxY[proxy];
+        out[5] = maxZ[proxy];
+    }
+
+    public int size() {
+        return proxyCount;
+    }
+
+    /**
+     * Get the number of non-empty cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Get the number of boxes tested by queries since the last call, then reset it
+     */
+    public int takeCandidatesTested() {
+        int tested = candidatesTested;
+        candidatesTested = 0;
+        return tested;
+    }
+
+    // === Cell Lists ===
+
+    private void addToCells(int proxy) {
+        for (int cx = cellMinX[proxy]; cx <= cellMaxX[proxy]; cx++) {
+            for (int cz = cellMinZ[proxy]; cz <= cellMaxZ[proxy]; cz++) {
+                int slot = findOrAdd(packCell(cx, cz));
+                int entry = newEntry();
+                entryProxy[entry] = proxy;
+                entryNext[entry] = heads[slot];
+                heads[slot] = entry;
+            }
+        }
+    }
+
+    private void removeFromCells(int proxy) {
+        for (int cx = cellMinX[proxy]; cx <= cellMaxX[proxy]; cx++) {
+            for (int cz = cellMinZ[proxy]; cz <= cellMaxZ[proxy]; cz++) {
+                int slot = find(packCell(cx, cz));
+                int previous = NULL_ENTRY;
+                int e = heads[slot];
+                while (entryProxy[e] != proxy) {
+                    previous = e;
+                    e = entryNext[e];
+                }
+                if (previous == NULL_ENTRY) {
+                    heads[slot] = entryNext[e];
+                } else {
+                    entryNext[previous] = entryNext[e];
+                }
+                entryNext[e] = freeEntry;
+                freeEntry = e;
+                if (heads[slot] == NULL_ENTRY) {
+                    deleteSlot(slot);
+                }
+            }
+        }
+    }
+
+    private int newEntry() {
+        if (freeEntry != NULL_ENTRY) {
+            int entry = freeEntry;
+            freeEntry = entryNext[entry];
+            return entry;
+        }
+        if (entryLimit == entryProxy.length) {
+            entryProxy = Arrays.copyOf(entryProxy, entryLimit * 2);
+            entryNext = Arrays.copyOf(entryNext, entryLimit * 2);
+        }
+        return entryLimit++;
+    }
+
+    // === Cell Table ===
+
+    /**
+     * Pack cell coordinates into one key
+     */
+    static long packCell(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (heads.length - 1);
+    }
+
+    /**
+     * @return Slot of the cell, or -1 if it has no entries
+     */
+    private int find(long key) {
+        int mask = heads.length - 1;
+        for (int slot = home(key); heads[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int findOrAdd(long key) {
+        int mask = heads.length - 1;
+        int slot = home(key);
+        while (heads[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((cellCount + 1) * 2 > heads.length) {
+            growTable();
+            return findOrAdd(key);
+        }
+        keys[slot] = key;
+        heads[slot] = NULL_ENTRY;
+        cellCount++;
+        return slot;
+    }
+
+    /**
+     * Empty a slot and shift later entries of its probe run back into the gap
+     */
+    private void deleteSlot(int slot) {
+        int mask = heads.length - 1;
+        heads[slot] = EMPTY;
+        cellCount--;
+        int gap = slot;
+        for (int next = (slot + 1) & mask; heads[next] != EMPTY; next = (next + 1) & mask) {
+            int wanted = home(keys[next]);
+            // Move it unless its home lies cyclically in (gap, next]
+            boolean stays = gap <= next ? (wanted > gap && wanted <= next) : (wanted > gap || wanted <= next);
+            if (!stays) {
+                keys[gap] = keys[next];
+                heads[gap] = heads[next];
+                heads[next] = EMPTY;
+                gap = next;
+            }
+        }
+    }
+
+    private void growTable() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldHeads.length * 2];
+        Arrays.fill(heads, EMPTY);
+        int mask = heads.length - 1;
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] != EMPTY) {
+                int slot = home(oldKeys[i]);
+                while (heads[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    // === Helper Methods ===
+
+    private int nextStamp() {
+        if (++queryStamp == 0) {
+            // Wrapped: forget old stamps so none match by accident
+            Arrays.fill(stamp, 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    private static void checkBox(float x0, float y0, float z0, float x1, float y1, float z1) {
+        if (!(x0 <= x1 && y0 <= y1 && z0 <= z1)) {
+            throw new IllegalArgumentException("Invalid box: minimum exceeds maximum");
+        }
+    }
+
+    private void setBounds(int proxy, float x0, float y0, float z0, float x1, float y1, float z1) {
+        minX[proxy] = x0;
+        minY[proxy] = y0;
+        minZ[proxy] = z0;
+        maxX[proxy] = x1;
+        maxY[proxy] = y1;
+        maxZ[proxy] = z1;
+    }
+
+    private void checkProxy(int proxy) {
+        if (proxy < 0 || proxy >= proxyLimit || !alive[proxy]) {
+            throw new IllegalArgumentException("Invalid spatial hash proxy: " + proxy);
+        }
+    }
+
+    private void growProxies() {
+        int capacity = alive.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+        userData = Arrays.copyOf(userData, capacity);
+        cellMinX = Arrays.copyOf(cellMinX, capacity);
+        cellMinZ = Arrays.copyOf(cellMinZ, capacity);
+        cellMaxX = Arrays.copyOf(cellMaxX, capacity);
+        cellMaxZ = Arrays.copyOf(cellMaxZ, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        stamp = Arrays.copyOf(stamp, capacity);
+    }
+}
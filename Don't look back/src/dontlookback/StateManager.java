@@ -49,7 +49,10 @@ public class StateManager {
     
     // === Timing and Transitions ===
     
-    /** Time when current state was entered (for state duration tracking) */
+    /** Source of time for state durations */
+    private final GameClock clock;
+    
+    /** Clock time when current state was entered, in milliseconds (for state duration tracking) */
     private long stateEnterTime;
     
     /** Previous state (for transition validation) */
@@ -71,9 +74,18 @@ public class StateManager {
     
     
     /**
-     * Initialize state manager with LOADING state
+     * Initialize state manager with LOADING state, timed in real time
      */
     public StateManager() {
+        this(new GameClock());
+    }
+    
+    /**
+     * Initialize state manager with LOADING state
+     * @param clock Clock that state durations are measured on
+     */
+    public StateManager(GameClock clock) {
+        this.clock = clock;
         this.activeStates = ConcurrentHashMap.newKeySet();
         this.stateHistory = new ArrayDeque<>();
         this.listeners = new ArrayList<>();
@@ -81,7 +93,7 @@ public class StateManager {
         // Start in loading state
         this.primaryState = GameState.LOADING;
         this.previousState = null;
-        this.stateEnterTime = System.currentTimeMillis();
+        this.stateEnterTime = clock.nowMillis();
         
         addToHistory(GameState.LOADING);
         notifyStateChange(null, GameState.LOADING);
@@ -136,7 +148,7 @@ public class StateManager {
         GameState oldState = primaryState;
         previousState = primaryState;
         primaryState = newState;
-        stateEnterTime = System.currentTimeMillis();
+        stateEnterTime = clock.nowMillis();
         
         // Update state collections
         addToHistory(newState);
@@ -161,7 +173,7 @@ public class StateManager {
         GameState oldState = primaryState;
         previousState = primaryState;
         primaryState = newState;
-        stateEnterTime = System.currentTimeMillis();
+        stateEnterTime = clock.nowMillis();
         
         addToHistory(newState);
         cleanupIncompatibleStates(newState);
@@ -349,7 +361,7 @@ public class StateManager {
      * @return Time in current state
      */
     public long getTimeInCurrentState() {
-        return System.currentTimeMillis() - stateEnterTime;
+        return clock.nowMillis() - stateEnterTime;
     }
     
     /**
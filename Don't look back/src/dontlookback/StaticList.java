@@ -1,13 +1,91 @@
 package dontlookback;
 
 /**
+ * Render list for objects that do not move.
+ *
+ * Instance data is gathered and uploaded once, then redrawn every frame with
+ * a single instanced draw until the list changes or is invalidated.
  *
  * @author Carl
  */
 public class StaticList extends RenderList {
 
+    /** Cached instance batch (created on first render with a live renderer) */
+    private InstanceBatch staticBatch;
+
+    /** Whether the cached batch must be rebuilt */
+    private boolean batchDirty = true;
+
+    /** Entries that cannot be instanced and are rendered individually */
+    private Objects[] directEntries = new Objects[0];
+    private int directCount = 0;
+
     public StaticList() {
         super();
     }
-    
+
+    @Override
+    public void add(Objects entry) {
+        super.add(entry);
+        batchDirty = true;
+    }
+
+    @Override
+    public void remove(Objects entry) {
+        super.remove(entry);
+        batchDirty = true;
+    }
+
+    /**
+     * Force the instance data to be rebuilt, e.g. after recoloring entries
+     */
+    public void invalidate() {
+        batchDirty = true;
+    }
+
+    @Override
+    public void render() {
+        MeshRenderer renderer = MeshRenderer.getActive();
+        if (renderer == null) {
+            super.render();
+            return;
+        }
+        if (staticBatch == null) {
+            staticBatch = renderer.createCubeBatch(Math.max(1, size()));
+        }
+        if (batchDirty) {
+            rebuildBatch();
+        }
+        for (int i = 0; i < directCount; i++) {
+            directEntries[i].render();
+        }
+        renderer.drawInstanced(staticBatch);
+    }
+
+    /**
+     * Gather instanceable entries into the batch and remember the rest
+     */
+    private void rebuildBatch() {
+        staticBatch.clear();
+        directEntries = new Objects[renderList.length];
+        directCount = 0;
+        for (Objects o : renderList) {
+            if (!o.appendInstance(staticBatch)) {
+                directEntries[directCount++] = o;
+            }
+        }
+        batchDirty = false;
+    }
+
+    /**
+     * Release the cached instance buffer
+     */
+    public void delete() {
+        if (staticBatch != null) {
+            staticBatch.delete();
+            staticBatch = null;
+        }
+        batchDirty = true;
+    }
+
 }
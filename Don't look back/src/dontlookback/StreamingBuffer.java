@@ -0,0 +1,330 @@
+package dontlookback;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.*;
+
+/**
+ * Streaming Buffer System for Don't Look Back
+ *
+ * Per-frame allocator for dynamic GPU data (instance attributes of moving
+ * monsters, flickering light parameters). The buffer is split into a ring of
+ * three regions: the CPU writes into one while the GPU may still be reading
+ * the other two. A fence per region guarantees a region is never overwritten
+ * before the GPU has finished with it.
+ *
+ * Features:
+ * - Persistent, coherent mapping via ARB_buffer_storage (GL 4.4) when present
+ * - Orphaning fallback (glBufferData + glBufferSubData) on plain GL 3.3
+ * - Aligned sub-allocations so several systems can share one frame region
+ * - Stall and overflow counters for diagnosing CPU/GPU synchronization
+ *
+ * Usage per frame: {@link #beginFrame()}, then for each upload
+ * {@link #allocate}, write into {@link #getWriteBuffer()} at the returned
+ * offset, {@link #commit}, draw; finally {@link #endFrame()}.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class StreamingBuffer {
+
+    // === Configuration ===
+
+    /** Number of regions in the ring (triple buffering) */
+    public static final int REGION_COUNT = 3;
+
+    /** How long a single fence wait may block before it is retried (1 ms) */
+    private static final long FENCE_WAIT_TIMEOUT_NANOS = 1_000_000L;
+
+    /** Buffer target used for creation and fallback uploads */
+    private final int target;
+
+    /** Size of one region in bytes */
+    private final int regionBytes;
+
+    /** Whether persistent mapping is in use */
+    private final boolean persistent;
+
+    // === GPU State ===
+
+    /** Buffer object */
+    private int buffer;
+
+    /** Persistent mapping (persistent mode) or CPU staging copy (fallback) */
+    private ByteBuffer writeBuffer;
+
+    /** One fence per region, 0 when the region is free */
+    private final long[] fences = new long[REGION_COUNT];
+
+    // === Frame State ===
+
+    /** Region currently being written */
+    private int currentRegion = REGION_COUNT - 1;
+
+    /** Next free byte inside the current region */
+    private int cursor = 0;
+
+    /** Whether beginFrame has been called without a matching endFrame */
+    private boolean frameOpen = false;
+
+    // === Statistics ===
+
+    /** Frames in which the CPU had to wait for the GPU */
+    private long stallCount = 0;
+
+    /** Total time spent waiting on fences */
+    private long stallNanos = 0;
+
+    /** Allocations rejected because the region was full */
+    private long overflowCount = 0;
+
+    /** Frames streamed so far */
+    private long frameCount = 0;
+
+    /** Bytes allocated in the current frame */
+    private int bytesThisFrame = 0;
+
+    /**
+     * Create a streaming buffer
+     * @param target Buffer target, e.g. GL_ARRAY_BUFFER or GL_UNIFORM_BUFFER
+     * @param regionBytes Bytes available to each frame
+     */
+    public StreamingBuffer(int target, int regionBytes) {
+        if (regionBytes <= 0) {
+            throw new IllegalArgumentException("Region size must be positive: " + regionBytes);
+        }
+        this.target = target;
+        this.regionBytes = regionBytes;
+
+        GLCapabilities caps = GL.getCapabilities();
+        this.persistent = caps != null && (caps.OpenGL44 || caps.GL_ARB_buffer_storage);
+
+        buffer = glGenBuffers();
+        glBindBuffer(target, buffer);
+        if (persistent) {
+            int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            glBufferStorage(target, (long) regionBytes * REGION_COUNT, flags);
+            writeBuffer = glMapBufferRange(target, 0L, (long) regionBytes * REGION_COUNT, flags);
+        } else {
+            // Fallback: one region on the GPU, orphaned each frame, written through a CPU copy
+            glBufferData(target, regionBytes, GL_STREAM_DRAW);
+            writeBuffer = BufferUtils.createByteBuffer(regionBytes);
+        }
+        glBindBuffer(target, 0);
+
+        System.out.println("Streaming buffer ready: " + (regionBytes / 1024) + " KB x " +
+                           (persistent ? REGION_COUNT + " persistent regions" : "1 orphaned region"));
+    }
+
+    // === Frame Lifecycle ===
+
+    /**
+     * Advance to the next region, waiting for the GPU if it is still in use
+     */
+    public void beginFrame() {
+        currentRegion = nextRegion(currentRegion);
+        cursor = 0;
+        bytesThisFrame = 0;
+        frameOpen = true;
+
+        if (persistent) {
+            waitForRegion(currentRegion);
+        } else {
+            // Orphan: the driver hands out fresh storage while old draws finish
+            glBindBuffer(target, buffer);
+            glBufferData(target, regionBytes, GL_STREAM_DRAW);
+            glBindBuffer(target, 0);
+        }
+    }
+
+    /**
+     * Fence the region written this frame so it is not reused too early
+     */
+    public void endFrame() {
+        if (!frameOpen) {
+            return;
+        }
+        if (persistent) {
+            fences[currentRegion] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+        frameOpen = false;
+        frameCount++;
+    }
+
+    // === Allocation ===
+
+    /**
+     * Reserve space in the current frame's region
+     * @param bytes Number of bytes needed
+     * @param alignment Required offset alignment (e.g. 16, or the UBO offset alignment)
+     * @return Absolute byte offset into the buffer, or -1 if the region is full
+     */
+    public int allocate(int bytes, int alignment) {
+        if (!frameOpen) {
+            throw new IllegalStateException("allocate() called outside beginFrame()/endFrame()");
+        }
+        int aligned = placeAllocation(cursor, bytes, alignment, regionBytes);
+        if (aligned < 0) {
+            overflowCount++;
+            return -1;
+        }
+        cursor = aligned + bytes;
+        bytesThisFrame += bytes;
+        return regionBase(currentRegion, regionBytes, persistent) + aligned;
+    }
+
+    /**
+     * Make written bytes visible to the GPU. A no-op for coherent persistent
+     * mappings; uploads the range from the CPU copy in fallback mode.
+     * @param offset Offset returned by {@link #allocate}
+     * @param bytes Number of bytes written
+     */
+    public void commit(int offset, int bytes) {
+        if (persistent || bytes <= 0) {
+            return;
+        }
+        ByteBuffer range = writeBuffer.duplicate();
+        range.limit(offset + bytes).position(offset);
+        glBindBuffer(target, buffer);
+        glBufferSubData(target, offset, range);
+        glBindBuffer(target, 0);
+    }
+
+    /**
+     * Release the buffer, its mapping and any outstanding fences
+     */
+    public void delete() {
+        for (int i = 0; i < REGION_COUNT; i++) {
+            if (fences[i] != 0) {
+                glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        if (buffer != 0) {
+            if (persistent) {
+                glBindBuffer(target, buffer);
+                glUnmapBuffer(target);
+                glBindBuffer(target, 0);
+            }
+            glDeleteBuffers(buffer);
+            buffer = 0;
+        }
+        writeBuffer = null;
+    }
+
+    // === Accessors ===
+
+    /**
+     * Buffer to write into, addressed with absolute offsets from {@link #allocate}
+     */
+    public ByteBuffer getWriteBuffer() {
+        return writeBuffer;
+    }
+
+    public int getBufferId() {
+        return buffer;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public int getRegionBytes() {
+        return regionBytes;
+    }
+
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    public double getStallMillis() {
+        return stallNanos / 1_000_000.0;
+    }
+
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    public int getBytesThisFrame() {
+        return bytesThisFrame;
+    }
+
+    /**
+     * Get a one-line statistics summary for debug output
+     */
+    public String getStatusReport() {
+        return String.format("Streaming: %s, frames=%d, stalls=%d (%.2f ms), overflows=%d, last frame=%d bytes",
+                             persistent ? "persistent" : "orphaning", frameCount, stallCount,
+                             getStallMillis(), overflowCount, bytesThisFrame);
+    }
+
+    // === Helper Methods ===
+
+    /**
+     * Place an allocation in a region
+     * @param cursor Next free byte in the region
+     * @param bytes Number of bytes needed
+     * @param alignment Required offset alignment
+     * @param regionBytes Size of the region
+     * @return Aligned offset inside the region, or -1 if it does not fit before the region's end
+     */
+    static int placeAllocation(int cursor, int bytes, int alignment, int regionBytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Allocation size must not be negative: " + bytes);
+        }
+        int aligned = align(cursor, alignment);
+        return (long) aligned + bytes > regionBytes ? -1 : aligned;
+    }
+
+    /**
+     * Get the region after a region in the ring
+     */
+    static int nextRegion(int region) {
+        return (region + 1) % REGION_COUNT;
+    }
+
+    /**
+     * Get the absolute offset of a region: regions follow one another when
+     * mapped persistently, and share offset 0 in the orphaning fallback
+     */
+    static int regionBase(int region, int regionBytes, boolean persistent) {
+        return persistent ? region * regionBytes : 0;
+    }
+
+    /**
+     * Round an offset up to a multiple of the alignment
+     */
+    static int align(int offset, int alignment) {
+        if (alignment <= 1) {
+            return offset;
+        }
+        int remainder = offset % alignment;
+        return remainder == 0 ? offset : offset + alignment - remainder;
+    }
+
+    private void waitForRegion(int region) {
+        long fence = fences[region];
+        if (fence == 0) {
+            return;
+        }
+        int status = glClientWaitSync(fence, 0, 0L);
+        if (status == GL_TIMEOUT_EXPIRED) {
+            // The GPU is still reading this region: record the stall and block
+            stallCount++;
+            long start = System.nanoTime();
+            do {
+                status = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_WAIT_TIMEOUT_NANOS);
+            } while (status == GL_TIMEOUT_EXPIRED);
+            stallNanos += System.nanoTime() - start;
+        }
+        glDeleteSync(fence);
+        fences[region] = 0;
+    }
+}
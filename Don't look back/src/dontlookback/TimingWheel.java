@@ -0,0 +1,411 @@
+package dontlookback;
+
+/**
+ * Hierarchical Timing Wheel for Don't Look Back
+ *
+ * Deadlines for the "changes after 5 seconds unobserved" mechanic and other
+ * timed events. Instead of every room and monster checking its elapsed time
+ * each frame, each one schedules, reschedules or cancels a {@link Timer}
+ * when its state changes; advancing the wheel only touches the timers that
+ * are due.
+ *
+ * Features:
+ * - Four levels of 64 slots: level 0 holds deadlines within 64 ticks,
+ *   each level above covers 64 times the range of the one below
+ * - Deadlines beyond the top level wait in an overflow list
+ * - O(1) schedule, reschedule and cancel (intrusive doubly linked slots)
+ * - Timers are reusable handles: rescheduling allocates nothing
+ * - Timers rescheduled from a firing action are due a tick later at the
+ *   earliest, so an action that keeps rescheduling itself cannot stall
+ *   an advance
+ * - Slot occupancy bitmaps: advancing jumps straight to the next occupied
+ *   slot or cascade, so a long gap costs the same as a short one
+ *
+ * Time is game time in seconds, quantized up to whole ticks, so a timer
+ * never fires early. Not thread-safe: schedule and advance on the simulation
+ * thread. Usually reached through {@link GameClock#getTimers()}, which
+ * advances it whenever the clock moves.
+ *
+ * @author DLB Team
+ * @version 1.0
+ */
+public class TimingWheel {
+
+    /** Default tick: one 60 Hz simulation step */
+    public static final double DEFAULT_TICK = 1.0 / 60.0;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /** Where a timer lives when it is not in a wheel slot */
+    private static final int NOT_PENDING = -1;
+    private static final int EXPIRED = -2;
+    private static final int OVERFLOW = -3;
+
+    /** Slack so that exact multiples of the tick are not pushed a tick late */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * A reusable deadline that runs an action when it expires
+     */
+    public static final class Timer {
+        private final Runnable action;
+        private final TimingWheel wheel;
+        private long deadline;
+        private int level = NOT_PENDING;
+        private int slot;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(TimingWheel wheel, Runnable action) {
+            this.wheel = wheel;
+            this.action = action;
+        }
+
+        /**
+         * Schedule (or reschedule) this timer
+         * @param delay Game seconds from the time the wheel was last advanced to
+         */
+        public void schedule(double delay) {
+            wheel.schedule(this, delay);
+        }
+
+        /**
+         * Stop this timer if it is pending
+         * @return true if it was pending
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        public boolean isPending() {
+            return level != NOT_PENDING;
+        }
+
+        /**
+         * Get the game time this timer fires at (seconds), or NaN if not pending
+         */
+        public double getDeadline() {
+            return isPending() ? deadline * wheel.tickSeconds : Double.NaN;
+        }
+    }
+
+    private final double tickSeconds;
+
+    /** Slot list heads per level, and bitmaps of non-empty slots */
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+
+    /** Deadlines too far out for the top level */
+    private Timer overflow;
+
+    /** Deadlines at or before the current tick, fired on the next advance */
+    private Timer expired;
+
+    private long currentTick = 0;
+
+    /** Time of the last advance (seconds) */
+    private double time = 0.0;
+
+    private int pendingCount = 0;
+    private long firedCount = 0;
+
+    /** Whether timer actions are running (inside an advance) */
+    private boolean firing = false;
+
+    /** Ticks advancing stopped at (statistics) */
+    private int ticksVisited = 0;
+
+    /**
+     * Create a wheel with the default tick
+     */
+    public TimingWheel() {
+        this(DEFAULT_TICK);
+    }
+
+    /**
+     * Create a wheel
+     * @param tickSeconds Resolution of deadlines in game seconds
+     */
+    public TimingWheel(double tickSeconds) {
+        if (!(tickSeconds > 0.0)) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickSeconds);
+        }
+        this.tickSeconds = tickSeconds;
+    }
+
+    // === Scheduling ===
+
+    /**
+     * Create an idle timer for this wheel
+     * @param action Run when the timer fires
+     */
+    public Timer newTimer(Runnable action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Timer action cannot be null");
+        }
+        return new Timer(this, action);
+    }
+
+    /**
+     * Schedule (or reschedule) a timer
+     * @param timer Timer created by this wheel
+     * @param delay Game seconds from the time the wheel was last advanced to;
+     *              zero or less fires on the next advance (on the next
+     *              tick when scheduled from a timer's action)
+     */
+    public void schedule(Timer timer, double delay) {
+        scheduleAt(timer, getTime() + Math.max(0.0, delay));
+    }
+
+    /**
+     * Schedule (or reschedule) a timer for an absolute game time
+     * @param timer Timer created by this wheel
+     * @param time Game time in seconds
+     */
+    public void scheduleAt(Timer timer, double time) {
+        if (timer.wheel != this) {
+            throw new IllegalArgumentException("Timer belongs to another wheel");
+        }
+        if (timer.isPending()) {
+            unlink(timer);
+        } else {
+            pendingCount++;
+        }
+        long deadline = (long) Math.ceil(time / tickSeconds - EPSILON);
+        if (firing && deadline <= currentTick) {
+            deadline = currentTick + 1; // Not again in the pass that is running it
+        }
+        timer.deadline = deadline;
+        insert(timer);
+    }
+
+    /**
+     * Stop a timer if it is pending
+     * @return true if it was pending
+     */
+    public boolean cancel(Timer timer) {
+        if (timer.wheel != this || !timer.isPending()) {
+            return false;
+        }
+        unlink(timer);
+        pendingCount--;
+        return true;
+    }
+
+    // === Advancing ===
+
+    /**
+     * Move the wheel forward and run every timer that is due
+     * @param time Current game time in seconds (earlier times are ignored)
+     * @return Number of timers fired
+     */
+    public int advanceTo(double time) {
+        if (time > this.time) {
+            this.time = time;
+        }
+        long target = (long) Math.floor(this.time / tickSeconds + EPSILON);
+        long firedBefore = firedCount;
+
+        firing = true;
+        try {
+            fireExpired();
+            while (currentTick < target) {
+                // Nothing fires or cascades on the ticks in between
+                long next = nextEventTick();
+                if (next > target) {
+                    currentTick = target;
+                    break;
+                }
+                currentTick = next;
+                ticksVisited++;
+                cascade();
+                fireSlot(0, (int) (currentTick & SLOT_MASK));
+                fireExpired();
+            }
+        } finally {
+            firing = false;
+        }
+        return (int) (firedCount - firedBefore);
+    }
+
+    /**
+     * Find the next tick at which a level-0 slot fires or an occupied slot
+     * (or the overflow list) cascades; Long.MAX_VALUE if none. Pending slots
+     * always lie after the current tick's digit on their level.
+     */
+    private long nextEventTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            int digit = (int) ((currentTick >>> shift) & SLOT_MASK);
+            long ahead = digit == SLOT_MASK ? 0L : occupied[level] & (-1L << (digit + 1));
+            if (ahead != 0) {
+                long blockStart = (currentTick >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                next = Math.min(next, blockStart | ((long) Long.numberOfTrailingZeros(ahead) << shift));
+            }
+        }
+        if (overflow != null) {
+            int shift = SLOT_BITS * LEVELS;
+            next = Math.min(next, ((currentTick >>> shift) + 1) << shift);
+        }
+        return next;
+    }
+
+    /**
+     * Move due timers from the higher levels down as their range comes up
+     */
+    private void cascade() {
+        if ((currentTick & SLOT_MASK) != 0) {
+            return;
+        }
+        // Highest boundary crossed first: its timers may land in a lower slot due now
+        int top = 1;
+        while (top < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        if (top == LEVELS) {
+            Timer t = overflow;
+            overflow = null;
+            reinsertList(t);
+            top = LEVELS - 1;
+        }
+        for (int level = top; level >= 1; level--) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer t = slots[level][slot];
+            slots[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+            reinsertList(t);
+        }
+    }
+
+    private void reinsertList(Timer t) {
+        while (t != null) {
+            Timer next = t.next;
+            t.prev = null;
+            t.next = null;
+            insert(t);
+            t = next;
+        }
+    }
+
+    private void fireSlot(int level, int slot) {
+        if ((occupied[level] & (1L << slot)) == 0) {
+            return;
+        }
+        // Pop one at a time so actions may cancel or reschedule other timers
+        Timer t;
+        while ((t = slots[level][slot]) != null) {
+            unlink(t);
+            pendingCount--;
+            firedCount++;
+            t.action.run();
+        }
+    }
+
+    private void fireExpired() {
+        Timer t;
+        while ((t = expired) != null) {
+            unlink(t);
+            pendingCount--;
+            firedCount++;
+            t.action.run();
+        }
+    }
+
+    // === Slot Lists ===
+
+    private void insert(Timer t) {
+        long deadline = t.deadline;
+        if (deadline <= currentTick) {
+            t.level = EXPIRED;
+            t.next = expired;
+            if (expired != null) {
+                expired.prev = t;
+            }
+            expired = t;
+            return;
+        }
+        // Level from the highest bit where the deadline and the current tick differ
+        int level = (63 - Long.numberOfLeadingZeros(deadline ^ currentTick)) / SLOT_BITS;
+        if (level >= LEVELS) {
+            t.level = OVERFLOW;
+            t.next = overflow;
+            if (overflow != null) {
+                overflow.prev = t;
+            }
+            overflow = t;
+            return;
+        }
+        int slot = (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timer head = slots[level][slot];
+        t.level = level;
+        t.slot = slot;
+        t.next = head;
+        if (head != null) {
+            head.prev = t;
+        }
+        slots[level][slot] = t;
+        occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Timer t) {
+        if (t.prev != null) {
+            t.prev.next = t.next;
+        } else if (t.level == EXPIRED) {
+            expired = t.next;
+        } else if (t.level == OVERFLOW) {
+            overflow = t.next;
+        } else {
+            slots[t.level][t.slot] = t.next;
+            if (t.next == null) {
+                occupied[t.level] &= ~(1L << t.slot);
+            }
+        }
+        if (t.next != null) {
+            t.next.prev = t.prev;
+        }
+        t.prev = null;
+        t.next = null;
+        t.level = NOT_PENDING;
+    }
+
+    // === Accessors ===
+
+    /**
+     * Get the time the wheel was last advanced to (seconds)
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public double getTickSeconds() {
+        return tickSeconds;
+    }
+
+    /**
+     * Get the number of timers waiting to fire
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get and reset the number of ticks advancing stopped at (profiling:
+     * should stay near the number of timers fired, not the time elapsed)
+     */
+    public int takeTicksVisited() {
+        int count = ticksVisited;
+        ticksVisited = 0;
+        return count;
+    }
+
+    /**
+     * Get the number of timers fired since the wheel was created
+     */
+    public long getFiredCount() {
+        return firedCount;
+    }
+}
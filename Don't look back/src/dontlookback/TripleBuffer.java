@@ -0,0 +1,115 @@
+package dontlookback;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Triple Buffer for Don't Look Back
+ *
+ * Lock-free handoff of per-frame data from one producer thread (the
+ * simulation) to one consumer thread (the renderer). Three pre-allocated
+ * slots rotate between the producer's back slot, a shared middle slot and
+ * the consumer's front slot, so neither side ever waits for the other and
+ * the consumer always sees the most recently published frame.
+ *
+ * Features:
+ * - One atomic exchange per publish and per acquire, no locks, no allocation
+ * - Slots are reused: a published slot is never written again until the
+ *   consumer has moved past it, so it is effectively immutable while read
+ * - Frames the consumer never picked up are simply overwritten
+ *
+ * @param <T> Slot type
+ * @author DLB Team
+ * @version 1.0
+ */
+public class TripleBuffer<T> {
+
+    /** Set in the shared word when the middle slot holds an unread frame */
+    private static final int FRESH = 4;
+
+    private static final int INDEX_MASK = 3;
+
+    private final Object[] slots = new Object[3];
+
+    /** Middle slot index, plus FRESH */
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    /** Producer-owned slot index */
+    private int back = 0;
+
+    /** Consumer-owned slot index */
+    private int front = 2;
+
+    /** Frames published and frames actually picked up */
+    private volatile long published = 0;
+    private long consumed = 0;
+
+    /**
+     * Create a triple buffer
+     * @param factory Creates each of the three slots
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    // === Producer Side ===
+
+    /**
+     * Get the slot to fill for the next frame (producer thread only)
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteSlot() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Publish the filled write slot and take over the old middle slot
+     */
+    public void publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        published++;
+    }
+
+    // === Consumer Side ===
+
+    /**
+     * Get the newest published frame (consumer thread only)
+     * @return Newest frame, the same one as last time if nothing new was published,
+     *         or null if nothing has been published yet
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            int previous = middle.getAndSet(front);
+            front = previous & INDEX_MASK;
+            consumed++;
+        }
+        return consumed == 0 ? null : (T) slots[front];
+    }
+
+    /**
+     * Check whether a frame newer than the last acquired one is waiting
+     */
+    public boolean hasNewFrame() {
+        return (middle.get() & FRESH) != 0;
+    }
+
+    // === Statistics ===
+
+    /**
+     * Get the number of frames published so far
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+
+    /**
+     * Get the number of frames the consumer picked up (consumer thread only)
+     */
+    public long getConsumedCount() {
+        return consumed;
+    }
+}